@@ -3,6 +3,7 @@ package com.fieldz.config;
 import com.fieldz.security.jwt.JwtAuthenticationFilter;
 import com.fieldz.security.oauth.CustomOAuth2UserService;
 import com.fieldz.security.oauth.OAuth2SuccessHandler;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -99,6 +100,9 @@ public class SecurityConfig {
                         // Preflight
                         .requestMatchers(HttpMethod.OPTIONS, "/api/**").permitAll()
 
+                        // Suite asynchrone d'une requête déjà autorisée (flux SSE)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Auth publique
                         .requestMatchers(
                                 "/api/auth/login",
@@ -124,6 +128,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/club/search/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/club/*").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/creneaux/club/*").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/creneaux/recherche").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/creneaux/libres").permitAll()
 
                         // Roles proteges
                         .requestMatchers("/api/joueur/**").hasRole("JOUEUR")
@@ -32,9 +32,13 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllClubs());
     }
 
+    // Paginé par clé : la page suivante se demande avec apresId = id du dernier résultat
+    // GET /api/admin/clubs/search?query=pad&apresId=42&size=50
     @GetMapping("/clubs/search")
-    public ResponseEntity<List<ClubAdminDto>> searchClubs(@RequestParam String query) {
-        return ResponseEntity.ok(adminService.searchClubs(query));
+    public ResponseEntity<List<ClubAdminDto>> searchClubs(@RequestParam String query,
+                                                          @RequestParam(required = false) Long apresId,
+                                                          @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(adminService.searchClubs(query, apresId, size));
     }
 
     @GetMapping("/clubs/{id}")
@@ -53,9 +57,12 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllJoueurs());
     }
 
+    // GET /api/admin/joueurs/search?query=dup&apresId=42&size=50
     @GetMapping("/joueurs/search")
-    public ResponseEntity<List<JoueurAdminDto>> searchJoueurs(@RequestParam String query) {
-        return ResponseEntity.ok(adminService.searchJoueurs(query));
+    public ResponseEntity<List<JoueurAdminDto>> searchJoueurs(@RequestParam String query,
+                                                              @RequestParam(required = false) Long apresId,
+                                                              @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(adminService.searchJoueurs(query, apresId, size));
     }
 
     @GetMapping("/joueurs/{id}")
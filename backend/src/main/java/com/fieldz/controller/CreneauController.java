@@ -2,15 +2,23 @@ package com.fieldz.controller;
 
 import com.fieldz.dto.CreneauDto;
 import com.fieldz.dto.CreneauRecurrentDto;
+import com.fieldz.dto.FiltreCreneaux;
+import com.fieldz.dto.ImportCreneauxResultat;
+import com.fieldz.dto.PageCurseur;
+import com.fieldz.dto.RegleCreneauDto;
 import com.fieldz.dto.UpdateCreneauRequest;
 import com.fieldz.mapper.CreneauMapper;
 import com.fieldz.model.Creneau;
 import com.fieldz.service.CreneauService;
+import com.fieldz.service.RegleCreneauService;
+import com.fieldz.service.disponibilite.RechercheCreneauxService;
+import com.fieldz.service.importation.CreneauImportService;
 import com.fieldz.exception.CreneauHasActiveReservationsException;
 
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -20,8 +28,16 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +47,9 @@ import java.util.Map;
 public class CreneauController {
 
     private final CreneauService creneauService;
+    private final CreneauImportService creneauImportService;
+    private final RegleCreneauService regleCreneauService;
+    private final RechercheCreneauxService rechercheCreneauxService;
 
     // LISTE de TOUS les créneaux du club (GET) - WITH PAGINATION
     // GET /api/creneaux?page=0&size=20
@@ -70,7 +89,41 @@ public class CreneauController {
     }
 
 
+    // Recherche publique paginée par clé :
+    // GET /api/creneaux/recherche?ville=Paris&sport=PADEL&depuis=2026-10-20&jusqua=2026-10-26&heureMin=18:00&prixMax=40&size=20
+    // puis &apres=<curseurSuivant> pour la page suivante
+    @GetMapping("/recherche")
+    public ResponseEntity<PageCurseur<CreneauDto>> rechercherCreneaux(
+            @RequestParam(required = false) String ville,
+            @RequestParam(required = false) String sport,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate depuis,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate jusqua,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime heureMin,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime heureMax,
+            @RequestParam(required = false) Double prixMin,
+            @RequestParam(required = false) Double prixMax,
+            @RequestParam(required = false) String apres,
+            @RequestParam(defaultValue = "20") int size) {
+        FiltreCreneaux filtre = new FiltreCreneaux(ville, sport, depuis, jusqua, heureMin, heureMax,
+                prixMin, prixMax, apres, size);
+        return ResponseEntity.ok(rechercheCreneauxService.rechercher(filtre));
+    }
+
+    // Créneaux libres d'une ville, tous clubs confondus, pour un jour (index mémoire) :
+    // GET /api/creneaux/libres?ville=Lyon&sport=PADEL&date=2026-10-20&heureMin=18:00&heureMax=22:00
+    @GetMapping("/libres")
+    public ResponseEntity<List<CreneauDto>> getCreneauxLibresDansLaVille(
+            @RequestParam String ville,
+            @RequestParam(required = false) String sport,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime heureMin,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime heureMax) {
+        return ResponseEntity.ok(rechercheCreneauxService.libresDansLaVille(ville, sport, date, heureMin, heureMax));
+    }
+
     // GET /api/creneaux/disponibles
+    // Liste complète non paginée, conservée pour les écrans existants : préférer /recherche
+    @Deprecated
     @GetMapping("/disponibles")
     @PreAuthorize("hasRole('JOUEUR')")
     public ResponseEntity<List<CreneauDto>> getCreneauxDisponibles() {
@@ -99,6 +152,60 @@ public class CreneauController {
         return ResponseEntity.ok(response);
     }
 
+    // Import en masse d'un CSV : POST /api/creneaux/import (champ "file")
+    // Lignes : terrainId;dateDebut;dateFin;prix[;secondPrix]
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('CLUB')")
+    public ResponseEntity<ImportCreneauxResultat> importerCsv(@RequestParam("file") MultipartFile file,
+                                                              Authentication authentication) throws IOException {
+        try (Reader csv = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return ResponseEntity.ok(creneauImportService.importerCsv(csv, authentication));
+        }
+    }
+
+    // Import en masse d'une règle récurrente (créneaux libres) : POST /api/creneaux/import/recurrent
+    @PostMapping(value = "/import/recurrent", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('CLUB')")
+    public ResponseEntity<ImportCreneauxResultat> importerRegle(@RequestBody CreneauRecurrentDto dto,
+                                                                Authentication authentication) {
+        return ResponseEntity.ok(creneauImportService.importerRegle(dto, authentication));
+    }
+
+    // Règles de récurrence : créneaux virtuels, matérialisés seulement à la réservation ou à la modification
+    // POST /api/creneaux/regles (même corps que /recurrent, sans auto-réservation)
+    @PostMapping(value = "/regles", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('CLUB')")
+    public ResponseEntity<RegleCreneauDto> creerRegle(@RequestBody CreneauRecurrentDto dto, Authentication authentication) {
+        RegleCreneauDto regle = regleCreneauService.creer(dto, authentication);
+        return ResponseEntity.created(URI.create("/api/creneaux/regles/" + regle.id())).body(regle);
+    }
+
+    // GET /api/creneaux/regles
+    @GetMapping("/regles")
+    @PreAuthorize("hasRole('CLUB')")
+    public ResponseEntity<List<RegleCreneauDto>> listerRegles(Authentication authentication) {
+        return ResponseEntity.ok(regleCreneauService.lister(authentication));
+    }
+
+    // DELETE /api/creneaux/regles/{id} (les créneaux déjà matérialisés sont conservés)
+    @DeleteMapping("/regles/{id}")
+    @PreAuthorize("hasRole('CLUB')")
+    public ResponseEntity<Void> supprimerRegle(@PathVariable Long id, Authentication authentication) {
+        regleCreneauService.supprimer(id, authentication);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Matérialise une occurrence pour la modifier / l'annuler ensuite via /api/creneaux/{id}
+    // POST /api/creneaux/regles/{id}/occurrences?dateDebut=2026-11-02T18:00
+    @PostMapping("/regles/{id}/occurrences")
+    @PreAuthorize("hasRole('CLUB')")
+    public ResponseEntity<CreneauDto> materialiserOccurrence(@PathVariable Long id,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateDebut,
+                                                            Authentication authentication) {
+        Creneau creneau = regleCreneauService.materialiserPourClub(id, dateDebut, authentication);
+        return ResponseEntity.ok(CreneauMapper.toDto(creneau));
+    }
+
     // DELETE /api/creneaux/{id}?force=false
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('CLUB')")
@@ -1,12 +1,16 @@
 package com.fieldz.controller;
 
 import com.fieldz.dto.NotificationDto;
+import com.fieldz.dto.PageCurseur;
 import com.fieldz.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -20,6 +24,27 @@ public class NotificationController {
         return service.getMyNotifications(auth);
     }
 
+    // Plus récentes d'abord ; page suivante : ?apres=<suivant>
+    @GetMapping("/mine/page")
+    public PageCurseur<NotificationDto> pageMesNotifications(
+            @RequestParam(required = false) String apres,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication auth) {
+        return service.pageMesNotifications(apres, size, auth);
+    }
+
+    @GetMapping("/non-lues")
+    public Map<String, Long> nombreNonLues(Authentication auth) {
+        return Map.of("nonLues", service.nombreNonLues(auth));
+    }
+
+    // Événements "notification" et "non-lues" ; à la reconnexion, Last-Event-ID renvoie les manquées
+    @GetMapping(value = "/flux", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter flux(@RequestHeader(value = "Last-Event-ID", required = false) String dernierEvenement,
+                           Authentication auth) {
+        return service.ouvrirFlux(dernierEvenement, auth);
+    }
+
     @PutMapping("/{id}/read")
     public void marquerCommeLue(@PathVariable Long id, Authentication auth) {
         service.marquerCommeLue(id, auth);
@@ -2,8 +2,11 @@ package com.fieldz.controller;
 
 import com.fieldz.dto.ReservationDto;
 import com.fieldz.dto.MotifAnnulationRequest;
+import com.fieldz.dto.FiltreReservations;
+import com.fieldz.dto.PageCurseur;
 
 import com.fieldz.model.Reservation;
+import com.fieldz.model.Statut;
 import com.fieldz.service.ReservationService;
 import com.fieldz.mapper.ReservationMapper;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +17,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -30,22 +34,55 @@ public class ReservationController {
         return ResponseEntity.ok(ReservationMapper.toDto(reservation));
     }
 
+    // Créneau virtuel d'une règle de récurrence : POST /api/reservations/regle/{regleId}?dateDebut=2026-11-02T18:00
+    @PostMapping("/regle/{regleId}")
+    @PreAuthorize("hasRole('JOUEUR')")
+    public ResponseEntity<ReservationDto> reserverOccurrence(@PathVariable Long regleId,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateDebut,
+                                                            Authentication authentication) {
+        Reservation reservation = reservationService.reserverOccurrence(regleId, dateDebut, authentication);
+        return ResponseEntity.ok(ReservationMapper.toDto(reservation));
+    }
+
     @GetMapping("/reservations")
     @PreAuthorize("hasRole('CLUB')")
     public ResponseEntity<List<ReservationDto>> getReservationsDuClub(Authentication authentication) {
-        List<Reservation> reservations = reservationService.getReservationsDuClub(authentication);
-        List<ReservationDto> dtos = reservations.stream().map(ReservationMapper::toDto).toList();
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(reservationService.getReservationsDuClub(authentication));
     }
 
     @GetMapping("/mes")
     @PreAuthorize("hasRole('JOUEUR')")
     public ResponseEntity<List<ReservationDto>> mesReservations(Authentication authentication) {
-        List<Reservation> reservations = reservationService.mesReservations(authentication);
-        List<ReservationDto> dtos = reservations.stream()
-                .map(ReservationMapper::toDto)
-                .toList();
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(reservationService.mesReservations(authentication));
+    }
+
+    // Paginé par clé : GET /api/reservations/club/page?depuis=2026-10-01&jusqua=2026-10-31&statut=RESERVE&size=20
+    // puis &apres=<curseurSuivant> pour la page suivante
+    @GetMapping("/club/page")
+    @PreAuthorize("hasRole('CLUB')")
+    public ResponseEntity<PageCurseur<ReservationDto>> pageReservationsDuClub(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate depuis,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate jusqua,
+            @RequestParam(name = "statut", required = false) List<Statut> statuts,
+            @RequestParam(required = false) String apres,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        FiltreReservations filtre = new FiltreReservations(depuis, jusqua, statuts, apres, size);
+        return ResponseEntity.ok(reservationService.pageReservationsDuClub(filtre, authentication));
+    }
+
+    // GET /api/reservations/mes/page?statut=RESERVE&statut=CONFIRMEE&size=20
+    @GetMapping("/mes/page")
+    @PreAuthorize("hasRole('JOUEUR')")
+    public ResponseEntity<PageCurseur<ReservationDto>> pageMesReservations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate depuis,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate jusqua,
+            @RequestParam(name = "statut", required = false) List<Statut> statuts,
+            @RequestParam(required = false) String apres,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        FiltreReservations filtre = new FiltreReservations(depuis, jusqua, statuts, apres, size);
+        return ResponseEntity.ok(reservationService.pageMesReservations(filtre, authentication));
     }
 
     @PutMapping("/{reservationId}/annuler")
@@ -69,17 +106,14 @@ public class ReservationController {
     public ResponseEntity<List<ReservationDto>> getReservationsParDate(
             @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate parsedDate,
             Authentication authentication) {
-        List<Reservation> reservations = reservationService.getReservationsParDate(parsedDate, authentication);
-        List<ReservationDto> dtos = reservations.stream().map(ReservationMapper::toDto).toList();
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(reservationService.getReservationsParDate(parsedDate, authentication));
     }
 
     @GetMapping("/annulees")
     @PreAuthorize("hasRole('JOUEUR')")
-    public ResponseEntity<List<Reservation>> getReservationsAnnuleesPourJoueur(Authentication authentication) {
+    public ResponseEntity<List<ReservationDto>> getReservationsAnnuleesPourJoueur(Authentication authentication) {
         String email = authentication.getName();
-        List<Reservation> annulees = reservationService.getReservationsAnnuleesPourJoueur(email);
-        return ResponseEntity.ok(annulees);
+        return ResponseEntity.ok(reservationService.getReservationsAnnuleesPourJoueur(email));
     }
 
     @PatchMapping("/{id}/confirmer")
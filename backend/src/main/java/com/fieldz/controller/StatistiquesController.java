@@ -1,6 +1,7 @@
 package com.fieldz.controller;
 
 import com.fieldz.dto.StatistiquesDto;
+import com.fieldz.dto.StatistiquesResumeDto;
 import com.fieldz.service.StatistiquesService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -49,4 +50,14 @@ public class StatistiquesController {
         StatistiquesDto stats = statistiquesService.getStatistiquesMensuelles(authentication);
         return ResponseEntity.ok(stats);
     }
+
+    /**
+     * GET /api/statistiques/resume
+     * Get daily, weekly and monthly statistics in one call
+     */
+    @GetMapping("/resume")
+    @PreAuthorize("hasRole('CLUB')")
+    public ResponseEntity<StatistiquesResumeDto> getResume(Authentication authentication) {
+        return ResponseEntity.ok(statistiquesService.getResume(authentication));
+    }
 }
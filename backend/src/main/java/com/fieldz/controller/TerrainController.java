@@ -3,7 +3,6 @@ package com.fieldz.controller;
 import com.fieldz.dto.TerrainDto;
 import com.fieldz.model.Terrain;
 import com.fieldz.service.TerrainService;
-import com.fieldz.mapper.TerrainMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,18 +25,13 @@ public class TerrainController {
     public ResponseEntity<TerrainDto> ajouterTerrain(
             @RequestBody Terrain terrain,
             Authentication authentication) {
-        Terrain saved = terrainService.ajouterTerrain(terrain, authentication);
-        return ResponseEntity.ok(TerrainMapper.toDto(saved));
+        return ResponseEntity.ok(terrainService.ajouterTerrain(terrain, authentication));
     }
 
     @GetMapping
     @PreAuthorize("hasRole('CLUB')")
     public ResponseEntity<List<TerrainDto>> getTerrains(Authentication authentication) {
-        List<Terrain> terrains = terrainService.getTerrains(authentication);
-        List<TerrainDto> dtos = terrains.stream()
-                .map(TerrainMapper::toDto)
-                .toList();
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(terrainService.getTerrains(authentication));
     }
 
     // ====== NOUVEAUX ENDPOINTS ======
@@ -51,16 +45,12 @@ public class TerrainController {
             @RequestParam(required = false) String ville,
             @RequestParam(required = false) String villes) {
 
-        List<Terrain> terrains;
+        List<TerrainDto> dtos;
         if (StringUtils.hasText(villes)) {
-            terrains = terrainService.getTerrainsParVillesCsv(villes);
+            dtos = terrainService.getTerrainsParVillesCsv(villes);
         } else {
-            terrains = terrainService.getTerrainsParVille(ville);
+            dtos = terrainService.getTerrainsParVille(ville);
         }
-
-        List<TerrainDto> dtos = terrains.stream()
-                .map(TerrainMapper::toDto)
-                .toList();
         return ResponseEntity.ok(dtos);
     }
 
@@ -69,11 +59,7 @@ public class TerrainController {
     @GetMapping("/search/contains")
     @PreAuthorize("hasAnyRole('JOUEUR','CLUB','ADMIN')")
     public ResponseEntity<List<TerrainDto>> searchTerrainsContains(@RequestParam("q") String q) {
-        List<Terrain> terrains = terrainService.searchVilleContient(q);
-        List<TerrainDto> dtos = terrains.stream()
-                .map(TerrainMapper::toDto)
-                .toList();
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(terrainService.searchVilleContient(q));
     }
 
     // ✅ Modifier un terrain
@@ -84,8 +70,7 @@ public class TerrainController {
             @RequestBody UpdateTerrainRequest req,
             Authentication authentication) {
 
-        Terrain updated = terrainService.updateTerrain(terrainId, req, authentication);
-        return ResponseEntity.ok(TerrainMapper.toDto(updated));
+        return ResponseEntity.ok(terrainService.updateTerrain(terrainId, req, authentication));
     }
 
     // ✅ Supprimer un terrain (annule les réservations actives avant)
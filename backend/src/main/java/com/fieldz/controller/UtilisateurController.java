@@ -10,13 +10,14 @@ import com.fieldz.model.Role;
 import com.fieldz.model.Utilisateur;
 import com.fieldz.repository.ClubImageRepository;
 import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.service.ClubService;
 
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import com.fieldz.dto.UpdateProfilRequest;
 import com.fieldz.model.Sport;
@@ -30,10 +31,11 @@ public class UtilisateurController {
     private final UtilisateurRepository utilisateurRepository;
     private final UserMapper userMapper;
     private final ClubImageRepository clubImageRepository;
+    private final ClubService clubService;
 
     @GetMapping("/me")
-    public ResponseEntity<UserDto> getCurrentUser(@AuthenticationPrincipal Utilisateur user) {
-        return ResponseEntity.ok(userMapper.toDto(user));
+    public ResponseEntity<UserDto> getCurrentUser(Authentication authentication) {
+        return ResponseEntity.ok(userMapper.toDto(utilisateurConnecte(authentication)));
     }
 
     /**
@@ -45,7 +47,9 @@ public class UtilisateurController {
     @PutMapping("/complete-profile")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<String> completeProfile(@RequestBody CompleteProfileRequest req,
-            @AuthenticationPrincipal Utilisateur user) {
+            Authentication authentication) {
+
+        Utilisateur user = utilisateurConnecte(authentication);
 
         if (user.isProfilComplet()) {
             return ResponseEntity.badRequest().body("Profil déjà complété");
@@ -126,6 +130,8 @@ public class UtilisateurController {
             }
 
             utilisateurRepository.save(club);
+            // Nom et ville recopiés dans les créneaux, le cache et l'index de disponibilité
+            clubService.propagerModificationClub(club, notBlank(req.getVille()));
             return ResponseEntity.ok("Profil club complété avec succès.");
         }
 
@@ -139,7 +145,9 @@ public class UtilisateurController {
     @PutMapping("/update")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<String> updateProfil(@RequestBody UpdateProfilRequest req,
-            @AuthenticationPrincipal Utilisateur utilisateur) {
+            Authentication authentication) {
+
+        Utilisateur utilisateur = utilisateurConnecte(authentication);
 
         // Vérifier si l'email doit être modifié
         if (notBlank(req.getEmail())) {
@@ -233,6 +241,7 @@ public class UtilisateurController {
                                     + "..."));
 
             utilisateurRepository.save(managedClub);
+            clubService.propagerModificationClub(managedClub, hasText.test(req.getVille()));
             return ResponseEntity.ok("Profil club mis à jour avec succès.");
         }
 
@@ -240,6 +249,12 @@ public class UtilisateurController {
     }
 
     // --------- helpers ----------
+    // Le principal du SecurityContext est un PrincipalUtilisateur partagé (cache) : on modifie l'entité rechargée
+    private Utilisateur utilisateurConnecte(Authentication authentication) {
+        return utilisateurRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+    }
+
     private boolean notBlank(String s) {
         return s != null && !s.isBlank();
     }
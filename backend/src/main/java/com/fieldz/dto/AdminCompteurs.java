@@ -0,0 +1,9 @@
+package com.fieldz.dto;
+
+/** Compteurs bruts du tableau de bord admin, lus en une seule requête. */
+public record AdminCompteurs(Long totalClubs,
+                             Long totalJoueurs,
+                             Long clubsDepuis,
+                             Long joueursDepuis,
+                             Long reservationsDepuis) {
+}
@@ -0,0 +1,12 @@
+package com.fieldz.dto;
+
+import com.fieldz.model.Statut;
+
+import java.time.LocalDate;
+
+/**
+ * Ligne d'agrégat statistique : nombre de réservations, revenu (prix des créneaux)
+ * et minutes réservées pour un jour et un statut donnés.
+ */
+public record AgregatJourStatut(LocalDate jour, Statut statut, Long nombre, Double revenu, Long minutes) {
+}
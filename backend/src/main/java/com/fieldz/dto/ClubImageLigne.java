@@ -0,0 +1,13 @@
+package com.fieldz.dto;
+
+/** Image d'un club lue par projection, avec l'id du club pour regrouper une liste de clubs. */
+public record ClubImageLigne(Long clubId, Long id, String imageUrl, Integer displayOrder) {
+
+    public ClubImageDto toDto() {
+        return ClubImageDto.builder()
+                .id(id)
+                .imageUrl(imageUrl)
+                .displayOrder(displayOrder)
+                .build();
+    }
+}
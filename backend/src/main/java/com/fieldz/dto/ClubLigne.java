@@ -0,0 +1,41 @@
+package com.fieldz.dto;
+
+import com.fieldz.model.Sport;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Colonnes simples d'un club lues par projection JPQL. Sports et images sont
+ * chargés à part, en une requête chacun pour toute la liste (voir ClubService).
+ */
+public record ClubLigne(Long id,
+                        String nom,
+                        String ville,
+                        String adresse,
+                        String telephone,
+                        String description,
+                        String politique,
+                        String locationLink,
+                        LocalTime heureOuverture,
+                        LocalTime heureFermeture) {
+
+    /** Même forme que ClubMapper.toDto. */
+    public ClubDto toDto(Set<Sport> sports, List<ClubImageDto> images) {
+        ClubDto dto = new ClubDto();
+        dto.setId(id);
+        dto.setNom(nom);
+        dto.setVille(ville);
+        dto.setAdresse(adresse);
+        dto.setTelephone(telephone);
+        dto.setDescription(description);
+        dto.setPolitique(politique);
+        dto.setLocationLink(locationLink);
+        dto.setHeureOuverture(heureOuverture);
+        dto.setHeureFermeture(heureFermeture);
+        dto.setSports(sports);
+        dto.setImages(images);
+        return dto;
+    }
+}
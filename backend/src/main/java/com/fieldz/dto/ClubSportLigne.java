@@ -0,0 +1,7 @@
+package com.fieldz.dto;
+
+import com.fieldz.model.Sport;
+
+/** Un sport d'un club (table club_sports), lu par projection. */
+public record ClubSportLigne(Long clubId, Sport sport) {
+}
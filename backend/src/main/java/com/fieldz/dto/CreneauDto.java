@@ -14,4 +14,5 @@ public class CreneauDto {
     private String statut;      // LIBRE, RESERVE, etc.
     private boolean disponible;
     private TerrainDto terrain; // Référence au DTO existant
+    private Long regleId;       // Créneau virtuel (id null) : à réserver via la règle et dateDebut
 }
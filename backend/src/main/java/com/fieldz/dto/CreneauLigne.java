@@ -0,0 +1,61 @@
+package com.fieldz.dto;
+
+import com.fieldz.model.Statut;
+
+import java.time.LocalDateTime;
+
+/**
+ * Créneau lu par projection JPQL (terrain et club aplatis) : aucune entité managée,
+ * le DTO est construit directement depuis la ligne de résultat.
+ */
+public record CreneauLigne(Long id,
+                           LocalDateTime dateDebut,
+                           LocalDateTime dateFin,
+                           Double prix,
+                           Double secondPrix,
+                           Statut statut,
+                           Boolean disponible,
+                           Long terrainId,
+                           String nomTerrain,
+                           String typeSurface,
+                           String terrainVille,
+                           String sport,
+                           String photo,
+                           String politiqueClub,
+                           Long clubId,
+                           String clubNom,
+                           String clubVille) {
+
+    /** Même forme que CreneauMapper.toDto (club réduit à id, nom, ville). */
+    public CreneauDto toDto() {
+        CreneauDto dto = new CreneauDto();
+        dto.setId(id);
+        dto.setDateDebut(dateDebut);
+        dto.setDateFin(dateFin);
+        dto.setPrix(prix);
+        dto.setSecondPrix(secondPrix);
+        dto.setStatut(statut != null ? statut.name() : null);
+        dto.setDisponible(Boolean.TRUE.equals(disponible));
+
+        if (terrainId != null) {
+            TerrainDto t = new TerrainDto();
+            t.setId(terrainId);
+            t.setNomTerrain(nomTerrain);
+            t.setTypeSurface(typeSurface);
+            t.setVille(terrainVille);
+            t.setSport(sport);
+            t.setPhoto(photo);
+            t.setPolitiqueClub(politiqueClub);
+
+            if (clubId != null) {
+                ClubDto club = new ClubDto();
+                club.setId(clubId);
+                club.setNom(clubNom);
+                club.setVille(clubVille);
+                t.setClub(club);
+            }
+            dto.setTerrain(t);
+        }
+        return dto;
+    }
+}
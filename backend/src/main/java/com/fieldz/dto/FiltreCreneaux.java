@@ -0,0 +1,22 @@
+package com.fieldz.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Filtres de la recherche publique de créneaux disponibles (tous facultatifs).
+ * depuis / jusqua : bornes incluses sur le jour du créneau ; heureMin / heureMax : bornes
+ * incluses sur l'heure de début ; prixMin / prixMax : bornes incluses ;
+ * apres : curseur renvoyé par la page précédente (null pour la première page).
+ */
+public record FiltreCreneaux(String ville,
+                             String sport,
+                             LocalDate depuis,
+                             LocalDate jusqua,
+                             LocalTime heureMin,
+                             LocalTime heureMax,
+                             Double prixMin,
+                             Double prixMax,
+                             String apres,
+                             int taille) {
+}
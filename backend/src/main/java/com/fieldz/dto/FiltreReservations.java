@@ -0,0 +1,18 @@
+package com.fieldz.dto;
+
+import com.fieldz.model.Statut;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Filtres d'une liste paginée de réservations.
+ * depuis / jusqua : bornes incluses sur le jour du créneau ; statuts vide = tous ;
+ * apres : curseur renvoyé par la page précédente (null pour la première page).
+ */
+public record FiltreReservations(LocalDate depuis,
+                                 LocalDate jusqua,
+                                 List<Statut> statuts,
+                                 String apres,
+                                 int taille) {
+}
@@ -0,0 +1,18 @@
+package com.fieldz.dto;
+
+import java.util.List;
+
+/**
+ * Bilan d'un import de créneaux en masse. Mêmes compteurs que la génération récurrente
+ * (totalRefuses = hors horaires d'ouverture), plus les lignes invalides et leur détail.
+ */
+public record ImportCreneauxResultat(String message,
+                                     int totalDemandes,
+                                     int totalCrees,
+                                     int totalInvalides,
+                                     int totalRefuses,
+                                     int totalConflits,
+                                     int dejaExistants,
+                                     List<String> erreurs,
+                                     long dureeMs) {
+}
@@ -0,0 +1,28 @@
+package com.fieldz.dto;
+
+import com.fieldz.model.TypeNotification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification lue par projection JPQL (liste paginée, rattrapage du flux SSE) :
+ * l'id de la réservation vient de la clé étrangère, sans charger la réservation.
+ */
+public record NotificationLigne(Long id,
+                                String message,
+                                TypeNotification type,
+                                LocalDateTime dateEnvoi,
+                                boolean lue,
+                                Long reservationId) {
+
+    public NotificationDto toDto() {
+        NotificationDto dto = new NotificationDto();
+        dto.setId(id);
+        dto.setMessage(message);
+        dto.setType(type);
+        dto.setDateEnvoi(dateEnvoi);
+        dto.setLue(lue);
+        dto.setReservationId(reservationId);
+        return dto;
+    }
+}
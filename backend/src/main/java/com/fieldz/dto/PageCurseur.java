@@ -0,0 +1,15 @@
+package com.fieldz.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page d'une liste paginée par clé (keyset).
+ * curseurSuivant est à renvoyer tel quel pour la page suivante ; null sur la dernière page.
+ */
+public record PageCurseur<T>(List<T> contenu, String curseurSuivant) {
+
+    public <R> PageCurseur<R> map(Function<? super T, ? extends R> mapper) {
+        return new PageCurseur<>(contenu.stream().<R>map(mapper).toList(), curseurSuivant);
+    }
+}
@@ -0,0 +1,17 @@
+package com.fieldz.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/** Règle de récurrence d'un terrain, telle que listée pour le club. */
+public record RegleCreneauDto(Long id,
+                              Long terrainId,
+                              String nomTerrain,
+                              String jourDeSemaine,
+                              LocalTime heureDebut,
+                              int dureeMinutes,
+                              int nombreDuplications,
+                              Double prix,
+                              LocalDate dateDebut,
+                              LocalDate dateFin) {
+}
@@ -0,0 +1,64 @@
+package com.fieldz.dto;
+
+import com.fieldz.model.Statut;
+
+import java.time.LocalDateTime;
+
+/**
+ * Réservation lue par projection JPQL, avec son joueur et son créneau aplatis.
+ * Le constructeur "à plat" est celui appelé par les requêtes select new de ReservationRepository.
+ */
+public record ReservationLigne(Long id,
+                               LocalDateTime dateReservation,
+                               Statut statut,
+                               LocalDateTime dateAnnulation,
+                               String motifAnnulation,
+                               String nomReservant,
+                               Long joueurId,
+                               String joueurNom,
+                               String joueurPrenom,
+                               String joueurEmail,
+                               String joueurTelephone,
+                               String joueurPhotoProfilUrl,
+                               CreneauLigne creneau) {
+
+    public ReservationLigne(Long id, LocalDateTime dateReservation, Statut statut,
+                            LocalDateTime dateAnnulation, String motifAnnulation, String nomReservant,
+                            Long joueurId, String joueurNom, String joueurPrenom, String joueurEmail,
+                            String joueurTelephone, String joueurPhotoProfilUrl,
+                            Long creneauId, LocalDateTime dateDebut, LocalDateTime dateFin, Double prix,
+                            Double secondPrix, Statut creneauStatut, Boolean disponible,
+                            Long terrainId, String nomTerrain, String typeSurface, String terrainVille,
+                            String sport, String photo, String politiqueClub,
+                            Long clubId, String clubNom, String clubVille) {
+        this(id, dateReservation, statut, dateAnnulation, motifAnnulation, nomReservant,
+                joueurId, joueurNom, joueurPrenom, joueurEmail, joueurTelephone, joueurPhotoProfilUrl,
+                creneauId == null ? null : new CreneauLigne(creneauId, dateDebut, dateFin, prix, secondPrix,
+                        creneauStatut, disponible, terrainId, nomTerrain, typeSurface, terrainVille, sport, photo,
+                        politiqueClub, clubId, clubNom, clubVille));
+    }
+
+    /** Même forme que ReservationMapper.toDto. */
+    public ReservationDto toDto() {
+        ReservationDto dto = new ReservationDto();
+        dto.setId(id);
+        dto.setCreneau(creneau != null ? creneau.toDto() : null);
+        dto.setDateReservation(dateReservation);
+        dto.setStatut(statut.name());
+        dto.setDateAnnulation(dateAnnulation);
+        dto.setMotifAnnulation(motifAnnulation);
+        dto.setNomReservant(nomReservant);
+
+        if (joueurId != null) {
+            JoueurDto joueur = new JoueurDto();
+            joueur.setId(joueurId);
+            joueur.setNom(joueurNom);
+            joueur.setPrenom(joueurPrenom);
+            joueur.setEmail(joueurEmail);
+            joueur.setTelephone(joueurTelephone);
+            joueur.setPhotoProfilUrl(joueurPhotoProfilUrl);
+            dto.setJoueur(joueur);
+        }
+        return dto;
+    }
+}
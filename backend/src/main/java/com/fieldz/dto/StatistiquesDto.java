@@ -22,4 +22,10 @@ public class StatistiquesDto {
     private String periode; // "daily", "weekly", "monthly"
     private String dateDebut;
     private String dateFin;
+
+    // Minutes of RESERVE/CONFIRMEE/ABSENT reservations in the period
+    private Long minutesReservees;
+
+    // Booked minutes / opening capacity (null if opening hours are not set)
+    private Double tauxOccupation;
 }
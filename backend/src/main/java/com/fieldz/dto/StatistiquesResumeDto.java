@@ -0,0 +1,15 @@
+package com.fieldz.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatistiquesResumeDto {
+
+    private StatistiquesDto journalieres;
+    private StatistiquesDto hebdomadaires;
+    private StatistiquesDto mensuelles;
+}
@@ -1,6 +1,7 @@
 package com.fieldz.exception;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mail.MailException;
@@ -81,6 +82,12 @@ public class GlobalExceptionHandler {
     return json(HttpStatus.CONFLICT, ex.getMessage());
   }
 
+  // Écriture concurrente détectée par @Version (hors chemins qui rejouent eux-mêmes la transaction)
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<?> handleOptimisticLock(OptimisticLockingFailureException ex) {
+    return json(HttpStatus.CONFLICT, "Ressource modifiée entre-temps, veuillez réessayer.");
+  }
+
   // === Spring Security exceptions ===
   @ExceptionHandler(AccessDeniedException.class)
   public ResponseEntity<?> handleAccessDenied(AccessDeniedException ex) {
@@ -19,6 +19,7 @@ public class CreneauMapper {
         dto.setSecondPrix(c.getSecondPrix());
         dto.setStatut(c.getStatut() != null ? c.getStatut().name() : null);
         dto.setDisponible(c.isDisponible());
+        dto.setRegleId(c.getRegleId());
 
         if (c.getTerrain() != null) {
             TerrainDto t = new TerrainDto();
@@ -0,0 +1,22 @@
+package com.fieldz.mapper;
+
+import com.fieldz.dto.RegleCreneauDto;
+import com.fieldz.model.RegleCreneau;
+
+public class RegleCreneauMapper {
+
+    public static RegleCreneauDto toDto(RegleCreneau r) {
+        if (r == null) return null;
+        return new RegleCreneauDto(
+                r.getId(),
+                r.getTerrain().getId(),
+                r.getTerrain().getNomTerrain(),
+                r.getJourDeSemaine().name(),
+                r.getHeureDebut(),
+                r.getDureeMinutes(),
+                r.getNombreDuplications(),
+                r.getPrix(),
+                r.getDateDebut(),
+                r.getDateFin());
+    }
+}
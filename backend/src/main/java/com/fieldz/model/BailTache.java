@@ -0,0 +1,31 @@
+package com.fieldz.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bail d'un job planifié à exécution unique sur l'ensemble des instances (voir BailTaches) :
+ * le détenteur est seul à pouvoir le lancer jusqu'à expireA.
+ */
+@Entity
+@Table(name = "bail_tache")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BailTache {
+
+    @Id
+    @Column(length = 100)
+    private String nom;
+
+    @Column(nullable = false, length = 150)
+    private String detenteur;
+
+    @Column(name = "acquis_a", nullable = false)
+    private LocalDateTime acquisA;
+
+    @Column(name = "expire_a", nullable = false)
+    private LocalDateTime expireA;
+}
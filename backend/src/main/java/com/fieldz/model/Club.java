@@ -3,6 +3,7 @@ package com.fieldz.model;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalTime;
 import java.util.List;
@@ -25,7 +26,9 @@ public class Club extends Utilisateur {
 
     private String telephone;
 
+    // Chargé par lots quand une liste de clubs est lue (recherche admin), pas club par club
     @ElementCollection(targetClass = Sport.class, fetch = FetchType.EAGER)
+    @BatchSize(size = 50)
     @CollectionTable(name = "club_sports", joinColumns = @JoinColumn(name = "club_id"))
     @Enumerated(EnumType.STRING)
     @Column(name = "sport", nullable = false)
@@ -49,6 +52,8 @@ public class Club extends Utilisateur {
     @Column(name = "heure_fermeture")
     private LocalTime heureFermeture;
 
+    // Par lots aussi : listes de terrains mappées avec leur club complet (TerrainMapper)
     @OneToMany(mappedBy = "club", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<ClubImage> images;
 }
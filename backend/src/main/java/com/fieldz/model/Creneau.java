@@ -4,18 +4,27 @@ import lombok.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
+import java.util.Locale;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.Hibernate;
 @Entity
+@Table(name = "creneau", indexes = {
+        @Index(name = "idx_creneau_recherche", columnList = "statut, disponible, date_debut, terrain_id"),
+        @Index(name = "idx_creneau_recherche_ville", columnList = "ville, statut, disponible, date_debut, terrain_id"),
+        @Index(name = "idx_creneau_club_disponibles", columnList = "terrain_id, disponible, date_debut")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Creneau {
 
+    // Séquence allouée par blocs de 50 (pooled) : avec IDENTITY, Hibernate ne peut pas grouper les INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "creneau_seq")
+    @SequenceGenerator(name = "creneau_seq", sequenceName = "creneau_id_seq", allocationSize = 50)
     private Long id;
 
     // Supprimer plus tard
@@ -37,6 +46,11 @@ public class Creneau {
 
     private boolean disponible = true;
 
+    // Verrouillage optimiste : deux écritures concurrentes ne peuvent pas s'écraser
+    @Version
+    @JsonIgnore
+    private Long version;
+
     @ManyToOne
     @JsonIgnoreProperties({"creneaux"})
     private Terrain terrain;
@@ -45,6 +59,44 @@ public class Creneau {
     @Transient
     private Integer nombreDuplications;
 
+    // Occurrence virtuelle d'une RegleCreneau (id null) : règle d'origine, non persistée
+    @Transient
+    private Long regleId;
+
+    // Lieu du terrain recopié sous forme normalisée (voir villeRecherche / sportRecherche) :
+    // filtres de la recherche publique servis par idx_creneau_recherche_ville, sans jointure
+    @JsonIgnore
+    private String ville;
+
+    @JsonIgnore
+    private String sport;
+
+    @PrePersist
+    @PreUpdate
+    void recopierLieu() {
+        if (terrain != null && Hibernate.isInitialized(terrain)) {
+            ville = villeRecherche(terrain);
+            sport = sportRecherche(terrain.getSport());
+        }
+    }
+
+    /** Ville d'un terrain pour la recherche : celle du terrain, à défaut celle du club, en minuscules. */
+    public static String villeRecherche(Terrain terrain) {
+        String ville = terrain.getVille();
+        if ((ville == null || ville.isBlank()) && terrain.getClub() != null) {
+            ville = terrain.getClub().getVille();
+        }
+        return villeRecherche(ville);
+    }
+
+    public static String villeRecherche(String ville) {
+        return ville == null || ville.isBlank() ? null : ville.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String sportRecherche(String sport) {
+        return sport == null || sport.isBlank() ? null : sport.trim().toUpperCase(Locale.ROOT);
+    }
+
 //Supprimer à la fin des test
     //@OneToOne(mappedBy = "creneau")
     //@JsonIgnore   // <-- Ajoute pour éviter d'inclure Reservation dans le JSON d'un créneau (sinon boucle)
@@ -0,0 +1,52 @@
+package com.fieldz.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de la table de transit d'un import de créneaux en masse (voir CreneauImportService).
+ * Alimentée et lue uniquement en SQL : l'entité sert à décrire le schéma (ddl-auto en dev/test).
+ */
+@Entity
+@Table(name = "creneau_import", indexes = {
+        @Index(name = "idx_creneau_import_lot", columnList = "lot, terrain_id, date_debut")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreneauImport {
+
+    public enum Verdict { INVALIDE, HORS_HORAIRES, DOUBLON, CONFLIT }
+
+    // Id réservé dans creneau_id_seq avant le chargement : c'est l'id du futur créneau
+    @Id
+    private Long creneauId;
+
+    @Column(length = 36, nullable = false)
+    private String lot;
+
+    // Numéro de ligne dans la source : en cas de chevauchement interne, la première ligne l'emporte
+    @Column(nullable = false)
+    private int ligne;
+
+    @Column(nullable = false)
+    private Long terrainId;
+
+    @Column(nullable = false)
+    private LocalDateTime dateDebut;
+
+    @Column(nullable = false)
+    private LocalDateTime dateFin;
+
+    private Double prix;
+
+    private Double secondPrix;
+
+    // null = ligne acceptée
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Verdict verdict;
+}
@@ -0,0 +1,60 @@
+package com.fieldz.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email en file d'attente (pattern outbox) : écrit dans la même transaction que
+ * l'action métier, puis envoyé en arrière-plan par EmailOutboxWorker.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_a_envoyer", columnList = "statut, prochaine_tentative")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutbox {
+
+    public enum StatutEmail { EN_ATTENTE, ENVOYE, ECHEC }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    @SequenceGenerator(name = "email_outbox_seq", sequenceName = "email_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destinataire;
+
+    @Column(nullable = false)
+    private String sujet;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String contenu;
+
+    // true = contenu HTML, false = texte brut
+    private boolean html;
+
+    private String replyTo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatutEmail statut;
+
+    private int tentatives;
+
+    // Sert aussi de bail : un lot pris par le worker est repoussé le temps de l'envoi
+    @Column(name = "prochaine_tentative", nullable = false)
+    private LocalDateTime prochaineTentative;
+
+    private LocalDateTime dateCreation;
+
+    private LocalDateTime dateEnvoi;
+
+    @Column(length = 500)
+    private String derniereErreur;
+}
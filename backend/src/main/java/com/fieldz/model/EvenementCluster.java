@@ -0,0 +1,37 @@
+package com.fieldz.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changement à signaler aux autres instances (voir BusCluster) : "l'objet {@code type}/{@code cle}
+ * a changé, relisez-le". Lignes courtes durées, purgées par MaintenanceService.
+ */
+@Entity
+@Table(name = "evenement_cluster", indexes = {
+        @Index(name = "idx_evenement_cluster_date", columnList = "date_creation")
+})
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvenementCluster {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evenement_cluster_seq")
+    @SequenceGenerator(name = "evenement_cluster_seq", sequenceName = "evenement_cluster_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String type;
+
+    // null : tous les objets du type
+    private Long cle;
+
+    @Column(nullable = false, length = 150)
+    private String emetteur;
+
+    @Column(name = "date_creation", nullable = false)
+    private LocalDateTime dateCreation;
+}
@@ -0,0 +1,27 @@
+package com.fieldz.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** Battement d'une instance du backend (voir NoeudsActifs). */
+@Entity
+@Table(name = "noeud_actif", indexes = {
+        @Index(name = "idx_noeud_actif_vu_a", columnList = "vu_a")
+})
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoeudActif {
+
+    @Id
+    @Column(length = 150)
+    private String id;
+
+    @Column(name = "demarre_a", nullable = false)
+    private LocalDateTime demarreA;
+
+    @Column(name = "vu_a", nullable = false)
+    private LocalDateTime vuA;
+}
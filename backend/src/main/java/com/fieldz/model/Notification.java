@@ -5,6 +5,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "notification", indexes = {
+        @Index(name = "idx_notification_date_envoi", columnList = "date_envoi"),
+        @Index(name = "idx_notification_destinataire_date", columnList = "destinataire_id, date_envoi, id")
+})
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,7 +16,8 @@ import java.time.LocalDateTime;
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notification_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -27,6 +32,8 @@ public class Notification {
 
     private boolean lue;
 
+    // Pas de clé étrangère : reservation est partitionnée (PostgreSQL), sans clé unique sur id seul
     @ManyToOne
+    @JoinColumn(name = "reservation_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Reservation reservation;
 }
@@ -6,13 +6,18 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+// Un seul envoi par réservation et par type, même si deux instances passent en même temps
+@Table(name = "notification_envoyee", uniqueConstraints = @UniqueConstraint(
+        name = "uq_notification_envoyee_reservation_type", columnNames = {"reservation_id", "type"}),
+        indexes = @Index(name = "idx_notification_envoyee_date_envoi", columnList = "date_envoi"))
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class NotificationEnvoyee {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_envoyee_seq")
+    @SequenceGenerator(name = "notification_envoyee_seq", sequenceName = "notification_envoyee_id_seq", allocationSize = 50)
     private Long id;
 
     private Long reservationId;
@@ -6,7 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "otp_codes")
+// Index créé par Hibernate (ddl-auto update), la table n'étant pas dans les migrations
+@Table(name = "otp_codes", indexes = {
+        @Index(name = "idx_otp_codes_expires_at", columnList = "expires_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -6,6 +6,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "password_reset_token", indexes = {
+        @Index(name = "idx_password_reset_expiration", columnList = "expiration_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,75 @@
+package com.fieldz.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Règle de récurrence d'un terrain : chaque jourDeSemaine de la période [dateDebut, dateFin],
+ * nombreDuplications créneaux consécutifs de dureeMinutes à partir de heureDebut.
+ *
+ * Les occurrences sont des créneaux "virtuels" calculés à la lecture (voir ExpansionRegles) :
+ * une ligne Creneau n'est créée que lorsqu'une occurrence est réservée ou modifiée,
+ * et cette ligne l'emporte ensuite sur l'occurrence.
+ */
+@Entity
+@Table(name = "regle_creneau", indexes = {
+        @Index(name = "idx_regle_creneau_terrain", columnList = "terrain_id, date_fin")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegleCreneau {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Terrain terrain;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private DayOfWeek jourDeSemaine;
+
+    @Column(nullable = false)
+    private LocalTime heureDebut;
+
+    private int dureeMinutes;
+
+    private int nombreDuplications = 1;
+
+    private Double prix;
+
+    @Column(nullable = false)
+    private LocalDate dateDebut;
+
+    @Column(nullable = false)
+    private LocalDate dateFin;
+
+    /** Début de la dernière occurrence d'une journée. */
+    public LocalTime heureDerniereOccurrence() {
+        return heureDebut.plusMinutes((long) (nombreDuplications - 1) * dureeMinutes);
+    }
+
+    /** Fin de la dernière occurrence d'une journée (peut dépasser minuit). */
+    public LocalDateTime finDeJournee(LocalDate jour) {
+        return LocalDateTime.of(jour, heureDebut).plusMinutes((long) nombreDuplications * dureeMinutes);
+    }
+
+    /** La règle produit-elle une occurrence commençant exactement à {@code dateDebut} ? */
+    public boolean genere(LocalDateTime debut) {
+        LocalDate jour = debut.toLocalDate();
+        if (jour.getDayOfWeek() != jourDeSemaine || jour.isBefore(dateDebut) || jour.isAfter(dateFin)) {
+            return false;
+        }
+        long minutes = ChronoUnit.MINUTES.between(LocalDateTime.of(jour, heureDebut), debut);
+        return minutes >= 0 && minutes % dureeMinutes == 0 && minutes / dureeMinutes < nombreDuplications;
+    }
+}
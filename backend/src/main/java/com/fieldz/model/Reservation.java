@@ -2,6 +2,7 @@ package com.fieldz.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
 
 import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
@@ -13,6 +14,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 
 @Entity
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_statut_date", columnList = "statut, date_reservation"),
+        @Index(name = "idx_reservation_creneau_statut", columnList = "creneau_id, statut, id"),
+        @Index(name = "idx_reservation_joueur_creneau", columnList = "joueur_id, creneau_id, statut")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,7 +26,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public class Reservation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -28,8 +35,10 @@ public class Reservation {
     @JsonIgnoreProperties({"reservations", "hibernateLazyInitializer", "handler"})
     private Joueur joueur;
 
+    // Clé étrangère composite (creneau_id, date_debut_creneau) posée par la migration PostgreSQL V14 :
+    // creneau est partitionnée, sans clé unique sur id seul
     @ManyToOne(fetch = FetchType.LAZY, optional = true)
-    @JoinColumn(name = "creneau_id", nullable = true)
+    @JoinColumn(name = "creneau_id", nullable = true, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnoreProperties({"reservation", "hibernateLazyInitializer", "handler"})
     private Creneau creneau;
 
@@ -38,6 +47,12 @@ public class Reservation {
     @Column(name = "date_reservation")
     private LocalDateTime dateReservation;
 
+    // Début du créneau réservé, recopié : clé de partitionnement mensuel de la table (PostgreSQL).
+    // Suit les déplacements du créneau en base (clé étrangère ON UPDATE CASCADE)
+    @Column(name = "date_debut_creneau")
+    @JsonIgnore
+    private LocalDateTime dateDebutCreneau;
+
 
     @Enumerated(EnumType.STRING)
     private Statut statut;
@@ -49,5 +64,20 @@ public class Reservation {
     // Nom du réservant pour les réservations manuelles (sans compte joueur)
     private String nomReservant;
 
+    // Verrouillage optimiste : deux écritures concurrentes ne peuvent pas s'écraser
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void recopierDateDebutCreneau() {
+        // Un proxy non chargé n'a pas bougé dans cette session : rien à recopier
+        if (creneau != null && Hibernate.isInitialized(creneau)) {
+            dateDebutCreneau = creneau.getDateDebut();
+        } else if (dateDebutCreneau == null) {
+            dateDebutCreneau = dateReservation != null ? dateReservation : LocalDateTime.now();
+        }
+    }
 
 }
@@ -0,0 +1,48 @@
+package com.fieldz.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Rollup journalier des réservations : une ligne par (club, terrain, jour du créneau, statut).
+ * Maintenu incrémentalement par StatistiqueRollupService et recalculé chaque nuit.
+ */
+@Entity
+@Table(name = "statistique_journaliere",
+        uniqueConstraints = @UniqueConstraint(name = "uk_statistique_journaliere",
+                columnNames = {"club_id", "terrain_id", "jour", "statut"}),
+        indexes = @Index(name = "idx_statistique_journaliere_club_jour", columnList = "club_id, jour"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatistiqueJournaliere {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "statistique_journaliere_seq")
+    @SequenceGenerator(name = "statistique_journaliere_seq", sequenceName = "statistique_journaliere_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "club_id", nullable = false)
+    private Long clubId;
+
+    @Column(name = "terrain_id", nullable = false)
+    private Long terrainId;
+
+    @Column(nullable = false)
+    private LocalDate jour;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private Statut statut;
+
+    private long nombre;
+
+    // Somme des prix des créneaux
+    private double revenu;
+
+    private long minutesReservees;
+}
@@ -15,6 +15,7 @@ import lombok.experimental.SuperBuilder;
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype", discriminatorType = DiscriminatorType.STRING)
+@Table(name = "utilisateur", indexes = @Index(name = "idx_utilisateur_dtype_id", columnList = "dtype, id"))
 @Getter
 @Setter
 @NoArgsConstructor
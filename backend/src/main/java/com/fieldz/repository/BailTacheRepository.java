@@ -0,0 +1,35 @@
+package com.fieldz.repository;
+
+import com.fieldz.model.BailTache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface BailTacheRepository extends JpaRepository<BailTache, String> {
+
+    // Prise du bail s'il a expiré : une seule instance voit 1 ligne modifiée
+    @Modifying
+    @Query("""
+        UPDATE BailTache b
+        SET b.detenteur = :noeud, b.acquisA = :maintenant, b.expireA = :expireA
+        WHERE b.nom = :nom AND b.expireA <= :maintenant
+    """)
+    int prendre(@Param("nom") String nom, @Param("noeud") String noeud,
+                @Param("maintenant") LocalDateTime maintenant, @Param("expireA") LocalDateTime expireA);
+
+    // INSERT simple (pas de merge) : deux créations simultanées butent sur la clé primaire
+    @Modifying
+    @Query(value = """
+        INSERT INTO bail_tache (nom, detenteur, acquis_a, expire_a)
+        VALUES (:nom, :noeud, :maintenant, :expireA)
+    """, nativeQuery = true)
+    int creer(@Param("nom") String nom, @Param("noeud") String noeud,
+              @Param("maintenant") LocalDateTime maintenant, @Param("expireA") LocalDateTime expireA);
+
+    @Modifying
+    @Query("UPDATE BailTache b SET b.expireA = :expireA WHERE b.nom = :nom AND b.detenteur = :noeud")
+    int rendre(@Param("nom") String nom, @Param("noeud") String noeud, @Param("expireA") LocalDateTime expireA);
+}
@@ -1,31 +1,49 @@
 package com.fieldz.repository;
 
+import com.fieldz.dto.ClubImageLigne;
+import com.fieldz.dto.ClubLigne;
+import com.fieldz.dto.ClubSportLigne;
 import com.fieldz.model.Club;
 import com.fieldz.model.Sport;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ClubRepository extends JpaRepository<Club, Long> {
 
-    @Query("""
-           select c from Club c
+    // ---------- Lecture en projection (recherche publique) ----------
+
+    String SELECT_LIGNE = """
+           select new com.fieldz.dto.ClubLigne(
+               c.id, c.nom, c.ville, c.adresse, c.telephone, c.description, c.politique,
+               c.locationLink, c.heureOuverture, c.heureFermeture)
+           from Club c
+           """;
+
+    @Query(SELECT_LIGNE + "where lower(c.ville) like lower(concat('%', :ville, '%'))")
+    List<ClubLigne> lignesParVille(@Param("ville") String ville);
+
+    @Query(SELECT_LIGNE + "where :sport member of c.sports")
+    List<ClubLigne> lignesParSport(@Param("sport") Sport sport);
+
+    @Query(SELECT_LIGNE + """
            where lower(c.ville) like lower(concat('%', :ville, '%'))
+             and :sport member of c.sports
            """)
-    List<Club> findByVilleLikeIgnoreCase(@Param("ville") String ville);
+    List<ClubLigne> lignesParVilleEtSport(@Param("ville") String ville, @Param("sport") Sport sport);
 
-    @Query("""
-           select c from Club c
-           where :sport member of c.sports
-           """)
-    List<Club> findBySport(@Param("sport") Sport sport);
+    // Sports et images d'une liste de clubs : une requête chacun, quel que soit le nombre de clubs
+    @Query("select new com.fieldz.dto.ClubSportLigne(c.id, s) from Club c join c.sports s where c.id in :ids")
+    List<ClubSportLigne> sportsDesClubs(@Param("ids") Collection<Long> ids);
 
     @Query("""
-           select c from Club c
-           where lower(c.ville) like lower(concat('%', :ville, '%'))
-             and :sport member of c.sports
+           select new com.fieldz.dto.ClubImageLigne(i.club.id, i.id, i.imageUrl, i.displayOrder)
+           from ClubImage i
+           where i.club.id in :ids
+           order by i.displayOrder asc nulls last, i.id
            """)
-    List<Club> findByVilleAndSport(@Param("ville") String ville, @Param("sport") Sport sport);
+    List<ClubImageLigne> imagesDesClubs(@Param("ids") Collection<Long> ids);
 }
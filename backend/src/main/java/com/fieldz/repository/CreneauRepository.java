@@ -1,8 +1,11 @@
 package com.fieldz.repository;
 
+import com.fieldz.dto.CreneauLigne;
 import com.fieldz.model.Creneau;
 import com.fieldz.model.Terrain;
 import com.fieldz.model.Statut;
+import com.fieldz.service.statistiques.CreneauRollup;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,6 +14,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Modifying;
 
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,20 +46,24 @@ public interface CreneauRepository extends JpaRepository<Creneau, Long> {
                                            @Param("dateDebut") LocalDateTime dateDebut,
                                            @Param("dateFin") LocalDateTime dateFin);
 
+    // Créneaux matérialisés de plusieurs terrains qui chevauchent [debut, fin[ (filtrage des créneaux virtuels)
+    @Query("""
+        SELECT c FROM Creneau c
+        JOIN FETCH c.terrain t
+        LEFT JOIN FETCH t.club
+        WHERE t.id IN :terrainIds
+          AND c.dateDebut < :fin AND c.dateFin > :debut
+    """)
+    List<Creneau> findChevauchantsParTerrains(@Param("terrainIds") Collection<Long> terrainIds,
+                                             @Param("debut") LocalDateTime debut,
+                                             @Param("fin") LocalDateTime fin);
+
     Optional<Creneau> findByTerrainAndDateDebutAndDateFin(Terrain terrain, LocalDateTime dateDebut, LocalDateTime dateFin);
 
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("DELETE FROM Creneau c WHERE c.terrain.id = :terrainId")
     void deleteByTerrainId(Long terrainId);
 
-    // Tous les créneaux disponibles d'un club
-    List<Creneau> findByTerrainClubIdAndDisponibleTrue(Long clubId);
-
-    // Créneaux disponibles d'un club pour une date spécifique
-    List<Creneau> findByTerrainClubIdAndDisponibleTrueAndDateDebutBetween(Long clubId,
-                                                                          LocalDateTime start,
-                                                                          LocalDateTime end);
-
     @Query("""
     select c
     from Creneau c
@@ -64,21 +73,124 @@ public interface CreneauRepository extends JpaRepository<Creneau, Long> {
 """)
     List<Creneau> findByTerrainIdFetchTerrainAndClub(@Param("terrainId") Long terrainId);
 
-    // Paginated query for creneaux by terrain (without join fetch to avoid pagination issues)
+    // Listes paginées en projection (CreneauLigne) : terrain et club lus dans la même ligne, sans entité managée
+    String SELECT_LIGNE = """
+    select new com.fieldz.dto.CreneauLigne(
+        c.id, c.dateDebut, c.dateFin, c.prix, c.secondPrix, c.statut, c.disponible,
+        t.id, t.nomTerrain, t.typeSurface, t.ville, t.sport, t.photo, t.politiqueClub,
+        club.id, club.nom, club.ville)
+    from Creneau c
+    join c.terrain t
+    left join t.club club
+    """;
+
+    // Paginated query for creneaux by terrain
+    @Query(value = SELECT_LIGNE + "where t.id = :terrainId",
+           countQuery = "select count(c) from Creneau c where c.terrain.id = :terrainId")
+    Page<CreneauLigne> findByTerrainIdPaginated(@Param("terrainId") Long terrainId, Pageable pageable);
+
+    // Paginated query for all creneaux of a club (across all terrains)
+    @Query(value = SELECT_LIGNE + "where club.id = :clubId",
+           countQuery = "select count(c) from Creneau c where c.terrain.club.id = :clubId")
+    Page<CreneauLigne> findByClubIdPaginated(@Param("clubId") Long clubId, Pageable pageable);
+
+    // Page publique d'un club : disponibles dans [debut, fin[, sport optionnel (forme de Creneau.sportRecherche).
+    // Parcours de idx_creneau_club_disponibles (terrain_id, disponible, date_debut) pour chaque terrain du club
+    @Query(SELECT_LIGNE + """
+    where club.id = :clubId and c.disponible = true
+      and c.dateDebut >= :debut and c.dateDebut < :fin
+      and (:sport is null or c.sport = :sport)
+    order by c.dateDebut, c.id
+    """)
+    List<CreneauLigne> findDisponiblesDuClub(@Param("clubId") Long clubId,
+                                             @Param("debut") LocalDateTime debut,
+                                             @Param("fin") LocalDateTime fin,
+                                             @Param("sport") String sport);
+
+    // Recherche publique (RechercheCreneauxService) : créneaux libres, ordre de clé (dateDebut, terrain, id).
+    // Filtres absents -> bornes "infinies" ; la ville choisit l'index, d'où deux requêtes
+    String RECHERCHE = """
+    where c.statut = com.fieldz.model.Statut.LIBRE and c.disponible = true
+      and c.dateDebut >= :debut and c.dateDebut < :fin
+      and (c.dateDebut > :apresDate or (c.dateDebut = :apresDate
+           and (t.id > :apresTerrain or (t.id = :apresTerrain and c.id > :apresId))))
+      and cast(c.dateDebut as LocalTime) between :heureMin and :heureMax
+      and coalesce(c.prix, 0) between :prixMin and :prixMax
+      and (:sport is null or c.sport = :sport)
+    """;
+
+    @Query(SELECT_LIGNE + RECHERCHE + "order by c.dateDebut, t.id, c.id")
+    List<CreneauLigne> rechercherDisponibles(@Param("debut") LocalDateTime debut,
+                                             @Param("fin") LocalDateTime fin,
+                                             @Param("apresDate") LocalDateTime apresDate,
+                                             @Param("apresTerrain") Long apresTerrain,
+                                             @Param("apresId") Long apresId,
+                                             @Param("heureMin") LocalTime heureMin,
+                                             @Param("heureMax") LocalTime heureMax,
+                                             @Param("prixMin") Double prixMin,
+                                             @Param("prixMax") Double prixMax,
+                                             @Param("sport") String sport,
+                                             Limit limit);
+
+    @Query(SELECT_LIGNE + RECHERCHE + "and c.ville = :ville order by c.dateDebut, t.id, c.id")
+    List<CreneauLigne> rechercherDisponiblesParVille(@Param("ville") String ville,
+                                                     @Param("debut") LocalDateTime debut,
+                                                     @Param("fin") LocalDateTime fin,
+                                                     @Param("apresDate") LocalDateTime apresDate,
+                                                     @Param("apresTerrain") Long apresTerrain,
+                                                     @Param("apresId") Long apresId,
+                                                     @Param("heureMin") LocalTime heureMin,
+                                                     @Param("heureMax") LocalTime heureMax,
+                                                     @Param("prixMin") Double prixMin,
+                                                     @Param("prixMax") Double prixMax,
+                                                     @Param("sport") String sport,
+                                                     Limit limit);
+
+    // Lieu de recherche recopié (Creneau.villeRecherche / sportRecherche) après modification du terrain.
+    // Sans clear : les créneaux déjà chargés recalculent leur lieu à leur prochaine écriture
+    @Modifying(flushAutomatically = true)
+    @Query("update Creneau c set c.ville = :ville, c.sport = :sport where c.terrain.id = :terrainId")
+    int majLieuDuTerrain(@Param("terrainId") Long terrainId, @Param("ville") String ville, @Param("sport") String sport);
+
+    // ... ou de la ville du club, pour ses terrains sans ville propre
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        update Creneau c set c.ville = :ville
+        where c.terrain.id in (select t.id from Terrain t
+                               where t.club.id = :clubId and (t.ville is null or trim(t.ville) = ''))
+    """)
+    int majVilleDuClub(@Param("clubId") Long clubId, @Param("ville") String ville);
+
+    // Hydratation de l'index de disponibilité : créneaux non terminés, terrain + club chargés
     @Query("""
     select c
     from Creneau c
-    where c.terrain.id = :terrainId
+    join fetch c.terrain t
+    left join fetch t.club
+    where c.dateFin > :from
 """)
-    Page<Creneau> findByTerrainIdPaginated(@Param("terrainId") Long terrainId, Pageable pageable);
+    List<Creneau> findAVenirFetchTerrainAndClub(@Param("from") LocalDateTime from);
 
-    // Paginated query for all creneaux of a club (across all terrains)
+    // Créneaux modifiés sur un autre noeud, relus pour l'index de disponibilité (voir BusCluster)
     @Query("""
     select c
     from Creneau c
-    where c.terrain.club.id = :clubId
+    join fetch c.terrain t
+    left join fetch t.club
+    where c.id in :ids
 """)
-    Page<Creneau> findByClubIdPaginated(@Param("clubId") Long clubId, Pageable pageable);
+    List<Creneau> findByIdsFetchTerrainAndClub(@Param("ids") Collection<Long> ids);
 
-}
+    // Durée (minutes) du plus long créneau d'un club : borne les recherches de chevauchement de l'import en masse
+    @Query("select max((c.dateFin - c.dateDebut) by minute) from Creneau c where c.terrain.club.id = :clubId")
+    Long dureeMaxMinutes(@Param("clubId") Long clubId);
 
+    // Projection légère pour le rollup statistique (club/terrain/dates/prix)
+    @Query("""
+        SELECT new com.fieldz.service.statistiques.CreneauRollup(
+            c.id, t.club.id, t.id, c.dateDebut, c.dateFin, c.prix)
+        FROM Creneau c JOIN c.terrain t
+        WHERE c.id IN :ids
+    """)
+    List<CreneauRollup> findRollupByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,38 @@
+package com.fieldz.repository;
+
+import com.fieldz.model.EmailOutbox;
+import com.fieldz.model.EmailOutbox.StatutEmail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    @Query("""
+        SELECT e FROM EmailOutbox e
+        WHERE e.statut = com.fieldz.model.EmailOutbox.StatutEmail.EN_ATTENTE
+          AND e.prochaineTentative <= :now
+          AND mod(e.id, :total) = :index
+        ORDER BY e.prochaineTentative, e.id
+    """)
+    List<EmailOutbox> findAEnvoyer(@Param("now") LocalDateTime now, @Param("index") int index,
+                                   @Param("total") int total, Pageable pageable);
+
+    // Prise conditionnelle : échoue (0) si un autre noeud a déjà repoussé ou envoyé l'email depuis la lecture
+    @Modifying
+    @Query("""
+        UPDATE EmailOutbox e
+        SET e.prochaineTentative = :bail
+        WHERE e.id = :id
+          AND e.statut = com.fieldz.model.EmailOutbox.StatutEmail.EN_ATTENTE
+          AND e.prochaineTentative = :lue
+    """)
+    int prendre(@Param("id") Long id, @Param("lue") LocalDateTime lue, @Param("bail") LocalDateTime bail);
+
+    long countByStatut(StatutEmail statut);
+}
@@ -0,0 +1,25 @@
+package com.fieldz.repository;
+
+import com.fieldz.model.EvenementCluster;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EvenementClusterRepository extends JpaRepository<EvenementCluster, Long> {
+
+    // Relève de BusCluster : événements des autres noeuds depuis le dernier passage (moins la marge)
+    @Query("""
+    select e from EvenementCluster e
+    where e.dateCreation >= :depuis and e.emetteur <> :noeud
+    order by e.dateCreation, e.id
+""")
+    List<EvenementCluster> findEmisDepuis(@Param("depuis") LocalDateTime depuis, @Param("noeud") String noeud);
+
+    // Rétention (MaintenanceService)
+    @Query("select e.id from EvenementCluster e where e.dateCreation < :avant order by e.dateCreation")
+    List<Long> findIdsAvant(@Param("avant") LocalDateTime avant, Limit limit);
+}
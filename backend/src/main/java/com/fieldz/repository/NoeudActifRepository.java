@@ -0,0 +1,25 @@
+package com.fieldz.repository;
+
+import com.fieldz.model.NoeudActif;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NoeudActifRepository extends JpaRepository<NoeudActif, String> {
+
+    @Modifying
+    @Query("UPDATE NoeudActif n SET n.vuA = :maintenant WHERE n.id = :id")
+    int battre(@Param("id") String id, @Param("maintenant") LocalDateTime maintenant);
+
+    // Ordre stable : chaque noeud y lit le même rang
+    @Query("SELECT n.id FROM NoeudActif n WHERE n.vuA > :depuis ORDER BY n.id")
+    List<String> findIdsVusDepuis(@Param("depuis") LocalDateTime depuis);
+
+    @Modifying
+    @Query("DELETE FROM NoeudActif n WHERE n.vuA <= :limite")
+    int supprimerVusAvant(@Param("limite") LocalDateTime limite);
+}
@@ -1,12 +1,20 @@
 package com.fieldz.repository;
 
 import com.fieldz.model.NotificationEnvoyee;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface NotificationEnvoyeeRepository extends JpaRepository<NotificationEnvoyee, Long> {
     Optional<NotificationEnvoyee> findByReservationIdAndType(Long reservationId, String type);
     boolean existsByReservationIdAndType(Long reservationId, String type);
 
+    // Rétention (MaintenanceService) : marqueurs de réservations passées depuis longtemps
+    @Query("select n.id from NotificationEnvoyee n where n.dateEnvoi < :avant order by n.dateEnvoi")
+    List<Long> findIdsEnvoyeesAvant(@Param("avant") LocalDateTime avant, Limit limit);
 }
@@ -1,11 +1,57 @@
 package com.fieldz.repository;
 
+import com.fieldz.dto.NotificationLigne;
 import com.fieldz.model.Notification;
 import com.fieldz.model.Utilisateur;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByDestinataireOrderByDateEnvoiDesc(Utilisateur user);
+
+    long countByDestinataireIdAndLueFalse(Long destinataireId);
+
+    // Notifications créées sur un autre noeud, à pousser aux flux SSE ouverts ici (NotificationFlux)
+    List<Notification> findByIdInOrderByDateEnvoiAscIdAsc(Collection<Long> ids);
+
+    // Paginé par clé (dateEnvoi, id) décroissante ; idx_notification_destinataire_date
+    @Query("""
+        select new com.fieldz.dto.NotificationLigne(n.id, n.message, n.type, n.dateEnvoi, n.lue, n.reservation.id)
+        from Notification n
+        where n.destinataire.id = :destinataireId
+          and (n.dateEnvoi < :apresDate or (n.dateEnvoi = :apresDate and n.id < :apresId))
+        order by n.dateEnvoi desc, n.id desc
+    """)
+    List<NotificationLigne> pageDuDestinataire(@Param("destinataireId") Long destinataireId,
+                                               @Param("apresDate") LocalDateTime apresDate,
+                                               @Param("apresId") Long apresId,
+                                               Limit limit);
+
+    // Rattrapage du flux SSE : notifications postérieures au dernier événement reçu, plus anciennes d'abord
+    @Query("""
+        select new com.fieldz.dto.NotificationLigne(n.id, n.message, n.type, n.dateEnvoi, n.lue, n.reservation.id)
+        from Notification n
+        where n.destinataire.id = :destinataireId
+          and (n.dateEnvoi > :depuisDate or (n.dateEnvoi = :depuisDate and n.id > :depuisId))
+        order by n.dateEnvoi, n.id
+    """)
+    List<NotificationLigne> depuisCurseur(@Param("destinataireId") Long destinataireId,
+                                          @Param("depuisDate") LocalDateTime depuisDate,
+                                          @Param("depuisId") Long depuisId,
+                                          Limit limit);
+
+    // Rétention (MaintenanceService) : toutes avant :avant, les lues dès :lueAvant
+    @Query("""
+        select n.id from Notification n
+        where n.dateEnvoi < :avant or (n.lue = true and n.dateEnvoi < :lueAvant)
+        order by n.dateEnvoi
+    """)
+    List<Long> findIdsAPurger(@Param("avant") LocalDateTime avant, @Param("lueAvant") LocalDateTime lueAvant,
+                              Limit limit);
 }
@@ -1,7 +1,10 @@
 package com.fieldz.repository;
 
 import com.fieldz.model.OtpCode;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -22,7 +25,8 @@ public interface OtpCodeRepository extends JpaRepository<OtpCode, Long> {
     Optional<OtpCode> findByEmailAndCode(String email, String code);
 
     /**
-     * Delete expired OTP codes (for cleanup)
+     * Ids of expired OTP codes, oldest first (batched cleanup)
      */
-    void deleteByExpiresAtBefore(LocalDateTime now);
+    @Query("SELECT o.id FROM OtpCode o WHERE o.expiresAt < :now ORDER BY o.expiresAt")
+    List<Long> findIdsExpires(@Param("now") LocalDateTime now, Limit limit);
 }
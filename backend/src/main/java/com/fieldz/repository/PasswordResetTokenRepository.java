@@ -1,10 +1,15 @@
 package com.fieldz.repository;
 
 import com.fieldz.model.PasswordResetToken;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
@@ -13,4 +18,8 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     @Modifying
     @Transactional
     void deleteByUtilisateurId(Long utilisateurId);
+
+    // Purge par lots (MaintenanceService)
+    @Query("SELECT t.id FROM PasswordResetToken t WHERE t.expirationDate < :now ORDER BY t.expirationDate")
+    List<Long> findIdsExpires(@Param("now") LocalDateTime now, Limit limit);
 }
@@ -1,13 +1,20 @@
 package com.fieldz.repository;
 
 import com.fieldz.model.RefreshToken;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     Optional<RefreshToken> findByTokenHash(String tokenHash);
     long deleteByUserId(Long userId);
-    long deleteByExpiresAtBefore(Instant now);
+
+    // Purge par lots (MaintenanceService) : ids puis deleteAllByIdInBatch
+    @Query("select t.id from RefreshToken t where t.expiresAt < :now order by t.expiresAt")
+    List<Long> findIdsExpires(@Param("now") Instant now, Limit limit);
 }
@@ -0,0 +1,110 @@
+package com.fieldz.repository;
+
+import com.fieldz.model.RegleCreneau;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface RegleCreneauRepository extends JpaRepository<RegleCreneau, Long> {
+
+    // Règles valides sur au moins un jour de [from, to], terrain + club chargés (expansion en créneaux virtuels)
+    @Query("""
+    select r
+    from RegleCreneau r
+    join fetch r.terrain t
+    left join fetch t.club
+    where r.dateDebut <= :to and r.dateFin >= :from
+""")
+    List<RegleCreneau> findActivesFetchTerrainAndClub(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Hydratation de l'index de disponibilité : règles non terminées, terrain + club chargés
+    @Query("""
+    select r
+    from RegleCreneau r
+    join fetch r.terrain t
+    left join fetch t.club
+    where r.dateFin >= :depuis
+""")
+    List<RegleCreneau> findNonTermineesFetchTerrainAndClub(@Param("depuis") LocalDate depuis);
+
+    // Règles signalées par un autre noeud (BusCluster)
+    @Query("""
+    select r
+    from RegleCreneau r
+    join fetch r.terrain t
+    left join fetch t.club
+    where r.id in :ids
+""")
+    List<RegleCreneau> findByIdsFetchTerrainAndClub(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+    select r
+    from RegleCreneau r
+    join fetch r.terrain t
+    left join fetch t.club
+    where t.id = :terrainId
+""")
+    List<RegleCreneau> findByTerrainIdFetchTerrainAndClub(@Param("terrainId") Long terrainId);
+
+    // Ville / sport sous la normalisation de Creneau.villeRecherche / sportRecherche (ville du terrain,
+    // à défaut du club) ; null : pas de filtre
+    @Query("""
+    select r
+    from RegleCreneau r
+    join fetch r.terrain t
+    left join fetch t.club club
+    where (:ville is null
+           or lower(trim(case when t.ville is null or trim(t.ville) = '' then club.ville else t.ville end)) = :ville)
+      and (:sport is null or upper(trim(t.sport)) = :sport)
+      and r.dateDebut <= :to and r.dateFin >= :from
+""")
+    List<RegleCreneau> findActivesDuLieu(@Param("ville") String ville,
+                                         @Param("sport") String sport,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
+
+    @Query("""
+    select r
+    from RegleCreneau r
+    join fetch r.terrain t
+    left join fetch t.club club
+    where club.id = :clubId and r.dateDebut <= :to and r.dateFin >= :from
+""")
+    List<RegleCreneau> findActivesDuClub(@Param("clubId") Long clubId,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
+
+    @Query("""
+    select r
+    from RegleCreneau r
+    join fetch r.terrain t
+    where t.club.id = :clubId
+    order by t.id, r.jourDeSemaine, r.heureDebut
+""")
+    List<RegleCreneau> findByClubId(@Param("clubId") Long clubId);
+
+    List<RegleCreneau> findByTerrainId(Long terrainId);
+
+    // Verrou sur la règle : deux matérialisations concurrentes d'une même occurrence sont sérialisées
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+    select r
+    from RegleCreneau r
+    join fetch r.terrain t
+    left join fetch t.club
+    where r.id = :id
+""")
+    Optional<RegleCreneau> findByIdPourMaterialisation(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM RegleCreneau r WHERE r.terrain.id = :terrainId")
+    int deleteByTerrainId(@Param("terrainId") Long terrainId);
+}
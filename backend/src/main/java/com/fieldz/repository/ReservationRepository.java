@@ -1,6 +1,9 @@
 package com.fieldz.repository;
 
+import com.fieldz.dto.ReservationLigne;
 import com.fieldz.model.Reservation;
+import com.fieldz.service.rappel.RappelAPlanifier;
+import com.fieldz.service.statistiques.AgregatRollup;
 import com.fieldz.model.Joueur;
 import com.fieldz.model.Statut;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,14 +11,46 @@ import com.fieldz.model.Terrain;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
-    List<Reservation> findByJoueur(Joueur joueur);
-    List<Reservation> findByCreneau_TerrainIn(List<Terrain> terrains);
+
+    // Listes en lecture seule : projection "select new" sur ReservationLigne, sans entité managée.
+    // Jointures externes : une réservation peut avoir perdu son créneau (terrain supprimé) ou ne pas avoir de joueur (saisie manuelle)
+    String SELECT_LIGNE = """
+        SELECT new com.fieldz.dto.ReservationLigne(
+            r.id, r.dateReservation, r.statut, r.dateAnnulation, r.motifAnnulation, r.nomReservant,
+            j.id, j.nom, j.prenom, j.email, j.telephone, j.photoProfilUrl,
+            c.id, c.dateDebut, c.dateFin, c.prix, c.secondPrix, c.statut, c.disponible,
+            t.id, t.nomTerrain, t.typeSurface, t.ville, t.sport, t.photo, t.politiqueClub,
+            club.id, club.nom, club.ville)
+        FROM Reservation r
+        LEFT JOIN r.joueur j
+        LEFT JOIN r.creneau c
+        LEFT JOIN c.terrain t
+        LEFT JOIN t.club club
+        """;
+
+    @Query(SELECT_LIGNE + "WHERE club.id = :clubId")
+    List<ReservationLigne> lignesDuClub(@Param("clubId") Long clubId);
+
+    @Query(SELECT_LIGNE + "WHERE j.id = :joueurId")
+    List<ReservationLigne> lignesDuJoueur(@Param("joueurId") Long joueurId);
+
+    @Query(SELECT_LIGNE + "WHERE j.id = :joueurId AND r.statut IN :statuts")
+    List<ReservationLigne> lignesDuJoueurParStatut(@Param("joueurId") Long joueurId,
+                                                   @Param("statuts") List<Statut> statuts);
+
+    @Query(SELECT_LIGNE + "WHERE club.id = :clubId AND c.dateDebut BETWEEN :start AND :end")
+    List<ReservationLigne> lignesDuClubEntre(@Param("clubId") Long clubId,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
 
 
     // A supprimer après les test
@@ -28,9 +63,6 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     boolean existsByCreneau_IdAndStatutNotIn(Long creneauId, List<Statut> statutsExclus);
     List<Reservation> findByJoueurAndStatut(Joueur joueur, Statut statut);
 
-    @Query("SELECT r FROM Reservation r WHERE r.joueur.id = :joueurId AND r.statut IN :statuts")
-    List<Reservation> findAnnuleesByJoueurId(@Param("statuts") List<Statut> statuts, @Param("joueurId") Long joueurId);
-
     List<Reservation> findByCreneauId(Long creneauId);
 
     /*@Query("""
@@ -43,16 +75,6 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end
     ); */
-    @Query("""
-    SELECT r FROM Reservation r
-    WHERE r.creneau.terrain IN :terrains
-      AND r.creneau.dateDebut BETWEEN :start AND :end
-""")
-    List<Reservation> findByTerrainsAndDateDebut(
-            @Param("terrains") List<Terrain> terrains,
-            @Param("start") LocalDateTime start,
-            @Param("end") LocalDateTime end
-    );
 
     /*
     @Query("SELECT r FROM Reservation r " +
@@ -91,6 +113,8 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     java.util.List<com.fieldz.model.Reservation> findByCreneau_TerrainId(Long terrainId);
 
 
+    // Rappels : la borne est répétée sur r.dateDebutCreneau (clé de partition, copie de c.dateDebut)
+    // pour que PostgreSQL n'ouvre que les partitions concernées des deux tables
     @Query("""
     select r
     from Reservation r
@@ -100,6 +124,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     left join fetch t.club club
     where r.statut = :statut
       and c.dateDebut between :start and :end
+      and r.dateDebutCreneau between :start and :end
 """)
     List<Reservation> findUpcomingWithCreneauBetween(
             @Param("start") LocalDateTime start,
@@ -107,43 +132,160 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("statut") Statut statut
     );
 
-    // Statistics queries - Filter by creneau date (when the game is scheduled), not reservation date
+    // Même sélection, moins les réservations déjà notifiées pour ce type (anti-jointure servie
+    // par l'index unique uq_notification_envoyee_reservation_type) : plus d'exists par ligne
     @Query("""
-    SELECT COUNT(r) FROM Reservation r
-    WHERE r.creneau.terrain IN :terrains
-      AND r.creneau.dateDebut BETWEEN :start AND :end
-    """)
-    long countByTerrainsAndDateRange(
-            @Param("terrains") List<Terrain> terrains,
+    select r
+    from Reservation r
+    join fetch r.creneau c
+    join fetch r.joueur j
+    left join fetch c.terrain t
+    left join fetch t.club club
+    where r.statut = :statut
+      and c.dateDebut between :start and :end
+      and r.dateDebutCreneau between :start and :end
+      and not exists (select 1 from NotificationEnvoyee n where n.reservationId = r.id and n.type = :type)
+""")
+    List<Reservation> findNonNotifieesAvecCreneauEntre(
             @Param("start") LocalDateTime start,
-            @Param("end") LocalDateTime end
+            @Param("end")   LocalDateTime end,
+            @Param("statut") Statut statut,
+            @Param("type") String type
     );
 
+    // Une seule réservation, au déclenchement de son rappel (RappelService)
     @Query("""
-    SELECT COUNT(r) FROM Reservation r
-    WHERE r.creneau.terrain IN :terrains
-      AND r.statut = :statut
-      AND r.creneau.dateDebut BETWEEN :start AND :end
-    """)
-    long countByTerrainsAndStatutAndDateRange(
-            @Param("terrains") List<Terrain> terrains,
-            @Param("statut") Statut statut,
+    select r
+    from Reservation r
+    join fetch r.creneau c
+    join fetch r.joueur j
+    left join fetch c.terrain t
+    left join fetch t.club club
+    where r.id = :id
+      and r.statut = :statut
+      and c.dateDebut between :start and :end
+      and not exists (select 1 from NotificationEnvoyee n where n.reservationId = r.id and n.type = :type)
+""")
+    Optional<Reservation> findNonNotifieeAvecCreneauEntre(
+            @Param("id") Long id,
             @Param("start") LocalDateTime start,
-            @Param("end") LocalDateTime end
+            @Param("end")   LocalDateTime end,
+            @Param("statut") Statut statut,
+            @Param("type") String type
     );
 
+    // Rappels à planifier sur la roue (démarrage, changement de partition, balayage) : créneau
+    // dans ]apres, jusqua], pas encore notifiés, clubs de la partition du noeud
     @Query("""
-    SELECT SUM(r.creneau.prix) FROM Reservation r
-    WHERE r.creneau.terrain IN :terrains
-      AND r.statut = :statut
-      AND r.creneau.dateDebut BETWEEN :start AND :end
-      AND r.creneau.prix IS NOT NULL
-    """)
-    Double sumPrixByTerrainsAndStatutAndDateRange(
-            @Param("terrains") List<Terrain> terrains,
+    select new com.fieldz.service.rappel.RappelAPlanifier(r.id, c.dateDebut)
+    from Reservation r
+    join r.creneau c
+    where r.statut = :statut
+      and c.dateDebut > :apres and c.dateDebut <= :jusqua
+      and r.dateDebutCreneau > :apres and r.dateDebutCreneau <= :jusqua
+      and mod(c.terrain.club.id, :total) = :index
+      and not exists (select 1 from NotificationEnvoyee n where n.reservationId = r.id and n.type = :type)
+""")
+    List<RappelAPlanifier> findRappelsAPlanifier(
+            @Param("apres") LocalDateTime apres,
+            @Param("jusqua") LocalDateTime jusqua,
             @Param("statut") Statut statut,
+            @Param("type") String type,
+            @Param("index") int index,
+            @Param("total") int total
+    );
+
+    // Statistics - totaux d'un jour pour la réconciliation du rollup (date du créneau dans [start, end[)
+    // Même borne sur r.dateDebutCreneau que pour les rappels (élagage des partitions)
+    @Query("""
+    SELECT new com.fieldz.service.statistiques.AgregatRollup(
+        t.club.id, t.id, r.statut, COUNT(r), SUM(COALESCE(c.prix, 0.0)),
+        SUM(CASE WHEN c.dateFin > c.dateDebut THEN (c.dateFin - c.dateDebut) by minute ELSE 0L END))
+    FROM Reservation r JOIN r.creneau c JOIN c.terrain t
+    WHERE c.dateDebut >= :start AND c.dateDebut < :end
+      AND r.dateDebutCreneau >= :start AND r.dateDebutCreneau < :end
+      AND t.club IS NOT NULL
+    GROUP BY t.club.id, t.id, r.statut
+    """)
+    List<AgregatRollup> findRollupEntre(
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end
     );
 
+    // Expiration automatique (ReservationExpirationService) : un lot d'ids à traiter, le plus ancien d'abord
+    @Query("""
+        SELECT r.id FROM Reservation r
+        WHERE r.statut = com.fieldz.model.Statut.RESERVE
+          AND r.creneau IS NOT NULL
+          AND r.dateReservation < :limite
+          AND mod(r.creneau.terrain.club.id, :total) = :index
+        ORDER BY r.id
+    """)
+    List<Long> findIdsAExpirer(@Param("limite") LocalDateTime limite,
+                               @Param("index") int index, @Param("total") int total, Limit limit);
+
+    // UPDATE ensembliste ; la version est incrémentée pour le verrouillage optimiste
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Reservation r
+        SET r.statut = com.fieldz.model.Statut.ABSENT,
+            r.dateAnnulation = :maintenant,
+            r.motifAnnulation = :motif,
+            r.version = r.version + 1
+        WHERE r.id IN :ids AND r.statut = com.fieldz.model.Statut.RESERVE
+    """)
+    int expirerEnAbsent(@Param("ids") List<Long> ids,
+                        @Param("maintenant") LocalDateTime maintenant,
+                        @Param("motif") String motif);
+
+    // Lignes expirées par ce passage : un autre noeud qui a expiré les mêmes dans la même seconde
+    // a déjà posé son marqueur (committé avec son UPDATE, que le nôtre a attendu)
+    @Query("""
+        SELECT r FROM Reservation r
+        JOIN FETCH r.creneau c
+        JOIN FETCH c.terrain t
+        JOIN FETCH t.club
+        LEFT JOIN FETCH r.joueur
+        WHERE r.id IN :ids
+          AND r.statut = com.fieldz.model.Statut.ABSENT
+          AND r.dateAnnulation = :maintenant
+          AND r.motifAnnulation = :motif
+          AND NOT EXISTS (SELECT 1 FROM NotificationEnvoyee n WHERE n.reservationId = r.id AND n.type = :type)
+    """)
+    List<Reservation> findExpireesAvecDetails(@Param("ids") List<Long> ids,
+                                              @Param("maintenant") LocalDateTime maintenant,
+                                              @Param("motif") String motif,
+                                              @Param("type") String type);
+
+    // Listes paginées par clé (dateDebut du créneau, id) décroissantes, en projection.
+    // Index couvrants : reservation(creneau_id, statut, id) côté club, reservation(joueur_id, creneau_id, statut) côté joueur
+    @Query(SELECT_LIGNE + """
+        WHERE club.id = :clubId
+          AND c.dateDebut >= :depuis AND c.dateDebut < :jusqua
+          AND r.statut IN :statuts
+          AND (c.dateDebut < :apresDate OR (c.dateDebut = :apresDate AND r.id < :apresId))
+        ORDER BY c.dateDebut DESC, r.id DESC
+    """)
+    List<ReservationLigne> pageDuClub(@Param("clubId") Long clubId,
+                                      @Param("depuis") LocalDateTime depuis,
+                                      @Param("jusqua") LocalDateTime jusqua,
+                                      @Param("statuts") List<Statut> statuts,
+                                      @Param("apresDate") LocalDateTime apresDate,
+                                      @Param("apresId") Long apresId,
+                                      Limit limit);
+
+    @Query(SELECT_LIGNE + """
+        WHERE j.id = :joueurId
+          AND c.dateDebut >= :depuis AND c.dateDebut < :jusqua
+          AND r.statut IN :statuts
+          AND (c.dateDebut < :apresDate OR (c.dateDebut = :apresDate AND r.id < :apresId))
+        ORDER BY c.dateDebut DESC, r.id DESC
+    """)
+    List<ReservationLigne> pageDuJoueur(@Param("joueurId") Long joueurId,
+                                        @Param("depuis") LocalDateTime depuis,
+                                        @Param("jusqua") LocalDateTime jusqua,
+                                        @Param("statuts") List<Statut> statuts,
+                                        @Param("apresDate") LocalDateTime apresDate,
+                                        @Param("apresId") Long apresId,
+                                        Limit limit);
 }
@@ -0,0 +1,51 @@
+package com.fieldz.repository;
+
+import com.fieldz.dto.AgregatJourStatut;
+import com.fieldz.model.Statut;
+import com.fieldz.model.StatistiqueJournaliere;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface StatistiqueJournaliereRepository extends JpaRepository<StatistiqueJournaliere, Long> {
+
+    @Modifying
+    @Query("""
+        UPDATE StatistiqueJournaliere s
+        SET s.nombre = s.nombre + :nombre,
+            s.revenu = s.revenu + :revenu,
+            s.minutesReservees = s.minutesReservees + :minutes
+        WHERE s.clubId = :clubId AND s.terrainId = :terrainId
+          AND s.jour = :jour AND s.statut = :statut
+    """)
+    int incrementer(@Param("clubId") Long clubId,
+                    @Param("terrainId") Long terrainId,
+                    @Param("jour") LocalDate jour,
+                    @Param("statut") Statut statut,
+                    @Param("nombre") long nombre,
+                    @Param("revenu") double revenu,
+                    @Param("minutes") long minutes);
+
+    // Somme sur une plage de jours [debut, fin[, tous terrains du club confondus
+    @Query("""
+        SELECT new com.fieldz.dto.AgregatJourStatut(
+            s.jour, s.statut, SUM(s.nombre), SUM(s.revenu), SUM(s.minutesReservees))
+        FROM StatistiqueJournaliere s
+        WHERE s.clubId = :clubId AND s.jour >= :debut AND s.jour < :fin
+        GROUP BY s.jour, s.statut
+    """)
+    List<AgregatJourStatut> sommesParJourEtStatut(@Param("clubId") Long clubId,
+                                                  @Param("debut") LocalDate debut,
+                                                  @Param("fin") LocalDate fin);
+
+    // Réconciliation : les lignes d'un jour, verrouillées contre les incréments concurrents
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StatistiqueJournaliere s WHERE s.jour = :jour")
+    List<StatistiqueJournaliere> verrouillerJour(@Param("jour") LocalDate jour);
+}
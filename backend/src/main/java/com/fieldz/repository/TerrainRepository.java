@@ -2,13 +2,19 @@ package com.fieldz.repository;
 
 import com.fieldz.model.Terrain;
 import com.fieldz.model.Club;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface TerrainRepository extends JpaRepository<Terrain, Long> {
     List<Terrain> findByClub(Club club);
 
+    long countByClub(Club club);
+
     // Ville exacte (insensible à la casse)
     @Query("SELECT t FROM Terrain t WHERE LOWER(t.ville) = LOWER(:ville)")
     List<Terrain> findByVilleIgnoreCase(String ville);
@@ -20,4 +26,14 @@ public interface TerrainRepository extends JpaRepository<Terrain, Long> {
     // ✅ Recherche par correspondance partielle (contient)
     List<Terrain> findByVilleContainingIgnoreCase(String fragment);
 
+    // Terrains d'un club, club chargé : vues recopiées dans l'index de disponibilité
+    @Query("SELECT t FROM Terrain t JOIN FETCH t.club c WHERE c.id = :clubId")
+    List<Terrain> findByClubIdFetchClub(@Param("clubId") Long clubId);
+
+    // Verrou par terrain, pris dans l'ordre des ids (pas d'interblocage) : sérialise les écritures
+    // de créneaux d'un terrain entre le contrôle des chevauchements et l'insertion
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Terrain t WHERE t.id IN :ids ORDER BY t.id")
+    List<Terrain> verrouiller(@Param("ids") Collection<Long> ids);
+
 }
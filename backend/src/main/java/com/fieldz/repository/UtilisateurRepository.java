@@ -1,9 +1,53 @@
 package com.fieldz.repository;
 
+import com.fieldz.dto.AdminCompteurs;
+import com.fieldz.model.Club;
+import com.fieldz.model.Joueur;
 import com.fieldz.model.Utilisateur;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long> {
     Optional<Utilisateur> findByEmail(String email);
+
+    // KPIs admin en un seul aller-retour : chaque sous-requête filtre sur le discriminant (dtype)
+    @Query("""
+        SELECT new com.fieldz.dto.AdminCompteurs(
+            (SELECT COUNT(c) FROM Club c),
+            (SELECT COUNT(j) FROM Joueur j),
+            (SELECT COUNT(c) FROM Club c WHERE c.dateInscription > :inscritsDepuis),
+            (SELECT COUNT(j) FROM Joueur j WHERE j.dateInscription > :inscritsDepuis),
+            (SELECT COUNT(r) FROM Reservation r WHERE r.dateReservation > :reservesDepuis))
+    """)
+    AdminCompteurs compterPourAdmin(@Param("inscritsDepuis") LocalDateTime inscritsDepuis,
+                                    @Param("reservesDepuis") LocalDateTime reservesDepuis);
+
+    // Recherche admin paginée par clé (id > apresId) : pas d'OFFSET, coût stable quelle que soit la page.
+    // En prod, LOWER(col) LIKE '%x%' est servi par les index trigram (db/vendor/postgresql)
+    @Query("""
+        SELECT c FROM Club c
+        WHERE c.id > :apresId
+          AND (LOWER(c.nom) LIKE :motif ESCAPE '!'
+               OR LOWER(c.email) LIKE :motif ESCAPE '!'
+               OR LOWER(c.ville) LIKE :motif ESCAPE '!'
+               OR LOWER(c.adresse) LIKE :motif ESCAPE '!')
+        ORDER BY c.id
+    """)
+    List<Club> rechercherClubs(@Param("motif") String motif, @Param("apresId") long apresId, Limit limit);
+
+    @Query("""
+        SELECT j FROM Joueur j
+        WHERE j.id > :apresId
+          AND (LOWER(j.nom) LIKE :motif ESCAPE '!'
+               OR LOWER(j.prenom) LIKE :motif ESCAPE '!'
+               OR LOWER(j.email) LIKE :motif ESCAPE '!')
+        ORDER BY j.id
+    """)
+    List<Joueur> rechercherJoueurs(@Param("motif") String motif, @Param("apresId") long apresId, Limit limit);
 }
@@ -0,0 +1,181 @@
+package com.fieldz.scheduler;
+
+import com.fieldz.model.EmailOutbox;
+import com.fieldz.model.EmailOutbox.StatutEmail;
+import com.fieldz.repository.EmailOutboxRepository;
+import com.fieldz.service.EmailService;
+import com.fieldz.service.cluster.NoeudsActifs;
+import com.fieldz.service.cluster.Partition;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vide la table email_outbox : les emails en attente sont pris par lots et envoyés
+ * par un pool borné de threads, chaque lot sur une seule connexion SMTP.
+ * Un échec est retenté avec un backoff exponentiel, jusqu'à maxTentatives.
+ * Avec plusieurs instances, chacune ne prend que les emails de sa partition (id modulo nombre de noeuds).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.email.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxWorker {
+
+    private static final Duration BAIL = Duration.ofMinutes(5);
+    private static final Duration BACKOFF_INITIAL = Duration.ofSeconds(30);
+    private static final Duration BACKOFF_MAX = Duration.ofHours(1);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final NoeudsActifs noeudsActifs;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.email.outbox.threads:2}")
+    private int threads;
+
+    @Value("${app.email.outbox.batch-size:20}")
+    private int tailleLot;
+
+    @Value("${app.email.outbox.max-tentatives:5}")
+    private int maxTentatives;
+
+    private final AtomicLong enAttente = new AtomicLong();
+    private final AtomicInteger lotsEnCours = new AtomicInteger();
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("email-outbox-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        Gauge.builder("fieldz.email.outbox.en_attente", enAttente, AtomicLong::get)
+                .description("Emails en attente d'envoi dans l'outbox")
+                .register(meterRegistry);
+        Gauge.builder("fieldz.email.outbox.lots_en_cours", lotsEnCours, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void arreter() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-ms:5000}")
+    public void drainer() {
+        enAttente.set(emailOutboxRepository.countByStatut(StatutEmail.EN_ATTENTE));
+        Partition partition = noeudsActifs.partition();
+        if (partition == null) return;
+
+        // Pas plus de lots en vol que le pool + sa file ne peuvent absorber
+        while (lotsEnCours.get() < threads * 2) {
+            List<EmailOutbox> lot = prendreLot(partition);
+            if (lot.isEmpty()) return;
+
+            lotsEnCours.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        envoyer(lot);
+                    } finally {
+                        lotsEnCours.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Le bail expirera et le lot sera repris au prochain passage
+                lotsEnCours.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sélectionne un lot et le repousse de la durée du bail pour qu'il ne soit pas repris.
+     * Chaque email est pris par un UPDATE conditionnel sur la date lue : si deux noeuds aux
+     * partitions chevauchantes lisent la même ligne, un seul la prend et l'envoie.
+     */
+    private List<EmailOutbox> prendreLot(Partition partition) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime bail = now.plus(BAIL);
+            List<EmailOutbox> candidats = emailOutboxRepository.findAEnvoyer(now, partition.index(), partition.total(),
+                    PageRequest.of(0, tailleLot));
+            List<EmailOutbox> lot = new ArrayList<>(candidats.size());
+            for (EmailOutbox email : candidats) {
+                if (emailOutboxRepository.prendre(email.getId(), email.getProchaineTentative(), bail) == 1) {
+                    lot.add(email);
+                }
+            }
+            return lot;
+        });
+    }
+
+    private void envoyer(List<EmailOutbox> lot) {
+        Map<Long, String> echecs;
+        try {
+            echecs = emailService.envoyerLot(lot);
+        } catch (Exception e) {
+            log.warn("Lot outbox non envoyé ({} emails) : {}", lot.size(), e.getMessage());
+            echecs = new HashMap<>();
+            for (EmailOutbox email : lot) echecs.put(email.getId(), String.valueOf(e.getMessage()));
+        }
+
+        Map<Long, String> erreurs = echecs;
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (EmailOutbox email : emailOutboxRepository.findAllById(lot.stream().map(EmailOutbox::getId).toList())) {
+                String erreur = erreurs.get(email.getId());
+                if (erreur == null) {
+                    email.setStatut(StatutEmail.ENVOYE);
+                    email.setDateEnvoi(now);
+                    continue;
+                }
+                int tentatives = email.getTentatives() + 1;
+                email.setTentatives(tentatives);
+                email.setDerniereErreur(erreur.length() > 500 ? erreur.substring(0, 500) : erreur);
+                if (tentatives >= maxTentatives) {
+                    email.setStatut(StatutEmail.ECHEC);
+                    log.warn("Email {} vers {} abandonné après {} tentatives : {}",
+                            email.getId(), email.getDestinataire(), tentatives, erreur);
+                } else {
+                    email.setProchaineTentative(now.plus(backoff(tentatives)));
+                }
+            }
+        });
+
+        meterRegistry.counter("fieldz.email.outbox.envoyes").increment(lot.size() - echecs.size());
+        meterRegistry.counter("fieldz.email.outbox.echecs").increment(echecs.size());
+    }
+
+    private static Duration backoff(int tentatives) {
+        Duration d = BACKOFF_INITIAL.multipliedBy(1L << Math.min(tentatives - 1, 16));
+        return d.compareTo(BACKOFF_MAX) > 0 ? BACKOFF_MAX : d;
+    }
+}
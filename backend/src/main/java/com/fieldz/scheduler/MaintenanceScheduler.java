@@ -0,0 +1,32 @@
+package com.fieldz.scheduler;
+
+import com.fieldz.service.cluster.BailTaches;
+import com.fieldz.service.maintenance.MaintenanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class MaintenanceScheduler {
+
+    private final MaintenanceService maintenanceService;
+    private final BailTaches bailTaches;
+
+    // Toutes les heures, sur un seul noeud : purges par lots, bornées dans le temps
+    @Scheduled(cron = "${app.maintenance.cron:0 45 * * * *}")
+    public void purger() {
+        try {
+            bailTaches.executerSeul("maintenance", Duration.ofMinutes(30), Duration.ofMinutes(10),
+                    maintenanceService::executer);
+        } catch (Exception e) {
+            log.warn("Maintenance en échec : {}", e.getMessage());
+        }
+    }
+}
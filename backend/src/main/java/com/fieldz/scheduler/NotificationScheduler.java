@@ -1,22 +1,54 @@
 package com.fieldz.scheduler;
 
-import com.fieldz.service.NotificationService;
+import com.fieldz.service.cluster.NoeudsActifs;
+import com.fieldz.service.cluster.Partition;
+import com.fieldz.service.cluster.PartitionModifiee;
+import com.fieldz.service.rappel.RappelService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Chaque rappel 2h avant est planifié à l'heure exacte sur la RoueTemporelle (voir RappelService).
+ * La roue est reconstruite depuis la base quand le noeud rejoint le cluster, à chaque changement
+ * de sa partition, et par un balayage peu fréquent qui fait entrer les rappels dans l'horizon de
+ * la roue et rattrape ceux qu'elle aurait perdus.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationScheduler {
 
-    private final NotificationService notificationService;
+    private final RappelService rappelService;
+    private final NoeudsActifs noeudsActifs;
 
-    // Toutes les 5 minutes
-    @Scheduled(fixedRate = 300000)
-    public void runRappels() {
-        log.info("🔄 Vérification des rappels 2h avant...");
-        notificationService.envoyerRappels2hAvant();
+    @Value("${app.rappels.balayage.enabled:true}")
+    private boolean balayageActif = true;
+
+    @EventListener
+    public void reconstruireRappels(PartitionModifiee evenement) {
+        try {
+            int planifies = rappelService.reconstruire(evenement.partition());
+            log.info("🔄 {} rappel(s) 2h avant replanifié(s)", planifies);
+        } catch (Exception e) {
+            log.warn("Rappels 2h non reconstruits : {}", e.getMessage());
+        }
+    }
+
+    // Toutes les 15 minutes par défaut : bien en deçà de l'horizon de la roue
+    @Scheduled(fixedDelayString = "${app.rappels.balayage.intervalle-ms:900000}", initialDelay = 60000)
+    public void balayerRappels() {
+        if (!balayageActif) return;
+        Partition partition = noeudsActifs.partition();
+        if (partition == null) return;
+        try {
+            int planifies = rappelService.reconstruire(partition);
+            log.debug("Balayage des rappels 2h : {} planifié(s) sur la roue", planifies);
+        } catch (Exception e) {
+            log.warn("Balayage des rappels 2h en échec : {}", e.getMessage());
+        }
     }
 }
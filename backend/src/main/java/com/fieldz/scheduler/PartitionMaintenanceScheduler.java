@@ -0,0 +1,38 @@
+package com.fieldz.scheduler;
+
+import com.fieldz.service.cluster.BailTaches;
+import com.fieldz.service.partitionnement.PartitionsMensuellesService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.YearMonth;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceScheduler {
+
+    private final PartitionsMensuellesService partitionsMensuellesService;
+    private final BailTaches bailTaches;
+
+    // Chaque nuit à 4h15, sur un seul noeud : partitions des mois à venir, archivage des mois hors rétention
+    @Scheduled(cron = "0 15 4 * * *")
+    public void maintenir() {
+        try {
+            bailTaches.executerSeul("partitions-maintenance", Duration.ofHours(2), Duration.ofHours(1), () -> {
+                PartitionsMensuellesService.Bilan bilan = partitionsMensuellesService.maintenir(YearMonth.now());
+                if (bilan.creees() + bilan.archivees() + bilan.ignorees() > 0) {
+                    log.info("🗂️ Partitions : {} créée(s), {} mois archivé(s), {} ignorée(s)",
+                            bilan.creees(), bilan.archivees(), bilan.ignorees());
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Maintenance des partitions en échec : {}", e.getMessage());
+        }
+    }
+}
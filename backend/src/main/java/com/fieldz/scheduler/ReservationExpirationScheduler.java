@@ -0,0 +1,32 @@
+package com.fieldz.scheduler;
+
+import com.fieldz.service.ReservationExpirationService;
+import com.fieldz.service.cluster.NoeudsActifs;
+import com.fieldz.service.cluster.Partition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.reservation.expiration.enabled", havingValue = "true", matchIfMissing = true)
+public class ReservationExpirationScheduler {
+
+    private final ReservationExpirationService reservationExpirationService;
+    private final NoeudsActifs noeudsActifs;
+
+    // Toutes les 5 minutes : RESERVE non confirmées depuis plus de 24h -> ABSENT (clubs de la partition du noeud)
+    @Scheduled(fixedDelayString = "${app.reservation.expiration.poll-ms:300000}", initialDelay = 60000)
+    public void expirer() {
+        Partition partition = noeudsActifs.partition();
+        if (partition == null) return;
+        try {
+            reservationExpirationService.expirer(partition);
+        } catch (Exception e) {
+            log.warn("Expiration automatique des réservations en échec : {}", e.getMessage());
+        }
+    }
+}
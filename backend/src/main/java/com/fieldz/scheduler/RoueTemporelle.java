@@ -0,0 +1,192 @@
+package com.fieldz.scheduler;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Roue temporelle hachée (hashed timing wheel) : déclenche des actions à leur échéance, sans
+ * balayage de la base. Un thread avance d'un cran par tick et déclenche les tâches du seau
+ * courant dont il ne reste plus de tour ; les actions s'exécutent sur un petit pool.
+ * Précision : une échéance part au plus un tick après l'heure prévue, jamais avant.
+ *
+ * Chaque tâche a une clé ("RAPPEL_2H:42") : replanifier une clé remplace la tâche précédente,
+ * annuler une clé la désactive. Réutilisable pour tout événement daté (fin du délai de no-show,
+ * expiration d'un code...). Rien n'est persisté : l'appelant reconstruit ses tâches au démarrage.
+ */
+@Slf4j
+@Component
+public class RoueTemporelle {
+
+    private static final class Tache {
+        final String cle;
+        final long echeanceMs;
+        final Runnable action;
+        // false : annulée, remplacée ou déjà déclenchée
+        final AtomicBoolean active = new AtomicBoolean(true);
+        // Tours de roue restants, lu et écrit par le seul thread de la roue
+        long tours;
+
+        Tache(String cle, long echeanceMs, Runnable action) {
+            this.cle = cle;
+            this.echeanceMs = echeanceMs;
+            this.action = action;
+        }
+    }
+
+    @Value("${app.roue-temporelle.tick-ms:1000}")
+    private long tickMs = 1000;
+
+    // Arrondie à la puissance de deux supérieure
+    @Value("${app.roue-temporelle.seaux:512}")
+    private int seaux = 512;
+
+    @Value("${app.roue-temporelle.threads:2}")
+    private int threads = 2;
+
+    private final Map<String, Tache> parCle = new ConcurrentHashMap<>();
+    private final Queue<Tache> aPlacer = new ConcurrentLinkedQueue<>();
+
+    // État du thread de la roue
+    private final List<ArrayDeque<Tache>> roue = new ArrayList<>();
+    private long masque;
+    private long debutMs;
+    private long tick;
+
+    private volatile boolean active;
+    private Thread thread;
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    void demarrer() {
+        int taille = Integer.highestOneBit(Math.max(1, seaux - 1)) << 1;
+        for (int i = 0; i < taille; i++) {
+            roue.add(new ArrayDeque<>());
+        }
+        masque = taille - 1L;
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("roue-temporelle-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+
+        debutMs = System.currentTimeMillis();
+        active = true;
+        thread = new Thread(this::tourner, "roue-temporelle");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void arreter() {
+        active = false;
+        thread.interrupt();
+        executor.shutdown();
+    }
+
+    /** Planifie {@code action} à {@code echeance} (déjà passée : au prochain tick), en remplaçant la tâche de même clé. */
+    public void planifier(String cle, LocalDateTime echeance, Runnable action) {
+        Tache tache = new Tache(cle, echeance.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), action);
+        Tache remplacee = parCle.put(cle, tache);
+        if (remplacee != null) {
+            remplacee.active.set(false);
+        }
+        aPlacer.add(tache);
+    }
+
+    /** @return false si aucune tâche de cette clé n'était en attente */
+    public boolean annuler(String cle) {
+        Tache tache = parCle.remove(cle);
+        return tache != null && tache.active.compareAndSet(true, false);
+    }
+
+    public boolean estPlanifiee(String cle) {
+        return parCle.containsKey(cle);
+    }
+
+    public int enAttente() {
+        return parCle.size();
+    }
+
+    // ======================== Thread de la roue ========================
+
+    private void tourner() {
+        while (active) {
+            long attente = debutMs + (tick + 1) * tickMs - System.currentTimeMillis();
+            if (attente > 0) {
+                try {
+                    Thread.sleep(attente);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                placer();
+                expirer(roue.get((int) (tick & masque)));
+            } catch (RuntimeException e) {
+                log.warn("Roue temporelle : tick {} en erreur : {}", tick, e.getMessage());
+            }
+            tick++;
+        }
+    }
+
+    // Tick de l'échéance (au plus tôt le tick courant) -> seau, et tours complets à attendre
+    private void placer() {
+        for (Tache tache = aPlacer.poll(); tache != null; tache = aPlacer.poll()) {
+            if (!tache.active.get()) continue;
+            long tickEcheance = Math.max((tache.echeanceMs - debutMs) / tickMs, tick);
+            tache.tours = (tickEcheance - tick) / (masque + 1);
+            roue.get((int) (tickEcheance & masque)).add(tache);
+        }
+    }
+
+    private void expirer(ArrayDeque<Tache> seau) {
+        for (Iterator<Tache> it = seau.iterator(); it.hasNext(); ) {
+            Tache tache = it.next();
+            if (!tache.active.get()) {
+                it.remove();
+            } else if (tache.tours > 0) {
+                tache.tours--;
+            } else {
+                it.remove();
+                declencher(tache);
+            }
+        }
+    }
+
+    private void declencher(Tache tache) {
+        if (!tache.active.compareAndSet(true, false)) return;
+        parCle.remove(tache.cle, tache);
+        try {
+            executor.execute(() -> {
+                try {
+                    tache.action.run();
+                } catch (Exception e) {
+                    log.warn("Roue temporelle : tâche {} en échec : {}", tache.cle, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Roue temporelle : tâche {} rejetée (arrêt en cours)", tache.cle);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.fieldz.scheduler;
+
+import com.fieldz.service.cluster.BailTaches;
+import com.fieldz.service.statistiques.StatistiqueRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatistiqueRollupScheduler {
+
+    private final StatistiqueRollupService statistiqueRollupService;
+    private final BailTaches bailTaches;
+
+    // Chaque nuit à 3h30, sur un seul noeud : recalcul du mois précédent jusqu'à un an dans le futur
+    @Scheduled(cron = "0 30 3 * * *")
+    public void reconcilier() {
+        bailTaches.executerSeul("statistique-rollup", Duration.ofHours(2), Duration.ofHours(1), () -> {
+            LocalDate debut = LocalDate.now().minusMonths(1).withDayOfMonth(1);
+            LocalDate fin = LocalDate.now().plusYears(1);
+            int lignes = statistiqueRollupService.reconcilier(debut, fin);
+            log.info("📊 Rollup statistique réconcilié du {} au {} : {} ligne(s)", debut, fin, lignes);
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.fieldz.security.jwt;
 import com.fieldz.security.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -48,7 +49,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         // Si pas de token ou mal formé → on laisse passer
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -59,21 +59,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // Un seul parsing : signature + expiration ; null si invalide
+            Claims claims = jwtService.validerToken(jwt);
+            String userEmail = claims != null ? claims.getSubject() : null;
 
             // Si email présent et pas encore authentifié
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                // Principal léger mis en cache : pas de SELECT utilisateur à chaque requête
+                UserDetails userDetails = userDetailsService.chargerPrincipal(userEmail);
+
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             // Token invalide ou mal forme - on ne fait rien, la requete continuera sans authentification
@@ -0,0 +1,99 @@
+package com.fieldz.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Claims des jetons déjà vérifiés, indexés par empreinte SHA-256 du jeton et conservés
+ * jusqu'à leur expiration : un même access token réutilisé par le SPA ne repasse pas
+ * par la vérification RSA. Un jeton absent ou expiré est toujours revérifié.
+ * Les claims en cache sont partagés : à lire uniquement.
+ *
+ * Borné en LRU (comme CreneauxClubCache) : plein, un nouveau jeton évince le moins récemment
+ * utilisé, en temps constant.
+ */
+@Component
+public class JwtClaimsCache {
+
+    private record Entree(Claims claims, long expireA) {}
+
+    private final Map<String, Entree> parEmpreinte;
+    private final int maxEntrees;
+    private final Counter hits;
+    private final Counter misses;
+
+    public JwtClaimsCache(@Value("${app.security.token-cache.max-entries:10000}") int maxEntrees,
+                          MeterRegistry meterRegistry) {
+        this.maxEntrees = maxEntrees;
+        this.parEmpreinte = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entree> eldest) {
+                return size() > maxEntrees;
+            }
+        };
+        this.hits = meterRegistry.counter("fieldz.jwt.cache.hits");
+        this.misses = meterRegistry.counter("fieldz.jwt.cache.misses");
+        Gauge.builder("fieldz.jwt.cache.taille", this, JwtClaimsCache::taille).register(meterRegistry);
+    }
+
+    public Claims get(String token) {
+        if (maxEntrees <= 0) return null;
+        String cle = empreinte(token);
+        Entree e = lire(cle);
+        if (e != null) {
+            hits.increment();
+            return e.claims();
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String token, Claims claims) {
+        Date exp = claims.getExpiration();
+        if (maxEntrees <= 0 || exp == null) return;
+        String cle = empreinte(token);
+        synchronized (parEmpreinte) {
+            parEmpreinte.put(cle, new Entree(claims, exp.getTime()));
+        }
+    }
+
+    // Empreinte calculée hors du verrou : seul l'accès à la map est sérialisé
+    private Entree lire(String cle) {
+        synchronized (parEmpreinte) {
+            Entree e = parEmpreinte.get(cle);
+            if (e == null) return null;
+            if (e.expireA() <= System.currentTimeMillis()) {
+                parEmpreinte.remove(cle);
+                return null;
+            }
+            return e;
+        }
+    }
+
+    private int taille() {
+        synchronized (parEmpreinte) {
+            return parEmpreinte.size();
+        }
+    }
+
+    private static String empreinte(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 est garanti par la JVM
+        }
+    }
+}
@@ -26,6 +26,14 @@ public class JwtService {
     private Key hmacKey;
     private PrivateKey rsaPriv;
     private PublicKey rsaPub;
+    // Construit une seule fois (thread-safe, réutilisable) : plus de parserBuilder par requête
+    private volatile JwtParser parser;
+
+    private final JwtClaimsCache claimsCache;
+
+    public JwtService(JwtClaimsCache claimsCache) {
+        this.claimsCache = claimsCache;
+    }
 
     private synchronized void ensureKeys() {
         if ("RS256".equalsIgnoreCase(alg) && rsaPriv == null) {
@@ -36,14 +44,49 @@ public class JwtService {
         }
     }
 
+    private JwtParser parser() {
+        JwtParser p = parser;
+        if (p == null) {
+            synchronized (this) {
+                if (parser == null) {
+                    ensureKeys();
+                    parser = Jwts.parserBuilder()
+                            .setSigningKey("RS256".equalsIgnoreCase(alg) ? rsaPub : hmacKey)
+                            .build();
+                }
+                p = parser;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Vérifie signature et expiration en un seul parsing ; un jeton déjà vérifié
+     * et non expiré est servi par {@link JwtClaimsCache} sans cryptographie.
+     * @return les claims du jeton, ou null s'il est invalide, expiré ou mal formé
+     */
+    public Claims validerToken(String token) {
+        if (token == null || token.isBlank()) return null;
+        Claims enCache = claimsCache.get(token);
+        if (enCache != null) return enCache;
+        try {
+            Claims claims = parser().parseClaimsJws(token).getBody();
+            claimsCache.put(token, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     public String extractUsername(String token) {
         return extractAllClaims(token).getSubject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
-            String username = extractUsername(token);
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+            Claims claims = extractAllClaims(token);
+            return claims.getSubject().equals(userDetails.getUsername())
+                    && claims.getExpiration().after(new Date());
         } catch (Exception e) { return false; }
     }
 
@@ -73,10 +116,6 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        ensureKeys();
-        JwtParserBuilder pb = Jwts.parserBuilder();
-        if ("RS256".equalsIgnoreCase(alg)) pb.setSigningKey(rsaPub);
-        else pb.setSigningKey(hmacKey);
-        return pb.build().parseClaimsJws(token).getBody();
+        return parser().parseClaimsJws(token).getBody();
     }
 }
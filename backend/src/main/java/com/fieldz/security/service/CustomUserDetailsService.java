@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UtilisateurRepository utilisateurRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -20,4 +21,14 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé : " + email));
         return utilisateur;
     }
+
+    /** Principal léger pour le filtre JWT, servi depuis le cache tant qu'il est frais. */
+    public PrincipalUtilisateur chargerPrincipal(String email) throws UsernameNotFoundException {
+        PrincipalUtilisateur principal = principalCache.get(email);
+        if (principal == null) {
+            principal = PrincipalUtilisateur.of((Utilisateur) loadUserByUsername(email));
+            principalCache.put(email, principal);
+        }
+        return principal;
+    }
 }
@@ -0,0 +1,90 @@
+package com.fieldz.security.service;
+
+import com.fieldz.service.cluster.BusCluster;
+import com.fieldz.service.cluster.EvenementDistant;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache borné (LRU) et à durée de vie courte des principaux résolus à partir du sujet JWT.
+ * Évite un SELECT utilisateur à chaque appel d'API ; vidé pour un utilisateur dès que
+ * son entité est modifiée ou supprimée (voir UtilisateurCacheListener).
+ *
+ * Entre noeuds : chaque invalidation est signalée par BusCluster (type {@link #PRINCIPAL}, après
+ * le commit) et appliquée par les autres noeuds à leur relève : un changement de rôle, un blocage
+ * ou une suppression n'y reste pas servi jusqu'au TTL, qui ne couvre plus qu'un événement perdu.
+ */
+@Component
+public class PrincipalCache {
+
+    /** Un utilisateur a changé (cle : id de l'utilisateur). */
+    public static final String PRINCIPAL = "PRINCIPAL";
+
+    private record Entree(PrincipalUtilisateur principal, long expireA) {}
+
+    private final long ttlMillis;
+    private final Map<String, Entree> parSujet;
+    private final ObjectProvider<BusCluster> bus;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${app.security.principal-cache.max-entries:10000}") int maxEntrees,
+                          ObjectProvider<BusCluster> bus) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.bus = bus;
+        this.parSujet = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entree> eldest) {
+                return size() > maxEntrees;
+            }
+        };
+    }
+
+    public synchronized PrincipalUtilisateur get(String sujet) {
+        Entree e = parSujet.get(sujet);
+        if (e == null) return null;
+        if (e.expireA() <= System.currentTimeMillis()) {
+            parSujet.remove(sujet);
+            return null;
+        }
+        return e.principal();
+    }
+
+    public synchronized void put(String sujet, PrincipalUtilisateur principal) {
+        if (ttlMillis <= 0) return;
+        parSujet.put(sujet, new Entree(principal, System.currentTimeMillis() + ttlMillis));
+    }
+
+    /** Par id : couvre aussi un changement d'email (l'ancien sujet reste en cache sinon). */
+    public void invalider(Long utilisateurId) {
+        if (utilisateurId == null) return;
+        evincer(utilisateurId);
+        // BusCluster écrit après le commit (rien pour un rollback) et dédoublonne par transaction
+        bus.ifAvailable(b -> b.publier(PRINCIPAL, utilisateurId));
+    }
+
+    // Invalidations des autres noeuds : appliquées ici seulement, sans nouvelle diffusion
+    @EventListener
+    public void surEvenementDistant(EvenementDistant evenement) {
+        if (!evenement.est(PRINCIPAL)) return;
+        if (evenement.cles() == null) {
+            vider();
+        } else {
+            evenement.cles().forEach(this::evincer);
+        }
+    }
+
+    /** Ce noeud seulement. */
+    public synchronized void evincer(Long utilisateurId) {
+        if (utilisateurId == null) return;
+        parSujet.values().removeIf(e -> utilisateurId.equals(e.principal().id()));
+    }
+
+    public synchronized void vider() {
+        parSujet.clear();
+    }
+}
@@ -0,0 +1,38 @@
+package com.fieldz.security.service;
+
+import com.fieldz.model.Utilisateur;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal immuable posé dans le SecurityContext par JwtAuthenticationFilter.
+ * Ne contient que l'identité et les rôles : il peut être partagé entre requêtes (cache)
+ * sans risque qu'un contrôleur modifie une entité commune. Pour l'entité complète,
+ * recharger via UtilisateurRepository.findByEmail(authentication.getName()).
+ */
+public record PrincipalUtilisateur(Long id,
+                                   String email,
+                                   List<GrantedAuthority> authorities) implements UserDetails {
+
+    public static PrincipalUtilisateur of(Utilisateur u) {
+        return new PrincipalUtilisateur(u.getId(), u.getEmail(), List.copyOf(u.getAuthorities()));
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null; // jamais conservé en mémoire
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
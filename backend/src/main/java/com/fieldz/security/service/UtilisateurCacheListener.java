@@ -0,0 +1,41 @@
+package com.fieldz.security.service;
+
+import com.fieldz.model.Utilisateur;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Listener JPA qui retire un utilisateur de {@link PrincipalCache} à chaque modification
+ * (profil, mot de passe, blocage...) ou suppression, quel que soit le chemin d'écriture.
+ * Invalide immédiatement (et sur les autres noeuds après le commit, par BusCluster) puis à
+ * nouveau après la transaction, pour qu'une requête concurrente n'ait pas remis en cache l'état
+ * d'avant le commit. Déclaré dans META-INF/orm.xml.
+ */
+public class UtilisateurCacheListener {
+
+    private final ObjectProvider<PrincipalCache> cache;
+
+    public UtilisateurCacheListener(ObjectProvider<PrincipalCache> cache) {
+        this.cache = cache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void apresEcriture(Utilisateur utilisateur) {
+        PrincipalCache c = cache.getIfAvailable();
+        if (c == null) return;
+        Long id = utilisateur.getId();
+        c.invalider(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    c.evincer(id);
+                }
+            });
+        }
+    }
+}
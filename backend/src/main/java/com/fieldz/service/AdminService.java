@@ -12,13 +12,13 @@ public interface AdminService {
 
     // Gestion des clubs
     List<ClubAdminDto> getAllClubs();
-    List<ClubAdminDto> searchClubs(String query);
+    List<ClubAdminDto> searchClubs(String query, Long apresId, int taille);
     ClubAdminDto getClubDetails(Long clubId);
     ClubAdminDto createClub(CreateClubRequest request);
 
     // Gestion des joueurs
     List<JoueurAdminDto> getAllJoueurs();
-    List<JoueurAdminDto> searchJoueurs(String query);
+    List<JoueurAdminDto> searchJoueurs(String query, Long apresId, int taille);
     JoueurAdminDto getJoueurDetails(Long joueurId);
     JoueurAdminDto toggleJoueurStatus(Long joueurId);
     JoueurAdminDto createJoueur(RegisterRequest request);
@@ -1,6 +1,7 @@
 package com.fieldz.service;
 
 import com.fieldz.auth.RegisterRequest;
+import com.fieldz.dto.AdminCompteurs;
 import com.fieldz.dto.AdminStatsDto;
 import com.fieldz.dto.ClubAdminDto;
 import com.fieldz.dto.CreateClubRequest;
@@ -13,6 +14,8 @@ import com.fieldz.model.Utilisateur;
 import com.fieldz.model.Sport;
 import com.fieldz.repository.ReservationRepository;
 import com.fieldz.repository.UtilisateurRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +25,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,61 +44,47 @@ public class AdminServiceImpl implements AdminService {
     }
 
     // ================== STATS ==================
+
+    // Cache court : le tableau de bord admin est rafraîchi souvent, les compteurs bougent peu
+    private record StatsEnCache(AdminStatsDto stats, long expireA) {}
+
+    private final AtomicReference<StatsEnCache> statsEnCache = new AtomicReference<>();
+
+    @Value("${app.admin.stats-ttl-seconds:60}")
+    private long statsTtlSeconds = 60;
+
     @Override
-public AdminStatsDto getStats() {
-    // Total actuel
-    long totalClubs = utilisateurRepository.findAll().stream()
-            .filter(u -> u.getTypeRole() == Role.CLUB)
-            .count();
-
-    long totalJoueurs = utilisateurRepository.findAll().stream()
-            .filter(u -> u.getTypeRole() == Role.JOUEUR)
-            .count();
-
-    // Réservations de la semaine
-    LocalDateTime debutSemaine = LocalDateTime.now()
-            .truncatedTo(ChronoUnit.DAYS)
-            .minusDays(7);
-
-    long reservationsHebdo = reservationRepository.findAll().stream()
-            .filter(r -> r.getDateReservation() != null && r.getDateReservation().isAfter(debutSemaine))
-            .count();
-
-    // ========== NOUVEAU : CALCUL DE CROISSANCE ==========
-    
-    // Début du mois en cours
-    LocalDateTime debutMoisActuel = LocalDateTime.now()
-            .withDayOfMonth(1)
-            .withHour(0)
-            .withMinute(0)
-            .withSecond(0)
-            .withNano(0);
-
-    // Clubs créés ce mois
-    long clubsCeMois = utilisateurRepository.findAll().stream()
-            .filter(u -> u.getTypeRole() == Role.CLUB)
-            .filter(u -> u.getDateInscription() != null && u.getDateInscription().isAfter(debutMoisActuel))
-            .count();
-
-    // Joueurs inscrits ce mois
-    long joueursCeMois = utilisateurRepository.findAll().stream()
-            .filter(u -> u.getTypeRole() == Role.JOUEUR)
-            .filter(u -> u.getDateInscription() != null && u.getDateInscription().isAfter(debutMoisActuel))
-            .count();
-
-    // Calcul des pourcentages
-    double croissanceClubs = calculerPourcentageCroissance(totalClubs, clubsCeMois);
-    double croissanceJoueurs = calculerPourcentageCroissance(totalJoueurs, joueursCeMois);
-
-    // ⬇️ MODIFIER CE RETURN POUR INCLURE LES 2 NOUVELLES VALEURS
-    return new AdminStatsDto(
-            totalClubs, 
-            totalJoueurs, 
-            reservationsHebdo,
-            croissanceClubs,      // NOUVEAU
-            croissanceJoueurs     // NOUVEAU
-    );
-}
+    @Transactional(readOnly = true)
+    public AdminStatsDto getStats() {
+        StatsEnCache cache = statsEnCache.get();
+        long maintenant = System.currentTimeMillis();
+        if (cache != null && cache.expireA() > maintenant) {
+            return cache.stats();
+        }
+
+        // Réservations de la semaine
+        LocalDateTime debutSemaine = LocalDateTime.now()
+                .truncatedTo(ChronoUnit.DAYS)
+                .minusDays(7);
+
+        // Début du mois en cours
+        LocalDateTime debutMoisActuel = LocalDateTime.now()
+                .truncatedTo(ChronoUnit.DAYS)
+                .withDayOfMonth(1);
+
+        // Comptages côté base, en une seule requête
+        AdminCompteurs c = utilisateurRepository.compterPourAdmin(debutMoisActuel, debutSemaine);
+
+        AdminStatsDto stats = new AdminStatsDto(
+                c.totalClubs(),
+                c.totalJoueurs(),
+                c.reservationsDepuis(),
+                calculerPourcentageCroissance(c.totalClubs(), c.clubsDepuis()),
+                calculerPourcentageCroissance(c.totalJoueurs(), c.joueursDepuis())
+        );
+        statsEnCache.set(new StatsEnCache(stats, maintenant + statsTtlSeconds * 1000));
+        return stats;
+    }
 
     // ================== CLUBS ==================
     @Override
@@ -107,14 +97,11 @@ public AdminStatsDto getStats() {
     }
 
     @Override
-    public List<ClubAdminDto> searchClubs(String query) {
-        String q = query.toLowerCase(Locale.ROOT);
-        return getAllClubs().stream()
-                .filter(c ->
-                        (c.getNom() != null && c.getNom().toLowerCase(Locale.ROOT).contains(q)) ||
-                                (c.getVille() != null && c.getVille().toLowerCase(Locale.ROOT).contains(q)) ||
-                                (c.getAdresse() != null && c.getAdresse().toLowerCase(Locale.ROOT).contains(q))
-                )
+    @Transactional(readOnly = true)
+    public List<ClubAdminDto> searchClubs(String query, Long apresId, int taille) {
+        return utilisateurRepository.rechercherClubs(motifRecherche(query), apresIdOuZero(apresId), limite(taille))
+                .stream()
+                .map(c -> AdminMapper.toClubAdminDto(c, c))
                 .collect(Collectors.toList());
     }
 
@@ -169,6 +156,7 @@ public AdminStatsDto getStats() {
                 .build();
 
         Club saved = utilisateurRepository.save(club);
+        statsEnCache.set(null);
 
         ClubAdminDto dto = AdminMapper.toClubAdminDto(saved, saved);
         dto.setPassword(rawPassword); // exposé UNIQUEMENT à la création
@@ -186,14 +174,11 @@ public AdminStatsDto getStats() {
     }
 
     @Override
-    public List<JoueurAdminDto> searchJoueurs(String query) {
-        String q = query.toLowerCase(Locale.ROOT);
-        return getAllJoueurs().stream()
-                .filter(j ->
-                        (j.getNom() != null && j.getNom().toLowerCase(Locale.ROOT).contains(q)) ||
-                                (j.getPrenom() != null && j.getPrenom().toLowerCase(Locale.ROOT).contains(q)) ||
-                                (j.getEmail() != null && j.getEmail().toLowerCase(Locale.ROOT).contains(q))
-                )
+    @Transactional(readOnly = true)
+    public List<JoueurAdminDto> searchJoueurs(String query, Long apresId, int taille) {
+        return utilisateurRepository.rechercherJoueurs(motifRecherche(query), apresIdOuZero(apresId), limite(taille))
+                .stream()
+                .map(AdminMapper::toJoueurAdminDto)
                 .collect(Collectors.toList());
     }
 
@@ -231,6 +216,22 @@ public AdminStatsDto getStats() {
     }
 
     // ================== UTILS ==================
+    private static final int TAILLE_RECHERCHE_MAX = 100;
+
+    // "contient", insensible à la casse ; % et _ saisis par l'utilisateur sont échappés
+    private static String motifRecherche(String query) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        return "%" + q.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    private static long apresIdOuZero(Long apresId) {
+        return apresId != null ? apresId : 0L;
+    }
+
+    private static Limit limite(int taille) {
+        return Limit.of(Math.max(1, Math.min(taille, TAILLE_RECHERCHE_MAX)));
+    }
+
     private String generatePassword(String nom) {
         String clean = nom.toLowerCase(Locale.ROOT)
                 .replaceAll("\\s+", "")
@@ -280,6 +281,7 @@ public AdminStatsDto getStats() {
                 .build();
     
         Joueur saved = utilisateurRepository.save(joueur);
+        statsEnCache.set(null);
     
         return AdminMapper.toJoueurAdminDto(saved);
     }
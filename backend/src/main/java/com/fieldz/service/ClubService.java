@@ -1,15 +1,24 @@
 package com.fieldz.service;
 
 import com.fieldz.dto.ClubDto;
+import com.fieldz.dto.ClubImageDto;
+import com.fieldz.dto.ClubLigne;
 import com.fieldz.mapper.ClubMapper;
 import com.fieldz.model.Club;
 import com.fieldz.model.ClubImage;
 import com.fieldz.model.Creneau;
 import com.fieldz.model.Sport;
+import com.fieldz.model.Terrain;
 import com.fieldz.model.Utilisateur;
 import com.fieldz.repository.ClubImageRepository;
 import com.fieldz.repository.ClubRepository;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.TerrainRepository;
 import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.service.cluster.BusCluster;
+import com.fieldz.service.disponibilite.CreneauxClubCache;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.disponibilite.DisponibiliteIndexLoader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -20,7 +29,11 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Slf4j
@@ -31,6 +44,11 @@ public class ClubService {
 
     private final UtilisateurRepository utilisateurRepository;
     private final ClubRepository clubRepository;
+    private final CreneauRepository creneauRepository;
+    private final CreneauxClubCache creneauxClubCache;
+    private final TerrainRepository terrainRepository;
+    private final DisponibiliteIndex disponibiliteIndex;
+    private final BusCluster busCluster;
     private final ClubImageRepository clubImageRepository;
     private final CloudService cloudService;
 
@@ -75,28 +93,60 @@ public class ClubService {
         if (sports != null) club.setSports(sports);
 
         Club saved = (Club) utilisateurRepository.save(club);
+        propagerModificationClub(saved, notBlank(dto.getVille()));
         return ClubMapper.toDto(saved);
     }
 
+    /**
+     * Nom et ville du club sont recopiés ailleurs : ville de recherche des créneaux de ses terrains
+     * sans ville propre, listes en cache, vues de ses terrains dans l'index de disponibilité (après
+     * le commit ; sur les autres noeuds par le bus). À appeler après toute modification du club,
+     * UtilisateurController compris.
+     */
+    public void propagerModificationClub(Club club, boolean villeModifiee) {
+        creneauxClubCache.invalider(club.getId());
+        if (villeModifiee) {
+            creneauRepository.majVilleDuClub(club.getId(), Creneau.villeRecherche(club.getVille()));
+        }
+        List<Terrain> terrains = terrainRepository.findByClubIdFetchClub(club.getId());
+        disponibiliteIndex.rafraichirApresCommit(terrains);
+        terrains.forEach(t -> busCluster.publier(DisponibiliteIndexLoader.TERRAIN, t.getId()));
+    }
+
 
     // ---------- NOUVELLES MÉTHODES DE RECHERCHE ----------
 
     @Transactional(readOnly = true)
     public List<ClubDto> searchByVille(String ville) {
-        return clubRepository.findByVilleLikeIgnoreCase(ville)
-                .stream().map(ClubMapper::toDto).toList();
+        return assembler(clubRepository.lignesParVille(ville));
     }
 
     @Transactional(readOnly = true)
     public List<ClubDto> searchBySport(Sport sport) {
-        return clubRepository.findBySport(sport)
-                .stream().map(ClubMapper::toDto).toList();
+        return assembler(clubRepository.lignesParSport(sport));
     }
 
     @Transactional(readOnly = true)
     public List<ClubDto> searchByVilleAndSport(String ville, Sport sport) {
-        return clubRepository.findByVilleAndSport(ville, sport)
-                .stream().map(ClubMapper::toDto).toList();
+        return assembler(clubRepository.lignesParVilleEtSport(ville, sport));
+    }
+
+    // Projections -> DTO : 3 requêtes au total (clubs, sports, images), sans entité Club chargée
+    private List<ClubDto> assembler(List<ClubLigne> lignes) {
+        if (lignes.isEmpty()) return List.of();
+        List<Long> ids = lignes.stream().map(ClubLigne::id).toList();
+
+        Map<Long, Set<Sport>> sports = new HashMap<>();
+        clubRepository.sportsDesClubs(ids)
+                .forEach(s -> sports.computeIfAbsent(s.clubId(), k -> new HashSet<>()).add(s.sport()));
+        Map<Long, List<ClubImageDto>> images = new HashMap<>();
+        clubRepository.imagesDesClubs(ids)
+                .forEach(i -> images.computeIfAbsent(i.clubId(), k -> new ArrayList<>()).add(i.toDto()));
+
+        return lignes.stream()
+                .map(l -> l.toDto(sports.getOrDefault(l.id(), new HashSet<>()),
+                        images.getOrDefault(l.id(), new ArrayList<>())))
+                .toList();
     }
 
     // ---------- RÉCUPÉRER UN CLUB PAR ID ----------
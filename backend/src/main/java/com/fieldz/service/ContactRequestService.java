@@ -59,7 +59,7 @@ public class ContactRequestService {
 
         // Destinataire + reply-to = l’email saisi
         String to = "contact.fieldz@gmail.com";
-        emailService.sendHtml(to, subject, html, saved.getEmail());
+        emailService.enfilerHtml(to, subject, html, saved.getEmail());
 
         return saved;
     }
@@ -1,12 +1,20 @@
 package com.fieldz.service;
 
 import com.fieldz.dto.CreneauDto;
+import com.fieldz.dto.CreneauLigne;
 import com.fieldz.dto.CreneauRecurrentDto;
 import com.fieldz.dto.UpdateCreneauRequest;
 import com.fieldz.exception.CreneauHasActiveReservationsException;
 import com.fieldz.mapper.CreneauMapper;
 import com.fieldz.model.*;
 import com.fieldz.repository.*;
+import com.fieldz.service.disponibilite.BalayageChevauchements;
+import com.fieldz.service.disponibilite.CreneauSlot;
+import com.fieldz.service.disponibilite.CreneauxClubCache;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.rappel.RappelService;
+import com.fieldz.service.statistiques.CreneauRollup;
+import com.fieldz.service.statistiques.StatistiqueRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -16,11 +24,13 @@ import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Slf4j
@@ -33,6 +43,14 @@ public class CreneauService {
     private final UtilisateurRepository utilisateurRepository;
     private final ReservationRepository reservationRepository;
     private final NotificationService notificationService;
+    private final DisponibiliteIndex disponibiliteIndex;
+    private final RegleCreneauService regleCreneauService;
+    private final CreneauxClubCache creneauxClubCache;
+    private final RappelService rappelService;
+    private final StatistiqueRollupService statistiqueRollupService;
+
+    // Borne haute "infinie" des disponibilités sans date
+    private static final LocalDateTime FIN_DES_TEMPS = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     public Creneau ajouterCreneau(Long terrainId, Creneau creneau, Authentication authentication) {
         String email = authentication.getName();
@@ -166,10 +184,10 @@ public class CreneauService {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateDebut"));
 
         // Get paginated creneaux
-        Page<Creneau> creneauxPage = creneauRepository.findByTerrainIdPaginated(terrainId, pageable);
+        Page<CreneauLigne> creneauxPage = creneauRepository.findByTerrainIdPaginated(terrainId, pageable);
 
-        // Map to DTO
-        return creneauxPage.map(CreneauMapper::toDto);
+        // Projection -> DTO (aucune entité Creneau chargée)
+        return creneauxPage.map(CreneauLigne::toDto);
     }
 
     /**
@@ -190,19 +208,35 @@ public class CreneauService {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "dateDebut"));
 
         // Get all creneaux for this club
-        Page<Creneau> creneauxPage = creneauRepository.findByClubIdPaginated(club.getId(), pageable);
+        Page<CreneauLigne> creneauxPage = creneauRepository.findByClubIdPaginated(club.getId(), pageable);
 
         log.info("Club {} retrieved {} creneaux (page {}/{}, size {})",
                 club.getNom(), creneauxPage.getNumberOfElements(), page + 1, creneauxPage.getTotalPages(), size);
 
-        // Map to DTO
-        return creneauxPage.map(CreneauMapper::toDto);
+        // Projection -> DTO (aucune entité Creneau chargée)
+        return creneauxPage.map(CreneauLigne::toDto);
     }
 
+    /** Tous les créneaux libres à venir, sans pagination : voir RechercheCreneauxService pour la recherche publique. */
     public List<Creneau> getCreneauxDisponibles() {
+        LocalDateTime maintenant = LocalDateTime.now();
+
+        // Occurrences des règles de récurrence, sur l'horizon configuré (non matérialisées)
+        List<Creneau> virtuels = regleCreneauService.creneauxVirtuels(
+                maintenant, maintenant.plusDays(regleCreneauService.getHorizonJours()));
+
+        // Servi depuis l'index en mémoire (aucune requête SQL) dès qu'il est hydraté
+        if (disponibiliteIndex.estPret()) {
+            List<Creneau> creneaux = avecVirtuels(disponibiliteIndex.disponibles(maintenant).stream()
+                    .map(CreneauSlot::toCreneau)
+                    .toList(), virtuels);
+            log.info("Nombre de créneaux disponibles renvoyés à un joueur : {} (index mémoire, dont {} virtuels)",
+                    creneaux.size(), virtuels.size());
+            return creneaux;
+        }
+
         // ancien: findByStatut(Statut.LIBRE) -> on tient compte aussi de
         // disponible=true
-        LocalDateTime maintenant = LocalDateTime.now();
         List<Creneau> dispo = creneauRepository.findByStatutAndDisponibleTrue(Statut.LIBRE);
 
         // Filtrer pour ne garder que les créneaux futurs
@@ -210,9 +244,18 @@ public class CreneauService {
                 .filter(c -> c.getDateDebut() != null && c.getDateDebut().isAfter(maintenant))
                 .toList();
 
-        log.info("Nombre de créneaux disponibles renvoyés à un joueur : {} (futurs: {})",
-                dispo.size(), creneauxFuturs.size());
-        return creneauxFuturs;
+        log.info("Nombre de créneaux disponibles renvoyés à un joueur : {} (futurs: {}, virtuels: {})",
+                dispo.size(), creneauxFuturs.size(), virtuels.size());
+        return avecVirtuels(creneauxFuturs, virtuels);
+    }
+
+    private static List<Creneau> avecVirtuels(List<Creneau> materialises, List<Creneau> virtuels) {
+        if (virtuels.isEmpty()) return materialises;
+        List<Creneau> tous = new ArrayList<>(materialises.size() + virtuels.size());
+        tous.addAll(materialises);
+        tous.addAll(virtuels);
+        tous.sort(Comparator.comparing(Creneau::getDateDebut));
+        return tous;
     }
 
     public void annulerCreneau(Long creneauId, Authentication authentication) {
@@ -262,6 +305,7 @@ public class CreneauService {
                 creneau.getTerrain().getNomTerrain());
     }
 
+    @Transactional
     public Map<String, Object> creerCreneauxRecurrents(CreneauRecurrentDto dto) {
         DayOfWeek jourTarget = DayOfWeek.valueOf(dto.getJourDeSemaine().toUpperCase());
         LocalDate current = dto.getDateDebut();
@@ -269,6 +313,8 @@ public class CreneauService {
 
         Terrain terrain = terrainRepository.findById(dto.getTerrainId())
                 .orElseThrow(() -> new RuntimeException("Terrain introuvable"));
+        // Même verrou que l'import en masse : contrôle des chevauchements puis insertion sans concurrent
+        terrainRepository.verrouiller(List.of(terrain.getId()));
 
         // Récupérer les heures d'ouverture/fermeture du club
         Club club = terrain.getClub();
@@ -279,6 +325,7 @@ public class CreneauService {
         int totalDemandes = 0;
         int totalRefuses = 0; // Hors horaires d'ouverture
         int totalConflits = 0; // Conflits avec créneaux existants
+        int dejaExistants = 0; // Créneaux identiques déjà présents
         boolean autoReserver = Boolean.TRUE.equals(dto.getAutoReserver());
         String nomReservant = dto.getNomReservant();
 
@@ -287,6 +334,13 @@ public class CreneauService {
                                   ? dto.getNombreDuplications()
                                   : 1;
 
+        // Un seul aller-retour : tous les créneaux du terrain sur la période, puis balayage en mémoire
+        LocalDateTime debutPeriode = current.atStartOfDay();
+        LocalDateTime finPeriode = end.plusDays(1).atTime(dto.getHeureDebut())
+                .plusMinutes((long) nombreDuplications * dto.getDureeMinutes());
+        BalayageChevauchements balayage = new BalayageChevauchements(
+                creneauRepository.findCreneauxChevauchants(terrain.getId(), debutPeriode, finPeriode));
+
         while (!current.isAfter(end)) {
             if (current.getDayOfWeek() == jourTarget) {
                 // Pour chaque jour correspondant, créer le nombre de duplications demandé
@@ -311,16 +365,20 @@ public class CreneauService {
                         }
                     }
 
-                    // Vérifier les chevauchements avec des créneaux existants
-                    List<Creneau> chevauchants = creneauRepository.findCreneauxChevauchants(
-                            terrain.getId(), dateDebut, dateFin);
-
-                    if (!chevauchants.isEmpty()) {
+                    // Vérifier les chevauchements avec des créneaux existants (ou déjà acceptés)
+                    BalayageChevauchements.Verdict verdict = balayage.verifier(dateDebut, dateFin);
+                    if (verdict == BalayageChevauchements.Verdict.DOUBLON) {
+                        log.debug("Créneau ignoré (existe déjà): {} - {}", dateDebut, dateFin);
+                        dejaExistants++;
+                        continue;
+                    }
+                    if (verdict == BalayageChevauchements.Verdict.CONFLIT) {
                         // Créneau en conflit, on le saute et on continue avec les autres
                         log.debug("Créneau ignoré (conflit): {} - {}", dateDebut, dateFin);
                         totalConflits++;
                         continue; // Passer au prochain créneau
                     }
+                    balayage.occuper(dateDebut, dateFin);
 
                     // Pas de conflit, on peut créer ce créneau
                     Creneau c = new Creneau();
@@ -350,22 +408,19 @@ public class CreneauService {
 
         // Créer les réservations automatiques si demandé
         int reservationsCrees = 0;
-        if (autoReserver && nomReservant != null && !nomReservant.trim().isEmpty()) {
+        if (autoReserver && nomReservant != null && !nomReservant.trim().isEmpty() && !saved.isEmpty()) {
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<Reservation> reservations = new ArrayList<>(saved.size());
             for (Creneau creneau : saved) {
-                try {
-                    Reservation reservation = new Reservation();
-                    reservation.setCreneau(creneau);
-                    reservation.setStatut(Statut.RESERVE);
-                    reservation.setDateReservation(LocalDateTime.now());
-                    reservation.setNomReservant(nomReservant.trim());
-                    // Note: joueur reste null car c'est une réservation manuelle par le club
-                    reservationRepository.save(reservation);
-                    reservationsCrees++;
-                } catch (Exception e) {
-                    log.warn("Erreur lors de la création de la réservation pour le créneau {}: {}",
-                            creneau.getId(), e.getMessage());
-                }
+                Reservation reservation = new Reservation();
+                reservation.setCreneau(creneau);
+                reservation.setStatut(Statut.RESERVE);
+                reservation.setDateReservation(maintenant);
+                reservation.setNomReservant(nomReservant.trim());
+                // Note: joueur reste null car c'est une réservation manuelle par le club
+                reservations.add(reservation);
             }
+            reservationsCrees = reservationRepository.saveAll(reservations).size();
         }
 
         // Construction du message informatif
@@ -374,6 +429,9 @@ public class CreneauService {
             messageBuilder.append("Aucun créneau créé.");
             if (totalRefuses > 0 || totalConflits > 0) {
                 messageBuilder.append(" Raisons:");
+                if (dejaExistants > 0) {
+                    messageBuilder.append(String.format(" %d déjà existants,", dejaExistants));
+                }
                 if (totalRefuses > 0) {
                     messageBuilder.append(String.format(" %d hors horaires,", totalRefuses));
                 }
@@ -411,7 +469,8 @@ public class CreneauService {
         response.put("totalCrees", saved.size());
         response.put("totalRefuses", totalRefuses);
         response.put("totalConflits", totalConflits);
-        response.put("totalIgnores", totalRefuses + totalConflits);
+        response.put("dejaExistants", dejaExistants);
+        response.put("totalIgnores", totalRefuses + totalConflits + dejaExistants);
         response.put("reservationsCrees", reservationsCrees);
         response.put("nomReservant", nomReservant);
         response.put("creneaux", saved.stream().map(CreneauMapper::toDto).toList());
@@ -502,6 +561,8 @@ public class CreneauService {
             throw new RuntimeException("Ce créneau ne vous appartient pas.");
         }
 
+        CreneauRollup rollupAvant = CreneauRollup.de(c);
+
         // Déplacement éventuel de terrain
         if (req.getTerrainId() != null && !req.getTerrainId().equals(c.getTerrain().getId())) {
             Terrain nouveauTerrain = terrainRepository.findById(req.getTerrainId())
@@ -533,7 +594,8 @@ public class CreneauService {
             throw new RuntimeException("L'heure de fin doit être après l'heure de début.");
         }
 
-        // Chevauchements (en excluant le créneau courant)
+        // Chevauchements (en excluant le créneau courant), sous le verrou du terrain
+        terrainRepository.verrouiller(List.of(c.getTerrain().getId()));
         List<Creneau> chevauchants = creneauRepository.findCreneauxChevauchants(
                 c.getTerrain().getId(), c.getDateDebut(), c.getDateFin()).stream()
                 .filter(x -> !x.getId().equals(c.getId())).toList();
@@ -546,6 +608,13 @@ public class CreneauService {
                 club.getNom(), saved.getId(), saved.getTerrain().getNomTerrain(),
                 oldDebut, saved.getDateDebut(), oldPrix, saved.getPrix());
 
+        // Toutes les réservations (annulées comprises) comptent dans le rollup : elles suivent le créneau
+        CreneauRollup rollupApres = CreneauRollup.de(saved);
+        if (rollupAvant != null && !rollupAvant.equals(rollupApres)) {
+            statistiqueRollupService.creneauModifie(reservationRepository.findByCreneauId(saved.getId()),
+                    rollupAvant, rollupApres);
+        }
+
         // Notification simple si modification temps/prix
         boolean changedTime = (oldDebut != null && !oldDebut.equals(saved.getDateDebut()))
                 || (oldFin != null && !oldFin.equals(saved.getDateFin()));
@@ -562,49 +631,63 @@ public class CreneauService {
                 } catch (Exception ex) {
                     log.warn("Notification changement créneau échouée (resa {}): {}", r.getId(), ex.getMessage());
                 }
+                // Rappel recalé sur le nouvel horaire (appliqué après le commit)
+                if (changedTime && r.getStatut() == Statut.RESERVE) {
+                    rappelService.planifier(r.getId(), saved.getDateDebut());
+                }
             }
         }
         return saved;
     }
 
+    /**
+     * Créneaux disponibles d'un club pour une date (ou, sans date, tous ceux à venir) et un sport optionnel.
+     * Filtrés en base (club, sport, disponibilité, début), puis gardés dans CreneauxClubCache par
+     * (club, date, sport) ; les créneaux commencés depuis la mise en cache sont écartés à la lecture.
+     */
     @Transactional(readOnly = true)
     public List<Creneau> getCreneauxDisponiblesParClub(Long clubId, String dateStr, String sportStr) {
-        List<Creneau> creneaux;
+        LocalDate date;
+        try {
+            date = dateStr == null || dateStr.isBlank() ? null : LocalDate.parse(dateStr.trim());
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Format de date invalide. Utilisez YYYY-MM-DD");
+        }
+        String sport = Creneau.sportRecherche(sportStr);
         LocalDateTime maintenant = LocalDateTime.now();
-
-        if (dateStr == null || dateStr.isBlank()) {
-            creneaux = creneauRepository.findByTerrainClubIdAndDisponibleTrue(clubId);
-            creneaux = creneaux.stream()
-                    .filter(c -> c.getDateDebut() != null && c.getDateDebut().isAfter(maintenant))
-                    .toList();
-        } else {
-            try {
-                LocalDate date = LocalDate.parse(dateStr);
-                LocalDateTime startOfDay = date.atStartOfDay();
-                LocalDateTime endOfDay = date.atTime(23, 59, 59);
-
-                if (date.equals(LocalDate.now())) {
-                    startOfDay = maintenant;
-                }
-
-                creneaux = creneauRepository.findByTerrainClubIdAndDisponibleTrueAndDateDebutBetween(
-                        clubId, startOfDay, endOfDay);
-            } catch (Exception e) {
-                throw new RuntimeException("Format de date invalide. Utilisez YYYY-MM-DD");
+        LocalDateTime debut = date == null || date.equals(maintenant.toLocalDate()) ? maintenant : date.atStartOfDay();
+
+        // Une transaction d'écriture peut voir ses propres changements non validés : ni lus ni mis en cache
+        boolean cacheable = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        CreneauxClubCache.Cle cle = new CreneauxClubCache.Cle(clubId, date, sport);
+        List<CreneauSlot> slots = cacheable ? creneauxClubCache.get(cle) : null;
+        if (slots == null) {
+            long generation = creneauxClubCache.generation(clubId);
+            slots = disponiblesDuClub(clubId, date, sport, debut);
+            if (cacheable) {
+                creneauxClubCache.put(cle, slots, generation);
             }
         }
+        return slots.stream()
+                .filter(s -> !s.dateDebut().isBefore(debut))
+                .map(CreneauSlot::toCreneau)
+                .toList();
+    }
 
-        // Filter by sport if provided
-        System.out.println("The sport filter is :" + sportStr);
-        if (sportStr != null && !sportStr.isBlank()) {
-            final String sportFilter = sportStr.trim();
-            creneaux = creneaux.stream()
-                    .filter(c -> c.getTerrain() != null
-                            && c.getTerrain().getSport() != null)
-                    .toList();
-        }
+    private List<CreneauSlot> disponiblesDuClub(Long clubId, LocalDate date, String sport, LocalDateTime debut) {
+        LocalDateTime fin = date != null ? date.plusDays(1).atStartOfDay() : FIN_DES_TEMPS;
+        LocalDateTime finVirtuels = date != null ? fin : debut.plusDays(regleCreneauService.getHorizonJours());
 
-        return creneaux;
+        List<CreneauSlot> slots = new ArrayList<>();
+        creneauRepository.findDisponiblesDuClub(clubId, debut, fin, sport)
+                .forEach(l -> slots.add(CreneauSlot.of(l)));
+        for (Creneau v : regleCreneauService.creneauxVirtuelsDuClub(clubId, debut, finVirtuels)) {
+            if (sport == null || sport.equals(Creneau.sportRecherche(v.getTerrain().getSport()))) {
+                slots.add(CreneauSlot.of(v));
+            }
+        }
+        slots.sort(Comparator.comparing(CreneauSlot::dateDebut));
+        return slots;
     }
 
 }
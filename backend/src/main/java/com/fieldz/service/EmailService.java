@@ -1,8 +1,12 @@
 package com.fieldz.service;
 
 
+import com.fieldz.model.EmailOutbox;
+import com.fieldz.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -10,12 +14,19 @@ import org.springframework.stereotype.Service;
 
 import jakarta.mail.internet.MimeMessage;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
 
     @Value("${app.frontend-url:http://localhost:5173}")
     private String frontendUrl;
@@ -49,14 +60,76 @@ public class EmailService {
         mailSender.send(message);
     }
 
+    /**
+     * Met l'email en file d'attente (outbox) : il sera envoyé en arrière-plan par
+     * EmailOutboxWorker. Si l'appelant est transactionnel, l'email n'existe que si la
+     * transaction est validée.
+     */
     public void envoyerEmail(String toEmail, String sujet, String contenu) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom("contact.fieldz@gmail.com");
-        message.setTo(toEmail);
-        message.setSubject(sujet);
-        message.setText(contenu);
+        enfiler(toEmail, sujet, contenu, false, null);
+    }
 
-        mailSender.send(message);
+    /** Variante HTML de {@link #envoyerEmail}, avec Reply-To optionnel. */
+    public void enfilerHtml(String toEmail, String subject, String html, String replyTo) {
+        enfiler(toEmail, subject, html, true, replyTo);
+    }
+
+    private void enfiler(String toEmail, String sujet, String contenu, boolean html, String replyTo) {
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.save(EmailOutbox.builder()
+                .destinataire(toEmail)
+                .sujet(sujet)
+                .contenu(contenu)
+                .html(html)
+                .replyTo(replyTo)
+                .statut(EmailOutbox.StatutEmail.EN_ATTENTE)
+                .tentatives(0)
+                .prochaineTentative(now)
+                .dateCreation(now)
+                .build());
+    }
+
+    /**
+     * Envoie un lot d'emails de l'outbox sur une seule connexion SMTP.
+     *
+     * @return les ids en échec associés au message d'erreur (vide si tout est parti)
+     */
+    public Map<Long, String> envoyerLot(List<EmailOutbox> lot) {
+        Map<Long, String> echecs = new HashMap<>();
+        Map<MimeMessage, Long> messages = new LinkedHashMap<>();
+        for (EmailOutbox email : lot) {
+            try {
+                MimeMessage mime = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(mime, "UTF-8");
+                helper.setFrom("contact.fieldz@gmail.com");
+                helper.setTo(email.getDestinataire());
+                helper.setSubject(email.getSujet());
+                helper.setText(email.getContenu(), email.isHtml());
+                if (email.getReplyTo() != null && !email.getReplyTo().isBlank()) {
+                    helper.setReplyTo(email.getReplyTo());
+                }
+                messages.put(mime, email.getId());
+            } catch (Exception e) {
+                echecs.put(email.getId(), String.valueOf(e.getMessage()));
+            }
+        }
+        if (messages.isEmpty()) return echecs;
+
+        try {
+            // JavaMailSenderImpl ouvre une seule connexion pour tout le tableau
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((msg, ex) -> {
+                Long id = messages.get(msg);
+                if (id != null) echecs.put(id, String.valueOf(ex.getMessage()));
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(id -> echecs.put(id, String.valueOf(e.getMessage())));
+            }
+        } catch (MailException e) {
+            messages.values().forEach(id -> echecs.put(id, String.valueOf(e.getMessage())));
+        }
+        return echecs;
     }
 
     /** ✅ Envoi HTML (utilisé par ContactRequestService) */
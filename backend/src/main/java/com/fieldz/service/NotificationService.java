@@ -3,6 +3,8 @@ package com.fieldz.service;
 
 // DTO et Mapper
 import com.fieldz.dto.NotificationDto;
+import com.fieldz.dto.NotificationLigne;
+import com.fieldz.dto.PageCurseur;
 import com.fieldz.mapper.NotificationMapper;
 
 // Model
@@ -14,13 +16,26 @@ import com.fieldz.model.TypeNotification;
 // Repository
 import com.fieldz.repository.NotificationRepository;
 import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.security.service.PrincipalUtilisateur;
+import com.fieldz.service.cluster.BusCluster;
+import com.fieldz.service.notification.CompteurNonLues;
+import com.fieldz.service.notification.NonLuesModifiees;
+import com.fieldz.service.notification.NotificationCreee;
+import com.fieldz.service.notification.NotificationFlux;
+import org.springframework.context.ApplicationEventPublisher;
 
 // Spring Security
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 // Java
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -49,6 +64,14 @@ public class NotificationService {
 
 
     private final UtilisateurRepository utilisateurRepository;
+    private final CompteurNonLues compteurNonLues;
+    private final NotificationFlux notificationFlux;
+    private final ApplicationEventPublisher publisher;
+    private final BusCluster busCluster;
+
+    private static final int TAILLE_PAGE_MAX = 100;
+    private static final int RATTRAPAGE_MAX = 100;
+    private static final LocalDateTime FIN_DES_TEMPS = LocalDateTime.of(9999, 1, 1, 0, 0);
 
     private String formatDate(LocalDateTime dateTime) {
         return dateTime.toLocalDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
@@ -113,60 +136,95 @@ public class NotificationService {
     }
 
 
-    @Transactional(readOnly = true) // 👈 ouvre une session Hibernate pour initialiser les proxys
+    public static final String RAPPEL_2H = "RAPPEL_2H";
+    /** Marqueur posé par ReservationExpirationService dans la transaction qui passe la réservation en ABSENT. */
+    public static final String ABSENCE_AUTO = "ABSENCE_AUTO";
+
+    /**
+     * Rappels 2h avant dus maintenant, en un seul passage : rattrapage au démarrage (RappelService),
+     * les rappels suivants étant déclenchés un par un à l'heure exacte.
+     *
+     * Une seule requête (anti-jointure) sélectionne les réservations pas encore notifiées. Les emails
+     * partent dans l'outbox, envoyés en parallèle par EmailOutboxWorker, et les marqueurs sont écrits
+     * en lot dans la même transaction. Une exécution concurrente bute sur l'index unique
+     * (reservation_id, type) : elle est annulée entièrement, sans email en double.
+     */
+    @Transactional
     public void envoyerRappels2hAvant() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime target = now.plusHours(2);
 
-        List<Reservation> reservations =
-                reservationRepository.findUpcomingWithCreneauBetween(now, target, Statut.RESERVE);
+        List<Reservation> reservations = reservationRepository.findNonNotifieesAvecCreneauEntre(
+                now, target, Statut.RESERVE, RAPPEL_2H);
 
+        List<NotificationEnvoyee> envoyees = new ArrayList<>(reservations.size());
         for (Reservation r : reservations) {
-            // ✅ anti-doublon plus propre
-            if (notificationEnvoyeeRepository.existsByReservationIdAndType(r.getId(), "RAPPEL_2H")) {
-                continue;
-            }
-
-            Creneau c = r.getCreneau();   // déjà initialisé
-            if (c == null) continue;
-            Joueur joueur = r.getJoueur(); // déjà initialisé
-
-            // ✅ TON message conservé mot pour mot
-            String sujet = "⏰ Rappel : Créneau à venir bientôt";
-            String contenu = String.format("""
-                Bonjour %s,
-
-                Ceci est un rappel : vous avez une réservation dans moins de 2h.
-
-                📅 Date : %s
-                🕓 Heure : %s - %s
-                🏟️ Terrain : %s (Club : %s)
+            if (r.getCreneau() == null) continue;
+            enfilerRappel2h(r);
+            envoyees.add(new NotificationEnvoyee(null, r.getId(), RAPPEL_2H, now));
+        }
 
-                À tout de suite sur le terrain !
-                L'équipe FIELDZ
-                """,
-                    (joueur != null ? joueur.getPrenom() : ""),
-                    c.getDateDebut().toLocalDate(),
-                    c.getDateDebut().toLocalTime(),
-                    c.getDateFin().toLocalTime(),
-                    (c.getTerrain() != null ? c.getTerrain().getNomTerrain() : "Terrain"),
-                    (c.getTerrain() != null && c.getTerrain().getClub() != null ? c.getTerrain().getClub().getNom() : "Club")
-            );
+        // Ids par séquence (pooled) : les INSERT partent groupés au flush
+        notificationEnvoyeeRepository.saveAll(envoyees);
+        if (!envoyees.isEmpty()) {
+            log.info("✅ {} email(s) de rappel mis en file d'envoi", envoyees.size());
+        }
+    }
 
-            emailService.envoyerEmail(joueur.getEmail(), sujet, contenu);
+    /**
+     * Rappel d'une réservation, déclenché à son échéance par RappelService. Sans effet si elle n'est
+     * plus RESERVE, déjà notifiée, ou si son créneau ne commence plus dans les {@code avance} à venir.
+     *
+     * @return true si le rappel a été mis en file d'envoi
+     */
+    @Transactional
+    public boolean envoyerRappel2h(Long reservationId, Duration avance) {
+        LocalDateTime now = LocalDateTime.now();
+        // Une minute de marge : la roue déclenche au plus un tick après l'échéance
+        return reservationRepository.findNonNotifieeAvecCreneauEntre(
+                        reservationId, now, now.plus(avance).plusMinutes(1), Statut.RESERVE, RAPPEL_2H)
+                .map(r -> {
+                    enfilerRappel2h(r);
+                    notificationEnvoyeeRepository.save(new NotificationEnvoyee(null, r.getId(), RAPPEL_2H, now));
+                    log.info("✅ Email de rappel mis en file d'envoi pour la réservation {}", r.getId());
+                    return true;
+                })
+                .orElse(false);
+    }
 
-            notificationEnvoyeeRepository.save(
-                    new NotificationEnvoyee(null, r.getId(), "RAPPEL_2H", LocalDateTime.now())
-            );
+    private void enfilerRappel2h(Reservation r) {
+        Creneau c = r.getCreneau();   // déjà initialisé
+        Joueur joueur = r.getJoueur(); // déjà initialisé
+
+        // ✅ TON message conservé mot pour mot
+        String sujet = "⏰ Rappel : Créneau à venir bientôt";
+        String contenu = String.format("""
+            Bonjour %s,
+
+            Ceci est un rappel : vous avez une réservation dans moins de 2h.
+
+            📅 Date : %s
+            🕓 Heure : %s - %s
+            🏟️ Terrain : %s (Club : %s)
+
+            À tout de suite sur le terrain !
+            L'équipe FIELDZ
+            """,
+                (joueur != null ? joueur.getPrenom() : ""),
+                c.getDateDebut().toLocalDate(),
+                c.getDateDebut().toLocalTime(),
+                c.getDateFin().toLocalTime(),
+                (c.getTerrain() != null ? c.getTerrain().getNomTerrain() : "Terrain"),
+                (c.getTerrain() != null && c.getTerrain().getClub() != null ? c.getTerrain().getClub().getNom() : "Club")
+        );
 
-            log.info("✅ Email de rappel envoyé à {}", joueur.getEmail());
-        }
+        emailService.envoyerEmail(joueur.getEmail(), sujet, contenu);
     }
 
 
 
 
-    // Nécessaire pour récupérer les notifs de l'utilisateur connecté
+    // Historique complet : préférer pageMesNotifications + le flux SSE
     public List<NotificationDto> getMyNotifications(Authentication auth) {
         Utilisateur u = utilisateurRepository.findByEmail(auth.getName())
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
@@ -189,6 +247,80 @@ public class NotificationService {
 
         notif.setLue(true);
         notificationRepository.save(notif);
+        compteurNonLues.invalider(notif.getDestinataire().getId());
+        publisher.publishEvent(new NonLuesModifiees(notif.getDestinataire().getId()));
+    }
+
+    // ================== Liste paginée, compteur, flux SSE ==================
+
+    /** Notifications de l'utilisateur connecté, plus récentes d'abord, paginées par clé (dateEnvoi, id). */
+    @Transactional(readOnly = true)
+    public PageCurseur<NotificationDto> pageMesNotifications(String apres, int taille, Authentication auth) {
+        Long utilisateurId = utilisateurId(auth);
+        int t = Math.max(1, Math.min(taille, TAILLE_PAGE_MAX));
+        LocalDateTime apresDate = FIN_DES_TEMPS;
+        long apresId = Long.MAX_VALUE;
+        if (apres != null && !apres.isBlank()) {
+            Curseur c = curseur(apres);
+            apresDate = c.dateEnvoi();
+            apresId = c.id();
+        }
+        List<NotificationLigne> lignes = notificationRepository.pageDuDestinataire(
+                utilisateurId, apresDate, apresId, Limit.of(t + 1));
+
+        // Une ligne de plus que demandé : sa présence indique qu'il existe une page suivante
+        List<NotificationDto> contenu = lignes.stream().limit(t).map(NotificationLigne::toDto).toList();
+        String suivant = lignes.size() > t ? NotificationFlux.curseur(contenu.get(t - 1)) : null;
+        return new PageCurseur<>(contenu, suivant);
+    }
+
+    public long nombreNonLues(Authentication auth) {
+        return compteurNonLues.get(utilisateurId(auth));
+    }
+
+    /**
+     * Flux SSE de l'utilisateur connecté. {@code dernierEvenement} (en-tête Last-Event-ID) : id du
+     * dernier événement reçu ; les notifications créées depuis sont renvoyées en tête du flux.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter ouvrirFlux(String dernierEvenement, Authentication auth) {
+        Long utilisateurId = utilisateurId(auth);
+        Curseur c = dernierEvenement != null && !dernierEvenement.isBlank() ? curseur(dernierEvenement) : null;
+        // Rattrapage lu une fois le flux enregistré (voir NotificationFlux.ouvrir)
+        return notificationFlux.ouvrir(utilisateurId, () -> c == null ? List.of()
+                : notificationRepository.depuisCurseur(utilisateurId, c.dateEnvoi(), c.id(),
+                        Limit.of(RATTRAPAGE_MAX)).stream().map(NotificationLigne::toDto).toList());
+    }
+
+    private record Curseur(LocalDateTime dateEnvoi, long id) {}
+
+    private static Curseur curseur(String valeur) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(valeur), StandardCharsets.UTF_8).split("\\|", 2);
+            return new Curseur(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Curseur de pagination invalide.");
+        }
+    }
+
+    // Principal du JWT (id déjà connu) ; sinon relu par email
+    private Long utilisateurId(Authentication auth) {
+        if (auth.getPrincipal() instanceof PrincipalUtilisateur p) {
+            return p.id();
+        }
+        return utilisateurRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"))
+                .getId();
+    }
+
+    // Toute notification in-app passe par ici : compteur invalidé, poussée SSE après le commit,
+    // sur ce noeud et, par le bus, sur les autres
+    private void enregistrer(Notification notif) {
+        Notification saved = notificationRepository.save(notif);
+        Long destinataireId = saved.getDestinataire().getId();
+        compteurNonLues.invalider(destinataireId);
+        publisher.publishEvent(new NotificationCreee(destinataireId, notificationMapper.toDto(saved)));
+        busCluster.publier(NotificationFlux.NOTIFICATION, saved.getId());
     }
 
     public void envoyerEmailAuClubReservation(Club club, Joueur joueur, Creneau creneau) {
@@ -326,7 +458,7 @@ public class NotificationService {
             try { notif.getClass().getMethod("setContenu", String.class).invoke(notif, contenu); } catch (Exception ignored) {}
             try { notif.getClass().getMethod("setMessage", String.class).invoke(notif, contenu); } catch (Exception ignored) {}
 
-            notificationRepository.save(notif);
+            enregistrer(notif);
         } catch (Exception e) {
             log.warn("Échec création notification in-app (annulation club) pour réservation {}: {}", r.getId(), e.getMessage());
         }
@@ -401,17 +533,88 @@ public class NotificationService {
             try { notif.getClass().getMethod("setContenu", String.class).invoke(notif, contenu); } catch (Exception ignored) {}
             try { notif.getClass().getMethod("setMessage", String.class).invoke(notif, contenu); } catch (Exception ignored) {}
 
-            notificationRepository.save(notif);
+            enregistrer(notif);
         } catch (Exception e) {
             log.warn("Échec création notification in-app ABSENCE pour réservation {}: {}", r.getId(), e.getMessage());
         }
     }
 
+    // 🔔 Absence automatique (présence non confirmée dans les 24h) : email + notification in-app
+    public void notifierAbsenceAutomatique(Reservation r) {
+        if (r == null || r.getJoueur() == null || r.getCreneau() == null) return;
+
+        final Joueur joueur = r.getJoueur();
+        final Creneau c = r.getCreneau();
+        String terrain = c.getTerrain() != null ? c.getTerrain().getNomTerrain() : "Terrain";
+
+        try {
+            String sujet = "🚫 Réservation marquée absente – FIELDZ";
+            String contenu = String.format(
+                    """
+                    Bonjour %s,
+
+                    Votre présence n'a pas été confirmée dans les 24h : la réservation suivante est marquée absente.
+
+                    📅 Date : %s
+                    🕒 Heure : %s - %s
+                    🏟️ Terrain : %s
+
+                    L’équipe FIELDZ
+                    """,
+                    joueur.getPrenom() != null ? joueur.getPrenom() : "",
+                    formatDate(c.getDateDebut()),
+                    formatHeure(c.getDateDebut()),
+                    formatHeure(c.getDateFin()),
+                    terrain
+            );
+            emailService.envoyerEmail(joueur.getEmail(), sujet, contenu);
+        } catch (Exception e) {
+            log.warn("Échec envoi email absence automatique pour réservation {}: {}", r.getId(), e.getMessage());
+        }
+
+        try {
+            Notification notif = new Notification();
+            notif.setDestinataire(joueur);
+            notif.setType(TypeNotification.ABSENCE);
+            notif.setDateEnvoi(LocalDateTime.now());
+            notif.setLue(false);
+            notif.setReservation(r);
+            notif.setMessage(String.format(
+                    "Présence non confirmée dans les 24h : réservation marquée absente.\n\nDate : %s\nHeure : %s - %s\nTerrain : %s",
+                    formatDate(c.getDateDebut()), formatHeure(c.getDateDebut()), formatHeure(c.getDateFin()), terrain));
+            enregistrer(notif);
+        } catch (Exception e) {
+            log.warn("Échec création notification in-app absence automatique pour réservation {}: {}", r.getId(), e.getMessage());
+        }
+    }
+
     /** Overload pratique si pas de motif à fournir. */
     public void notifierAbsenceReservationParClub(Reservation r) {
         notifierAbsenceReservationParClub(r, null);
     }
 
+    // ================== Rétention (lots de MaintenanceService) ==================
+
+    /** Notifications in-app envoyées avant {@code avant}, ou lues et envoyées avant {@code lueAvant}. */
+    @Transactional
+    public int purgerNotifications(LocalDateTime avant, LocalDateTime lueAvant, int tailleLot) {
+        List<Long> ids = notificationRepository.findIdsAPurger(avant, lueAvant, Limit.of(tailleLot));
+        if (!ids.isEmpty()) {
+            notificationRepository.deleteAllByIdInBatch(ids);
+            // Tous les compteurs, sur tous les noeuds (BusCluster)
+            compteurNonLues.invalider(null);
+        }
+        return ids.size();
+    }
+
+    /** Marqueurs d'envoi (RAPPEL_2H...) antérieurs à {@code avant} : leurs créneaux sont passés depuis longtemps. */
+    @Transactional
+    public int purgerNotificationsEnvoyees(LocalDateTime avant, int tailleLot) {
+        List<Long> ids = notificationEnvoyeeRepository.findIdsEnvoyeesAvant(avant, Limit.of(tailleLot));
+        if (!ids.isEmpty()) notificationEnvoyeeRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
 
 
 }
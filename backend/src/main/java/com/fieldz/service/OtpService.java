@@ -4,6 +4,7 @@ import com.fieldz.model.OtpCode;
 import com.fieldz.repository.OtpCodeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -115,11 +116,14 @@ public class OtpService {
     }
 
     /**
-     * Clean up expired OTP codes (can be scheduled)
+     * Clean up one batch of expired OTP codes (scheduled by MaintenanceService)
+     *
+     * @return number of deleted codes
      */
     @Transactional
-    public void cleanupExpiredOtps() {
-        otpCodeRepository.deleteByExpiresAtBefore(LocalDateTime.now());
-        log.info("Expired OTP codes cleaned up");
+    public int cleanupExpiredOtps(int batchSize) {
+        List<Long> ids = otpCodeRepository.findIdsExpires(LocalDateTime.now(), Limit.of(batchSize));
+        if (!ids.isEmpty()) otpCodeRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
     }
 }
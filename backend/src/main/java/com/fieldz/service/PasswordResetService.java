@@ -5,11 +5,13 @@ import com.fieldz.model.Utilisateur;
 import com.fieldz.repository.PasswordResetTokenRepository;
 import com.fieldz.repository.UtilisateurRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -88,4 +90,14 @@ public class PasswordResetService {
         // Envoi d'un email de confirmation
         emailService.sendPasswordChangeConfirmation(utilisateur.getEmail());
     }
+
+    /**
+     * Un lot de la purge planifiée (MaintenanceService) : tokens expirés, utilisés ou non
+     */
+    @Transactional
+    public int cleanupExpired(int tailleLot) {
+        List<Long> ids = tokenRepository.findIdsExpires(LocalDateTime.now(), Limit.of(tailleLot));
+        if (!ids.isEmpty()) tokenRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
 }
@@ -6,6 +6,7 @@ import com.fieldz.util.HashUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +14,7 @@ import java.security.SecureRandom;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 @Slf4j
@@ -106,9 +108,11 @@ public class RefreshTokenService {
         log.info("[RT REVOKE ALL] userId={}", userId);
     }
 
+    /** Un lot de la purge planifiée (MaintenanceService) : au plus {@code batchSize} tokens expirés. */
     @Transactional
-    public void cleanupExpired() {
-        long deleted = repo.deleteByExpiresAtBefore(Instant.now());
-        log.info("[RT CLEANUP] deletedExpired={}", deleted);
+    public int cleanupExpired(int batchSize) {
+        List<Long> ids = repo.findIdsExpires(Instant.now(), Limit.of(batchSize));
+        if (!ids.isEmpty()) repo.deleteAllByIdInBatch(ids);
+        return ids.size();
     }
 }
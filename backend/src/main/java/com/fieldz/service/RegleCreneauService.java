@@ -0,0 +1,252 @@
+package com.fieldz.service;
+
+import com.fieldz.dto.CreneauRecurrentDto;
+import com.fieldz.dto.RegleCreneauDto;
+import com.fieldz.mapper.RegleCreneauMapper;
+import com.fieldz.model.*;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.RegleCreneauRepository;
+import com.fieldz.repository.TerrainRepository;
+import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.service.cluster.BusCluster;
+import com.fieldz.service.disponibilite.CreneauxClubCache;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.disponibilite.DisponibiliteIndexLoader;
+import com.fieldz.service.disponibilite.ExpansionRegles;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Règles de récurrence (créneaux virtuels).
+ *
+ * Une règle ne crée aucune ligne Creneau : ses occurrences sont calculées à la lecture,
+ * sur la fenêtre demandée. Une occurrence n'est matérialisée qu'au moment d'être réservée
+ * (ReservationService.reserverOccurrence) ou modifiée par le club ; la ligne créée
+ * l'emporte ensuite sur l'occurrence virtuelle.
+ *
+ * DisponibiliteIndex garde une copie des règles (recherche par ville sans requête) : chaque
+ * création ou suppression y est reflétée, et signalée aux autres noeuds par BusCluster.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RegleCreneauService {
+
+    private final RegleCreneauRepository regleCreneauRepository;
+    private final CreneauRepository creneauRepository;
+    private final TerrainRepository terrainRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final CreneauxClubCache creneauxClubCache;
+    private final DisponibiliteIndex disponibiliteIndex;
+    private final BusCluster busCluster;
+
+    // Fenêtre des listes de disponibilités sans date précise
+    @Value("${app.creneaux.regles.horizon-jours:28}")
+    private int horizonJours = 28;
+
+    // ======================== Gestion par le club ========================
+
+    @Transactional
+    public RegleCreneauDto creer(CreneauRecurrentDto dto, Authentication authentication) {
+        Club club = clubConnecte(authentication);
+        Terrain terrain = terrainRepository.findById(dto.getTerrainId())
+                .orElseThrow(() -> new RuntimeException("Terrain introuvable"));
+        if (!Objects.equals(terrain.getClub().getId(), club.getId())) {
+            throw new RuntimeException("Ce terrain ne vous appartient pas.");
+        }
+        if (Boolean.TRUE.equals(dto.getAutoReserver())) {
+            throw new IllegalArgumentException("Une règle ne produit que des créneaux libres : utilisez /recurrent pour l'auto-réservation.");
+        }
+        if (dto.getSecondPrix() != null) {
+            throw new IllegalArgumentException("Une règle n'a qu'un prix : utilisez /recurrent pour un second prix.");
+        }
+
+        RegleCreneau regle = new RegleCreneau();
+        regle.setTerrain(terrain);
+        regle.setJourDeSemaine(DayOfWeek.valueOf(dto.getJourDeSemaine().toUpperCase()));
+        regle.setHeureDebut(dto.getHeureDebut());
+        regle.setDureeMinutes(dto.getDureeMinutes());
+        regle.setNombreDuplications(dto.getNombreDuplications() != null && dto.getNombreDuplications() > 1
+                ? dto.getNombreDuplications() : 1);
+        regle.setPrix(dto.getPrix());
+        regle.setDateDebut(dto.getDateDebut());
+        regle.setDateFin(dto.getDateFin());
+
+        valider(regle, club);
+        RegleCreneau saved = regleCreneauRepository.save(regle);
+        disponibiliteIndex.appliquerRegle(saved);
+        busCluster.publier(DisponibiliteIndexLoader.REGLE, saved.getId());
+        creneauxClubCache.invalider(club.getId());
+        log.info("Club {} : règle {} créée sur {} ({} {} x{} de {} min, du {} au {})", club.getNom(), saved.getId(),
+                terrain.getNomTerrain(), regle.getJourDeSemaine(), regle.getHeureDebut(),
+                regle.getNombreDuplications(), regle.getDureeMinutes(), regle.getDateDebut(), regle.getDateFin());
+        return RegleCreneauMapper.toDto(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RegleCreneauDto> lister(Authentication authentication) {
+        Club club = clubConnecte(authentication);
+        return regleCreneauRepository.findByClubId(club.getId()).stream()
+                .map(RegleCreneauMapper::toDto)
+                .toList();
+    }
+
+    /** Les occurrences déjà matérialisées (réservées, modifiées) sont conservées. */
+    @Transactional
+    public void supprimer(Long regleId, Authentication authentication) {
+        Club club = clubConnecte(authentication);
+        RegleCreneau regle = regleDuClub(regleId, club);
+        regleCreneauRepository.delete(regle);
+        disponibiliteIndex.retirerRegle(regleId);
+        busCluster.publier(DisponibiliteIndexLoader.REGLE, regleId);
+        creneauxClubCache.invalider(club.getId());
+        log.info("Club {} : règle {} supprimée", club.getNom(), regleId);
+    }
+
+    /** Matérialise une occurrence pour que le club puisse la modifier ou l'annuler comme tout créneau. */
+    @Transactional
+    public Creneau materialiserPourClub(Long regleId, LocalDateTime dateDebut, Authentication authentication) {
+        Club club = clubConnecte(authentication);
+        regleDuClub(regleId, club);
+        return materialiser(regleId, dateDebut);
+    }
+
+    // ======================== Lecture / matérialisation ========================
+
+    public int getHorizonJours() {
+        return horizonJours;
+    }
+
+    /** Occurrences libres de toutes les règles, débutant dans [from, to[. */
+    @Transactional(readOnly = true)
+    public List<Creneau> creneauxVirtuels(LocalDateTime from, LocalDateTime to) {
+        return libres(regleCreneauRepository.findActivesFetchTerrainAndClub(from.toLocalDate().minusDays(1),
+                to.toLocalDate()), from, to);
+    }
+
+    /**
+     * Occurrences libres des règles des terrains d'une ville et d'un sport (null : tous), débutant
+     * dans [from, to[. Ville et sport sous leur forme de recherche (Creneau.villeRecherche,
+     * Creneau.sportRecherche) : seules les règles concernées sont lues et dépliées.
+     */
+    @Transactional(readOnly = true)
+    public List<Creneau> creneauxVirtuelsDuLieu(String ville, String sport, LocalDateTime from, LocalDateTime to) {
+        return libres(regleCreneauRepository.findActivesDuLieu(ville, sport, from.toLocalDate().minusDays(1),
+                to.toLocalDate()), from, to);
+    }
+
+    /** Occurrences libres des règles d'un club, débutant dans [from, to[. */
+    @Transactional(readOnly = true)
+    public List<Creneau> creneauxVirtuelsDuClub(Long clubId, LocalDateTime from, LocalDateTime to) {
+        return libres(regleCreneauRepository.findActivesDuClub(clubId, from.toLocalDate().minusDays(1),
+                to.toLocalDate()), from, to);
+    }
+
+    private List<Creneau> libres(List<RegleCreneau> regles, LocalDateTime from, LocalDateTime to) {
+        if (regles.isEmpty()) return List.of();
+
+        List<Long> terrainIds = regles.stream().map(r -> r.getTerrain().getId()).distinct().toList();
+        int dureeMax = regles.stream().mapToInt(RegleCreneau::getDureeMinutes).max().orElse(0);
+        List<Creneau> materialises = creneauRepository.findChevauchantsParTerrains(
+                terrainIds, from, to.plusMinutes(dureeMax));
+        return ExpansionRegles.libres(regles, materialises, from, to);
+    }
+
+    /**
+     * Crée (ou retrouve) la ligne Creneau de l'occurrence de la règle qui débute à {@code dateDebut}.
+     * Le verrou sur la règle sérialise les matérialisations concurrentes : jamais deux lignes
+     * pour la même occurrence.
+     */
+    @Transactional
+    public Creneau materialiser(Long regleId, LocalDateTime dateDebut) {
+        RegleCreneau regle = regleCreneauRepository.findByIdPourMaterialisation(regleId)
+                .orElseThrow(() -> new RuntimeException("Règle introuvable"));
+        if (!regle.genere(dateDebut)) {
+            throw new IllegalArgumentException("La règle " + regleId + " ne produit pas de créneau le " + dateDebut);
+        }
+
+        Creneau occurrence = ExpansionRegles.virtuel(regle, dateDebut);
+        Terrain terrain = regle.getTerrain();
+        // Le verrou de la règle ne couvre pas les autres écritures du terrain (import, créneaux manuels)
+        terrainRepository.verrouiller(List.of(terrain.getId()));
+        var existant = creneauRepository.findByTerrainAndDateDebutAndDateFin(
+                terrain, occurrence.getDateDebut(), occurrence.getDateFin());
+        if (existant.isPresent()) {
+            return existant.get();
+        }
+        if (!creneauRepository.findCreneauxChevauchants(
+                terrain.getId(), occurrence.getDateDebut(), occurrence.getDateFin()).isEmpty()) {
+            throw new IllegalStateException("Ce créneau n'est plus disponible (un autre créneau occupe cette plage).");
+        }
+
+        // Flush immédiat : la ligne (et l'index de disponibilité) existe avant la réservation
+        Creneau saved = creneauRepository.saveAndFlush(occurrence);
+        log.debug("Occurrence de la règle {} matérialisée : créneau {} ({})", regleId, saved.getId(), dateDebut);
+        return saved;
+    }
+
+    // ======================== Validation ========================
+
+    private void valider(RegleCreneau regle, Club club) {
+        if (regle.getDureeMinutes() <= 0) {
+            throw new IllegalArgumentException("La durée d'un créneau doit être positive.");
+        }
+        if (regle.getDateDebut() == null || regle.getDateFin() == null || regle.getDateFin().isBefore(regle.getDateDebut())) {
+            throw new IllegalArgumentException("Période de validité invalide.");
+        }
+
+        int debut = minutes(regle.getHeureDebut());
+        int fin = debut + regle.getNombreDuplications() * regle.getDureeMinutes();
+
+        LocalTime ouverture = club.getHeureOuverture();
+        LocalTime fermeture = club.getHeureFermeture();
+        if (ouverture != null && fermeture != null && (debut < minutes(ouverture) || fin > minutes(fermeture))) {
+            throw new IllegalArgumentException(String.format(
+                    "Règle hors horaires d'ouverture (%s - %s).", ouverture, fermeture));
+        }
+
+        // Deux règles d'un même terrain ne doivent jamais produire de créneaux qui se chevauchent
+        for (RegleCreneau autre : regleCreneauRepository.findByTerrainId(regle.getTerrain().getId())) {
+            boolean memesJours = autre.getJourDeSemaine() == regle.getJourDeSemaine()
+                    && !autre.getDateFin().isBefore(regle.getDateDebut())
+                    && !regle.getDateFin().isBefore(autre.getDateDebut());
+            int autreDebut = minutes(autre.getHeureDebut());
+            int autreFin = autreDebut + autre.getNombreDuplications() * autre.getDureeMinutes();
+            if (memesJours && debut < autreFin && autreDebut < fin) {
+                throw new IllegalArgumentException("Cette règle chevauche la règle " + autre.getId() + " du même terrain.");
+            }
+        }
+    }
+
+    private static int minutes(LocalTime heure) {
+        return heure.getHour() * 60 + heure.getMinute();
+    }
+
+    private RegleCreneau regleDuClub(Long regleId, Club club) {
+        RegleCreneau regle = regleCreneauRepository.findById(regleId)
+                .orElseThrow(() -> new RuntimeException("Règle introuvable"));
+        if (!Objects.equals(regle.getTerrain().getClub().getId(), club.getId())) {
+            throw new RuntimeException("Cette règle ne vous appartient pas.");
+        }
+        return regle;
+    }
+
+    private Club clubConnecte(Authentication authentication) {
+        Utilisateur utilisateur = utilisateurRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+        if (!(utilisateur instanceof Club club)) {
+            throw new RuntimeException("L'utilisateur n'est pas un club.");
+        }
+        return club;
+    }
+}
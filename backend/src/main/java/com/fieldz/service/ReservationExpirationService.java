@@ -0,0 +1,120 @@
+package com.fieldz.service;
+
+import com.fieldz.model.NotificationEnvoyee;
+import com.fieldz.model.Reservation;
+import com.fieldz.model.Statut;
+import com.fieldz.repository.NotificationEnvoyeeRepository;
+import com.fieldz.repository.ReservationRepository;
+import com.fieldz.service.cluster.Partition;
+import com.fieldz.service.statistiques.StatistiqueRollupService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Passe en ABSENT les réservations RESERVE dont la présence n'a pas été confirmée
+ * dans les 24h suivant la réservation. Traitement par lots : une transaction par lot,
+ * un UPDATE ensembliste par lot, notifications envoyées après le commit.
+ * Avec plusieurs instances, chacune ne traite que les clubs de sa {@link Partition}.
+ *
+ * Les partitions se chevauchent pendant un rééquilibrage : deux noeuds peuvent viser les mêmes
+ * lignes. Chaque lot pose, dans la transaction de son UPDATE, un marqueur ABSENCE_AUTO par
+ * réservation (index unique de notification_envoyee) ; seules les lignes sans marqueur sont
+ * relues, comptées dans le rollup et notifiées : une seule fois, quel que soit le noeud.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservationExpirationService {
+
+    static final String MOTIF = "Absence automatique - présence non confirmée dans les 24h";
+    private static final Duration DELAI_CONFIRMATION = Duration.ofHours(24);
+
+    private final ReservationRepository reservationRepository;
+    private final NotificationEnvoyeeRepository notificationEnvoyeeRepository;
+    private final NotificationService notificationService;
+    private final StatistiqueRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.reservation.expiration.batch-size:500}")
+    private int tailleLot = 500;
+
+    @Value("${app.reservation.expiration.max-lots:20}")
+    private int maxLots = 20;
+
+    private record Lot(int selectionnees, List<Reservation> expirees) {}
+
+    /** @return nombre de réservations passées en ABSENT lors de ce passage */
+    public int expirer() {
+        return expirer(Partition.SEULE);
+    }
+
+    public int expirer(Partition partition) {
+        // Tronqué à la seconde : sert aussi de marqueur pour relire exactement les lignes de ce passage
+        LocalDateTime maintenant = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime limite = maintenant.minus(DELAI_CONFIRMATION);
+
+        int total = 0;
+        for (int i = 0; i < maxLots; i++) {
+            Lot lot;
+            try {
+                lot = transactionTemplate.execute(status -> expirerLot(limite, maintenant, partition));
+            } catch (DataIntegrityViolationException e) {
+                // Marqueur posé au même instant par un autre noeud : lot annulé, repris au prochain passage
+                log.info("Expiration automatique en concurrence avec une autre instance");
+                break;
+            }
+            notifier(lot.expirees());
+            total += lot.expirees().size();
+            if (lot.selectionnees() < tailleLot) break;
+        }
+        if (total > 0) {
+            meterRegistry.counter("fieldz.reservation.expirees").increment(total);
+            log.info("Expiration automatique : {} réservation(s) passée(s) en ABSENT", total);
+        }
+        return total;
+    }
+
+    private Lot expirerLot(LocalDateTime limite, LocalDateTime maintenant, Partition partition) {
+        List<Long> ids = reservationRepository.findIdsAExpirer(limite, partition.index(), partition.total(),
+                Limit.of(tailleLot));
+        if (ids.isEmpty()) return new Lot(0, List.of());
+
+        // Gardé par statut = RESERVE : une confirmation concurrente n'est jamais écrasée
+        reservationRepository.expirerEnAbsent(ids, maintenant, MOTIF);
+        List<Reservation> expirees = reservationRepository.findExpireesAvecDetails(ids, maintenant, MOTIF,
+                NotificationService.ABSENCE_AUTO);
+        notificationEnvoyeeRepository.saveAll(expirees.stream()
+                .map(r -> new NotificationEnvoyee(null, r.getId(), NotificationService.ABSENCE_AUTO, maintenant))
+                .toList());
+
+        // L'UPDATE ensembliste ne passe pas par ReservationRollupListener : on signale les variations
+        for (Reservation r : expirees) {
+            Long creneauId = r.getCreneau().getId();
+            rollupService.variation(new StatistiqueRollupService.Etat(Statut.RESERVE, creneauId, null),
+                    new StatistiqueRollupService.Etat(Statut.ABSENT, creneauId, null));
+        }
+        return new Lot(ids.size(), expirees);
+    }
+
+    private void notifier(List<Reservation> expirees) {
+        for (Reservation r : expirees) {
+            try {
+                notificationService.notifierAbsenceAutomatique(r);
+            } catch (Exception e) {
+                log.warn("Notification d'absence automatique non envoyée (res {}): {}", r.getId(), e.getMessage());
+            }
+        }
+    }
+}
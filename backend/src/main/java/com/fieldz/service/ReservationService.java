@@ -12,6 +12,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import com.fieldz.mapper.ReservationMapper;
+import com.fieldz.dto.FiltreReservations;
+import com.fieldz.dto.PageCurseur;
+import com.fieldz.dto.ReservationDto;
+import com.fieldz.dto.ReservationLigne;
+import org.springframework.data.domain.Limit;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.rappel.RappelService;
 
 import com.fieldz.exception.CreneauDejaReserveException;
 import com.fieldz.exception.ReservationDejaAnnuleeException;
@@ -22,7 +29,15 @@ import jakarta.persistence.EntityNotFoundException;
 import java.time.format.DateTimeFormatter;
 import java.time.Duration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 @Slf4j
 @Service
@@ -32,19 +47,54 @@ public class ReservationService {
     private final UtilisateurRepository utilisateurRepository;
     private final CreneauRepository creneauRepository;
     private final ReservationRepository reservationRepository;
-    private final TerrainRepository terrainRepository;
 
     private final JoueurService joueurService;
     private final NotificationService notificationService;
+    private final DisponibiliteIndex disponibiliteIndex;
+    private final RegleCreneauService regleCreneauService;
+    private final RappelService rappelService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
 
     private static final Duration NO_SHOW_GRACE = Duration.ofMinutes(15);
+    private static final int MAX_TENTATIVES = 3;
 
     /**
-     * Patch: transaction + emails déplacés APRÈS la persistance,
-     * et protégés par try/catch pour ne JAMAIS casser la réservation.
+     * Réservation en mode concurrence optimiste : la transaction est rejouée (au plus
+     * MAX_TENTATIVES fois) si une écriture concurrente a modifié le créneau entre-temps.
+     * Les emails sont mis en file (outbox) dans la même transaction que la réservation :
+     * ni réservation sans email, ni email pour une tentative annulée ; EmailOutboxWorker
+     * les envoie ensuite, hors du chemin de la requête.
      */
-    @Transactional
     public Reservation reserver(Long creneauId, Authentication authentication) {
+        Reservation saved = avecRetry("reserver",
+                () -> reserverDansTransaction(creneauId, authentication),
+                () -> new CreneauDejaReserveException("Créneau déjà réservé"));
+
+        Joueur joueur = saved.getJoueur();
+        Creneau creneau = saved.getCreneau();
+        log.info("Nouvelle réservation créée pour le joueur : {} (id={})", joueur.getEmail(), saved.getId());
+
+        try {
+            rappelService.planifier(saved.getId(), creneau.getDateDebut());
+        } catch (Exception ex) {
+            log.warn("Rappel 2h non planifié (res {}): {}", saved.getId(), ex.getMessage());
+        }
+        // -------------------------------------------------------------------------------
+
+        return saved;
+    }
+
+    /**
+     * Réserve l'occurrence virtuelle d'une règle de récurrence : elle est d'abord matérialisée
+     * (transaction courte, idempotente), puis réservée comme n'importe quel créneau.
+     */
+    public Reservation reserverOccurrence(Long regleId, LocalDateTime dateDebut, Authentication authentication) {
+        Creneau creneau = regleCreneauService.materialiser(regleId, dateDebut);
+        return reserver(creneau.getId(), authentication);
+    }
+
+    private Reservation reserverDansTransaction(Long creneauId, Authentication authentication) {
         String email = authentication.getName();
         Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
@@ -55,16 +105,25 @@ public class ReservationService {
 
         Creneau creneau = creneauRepository.findById(creneauId)
                 .orElseThrow(() -> new RuntimeException("Créneau non trouvé"));
+        // Écriture d'un autre noeud pas encore relevée par le bus : l'index rattrape la base
+        disponibiliteIndex.synchroniser(creneau);
 
         // Vérif disponibilité
         if (!creneau.getStatut().equals(Statut.LIBRE)) {
             throw new CreneauDejaReserveException("Créneau déjà réservé");
         }
 
-        // Met à jour le créneau
+        // Prise atomique du créneau en mémoire AVANT l'écriture JPA :
+        // un seul joueur gagne le compare-and-set, les autres reçoivent un 409.
+        // (restauré automatiquement si la transaction est annulée)
+        if (!disponibiliteIndex.reserver(creneau)) {
+            throw new CreneauDejaReserveException("Créneau déjà réservé");
+        }
+
+        // Met à jour le créneau (flush immédiat : un conflit de version remonte ici)
         creneau.setStatut(Statut.RESERVE);
         creneau.setDisponible(false);
-        creneauRepository.save(creneau);
+        creneauRepository.saveAndFlush(creneau);
 
         // Crée la réservation
         Reservation reservation = new Reservation();
@@ -74,87 +133,135 @@ public class ReservationService {
         reservation.setStatut(Statut.RESERVE);
         Reservation saved = reservationRepository.save(reservation);
 
-        log.info("Nouvelle réservation créée pour le joueur : {} (id={})", joueur.getEmail(), saved.getId());
-
-        // ---- Effets de bord NON bloquants : on ne casse jamais l’API si ça échoue ----
-        try {
-            notificationService.envoyerEmailConfirmationReservation(joueur.getEmail(), creneau);
-        } catch (Exception ex) {
-            log.warn("Email confirmation joueur non envoyé (res {}): {}", saved.getId(), ex.getMessage());
-        }
+        // Outbox : committée avec la réservation
+        notificationService.envoyerEmailConfirmationReservation(joueur.getEmail(), creneau);
+        notificationService.envoyerEmailAuClubReservation(creneau.getTerrain().getClub(), joueur, creneau);
+        return saved;
+    }
 
-        try {
-            notificationService.envoyerEmailAuClubReservation(creneau.getTerrain().getClub(), joueur, creneau);
-        } catch (Exception ex) {
-            log.warn("Email notification club non envoyé (res {}): {}", saved.getId(), ex.getMessage());
+    /**
+     * Exécute {@code action} dans sa propre transaction et la rejoue en cas de conflit
+     * de version. Au-delà de MAX_TENTATIVES, l'exception métier {@code siEchec} est levée.
+     */
+    private <T> T avecRetry(String operation, Supplier<T> action, Supplier<? extends RuntimeException> siEchec) {
+        for (int tentative = 1; ; tentative++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException ex) {
+                meterRegistry.counter("fieldz.reservation.conflits", "operation", operation).increment();
+                if (tentative >= MAX_TENTATIVES) {
+                    log.warn("{} : conflit de version persistant après {} tentatives", operation, tentative);
+                    throw siEchec.get();
+                }
+                meterRegistry.counter("fieldz.reservation.retries", "operation", operation).increment();
+                log.debug("{} : conflit de version, nouvelle tentative ({}/{})", operation, tentative + 1, MAX_TENTATIVES);
+            }
         }
-        // -------------------------------------------------------------------------------
-
-        return saved;
     }
 
-    public List<Reservation> getReservationsDuClub(Authentication authentication) {
+    // Listes : projections ReservationLigne -> DTO, aucune entité Reservation n'est chargée
+    @Transactional(readOnly = true)
+    public List<ReservationDto> getReservationsDuClub(Authentication authentication) {
         String email = authentication.getName();
         Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
         if (!(utilisateur instanceof Club club)) {
             throw new RuntimeException("L'utilisateur n'est pas un club.");
         }
-        List<Terrain> terrains = terrainRepository.findByClub(club);
-        List<Reservation> reservations = reservationRepository.findByCreneau_TerrainIn(terrains);
-
-        // Auto-expire RESERVE reservations if grace period passed (24 hours after reservation creation)
-        LocalDateTime now = LocalDateTime.now();
-        reservations.forEach(reservation -> {
-            if (reservation.getCreneau() != null && reservation.getStatut() == Statut.RESERVE) {
-                LocalDateTime graceEnd = reservation.getDateReservation().plusHours(24);
-
-                if (now.isAfter(graceEnd)) {
-                    log.info("Auto-expiring non-confirmed reservation {} (grace period ended at {})",
-                             reservation.getId(), graceEnd);
-                    reservation.setStatut(Statut.ABSENT);
-                    reservation.setDateAnnulation(now);
-                    reservation.setMotifAnnulation("Absence automatique - présence non confirmée dans les 24h");
-                    reservationRepository.save(reservation);
-                }
-            }
-        });
+        List<ReservationLigne> lignes = reservationRepository.lignesDuClub(club.getId());
 
-        log.info("Club {} : {} terrains, {} réservations", club.getNom(), terrains.size(), reservations.size());
-        return reservations;
+        // Lecture seule : l'expiration des RESERVE non confirmées est faite par ReservationExpirationService
+        log.info("Club {} : {} réservations", club.getNom(), lignes.size());
+        return lignes.stream().map(ReservationLigne::toDto).toList();
     }
 
-    public List<Reservation> mesReservations(Authentication authentication) {
+    @Transactional(readOnly = true)
+    public List<ReservationDto> mesReservations(Authentication authentication) {
         String email = authentication.getName();
         Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
         if (!(utilisateur instanceof Joueur joueur)) {
             throw new RuntimeException("L'utilisateur n'est pas un joueur.");
         }
-        List<Reservation> reservations = reservationRepository.findByJoueur(joueur);
+        List<ReservationLigne> lignes = reservationRepository.lignesDuJoueur(joueur.getId());
 
-        // Auto-expire RESERVE reservations if grace period passed (24 hours after reservation creation)
-        LocalDateTime now = LocalDateTime.now();
-        reservations.forEach(reservation -> {
-            if (reservation.getCreneau() != null && reservation.getStatut() == Statut.RESERVE) {
-                LocalDateTime graceEnd = reservation.getDateReservation().plusHours(24);
-
-                if (now.isAfter(graceEnd)) {
-                    log.info("Auto-expiring non-confirmed reservation {} (grace period ended at {})",
-                             reservation.getId(), graceEnd);
-                    reservation.setStatut(Statut.ABSENT);
-                    reservation.setDateAnnulation(now);
-                    reservation.setMotifAnnulation("Absence automatique - présence non confirmée dans les 24h");
-                    reservationRepository.save(reservation);
-                }
-            }
-        });
+        // Lecture seule : l'expiration des RESERVE non confirmées est faite par ReservationExpirationService
+        log.info("Joueur {} a {} réservations", joueur.getEmail(), lignes.size());
+        return lignes.stream().map(ReservationLigne::toDto).toList();
+    }
+
+    // ================== Listes paginées par clé ==================
+
+    private static final int TAILLE_PAGE_MAX = 100;
+    private static final LocalDateTime DEBUT_DES_TEMPS = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime FIN_DES_TEMPS = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private record Bornes(LocalDateTime depuis, LocalDateTime jusqua, List<Statut> statuts,
+                          LocalDateTime apresDate, Long apresId, int taille) {}
+
+    @Transactional(readOnly = true)
+    public PageCurseur<ReservationDto> pageReservationsDuClub(FiltreReservations filtre, Authentication authentication) {
+        Utilisateur utilisateur = utilisateurRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+        if (!(utilisateur instanceof Club club)) {
+            throw new RuntimeException("L'utilisateur n'est pas un club.");
+        }
+        Bornes b = bornes(filtre);
+        return page(reservationRepository.pageDuClub(club.getId(), b.depuis(), b.jusqua(), b.statuts(),
+                b.apresDate(), b.apresId(), Limit.of(b.taille() + 1)), b.taille());
+    }
+
+    @Transactional(readOnly = true)
+    public PageCurseur<ReservationDto> pageMesReservations(FiltreReservations filtre, Authentication authentication) {
+        Utilisateur utilisateur = utilisateurRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+        if (!(utilisateur instanceof Joueur joueur)) {
+            throw new RuntimeException("L'utilisateur n'est pas un joueur.");
+        }
+        Bornes b = bornes(filtre);
+        return page(reservationRepository.pageDuJoueur(joueur.getId(), b.depuis(), b.jusqua(), b.statuts(),
+                b.apresDate(), b.apresId(), Limit.of(b.taille() + 1)), b.taille());
+    }
 
-        log.info("Joueur {} a {} réservations", joueur.getEmail(), reservations.size());
-        return reservations;
+    // Filtres absents -> bornes "infinies" : la requête reste la même, sans branches IS NULL
+    private static Bornes bornes(FiltreReservations f) {
+        LocalDateTime depuis = f.depuis() != null ? f.depuis().atStartOfDay() : DEBUT_DES_TEMPS;
+        LocalDateTime jusqua = f.jusqua() != null ? f.jusqua().plusDays(1).atStartOfDay() : FIN_DES_TEMPS;
+        List<Statut> statuts = (f.statuts() == null || f.statuts().isEmpty()) ? List.of(Statut.values()) : f.statuts();
+        int taille = Math.max(1, Math.min(f.taille(), TAILLE_PAGE_MAX));
+
+        if (f.apres() == null || f.apres().isBlank()) {
+            return new Bornes(depuis, jusqua, statuts, FIN_DES_TEMPS, Long.MAX_VALUE, taille);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(f.apres()), StandardCharsets.UTF_8).split("\\|", 2);
+            return new Bornes(depuis, jusqua, statuts, LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]), taille);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Curseur de pagination invalide.");
+        }
+    }
+
+    // Une ligne de plus que demandé : sa présence indique qu'il existe une page suivante
+    private static PageCurseur<ReservationDto> page(List<ReservationLigne> lignes, int taille) {
+        if (lignes.size() <= taille) return new PageCurseur<>(lignes, null).map(ReservationLigne::toDto);
+        List<ReservationLigne> contenu = lignes.subList(0, taille);
+        ReservationLigne derniere = contenu.get(taille - 1);
+        String curseur = derniere.creneau().dateDebut() + "|" + derniere.id();
+        return new PageCurseur<>(contenu,
+                Base64.getUrlEncoder().withoutPadding().encodeToString(curseur.getBytes(StandardCharsets.UTF_8)))
+                .map(ReservationLigne::toDto);
     }
 
     public String annulerReservation(Long reservationId, Authentication authentication, String motif) {
+        Reservation reservation = avecRetry("annuler",
+                () -> annulerDansTransaction(reservationId, authentication, motif),
+                () -> new ReservationDejaAnnuleeException("Cette réservation a été modifiée entre-temps, veuillez réessayer."));
+
+        rappelService.annuler(reservation.getId());
+        return "Réservation annulée et historisée avec succès.";
+    }
+
+    private Reservation annulerDansTransaction(Long reservationId, Authentication authentication, String motif) {
         String email = authentication.getName();
         Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
@@ -191,36 +298,26 @@ public class ReservationService {
 
         // -- Libérer le créneau si encore lié
         if (creneau != null) {
+            disponibiliteIndex.liberer(creneau.getId());
             creneau.setStatut(Statut.LIBRE);
             creneau.setDisponible(true);
             creneauRepository.save(creneau);
         }
 
-        reservationRepository.save(reservation);
+        Reservation saved = reservationRepository.saveAndFlush(reservation);
 
-        // -- Notifications (non bloquantes)
+        // Notifications et emails (outbox) : committés avec l'annulation
         if (estClub) {
-            try {
-                notificationService.notifierAnnulationReservationParClub(reservation,
-                        motif != null && !motif.isBlank() ? motif : "Annulée par le club");
-            } catch (Exception e) {
-                log.warn("Notif annulation club non envoyée (res {}): {}", reservation.getId(), e.getMessage());
-            }
-        } else {
-            if (reservation.getJoueur() != null && creneau != null) {
-                try {
-                    notificationService.envoyerEmailAuClubAnnulation(
-                            creneau.getTerrain().getClub(), reservation.getJoueur(), creneau);
-                } catch (Exception e) {
-                    log.warn("Email annulation vers club non envoyé (res {}): {}", reservation.getId(), e.getMessage());
-                }
-            }
+            notificationService.notifierAnnulationReservationParClub(saved,
+                    motif != null && !motif.isBlank() ? motif : "Annulée par le club");
+        } else if (saved.getJoueur() != null && creneau != null) {
+            notificationService.envoyerEmailAuClubAnnulation(creneau.getTerrain().getClub(), saved.getJoueur(), creneau);
         }
-
-        return "Réservation annulée et historisée avec succès.";
+        return saved;
     }
 
-    public List<Reservation> getReservationsParDate(LocalDate parsedDate, Authentication authentication) {
+    @Transactional(readOnly = true)
+    public List<ReservationDto> getReservationsParDate(LocalDate parsedDate, Authentication authentication) {
         String email = authentication.getName();
         Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
@@ -229,26 +326,26 @@ public class ReservationService {
             throw new RuntimeException("L'utilisateur n'est pas un club.");
         }
 
-        List<Terrain> terrains = terrainRepository.findByClub(club);
         LocalDateTime startOfDay = parsedDate.atStartOfDay();
         LocalDateTime endOfDay = parsedDate.plusDays(1).atStartOfDay().minusNanos(1);
 
-        List<Reservation> reservations = reservationRepository.findByTerrainsAndDateDebut(
-                terrains, startOfDay, endOfDay
-        );
+        List<ReservationLigne> lignes = reservationRepository.lignesDuClubEntre(club.getId(), startOfDay, endOfDay);
 
-        log.info("Club {} : {} terrains, {} réservations trouvées pour la date {}",
-                club.getNom(), terrains.size(), reservations.size(), parsedDate);
+        log.info("Club {} : {} réservations trouvées pour la date {}", club.getNom(), lignes.size(), parsedDate);
 
-        return reservations;
+        return lignes.stream().map(ReservationLigne::toDto).toList();
     }
 
-    public List<Reservation> getReservationsAnnuleesPourJoueur(String email) {
+    @Transactional(readOnly = true)
+    public List<ReservationDto> getReservationsAnnuleesPourJoueur(String email) {
         Joueur joueur = joueurService.getByEmail(email);
         List<Statut> statutsAnnules = List.of(Statut.ANNULE, Statut.ANNULE_PAR_JOUEUR, Statut.ANNULE_PAR_CLUB);
-        return reservationRepository.findAnnuleesByJoueurId(statutsAnnules, joueur.getId());
+        return reservationRepository.lignesDuJoueurParStatut(joueur.getId(), statutsAnnules)
+                .stream().map(ReservationLigne::toDto).toList();
     }
 
+    // Transactionnel : sans open-in-view, le créneau (LAZY) doit être lu avant la fin de la session
+    @Transactional
     public void confirmerPresence(Long id) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Réservation introuvable"));
@@ -270,6 +367,7 @@ public class ReservationService {
         }
     }
 
+    @Transactional
     public String marquerAbsent(Long reservationId, Authentication authentication, String motif) {
         String email = authentication.getName();
         Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
@@ -1,11 +1,12 @@
 package com.fieldz.service;
 
+import com.fieldz.dto.AgregatJourStatut;
 import com.fieldz.dto.StatistiquesDto;
+import com.fieldz.dto.StatistiquesResumeDto;
 import com.fieldz.model.Club;
 import com.fieldz.model.Statut;
-import com.fieldz.model.Terrain;
 import com.fieldz.model.Utilisateur;
-import com.fieldz.repository.ReservationRepository;
+import com.fieldz.repository.StatistiqueJournaliereRepository;
 import com.fieldz.repository.TerrainRepository;
 import com.fieldz.repository.UtilisateurRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,20 +15,27 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StatistiquesService {
 
-    private final ReservationRepository reservationRepository;
+    private final StatistiqueJournaliereRepository rollupRepository;
     private final TerrainRepository terrainRepository;
     private final UtilisateurRepository utilisateurRepository;
 
+    // Statuts qui occupent réellement le terrain (hors annulations)
+    private static final Set<Statut> STATUTS_OCCUPANTS = EnumSet.of(Statut.RESERVE, Statut.CONFIRMEE, Statut.ABSENT);
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     /**
@@ -36,13 +44,7 @@ public class StatistiquesService {
     @Transactional(readOnly = true)
     public StatistiquesDto getStatistiquesJournalieres(Authentication authentication) {
         Club club = getAuthenticatedClub(authentication);
-        List<Terrain> terrains = terrainRepository.findByClub(club);
-
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().plusDays(1).atStartOfDay();
-
-        return calculateStatistiques(terrains, startOfDay, endOfDay, "daily",
-                startOfDay.format(DATE_FORMATTER), endOfDay.format(DATE_FORMATTER));
+        return calculateStatistiques(club, periodeJournaliere(LocalDate.now()));
     }
 
     /**
@@ -51,17 +53,7 @@ public class StatistiquesService {
     @Transactional(readOnly = true)
     public StatistiquesDto getStatistiquesHebdomadaires(Authentication authentication) {
         Club club = getAuthenticatedClub(authentication);
-        List<Terrain> terrains = terrainRepository.findByClub(club);
-
-        LocalDate today = LocalDate.now();
-        LocalDate monday = today.minusDays(today.getDayOfWeek().getValue() - 1);
-        LocalDate sunday = monday.plusDays(6);
-
-        LocalDateTime startOfWeek = monday.atStartOfDay();
-        LocalDateTime endOfWeek = sunday.plusDays(1).atStartOfDay();
-
-        return calculateStatistiques(terrains, startOfWeek, endOfWeek, "weekly",
-                startOfWeek.format(DATE_FORMATTER), endOfWeek.format(DATE_FORMATTER));
+        return calculateStatistiques(club, periodeHebdomadaire(LocalDate.now()));
     }
 
     /**
@@ -70,60 +62,95 @@ public class StatistiquesService {
     @Transactional(readOnly = true)
     public StatistiquesDto getStatistiquesMensuelles(Authentication authentication) {
         Club club = getAuthenticatedClub(authentication);
-        List<Terrain> terrains = terrainRepository.findByClub(club);
+        return calculateStatistiques(club, periodeMensuelle(LocalDate.now()));
+    }
 
+    /**
+     * Get daily, weekly and monthly statistics together, from a single range sum over
+     * the daily rollup covering the union of the three periods.
+     */
+    @Transactional(readOnly = true)
+    public StatistiquesResumeDto getResume(Authentication authentication) {
+        Club club = getAuthenticatedClub(authentication);
         LocalDate today = LocalDate.now();
-        LocalDate firstDayOfMonth = today.withDayOfMonth(1);
-        LocalDate lastDayOfMonth = today.withDayOfMonth(today.lengthOfMonth());
-
-        LocalDateTime startOfMonth = firstDayOfMonth.atStartOfDay();
-        LocalDateTime endOfMonth = lastDayOfMonth.plusDays(1).atStartOfDay();
+        Periode jour = periodeJournaliere(today);
+        Periode semaine = periodeHebdomadaire(today);
+        Periode mois = periodeMensuelle(today);
+
+        LocalDate debut = semaine.debut().isBefore(mois.debut()) ? semaine.debut() : mois.debut();
+        LocalDate fin = semaine.fin().isAfter(mois.fin()) ? semaine.fin() : mois.fin();
+        List<AgregatJourStatut> lignes = rollupRepository.sommesParJourEtStatut(club.getId(), debut, fin);
+        long nbTerrains = terrainRepository.countByClub(club);
+
+        return new StatistiquesResumeDto(
+                toDto(lignes, jour, club, nbTerrains),
+                toDto(lignes, semaine, club, nbTerrains),
+                toDto(lignes, mois, club, nbTerrains));
+    }
 
-        return calculateStatistiques(terrains, startOfMonth, endOfMonth, "monthly",
-                startOfMonth.format(DATE_FORMATTER), endOfMonth.format(DATE_FORMATTER));
+    /**
+     * Calculate statistics for a given period (range sum over the daily rollup)
+     */
+    private StatistiquesDto calculateStatistiques(Club club, Periode periode) {
+        List<AgregatJourStatut> lignes = rollupRepository.sommesParJourEtStatut(
+                club.getId(), periode.debut(), periode.fin());
+        StatistiquesDto dto = toDto(lignes, periode, club, terrainRepository.countByClub(club));
+
+        log.info("Statistiques {} - Club: {}, Total: {}, Reserve: {}, Revenu Confirmee: {}€",
+                periode.code(), club.getId(), dto.getTotalReservations(),
+                dto.getReservationsReserve(), dto.getRevenuConfirmee());
+        return dto;
     }
 
     /**
-     * Calculate statistics for a given period
+     * Reduce the per-day/per-status rows falling into the period to the dashboard figures
      */
-    private StatistiquesDto calculateStatistiques(List<Terrain> terrains,
-                                                   LocalDateTime start,
-                                                   LocalDateTime end,
-                                                   String periode,
-                                                   String dateDebut,
-                                                   String dateFin) {
-        if (terrains.isEmpty()) {
-            log.warn("No terrains found for club, returning zero statistics");
-            return new StatistiquesDto(0L, 0L, 0.0, periode, dateDebut, dateFin);
+    private StatistiquesDto toDto(List<AgregatJourStatut> lignes, Periode periode, Club club, long nbTerrains) {
+        long total = 0;
+        long reserve = 0;
+        double revenuConfirmee = 0.0;
+        long minutesReservees = 0;
+        for (AgregatJourStatut l : lignes) {
+            if (l.jour().isBefore(periode.debut()) || !l.jour().isBefore(periode.fin())) continue;
+            total += l.nombre();
+            if (l.statut() == Statut.RESERVE) reserve += l.nombre();
+            if (l.statut() == Statut.CONFIRMEE) revenuConfirmee += l.revenu();
+            if (STATUTS_OCCUPANTS.contains(l.statut())) minutesReservees += l.minutes();
         }
+        return new StatistiquesDto(total, reserve, revenuConfirmee, periode.code(),
+                periode.debut().format(DATE_FORMATTER), periode.fin().format(DATE_FORMATTER),
+                minutesReservees, tauxOccupation(minutesReservees, periode, club, nbTerrains));
+    }
 
-        // Total number of reservations in the period
-        long totalReservations = reservationRepository.countByTerrainsAndDateRange(terrains, start, end);
+    /**
+     * Booked minutes over opening capacity (terrains x opening hours x days), null when the
+     * club has no opening hours configured
+     */
+    private static Double tauxOccupation(long minutesReservees, Periode periode, Club club, long nbTerrains) {
+        LocalTime ouverture = club.getHeureOuverture();
+        LocalTime fermeture = club.getHeureFermeture();
+        if (ouverture == null || fermeture == null || nbTerrains == 0) return null;
+        long minutesParJour = Duration.between(ouverture, fermeture).toMinutes();
+        long jours = ChronoUnit.DAYS.between(periode.debut(), periode.fin());
+        long capacite = minutesParJour * jours * nbTerrains;
+        return capacite > 0 ? (double) minutesReservees / capacite : null;
+    }
 
-        // Number of reservations with RESERVE status
-        long reservationsReserve = reservationRepository.countByTerrainsAndStatutAndDateRange(
-                terrains, Statut.RESERVE, start, end);
+    /** Half-open period [debut, fin[ in days */
+    private record Periode(String code, LocalDate debut, LocalDate fin) {}
 
-        // Total revenue from CONFIRMEE reservations
-        Double revenuConfirmee = reservationRepository.sumPrixByTerrainsAndStatutAndDateRange(
-                terrains, Statut.CONFIRMEE, start, end);
+    private static Periode periodeJournaliere(LocalDate today) {
+        return new Periode("daily", today, today.plusDays(1));
+    }
 
-        // Handle null case (no confirmed reservations)
-        if (revenuConfirmee == null) {
-            revenuConfirmee = 0.0;
-        }
+    private static Periode periodeHebdomadaire(LocalDate today) {
+        LocalDate monday = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        return new Periode("weekly", monday, monday.plusDays(7));
+    }
 
-        log.info("Statistiques {} - Club terrains: {}, Total: {}, Reserve: {}, Revenu Confirmee: {}€",
-                periode, terrains.size(), totalReservations, reservationsReserve, revenuConfirmee);
-
-        return new StatistiquesDto(
-                totalReservations,
-                reservationsReserve,
-                revenuConfirmee,
-                periode,
-                dateDebut,
-                dateFin
-        );
+    private static Periode periodeMensuelle(LocalDate today) {
+        LocalDate firstDayOfMonth = today.withDayOfMonth(1);
+        return new Periode("monthly", firstDayOfMonth, firstDayOfMonth.plusMonths(1));
     }
 
     /**
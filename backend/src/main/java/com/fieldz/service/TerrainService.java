@@ -1,6 +1,9 @@
 package com.fieldz.service;
 
+import com.fieldz.dto.TerrainDto;
+import com.fieldz.mapper.TerrainMapper;
 import com.fieldz.model.Club;
+import com.fieldz.model.Creneau;
 import com.fieldz.model.Terrain;
 import com.fieldz.model.Utilisateur;
 import com.fieldz.repository.TerrainRepository;
@@ -9,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import org.springframework.util.StringUtils;
@@ -18,6 +22,11 @@ import java.util.Locale;
 import java.util.stream.Collectors;
 import com.fieldz.repository.ReservationRepository;
 import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.RegleCreneauRepository;
+import com.fieldz.service.disponibilite.CreneauxClubCache;
+import com.fieldz.service.cluster.BusCluster;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.disponibilite.DisponibiliteIndexLoader;
 
 @Slf4j
 @Service
@@ -29,8 +38,14 @@ public class TerrainService {
     private final ReservationRepository reservationRepository;
     private final NotificationService notificationService;
     private final CreneauRepository creneauRepository;
-
-    public Terrain ajouterTerrain(Terrain terrain, Authentication authentication) {
+    private final RegleCreneauRepository regleCreneauRepository;
+    private final DisponibiliteIndex disponibiliteIndex;
+    private final CreneauxClubCache creneauxClubCache;
+    private final BusCluster busCluster;
+
+    // Sans open-in-view, le DTO (club + images LAZY) est construit avant la fin de la transaction
+    @Transactional
+    public TerrainDto ajouterTerrain(Terrain terrain, Authentication authentication) {
         String email = authentication.getName();
         Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
@@ -42,10 +57,11 @@ public class TerrainService {
         terrain.setClub(club);
         Terrain saved = terrainRepository.save(terrain);
         log.info("Club {} a ajouté un terrain : {}", club.getNom(), saved.getNomTerrain());
-        return saved;
+        return TerrainMapper.toDto(saved);
     }
 
-    public List<Terrain> getTerrains(Authentication authentication) {
+    @Transactional(readOnly = true)
+    public List<TerrainDto> getTerrains(Authentication authentication) {
         String email = authentication.getName();
         Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
@@ -56,25 +72,28 @@ public class TerrainService {
 
         List<Terrain> terrains = terrainRepository.findByClub(club);
         log.info("Club {} a consulté ses terrains ({} au total)", club.getNom(), terrains.size());
-        return terrains;
+        return versDtos(terrains);
     }
 
-    public List<Terrain> getTerrainsParVille(String ville) {
+    @Transactional(readOnly = true)
+    public List<TerrainDto> getTerrainsParVille(String ville) {
         if (!StringUtils.hasText(ville))
             return List.of();
-        return terrainRepository.findByVilleIgnoreCase(ville.trim());
+        return versDtos(terrainRepository.findByVilleIgnoreCase(ville.trim()));
     }
 
     // (Optionnel) recherche partielle : "alg" => "Alger", "Alger Centre"
-    public List<Terrain> searchVilleContient(String fragment) {
+    @Transactional(readOnly = true)
+    public List<TerrainDto> searchVilleContient(String fragment) {
         if (!StringUtils.hasText(fragment))
             return List.of();
         // nécessite la requête LIKE dans le repository
-        return terrainRepository.findByVilleContainingIgnoreCase(fragment.trim());
+        return versDtos(terrainRepository.findByVilleContainingIgnoreCase(fragment.trim()));
     }
 
     // 2) Multi-villes via CSV: "Alger,Oran"
-    public List<Terrain> getTerrainsParVillesCsv(String villesCsv) {
+    @Transactional(readOnly = true)
+    public List<TerrainDto> getTerrainsParVillesCsv(String villesCsv) {
         if (!StringUtils.hasText(villesCsv))
             return List.of();
 
@@ -87,11 +106,16 @@ public class TerrainService {
 
         if (villesNorm.isEmpty())
             return List.of();
-        return terrainRepository.findByVillesIgnoreCase(villesNorm);
+        return versDtos(terrainRepository.findByVillesIgnoreCase(villesNorm));
+    }
+
+    // Images des clubs chargées par lots (@BatchSize sur Club.images)
+    private static List<TerrainDto> versDtos(List<Terrain> terrains) {
+        return terrains.stream().map(TerrainMapper::toDto).toList();
     }
 
     @org.springframework.transaction.annotation.Transactional
-    public com.fieldz.model.Terrain updateTerrain(
+    public TerrainDto updateTerrain(
             Long terrainId,
             com.fieldz.dto.UpdateTerrainRequest req,
             org.springframework.security.core.Authentication authentication) {
@@ -124,8 +148,15 @@ public class TerrainService {
             terrain.setPhoto(req.getPhoto());
 
         com.fieldz.model.Terrain saved = terrainRepository.save(terrain);
+        if (req.getVille() != null || req.getSport() != null) {
+            creneauRepository.majLieuDuTerrain(saved.getId(), Creneau.villeRecherche(saved),
+                    Creneau.sportRecherche(saved.getSport()));
+        }
+        disponibiliteIndex.rafraichirTerrain(saved);
+        busCluster.publier(DisponibiliteIndexLoader.TERRAIN, saved.getId());
+        creneauxClubCache.invalider(club.getId());
         log.info("Club {} a modifié le terrain id={} ({})", club.getNom(), saved.getId(), saved.getNomTerrain());
-        return saved;
+        return TerrainMapper.toDto(saved);
     }
 
     @org.springframework.transaction.annotation.Transactional
@@ -182,6 +213,11 @@ public class TerrainService {
         // 2) Déréférencer toutes les résa
         // 3) Supprimer tous les créneaux du terrain (évite la FK CRENEAU -> TERRAIN)
         creneauRepository.deleteByTerrainId(terrainId);
+        // La suppression JPQL contourne le listener JPA : on purge l'index explicitement
+        disponibiliteIndex.retirerTerrain(terrainId);
+        busCluster.publier(DisponibiliteIndexLoader.TERRAIN, terrainId);
+        creneauxClubCache.invalider(club.getId());
+        regleCreneauRepository.deleteByTerrainId(terrainId);
 
         // Supprimer le terrain (si pas de cascade sur Terrain->Creneaux, supprime les
         // créneaux d'abord via repo si besoin)
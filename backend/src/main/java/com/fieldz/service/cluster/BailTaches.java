@@ -0,0 +1,61 @@
+package com.fieldz.service.cluster;
+
+import com.fieldz.repository.BailTacheRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Jobs à exécution unique sur l'ensemble des instances (rollup nocturne, maintenance des
+ * partitions...) : un bail par job dans bail_tache, pris par un UPDATE conditionnel.
+ *
+ * {@code auPlus} borne le bail si le noeud meurt pendant le job ; {@code auMoins} le garde après
+ * la fin, pour qu'un noeud dont l'horloge retarde ne relance pas un job quotidien déjà fait.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BailTaches {
+
+    private final BailTacheRepository bailTacheRepository;
+    private final NoeudsActifs noeudsActifs;
+    private final TransactionTemplate transactionTemplate;
+
+    /** @return false si un autre noeud détient le bail : le job n'a pas été lancé */
+    public boolean executerSeul(String nom, Duration auPlus, Duration auMoins, Runnable job) {
+        LocalDateTime debut = LocalDateTime.now();
+        if (!prendre(nom, debut, debut.plus(auPlus))) {
+            log.debug("Job {} : bail détenu par un autre noeud", nom);
+            return false;
+        }
+        try {
+            job.run();
+        } finally {
+            LocalDateTime fin = LocalDateTime.now();
+            LocalDateTime minimum = debut.plus(auMoins);
+            LocalDateTime expireA = minimum.isAfter(fin) ? minimum : fin;
+            transactionTemplate.executeWithoutResult(status ->
+                    bailTacheRepository.rendre(nom, noeudsActifs.id(), expireA));
+        }
+        return true;
+    }
+
+    private boolean prendre(String nom, LocalDateTime maintenant, LocalDateTime expireA) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (bailTacheRepository.prendre(nom, noeudsActifs.id(), maintenant, expireA) == 1) return true;
+                // Premier passage de ce job : la ligne n'existe pas encore
+                if (bailTacheRepository.existsById(nom)) return false;
+                return bailTacheRepository.creer(nom, noeudsActifs.id(), maintenant, expireA) == 1;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // Ligne créée au même instant par un autre noeud
+            return false;
+        }
+    }
+}
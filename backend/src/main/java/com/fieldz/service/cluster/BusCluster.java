@@ -0,0 +1,164 @@
+package com.fieldz.service.cluster;
+
+import com.fieldz.model.EvenementCluster;
+import com.fieldz.repository.EvenementClusterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Diffusion entre instances des changements que chaque noeud garde en mémoire (index de
+ * disponibilité, caches, flux SSE...), par la table evenement_cluster : pas de broker à exploiter,
+ * même base en PostgreSQL et en H2.
+ *
+ * {@link #publier} note "type/cle a changé" ; les événements d'une transaction sont écrits après
+ * son commit (jamais de changement annulé diffusé), en une transaction, dédoublonnés. Chaque noeud
+ * relève toutes les app.cluster.bus.intervalle-ms les événements des autres noeuds et les republie
+ * localement en {@link EvenementDistant}, un par type : aux abonnés de relire ce qui a changé.
+ *
+ * La relève relit une marge (app.cluster.bus.marge-ms) avant le passage précédent : un événement
+ * committé juste après sa date de création, ou daté par une horloge un peu en retard, n'est pas
+ * perdu ; les ids déjà vus sont ignorés. Un noeud qui meurt entre son commit et l'écriture de
+ * l'événement ne le diffuse pas : les abonnés gardent un filet (TTL, contrôle de version).
+ */
+@Slf4j
+@Component
+public class BusCluster {
+
+    private record Cle(String type, Long cle) {}
+
+    private final EvenementClusterRepository repository;
+    private final NoeudsActifs noeudsActifs;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionTemplate nouvelleTransaction;
+
+    @Value("${app.cluster.bus.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.cluster.bus.marge-ms:10000}")
+    private long margeMs = 10000;
+
+    // État de la relève, sous le verrou de recevoir()
+    private LocalDateTime dernierReleve = LocalDateTime.now();
+    private final Map<Long, LocalDateTime> vus = new HashMap<>();
+
+    public BusCluster(EvenementClusterRepository repository, NoeudsActifs noeudsActifs,
+                      ApplicationEventPublisher publisher, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.noeudsActifs = noeudsActifs;
+        this.publisher = publisher;
+        this.nouvelleTransaction = new TransactionTemplate(transactionManager);
+        this.nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Signale aux autres noeuds que {@code type}/{@code cle} a changé ({@code cle} null : tout le type). */
+    public void publier(String type, Long cle) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ecrire(Set.of(new Cle(type, cle)));
+            return;
+        }
+        Journal journal = (Journal) TransactionSynchronizationManager.getResource(this);
+        if (journal == null) {
+            journal = new Journal();
+            TransactionSynchronizationManager.bindResource(this, journal);
+            TransactionSynchronizationManager.registerSynchronization(journal);
+        }
+        journal.cles.add(new Cle(type, cle));
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.bus.intervalle-ms:1000}")
+    public void relever() {
+        if (!enabled) return;
+        try {
+            recevoir();
+        } catch (Exception e) {
+            log.warn("Relève du bus cluster en échec : {}", e.getMessage());
+        }
+    }
+
+    /** @return nombre d'événements nouveaux republiés localement */
+    public synchronized int recevoir() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDateTime depuis = dernierReleve.minusNanos(margeMs * 1_000_000);
+        List<EvenementCluster> evenements = repository.findEmisDepuis(depuis, noeudsActifs.id());
+
+        Map<String, Set<Long>> parType = new LinkedHashMap<>();
+        Set<String> tous = new HashSet<>();
+        int nouveaux = 0;
+        for (EvenementCluster e : evenements) {
+            if (vus.putIfAbsent(e.getId(), e.getDateCreation()) != null) continue;
+            nouveaux++;
+            Set<Long> cles = parType.computeIfAbsent(e.getType(), t -> new LinkedHashSet<>());
+            if (e.getCle() == null) {
+                tous.add(e.getType());
+            } else {
+                cles.add(e.getCle());
+            }
+        }
+        dernierReleve = maintenant;
+        LocalDateTime prochaineMarge = maintenant.minusNanos(margeMs * 1_000_000);
+        vus.values().removeIf(date -> date.isBefore(prochaineMarge));
+
+        parType.forEach((type, cles) -> {
+            try {
+                publisher.publishEvent(new EvenementDistant(type, tous.contains(type) ? null : Set.copyOf(cles)));
+            } catch (RuntimeException ex) {
+                log.warn("Bus cluster : événements {} non appliqués : {}", type, ex.getMessage());
+            }
+        });
+        return nouveaux;
+    }
+
+    /** Rétention (MaintenanceService) : les événements ne servent que quelques secondes. */
+    @Transactional
+    public int purger(LocalDateTime avant, int tailleLot) {
+        List<Long> ids = repository.findIdsAvant(avant, Limit.of(tailleLot));
+        if (!ids.isEmpty()) repository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    private void ecrire(Set<Cle> cles) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<EvenementCluster> evenements = new ArrayList<>(cles.size());
+        for (Cle c : cles) {
+            evenements.add(new EvenementCluster(null, c.type(), c.cle(), noeudsActifs.id(), maintenant));
+        }
+        try {
+            nouvelleTransaction.executeWithoutResult(status -> repository.saveAll(evenements));
+        } catch (Exception e) {
+            // Le changement est committé : seuls les autres noeuds l'apprendront plus tard (filets des abonnés)
+            log.warn("Bus cluster : {} événement(s) non diffusé(s) : {}", evenements.size(), e.getMessage());
+        }
+    }
+
+    private final class Journal implements TransactionSynchronization {
+        private final Set<Cle> cles = new LinkedHashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BusCluster.this);
+            if (status == STATUS_COMMITTED && !cles.isEmpty()) {
+                ecrire(cles);
+            }
+        }
+    }
+}
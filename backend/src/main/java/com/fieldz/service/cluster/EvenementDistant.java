@@ -0,0 +1,14 @@
+package com.fieldz.service.cluster;
+
+import java.util.Set;
+
+/**
+ * Événements d'un type reçus des autres noeuds lors d'une relève de BusCluster, republiés
+ * localement. {@code cles} null : tous les objets du type sont à relire.
+ */
+public record EvenementDistant(String type, Set<Long> cles) {
+
+    public boolean est(String t) {
+        return type.equals(t);
+    }
+}
@@ -0,0 +1,99 @@
+package com.fieldz.service.cluster;
+
+import com.fieldz.model.NoeudActif;
+import com.fieldz.repository.NoeudActifRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Noeuds vivants du cluster : chaque instance écrit un battement dans noeud_actif, puis se situe
+ * parmi les noeuds vus récemment (triés par id). Son rang et leur nombre forment sa {@link Partition},
+ * qui répartit par club les jobs partitionnés (expiration, outbox, rappels).
+ *
+ * Un noeud arrêté sans {@link #quitter()} disparaît des partitions après app.cluster.expiration-ms ;
+ * d'ici là sa part n'est pas traitée. Les horloges des noeuds sont supposées synchronisées (NTP).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NoeudsActifs {
+
+    private final NoeudActifRepository noeudActifRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher publisher;
+
+    @Value("${app.cluster.expiration-ms:30000}")
+    private long expirationMs = 30000;
+
+    // pid@hôte, suffixé pour distinguer deux démarrages successifs
+    private final String id = ManagementFactory.getRuntimeMXBean().getName() + "-"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile Partition partition;
+
+    public String id() {
+        return id;
+    }
+
+    /** null tant que le noeud n'a pas rejoint le cluster : les jobs partitionnés attendent. */
+    public Partition partition() {
+        return partition;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rejoindre() {
+        battre();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.battement-ms:10000}",
+            initialDelayString = "${app.cluster.battement-ms:10000}")
+    public void battre() {
+        List<String> vivants;
+        try {
+            vivants = transactionTemplate.execute(status -> {
+                LocalDateTime maintenant = LocalDateTime.now();
+                if (noeudActifRepository.battre(id, maintenant) == 0) {
+                    noeudActifRepository.save(new NoeudActif(id, maintenant, maintenant));
+                }
+                LocalDateTime depuis = maintenant.minusNanos(expirationMs * 1_000_000);
+                noeudActifRepository.supprimerVusAvant(depuis);
+                return noeudActifRepository.findIdsVusDepuis(depuis);
+            });
+        } catch (Exception e) {
+            // Partition conservée : les autres noeuds nous verront expirer si cela dure
+            log.warn("Battement du noeud {} en échec : {}", id, e.getMessage());
+            return;
+        }
+
+        int index = vivants.indexOf(id);
+        Partition nouvelle = index < 0 ? null : new Partition(index, vivants.size());
+        if (nouvelle != null && !nouvelle.equals(partition)) {
+            partition = nouvelle;
+            log.info("🧩 Noeud {} : partition {}/{}", id, nouvelle.index() + 1, nouvelle.total());
+            publisher.publishEvent(new PartitionModifiee(nouvelle));
+        }
+    }
+
+    @PreDestroy
+    public void quitter() {
+        partition = null;
+        try {
+            noeudActifRepository.deleteById(id);
+        } catch (Exception e) {
+            log.warn("Noeud {} non retiré du cluster : {}", id, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.fieldz.service.cluster;
+
+/**
+ * Part du travail d'un noeud : les clubs (ou lignes) dont l'id modulo {@code total} vaut {@code index}.
+ * Les requêtes partitionnées appliquent le même filtre en SQL : {@code mod(id, :total) = :index}.
+ */
+public record Partition(int index, int total) {
+
+    /** Instance unique : tout le travail. */
+    public static final Partition SEULE = new Partition(0, 1);
+
+    public boolean possede(long id) {
+        return Math.floorMod(id, total) == index;
+    }
+}
@@ -0,0 +1,4 @@
+package com.fieldz.service.cluster;
+
+/** Publié par NoeudsActifs quand un noeud rejoint ou quitte le cluster (et au premier battement). */
+public record PartitionModifiee(Partition partition) {}
@@ -0,0 +1,65 @@
+package com.fieldz.service.disponibilite;
+
+import com.fieldz.model.Creneau;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Détection de chevauchements par balayage (sweep-line) pour une série de créneaux
+ * candidats présentés dans l'ordre croissant de leur date de début.
+ *
+ * Les créneaux existants sont triés une seule fois ; un tas des dates de fin des
+ * intervalles "actifs" permet de répondre en O(log n) à chaque candidat, sans requête SQL.
+ */
+public class BalayageChevauchements {
+
+    public enum Verdict { LIBRE, DOUBLON, CONFLIT }
+
+    private record Intervalle(LocalDateTime debut, LocalDateTime fin) {}
+
+    private final List<Intervalle> existants;
+    private final Set<Intervalle> exacts = new HashSet<>();
+    private final PriorityQueue<LocalDateTime> finsActives = new PriorityQueue<>();
+    private int curseur = 0;
+    private LocalDateTime dernierDebut;
+
+    public BalayageChevauchements(Collection<Creneau> creneauxExistants) {
+        this.existants = new ArrayList<>(creneauxExistants.size());
+        for (Creneau c : creneauxExistants) {
+            Intervalle i = new Intervalle(c.getDateDebut(), c.getDateFin());
+            existants.add(i);
+            exacts.add(i);
+        }
+        existants.sort(Comparator.comparing(Intervalle::debut));
+    }
+
+    /**
+     * Classe le candidat [debut, fin[ : DOUBLON s'il existe déjà à l'identique,
+     * CONFLIT s'il chevauche un créneau existant (ou déjà accepté), LIBRE sinon.
+     */
+    public Verdict verifier(LocalDateTime debut, LocalDateTime fin) {
+        if (dernierDebut != null && debut.isBefore(dernierDebut)) {
+            throw new IllegalStateException("Les candidats doivent être présentés par date de début croissante.");
+        }
+        dernierDebut = debut;
+
+        // Entrent dans le balayage tous les existants qui commencent avant la fin du candidat
+        while (curseur < existants.size() && existants.get(curseur).debut().isBefore(fin)) {
+            finsActives.add(existants.get(curseur++).fin());
+        }
+        // Sortent ceux qui se terminent avant le début du candidat (définitivement, l'ordre est croissant)
+        while (!finsActives.isEmpty() && !finsActives.peek().isAfter(debut)) {
+            finsActives.poll();
+        }
+
+        if (exacts.contains(new Intervalle(debut, fin))) return Verdict.DOUBLON;
+        return finsActives.isEmpty() ? Verdict.LIBRE : Verdict.CONFLIT;
+    }
+
+    /** Marque un candidat accepté comme occupé pour les candidats suivants. */
+    public void occuper(LocalDateTime debut, LocalDateTime fin) {
+        finsActives.add(fin);
+        exacts.add(new Intervalle(debut, fin));
+    }
+}
@@ -0,0 +1,62 @@
+package com.fieldz.service.disponibilite;
+
+import com.fieldz.model.Club;
+import com.fieldz.model.Creneau;
+import com.fieldz.model.Terrain;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import com.fieldz.service.cluster.BusCluster;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Listener JPA qui maintient {@link DisponibiliteIndex} à jour quel que soit le chemin
+ * d'écriture (services, saveAll, tests...), et invalide {@link CreneauxClubCache} pour le club
+ * du créneau (une réservation ou une annulation passe aussi par ici). Le changement est aussi
+ * signalé aux autres noeuds par BusCluster, après le commit. Déclaré dans META-INF/orm.xml
+ * et instancié par Hibernate via le conteneur Spring.
+ */
+public class CreneauIndexListener {
+
+    private final ObjectProvider<DisponibiliteIndex> index;
+    private final ObjectProvider<CreneauxClubCache> cacheClub;
+    private final ObjectProvider<BusCluster> bus;
+
+    public CreneauIndexListener(ObjectProvider<DisponibiliteIndex> index,
+                                ObjectProvider<CreneauxClubCache> cacheClub,
+                                ObjectProvider<BusCluster> bus) {
+        this.index = index;
+        this.cacheClub = cacheClub;
+        this.bus = bus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void apresEcriture(Creneau creneau) {
+        index.ifAvailable(i -> i.appliquer(creneau));
+        invaliderClub(creneau);
+        bus.ifAvailable(b -> b.publier(DisponibiliteIndexLoader.CRENEAU, creneau.getId()));
+    }
+
+    @PostRemove
+    public void apresSuppression(Creneau creneau) {
+        index.ifAvailable(i -> i.retirer(creneau.getId()));
+        invaliderClub(creneau);
+        bus.ifAvailable(b -> b.publier(DisponibiliteIndexLoader.CRENEAU, creneau.getId()));
+    }
+
+    // Terrain non chargé : pas de requête pendant le flush, tout le cache est vidé
+    private void invaliderClub(Creneau creneau) {
+        Terrain terrain = creneau.getTerrain();
+        if (terrain == null) return;
+        if (!Hibernate.isInitialized(terrain)) {
+            cacheClub.ifAvailable(CreneauxClubCache::vider);
+            return;
+        }
+        Club club = terrain.getClub();
+        if (club != null) {
+            cacheClub.ifAvailable(c -> c.invalider(club.getId()));
+        }
+    }
+}
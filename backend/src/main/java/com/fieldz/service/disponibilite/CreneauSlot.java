@@ -0,0 +1,139 @@
+package com.fieldz.service.disponibilite;
+
+import com.fieldz.dto.CreneauLigne;
+import com.fieldz.model.Club;
+import com.fieldz.model.Creneau;
+import com.fieldz.model.Statut;
+import com.fieldz.model.Terrain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copie immuable d'un créneau telle que conservée par {@link DisponibiliteIndex}.
+ * Chaque changement d'état produit une nouvelle instance (remplacée par compare-and-set).
+ * Aussi la forme des listes de CreneauxClubCache, où {@code regleId} marque une occurrence virtuelle.
+ * {@code version} : @Version de l'entité lue, null hors index (projections, occurrences virtuelles).
+ */
+public record CreneauSlot(Long id,
+                          LocalDateTime dateDebut,
+                          LocalDateTime dateFin,
+                          Double prix,
+                          Double secondPrix,
+                          Statut statut,
+                          boolean disponible,
+                          TerrainVue terrain,
+                          Long regleId,
+                          Long version) {
+
+    /** Informations du terrain (et de son club) nécessaires à l'affichage d'un créneau. */
+    public record TerrainVue(Long id,
+                             String nomTerrain,
+                             String typeSurface,
+                             String ville,
+                             String sport,
+                             String photo,
+                             String politiqueClub,
+                             Long clubId,
+                             String clubNom,
+                             String clubVille) {
+
+        static TerrainVue of(Terrain t) {
+            if (t == null) return null;
+            Club club = t.getClub();
+            return new TerrainVue(
+                    t.getId(), t.getNomTerrain(), t.getTypeSurface(), t.getVille(), t.getSport(),
+                    t.getPhoto(), t.getPolitiqueClub(),
+                    club != null ? club.getId() : null,
+                    club != null ? club.getNom() : null,
+                    club != null ? club.getVille() : null);
+        }
+
+        Terrain toTerrain() {
+            Terrain t = new Terrain();
+            t.setId(id);
+            t.setNomTerrain(nomTerrain);
+            t.setTypeSurface(typeSurface);
+            t.setVille(ville);
+            t.setSport(sport);
+            t.setPhoto(photo);
+            t.setPolitiqueClub(politiqueClub);
+            if (clubId != null) {
+                Club club = new Club();
+                club.setId(clubId);
+                club.setNom(clubNom);
+                club.setVille(clubVille);
+                t.setClub(club);
+            }
+            return t;
+        }
+    }
+
+    public static CreneauSlot of(Creneau c) {
+        return new CreneauSlot(
+                c.getId(), c.getDateDebut(), c.getDateFin(), c.getPrix(), c.getSecondPrix(),
+                c.getStatut() != null ? c.getStatut() : Statut.LIBRE,
+                c.isDisponible(),
+                TerrainVue.of(c.getTerrain()),
+                c.getRegleId(),
+                c.getVersion());
+    }
+
+    /** Depuis une ligne de projection (CreneauRepository.SELECT_LIGNE). */
+    public static CreneauSlot of(CreneauLigne l) {
+        return new CreneauSlot(
+                l.id(), l.dateDebut(), l.dateFin(), l.prix(), l.secondPrix(),
+                l.statut() != null ? l.statut() : Statut.LIBRE,
+                Boolean.TRUE.equals(l.disponible()),
+                new TerrainVue(l.terrainId(), l.nomTerrain(), l.typeSurface(), l.terrainVille(), l.sport(),
+                        l.photo(), l.politiqueClub(), l.clubId(), l.clubNom(), l.clubVille()),
+                null,
+                null);
+    }
+
+    public Long terrainId() {
+        return terrain != null ? terrain.id() : null;
+    }
+
+    /** Ville du terrain, à défaut celle du club, sous la forme de Creneau.villeRecherche. */
+    public String villeRecherche() {
+        if (terrain == null) return null;
+        String ville = terrain.ville() != null && !terrain.ville().isBlank() ? terrain.ville() : terrain.clubVille();
+        return Creneau.villeRecherche(ville);
+    }
+
+    public String sportRecherche() {
+        return terrain != null ? Creneau.sportRecherche(terrain.sport()) : null;
+    }
+
+    /** L'entité {@code c} lue en base est plus récente que cette copie. */
+    boolean estPlusAncienQue(Creneau c) {
+        return c.getVersion() != null && (version == null || version < c.getVersion());
+    }
+
+    public boolean estReservable() {
+        return statut == Statut.LIBRE && disponible;
+    }
+
+    CreneauSlot avecStatut(Statut nouveauStatut, boolean nouveauDisponible) {
+        return new CreneauSlot(id, dateDebut, dateFin, prix, secondPrix, nouveauStatut, nouveauDisponible, terrain, regleId, version);
+    }
+
+    CreneauSlot avecTerrain(TerrainVue nouveauTerrain) {
+        return new CreneauSlot(id, dateDebut, dateFin, prix, secondPrix, statut, disponible, nouveauTerrain, regleId, version);
+    }
+
+    /** Reconstruit un créneau détaché (non géré par JPA), directement utilisable par CreneauMapper. */
+    public Creneau toCreneau() {
+        Creneau c = new Creneau();
+        c.setId(id);
+        c.setDateDebut(dateDebut);
+        c.setDateFin(dateFin);
+        c.setPrix(prix);
+        c.setSecondPrix(secondPrix);
+        c.setStatut(statut);
+        c.setDisponible(disponible);
+        c.setTerrain(terrain != null ? terrain.toTerrain() : null);
+        c.setRegleId(regleId);
+        return c;
+    }
+}
@@ -0,0 +1,149 @@
+package com.fieldz.service.disponibilite;
+
+import com.fieldz.service.cluster.BusCluster;
+import com.fieldz.service.cluster.EvenementDistant;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache borné (LRU) des créneaux disponibles d'un club, par (club, date, sport), servi à la page
+ * publique du club (CreneauService.getCreneauxDisponiblesParClub).
+ *
+ * Invalidation par club : chaque écriture qui touche ses créneaux (listener JPA, import, règles,
+ * terrains) incrémente la génération du club, tout de suite puis à la fin de la transaction.
+ * Une lecture n'est mise en cache que si la génération n'a pas bougé pendant la requête :
+ * une liste lue avant un commit ne peut pas survivre à ce commit.
+ *
+ * Entre noeuds : chaque invalidation est aussi signalée par BusCluster (type {@link #CACHE_CLUB},
+ * après le commit) et appliquée par les autres noeuds à leur relève, soit environ une seconde
+ * (app.cluster.bus.intervalle-ms). Le TTL (30 s par défaut) ne sert plus que de filet quand un
+ * événement est perdu : noeud mort entre son commit et l'écriture de l'événement, ou bus désactivé.
+ */
+@Component
+public class CreneauxClubCache {
+
+    /** date null : tous les créneaux à venir (horizon des règles pour les occurrences virtuelles). */
+    public record Cle(Long clubId, LocalDate date, String sport) {}
+
+    /** Les listes d'un club ont changé (cle : id du club, null : tous les clubs). */
+    public static final String CACHE_CLUB = "CACHE_CLUB";
+
+    private record Entree(List<CreneauSlot> creneaux, long expireA) {}
+
+    private final long ttlMillis;
+    private final Map<Cle, Entree> entrees;
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong generationGlobale = new AtomicLong();
+    private final ObjectProvider<BusCluster> bus;
+
+    public CreneauxClubCache(@Value("${app.creneaux.cache-club.ttl-seconds:30}") long ttlSeconds,
+                             @Value("${app.creneaux.cache-club.max-entries:5000}") int maxEntrees,
+                             ObjectProvider<BusCluster> bus) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.bus = bus;
+        this.entrees = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Cle, Entree> eldest) {
+                return size() > maxEntrees;
+            }
+        };
+    }
+
+    /** À lire avant la requête, puis à rendre à {@link #put}. */
+    public long generation(Long clubId) {
+        AtomicLong g = generations.get(clubId);
+        return generationGlobale.get() + (g != null ? g.get() : 0);
+    }
+
+    public synchronized List<CreneauSlot> get(Cle cle) {
+        Entree e = entrees.get(cle);
+        if (e == null) return null;
+        if (e.expireA() <= System.currentTimeMillis()) {
+            entrees.remove(cle);
+            return null;
+        }
+        return e.creneaux();
+    }
+
+    /** Ignoré si le club a été invalidé depuis {@code generationLue}. */
+    public synchronized void put(Cle cle, List<CreneauSlot> creneaux, long generationLue) {
+        if (ttlMillis <= 0 || generation(cle.clubId()) != generationLue) return;
+        entrees.put(cle, new Entree(List.copyOf(creneaux), System.currentTimeMillis() + ttlMillis));
+    }
+
+    public void invalider(Long clubId) {
+        if (clubId == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evincer(clubId);
+            diffuser(clubId);
+            return;
+        }
+        Journal journal = (Journal) TransactionSynchronizationManager.getResource(this);
+        if (journal == null) {
+            journal = new Journal();
+            TransactionSynchronizationManager.bindResource(this, journal);
+            TransactionSynchronizationManager.registerSynchronization(journal);
+        }
+        if (journal.clubs.add(clubId)) {
+            evincer(clubId);
+            diffuser(clubId);
+        }
+    }
+
+    /** Écriture dont le club n'est pas connu : tout le cache est invalidé. */
+    public void vider() {
+        viderLocal();
+        diffuser(null);
+    }
+
+    // Invalidations des autres noeuds : appliquées ici seulement, sans nouvelle diffusion
+    @EventListener
+    public void surEvenementDistant(EvenementDistant evenement) {
+        if (!evenement.est(CACHE_CLUB)) return;
+        if (evenement.cles() == null) {
+            viderLocal();
+        } else {
+            evenement.cles().forEach(this::evincer);
+        }
+    }
+
+    // BusCluster écrit après le commit (rien pour un rollback) et dédoublonne par transaction
+    private void diffuser(Long clubId) {
+        bus.ifAvailable(b -> b.publier(CACHE_CLUB, clubId));
+    }
+
+    private synchronized void viderLocal() {
+        generationGlobale.incrementAndGet();
+        entrees.clear();
+    }
+
+    private synchronized void evincer(Long clubId) {
+        generations.computeIfAbsent(clubId, k -> new AtomicLong()).incrementAndGet();
+        entrees.keySet().removeIf(cle -> clubId.equals(cle.clubId()));
+    }
+
+    // Deuxième éviction à la fin de la transaction (commit ou rollback) : écarte ce qui a été
+    // relu entre-temps, avant que l'écriture soit visible
+    private final class Journal implements TransactionSynchronization {
+        private final Set<Long> clubs = new LinkedHashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CreneauxClubCache.this);
+            clubs.forEach(CreneauxClubCache.this::evincer);
+        }
+    }
+}
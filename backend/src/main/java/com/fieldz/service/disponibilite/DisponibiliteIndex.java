@@ -0,0 +1,598 @@
+package com.fieldz.service.disponibilite;
+
+import com.fieldz.model.Creneau;
+import com.fieldz.model.RegleCreneau;
+import com.fieldz.model.Statut;
+import com.fieldz.model.Terrain;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Moteur de disponibilité en mémoire, placé devant CreneauRepository.
+ *
+ * - Chaque créneau connu est conservé dans une {@link AtomicReference} : la réservation
+ *   et l'annulation passent par un compare-and-set, ce qui garantit qu'un seul joueur
+ *   peut "prendre" un créneau LIBRE avant même l'écriture JPA.
+ * - Par terrain, un index trié par date de début permet de servir les listes de
+ *   créneaux disponibles sans requête SQL.
+ * - Un index inversé (ville, sport, jour, heure) -> ids répond aux recherches multi-clubs
+ *   ("un padel libre ce soir à Lyon") sans parcourir les terrains. Il est borné aux créneaux
+ *   qui débutent avant {@link #limiteHorizon()}, fenêtre glissante avancée par DisponibiliteIndexLoader.
+ *   Ses seaux vides sont retirés aussitôt, comme les sports d'une ville qui n'y ont plus de créneau.
+ * - Les règles de récurrence non terminées sont gardées aussi (copies détachées) : leurs occurrences
+ *   libres d'une ville se calculent sans requête ({@link #occurrencesLieu}).
+ * - Les modifications faites dans une transaction sont journalisées : en cas de rollback,
+ *   l'état précédent est restauré.
+ * - Chaque noeud a son propre index. Les écritures des autres noeuds arrivent par BusCluster
+ *   (DisponibiliteIndexLoader relit les créneaux et terrains signalés, ~1 s) ; d'ici là,
+ *   {@link #synchroniser} rattrape un créneau dès qu'il est relu en base, par sa version.
+ */
+@Slf4j
+@Component
+public class DisponibiliteIndex {
+
+    private record Cle(LocalDateTime dateDebut, Long id) implements Comparable<Cle> {
+        private static final Comparator<Cle> ORDRE = Comparator
+                .comparing(Cle::dateDebut)
+                .thenComparing(Cle::id);
+
+        @Override
+        public int compareTo(Cle o) {
+            return ORDRE.compare(this, o);
+        }
+    }
+
+    // Seau horaire de l'index inversé ; sport "" pour un terrain sans sport
+    private record CleLieu(String ville, String sport, LocalDate jour, int heure) {
+
+        static CleLieu of(CreneauSlot slot) {
+            String ville = slot.villeRecherche();
+            if (ville == null || slot.dateDebut() == null) return null;
+            return new CleLieu(ville, Objects.requireNonNullElse(slot.sportRecherche(), ""),
+                    slot.dateDebut().toLocalDate(), slot.dateDebut().getHour());
+        }
+    }
+
+    private final Map<Long, AtomicReference<CreneauSlot>> slots = new ConcurrentHashMap<>();
+    private final Map<Long, ConcurrentSkipListMap<Cle, Long>> parTerrain = new ConcurrentHashMap<>();
+    private final Map<CleLieu, Set<Long>> parLieu = new ConcurrentHashMap<>();
+    // Ville -> sport -> nombre d'ids dans les seaux de l'index inversé
+    private final Map<String, Map<String, Integer>> sportsParVille = new ConcurrentHashMap<>();
+    private final Map<Long, RegleCreneau> regles = new ConcurrentHashMap<>();
+
+    // Jours couverts par l'index inversé
+    @Value("${app.creneaux.index.horizon-jours:30}")
+    private int horizonJours = 30;
+
+    // Vide jusqu'à l'hydratation, qui fait glisser l'horizon depuis l'origine
+    private volatile LocalDateTime limiteHorizon = LocalDateTime.MIN;
+
+    private volatile boolean pret = false;
+
+    /** L'index a été hydraté depuis la base et peut répondre seul aux requêtes de disponibilité. */
+    public boolean estPret() {
+        return pret;
+    }
+
+    public int taille() {
+        return slots.size();
+    }
+
+    /** Début (exclu) des créneaux absents de l'index inversé. */
+    public LocalDateTime limiteHorizon() {
+        return limiteHorizon;
+    }
+
+    // ======================== Chargement / synchronisation ========================
+
+    /**
+     * Hydratation initiale ({@code regles} : règles non terminées, terrain et club chargés) :
+     * les entrées déjà modifiées entre-temps (listener JPA, règles créées) sont conservées.
+     */
+    public void charger(Collection<Creneau> creneaux, Collection<RegleCreneau> reglesActives) {
+        for (RegleCreneau r : reglesActives) {
+            regles.putIfAbsent(r.getId(), copie(r, CreneauSlot.TerrainVue.of(r.getTerrain())));
+        }
+        int ajoutes = 0;
+        for (Creneau c : creneaux) {
+            if (!indexable(c)) continue;
+            CreneauSlot slot = CreneauSlot.of(c);
+            if (slots.putIfAbsent(slot.id(), new AtomicReference<>(slot)) == null) {
+                indexer(slot);
+                ajoutes++;
+            }
+        }
+        avancerHorizon(LocalDateTime.now());
+        pret = true;
+        log.info("Index de disponibilité hydraté : {} créneau(x), {} règle(s) chargés", ajoutes, regles.size());
+    }
+
+    /** Reflète l'état d'une entité Creneau qui vient d'être insérée ou mise à jour. */
+    public void appliquer(Creneau c) {
+        if (!indexable(c)) return;
+        remplacer(c.getId(), CreneauSlot.of(c));
+    }
+
+    /**
+     * Rattrape l'état committé d'un créneau qui vient d'être relu en base, si l'index est en retard
+     * (écriture d'un autre noeud pas encore relevée). Non journalisé : ce n'est pas une écriture de
+     * la transaction courante. Une réservation locale en cours (même version) est conservée.
+     */
+    public void synchroniser(Creneau c) {
+        if (!indexable(c) || c.getVersion() == null) return;
+        CreneauSlot lu = CreneauSlot.of(c);
+        slots.compute(c.getId(), (k, ref) -> {
+            CreneauSlot actuel = ref != null ? ref.get() : null;
+            if (actuel != null && !actuel.estPlusAncienQue(c)) return ref;
+            if (actuel != null) desindexer(actuel);
+            indexer(lu);
+            if (ref == null) return new AtomicReference<>(lu);
+            ref.set(lu);
+            return ref;
+        });
+    }
+
+    /**
+     * Aligne les créneaux d'un terrain sur leur état en base ({@code creneaux} : tous ceux du terrain,
+     * terrain et club chargés) : écriture en masse faite sur un autre noeud. Non journalisé.
+     */
+    public void resynchroniserTerrain(Long terrainId, Collection<Creneau> creneaux) {
+        Set<Long> presents = new HashSet<>();
+        for (Creneau c : creneaux) {
+            if (!indexable(c)) continue;
+            presents.add(c.getId());
+            CreneauSlot slot = CreneauSlot.of(c);
+            slots.compute(c.getId(), (k, ref) -> {
+                CreneauSlot actuel = ref != null ? ref.get() : null;
+                if (actuel != null) desindexer(actuel);
+                indexer(slot);
+                if (ref == null) return new AtomicReference<>(slot);
+                ref.set(slot);
+                return ref;
+            });
+        }
+        ConcurrentSkipListMap<Cle, Long> index = parTerrain.get(terrainId);
+        if (index == null) return;
+        for (Long id : List.copyOf(index.values())) {
+            if (!presents.contains(id)) {
+                slots.computeIfPresent(id, (k, ref) -> {
+                    CreneauSlot actuel = ref.get();
+                    if (actuel != null) desindexer(actuel);
+                    return null;
+                });
+            }
+        }
+    }
+
+    public void retirer(Long creneauId) {
+        if (creneauId == null) return;
+        remplacer(creneauId, null);
+    }
+
+    /**
+     * Retire tous les créneaux et règles d'un terrain (suppression JPQL en masse, qui contourne
+     * le listener).
+     */
+    public void retirerTerrain(Long terrainId) {
+        for (RegleCreneau r : reglesDuTerrain(terrainId)) {
+            retirerRegle(r.getId());
+        }
+        ConcurrentSkipListMap<Cle, Long> index = parTerrain.get(terrainId);
+        if (index == null) return;
+        for (Long id : List.copyOf(index.values())) {
+            retirer(id);
+        }
+    }
+
+    /** Met à jour les informations de terrain (nom, ville, sport...) recopiées dans les créneaux et règles. */
+    public void rafraichirTerrain(Terrain terrain) {
+        rafraichir(CreneauSlot.TerrainVue.of(terrain));
+    }
+
+    /**
+     * {@link #rafraichirTerrain} pour chaque terrain, après le commit de la transaction courante
+     * (tout de suite hors transaction) : un rollback ne laisse rien dans l'index. Les vues sont
+     * copiées dès l'appel, tant que terrain et club sont chargeables.
+     */
+    public void rafraichirApresCommit(Collection<Terrain> terrains) {
+        List<CreneauSlot.TerrainVue> vues = terrains.stream().map(CreneauSlot.TerrainVue::of).toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            vues.forEach(this::rafraichir);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                vues.forEach(DisponibiliteIndex.this::rafraichir);
+            }
+        });
+    }
+
+    private void rafraichir(CreneauSlot.TerrainVue vue) {
+        for (RegleCreneau r : reglesDuTerrain(vue.id())) {
+            regles.computeIfPresent(r.getId(), (k, actuelle) -> copie(actuelle, vue));
+        }
+        ConcurrentSkipListMap<Cle, Long> index = parTerrain.get(vue.id());
+        if (index == null) return;
+        for (Long id : List.copyOf(index.values())) {
+            // La ville ou le sport peuvent changer : le créneau change de seau dans l'index inversé
+            slots.computeIfPresent(id, (k, ref) -> {
+                CreneauSlot avant = ref.get();
+                CreneauSlot apres = ref.updateAndGet(s -> s == null ? null : s.avecTerrain(vue));
+                if (avant != null) desindexerLieu(avant);
+                if (apres != null) indexerLieu(apres);
+                return ref;
+            });
+        }
+    }
+
+    /**
+     * Fait glisser l'horizon de l'index inversé : les créneaux qui y entrent sont ajoutés,
+     * les seaux des jours passés sont oubliés.
+     */
+    public void avancerHorizon(LocalDateTime maintenant) {
+        LocalDateTime ancienne = limiteHorizon;
+        LocalDateTime nouvelle = maintenant.plusDays(horizonJours);
+        if (nouvelle.isAfter(ancienne)) {
+            // Limite d'abord : un créneau indexé pendant le parcours est pris par l'un ou l'autre
+            limiteHorizon = nouvelle;
+            for (ConcurrentSkipListMap<Cle, Long> index : parTerrain.values()) {
+                for (Long id : List.copyOf(index.subMap(new Cle(ancienne, Long.MIN_VALUE), new Cle(nouvelle, Long.MIN_VALUE)).values())) {
+                    slots.computeIfPresent(id, (k, ref) -> {
+                        CreneauSlot slot = ref.get();
+                        if (slot != null) indexerLieu(slot);
+                        return ref;
+                    });
+                }
+            }
+        }
+        LocalDate aujourdhui = maintenant.toLocalDate();
+        for (CleLieu cle : List.copyOf(parLieu.keySet())) {
+            if (!cle.jour().isBefore(aujourdhui)) continue;
+            Set<Long> ids = parLieu.remove(cle);
+            if (ids != null) compterSport(cle, -ids.size());
+        }
+    }
+
+    /** Purge les créneaux et règles terminés : la mémoire reste bornée à ce qui est à venir. */
+    public int purgerAvant(LocalDateTime limite) {
+        // La veille : les dernières occurrences d'une règle peuvent finir après minuit
+        LocalDate finRegles = limite.toLocalDate().minusDays(1);
+        regles.values().removeIf(r -> r.getDateFin().isBefore(finRegles));
+        int purges = 0;
+        for (AtomicReference<CreneauSlot> ref : List.copyOf(slots.values())) {
+            CreneauSlot slot = ref.get();
+            if (slot != null && slot.dateFin() != null && slot.dateFin().isBefore(limite)) {
+                if (slots.remove(slot.id(), ref)) {
+                    desindexer(slot);
+                    purges++;
+                }
+            }
+        }
+        return purges;
+    }
+
+    // ======================== Règles de récurrence ========================
+
+    /** Reflète une règle créée ou relue en base (terrain et club chargés). Journalisé comme les créneaux. */
+    public void appliquerRegle(RegleCreneau regle) {
+        RegleCreneau copie = copie(regle, CreneauSlot.TerrainVue.of(regle.getTerrain()));
+        journaliserRegle(copie.getId(), regles.put(copie.getId(), copie));
+    }
+
+    public void retirerRegle(Long regleId) {
+        if (regleId == null) return;
+        RegleCreneau avant = regles.remove(regleId);
+        if (avant != null) journaliserRegle(regleId, avant);
+    }
+
+    /**
+     * Aligne les règles d'un terrain sur la base ({@code reglesDuTerrain} : toutes celles du terrain,
+     * terrain et club chargés) : écriture faite sur un autre noeud. Non journalisé.
+     */
+    public void resynchroniserRegles(Long terrainId, Collection<RegleCreneau> reglesDuTerrain) {
+        Set<Long> presentes = new HashSet<>();
+        for (RegleCreneau r : reglesDuTerrain) {
+            presentes.add(r.getId());
+            regles.put(r.getId(), copie(r, CreneauSlot.TerrainVue.of(r.getTerrain())));
+        }
+        regles.values().removeIf(r -> terrainId.equals(r.getTerrain().getId()) && !presentes.contains(r.getId()));
+    }
+
+    /**
+     * Occurrences libres des règles d'une ville (et d'un sport, null = tous) débutant dans [from, to[,
+     * sans requête : les créneaux de l'index qui les recouvrent l'emportent, comme dans
+     * RegleCreneauService.creneauxVirtuelsDuLieu. Ville et sport sous leur forme de recherche.
+     */
+    public List<Creneau> occurrencesLieu(String ville, String sport, LocalDateTime from, LocalDateTime to) {
+        LocalDate premier = from.toLocalDate().minusDays(1);
+        LocalDate dernier = to.toLocalDate();
+        List<RegleCreneau> retenues = new ArrayList<>();
+        for (RegleCreneau r : regles.values()) {
+            if (r.getDateDebut().isAfter(dernier) || r.getDateFin().isBefore(premier)) continue;
+            if (!ville.equals(Creneau.villeRecherche(r.getTerrain()))) continue;
+            if (sport != null && !sport.equals(Creneau.sportRecherche(r.getTerrain().getSport()))) continue;
+            retenues.add(r);
+        }
+        if (retenues.isEmpty()) return List.of();
+
+        int dureeMax = retenues.stream().mapToInt(RegleCreneau::getDureeMinutes).max().orElse(0);
+        Cle limite = new Cle(to.plusMinutes(dureeMax), Long.MIN_VALUE);
+        List<Creneau> materialises = new ArrayList<>();
+        for (Long terrainId : retenues.stream().map(r -> r.getTerrain().getId()).distinct().toList()) {
+            ConcurrentSkipListMap<Cle, Long> index = parTerrain.get(terrainId);
+            if (index == null) continue;
+            // L'index ne garde que les créneaux non terminés : la tête est courte
+            for (Long id : index.headMap(limite).values()) {
+                AtomicReference<CreneauSlot> ref = slots.get(id);
+                CreneauSlot slot = ref != null ? ref.get() : null;
+                if (slot != null && slot.dateFin().isAfter(from)) {
+                    materialises.add(slot.toCreneau());
+                }
+            }
+        }
+        return ExpansionRegles.libres(retenues, materialises, from, to);
+    }
+
+    private List<RegleCreneau> reglesDuTerrain(Long terrainId) {
+        return regles.values().stream().filter(r -> terrainId.equals(r.getTerrain().getId())).toList();
+    }
+
+    // Copie détachée, partagée en lecture seule : terrain et club réduits à leur vue
+    private static RegleCreneau copie(RegleCreneau r, CreneauSlot.TerrainVue vue) {
+        RegleCreneau c = new RegleCreneau();
+        c.setId(r.getId());
+        c.setTerrain(vue.toTerrain());
+        c.setJourDeSemaine(r.getJourDeSemaine());
+        c.setHeureDebut(r.getHeureDebut());
+        c.setDureeMinutes(r.getDureeMinutes());
+        c.setNombreDuplications(r.getNombreDuplications());
+        c.setPrix(r.getPrix());
+        c.setDateDebut(r.getDateDebut());
+        c.setDateFin(r.getDateFin());
+        return c;
+    }
+
+    // ======================== Compare-and-set ========================
+
+    /**
+     * Tente de faire passer le créneau de LIBRE à RESERVE de manière atomique.
+     * Si le créneau n'est pas encore connu, il est amorcé depuis l'entité lue en base.
+     *
+     * @return false si un autre joueur a déjà pris le créneau
+     */
+    public boolean reserver(Creneau creneau) {
+        AtomicReference<CreneauSlot> ref = slots.computeIfAbsent(creneau.getId(), id -> {
+            CreneauSlot slot = CreneauSlot.of(creneau);
+            indexer(slot);
+            return new AtomicReference<>(slot);
+        });
+        while (true) {
+            CreneauSlot actuel = ref.get();
+            if (actuel == null || !actuel.estReservable()) {
+                return false;
+            }
+            if (ref.compareAndSet(actuel, actuel.avecStatut(Statut.RESERVE, false))) {
+                journaliser(actuel.id(), actuel);
+                return true;
+            }
+        }
+    }
+
+    /** Repasse le créneau à LIBRE (annulation). Sans effet si le créneau n'est pas RESERVE. */
+    public boolean liberer(Long creneauId) {
+        AtomicReference<CreneauSlot> ref = slots.get(creneauId);
+        if (ref == null) return false;
+        while (true) {
+            CreneauSlot actuel = ref.get();
+            if (actuel == null || actuel.statut() != Statut.RESERVE) {
+                return false;
+            }
+            if (ref.compareAndSet(actuel, actuel.avecStatut(Statut.LIBRE, true))) {
+                journaliser(actuel.id(), actuel);
+                return true;
+            }
+        }
+    }
+
+    // ======================== Lectures ========================
+
+    public Optional<CreneauSlot> get(Long creneauId) {
+        AtomicReference<CreneauSlot> ref = slots.get(creneauId);
+        return ref == null ? Optional.empty() : Optional.ofNullable(ref.get());
+    }
+
+    /** Tous les créneaux réservables commençant après {@code apres}, triés par date de début. */
+    public List<CreneauSlot> disponibles(LocalDateTime apres) {
+        List<CreneauSlot> result = new ArrayList<>();
+        for (Long terrainId : parTerrain.keySet()) {
+            result.addAll(disponiblesTerrain(terrainId, apres, null));
+        }
+        result.sort(Comparator.comparing(CreneauSlot::dateDebut).thenComparing(CreneauSlot::id));
+        return result;
+    }
+
+    /** Créneaux réservables d'un terrain dont le début est dans ]debut, fin] ({@code fin} null = sans limite). */
+    public List<CreneauSlot> disponiblesTerrain(Long terrainId, LocalDateTime debut, LocalDateTime fin) {
+        ConcurrentSkipListMap<Cle, Long> index = parTerrain.get(terrainId);
+        if (index == null) return List.of();
+
+        NavigableMap<Cle, Long> fenetre = fin == null
+                ? index.tailMap(new Cle(debut, Long.MAX_VALUE), false)
+                : index.subMap(new Cle(debut, Long.MAX_VALUE), false, new Cle(fin, Long.MAX_VALUE), true);
+
+        List<CreneauSlot> result = new ArrayList<>();
+        for (Long id : fenetre.values()) {
+            AtomicReference<CreneauSlot> ref = slots.get(id);
+            CreneauSlot slot = ref != null ? ref.get() : null;
+            if (slot != null && slot.estReservable()) {
+                result.add(slot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Créneaux réservables d'une ville, tous clubs confondus, dont le début est dans [debut, fin],
+     * triés par (début, terrain, id). Ville et sport sous la forme de Creneau.villeRecherche /
+     * sportRecherche ; sport null = tous. Au-delà de {@link #limiteHorizon()}, la réponse est incomplète.
+     */
+    public List<CreneauSlot> disponiblesLieu(String ville, String sport, LocalDateTime debut, LocalDateTime fin) {
+        Set<String> sports = sport != null ? Set.of(sport) : Set.copyOf(sportsParVille.getOrDefault(ville, Map.of()).keySet());
+        List<CreneauSlot> result = new ArrayList<>();
+        for (LocalDateTime heure = debut.truncatedTo(ChronoUnit.HOURS); !heure.isAfter(fin); heure = heure.plusHours(1)) {
+            for (String s : sports) {
+                CleLieu cle = new CleLieu(ville, s, heure.toLocalDate(), heure.getHour());
+                Set<Long> ids = parLieu.get(cle);
+                if (ids == null) continue;
+                for (Long id : ids) {
+                    AtomicReference<CreneauSlot> ref = slots.get(id);
+                    CreneauSlot slot = ref != null ? ref.get() : null;
+                    // Revérifié sur l'état courant : un id peut rester brièvement dans son ancien seau
+                    if (slot != null && slot.estReservable() && cle.equals(CleLieu.of(slot))
+                            && !slot.dateDebut().isBefore(debut) && !slot.dateDebut().isAfter(fin)) {
+                        result.add(slot);
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparing(CreneauSlot::dateDebut)
+                .thenComparing(CreneauSlot::terrainId)
+                .thenComparing(CreneauSlot::id));
+        return result;
+    }
+
+    // ======================== Interne ========================
+
+    private boolean indexable(Creneau c) {
+        return c != null && c.getId() != null && c.getDateDebut() != null && c.getDateFin() != null;
+    }
+
+    private void remplacer(Long id, CreneauSlot nouveau) {
+        slots.compute(id, (k, ref) -> {
+            CreneauSlot ancien = ref != null ? ref.get() : null;
+            journaliser(id, ancien);
+            if (ancien != null) desindexer(ancien);
+            if (nouveau == null) return null;
+            indexer(nouveau);
+            if (ref == null) return new AtomicReference<>(nouveau);
+            ref.set(nouveau);
+            return ref;
+        });
+    }
+
+    private void indexer(CreneauSlot slot) {
+        if (slot.terrainId() == null) return;
+        parTerrain.computeIfAbsent(slot.terrainId(), t -> new ConcurrentSkipListMap<>())
+                .put(new Cle(slot.dateDebut(), slot.id()), slot.id());
+        indexerLieu(slot);
+    }
+
+    private void desindexer(CreneauSlot slot) {
+        if (slot.terrainId() == null) return;
+        ConcurrentSkipListMap<Cle, Long> index = parTerrain.get(slot.terrainId());
+        if (index != null) {
+            index.remove(new Cle(slot.dateDebut(), slot.id()));
+        }
+        desindexerLieu(slot);
+    }
+
+    private void indexerLieu(CreneauSlot slot) {
+        CleLieu cle = CleLieu.of(slot);
+        if (cle == null || !slot.dateDebut().isBefore(limiteHorizon)) return;
+        boolean[] ajoute = {false};
+        parLieu.compute(cle, (k, ids) -> {
+            Set<Long> seau = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            ajoute[0] = seau.add(slot.id());
+            return seau;
+        });
+        if (ajoute[0]) compterSport(cle, 1);
+    }
+
+    // Un seau vidé est retiré aussitôt (compute : atomique avec un ajout concurrent au même seau)
+    private void desindexerLieu(CreneauSlot slot) {
+        CleLieu cle = CleLieu.of(slot);
+        if (cle == null) return;
+        boolean[] retire = {false};
+        parLieu.computeIfPresent(cle, (k, ids) -> {
+            retire[0] = ids.remove(slot.id());
+            return ids.isEmpty() ? null : ids;
+        });
+        if (retire[0]) compterSport(cle, -1);
+    }
+
+    // sportsParVille ne garde que les sports (et villes) qui ont encore des ids dans l'index inversé
+    private void compterSport(CleLieu cle, int delta) {
+        if (delta == 0) return;
+        sportsParVille.compute(cle.ville(), (v, sports) -> {
+            Map<String, Integer> m = sports != null ? sports : new ConcurrentHashMap<>();
+            m.compute(cle.sport(), (s, n) -> {
+                int total = (n != null ? n : 0) + delta;
+                return total > 0 ? total : null;
+            });
+            return m.isEmpty() ? null : m;
+        });
+    }
+
+    /** Restaure un état antérieur (rollback) sans le journaliser. */
+    private void restaurer(Long id, CreneauSlot avant) {
+        slots.compute(id, (k, ref) -> {
+            CreneauSlot actuel = ref != null ? ref.get() : null;
+            if (actuel != null) desindexer(actuel);
+            if (avant == null) return null;
+            indexer(avant);
+            if (ref == null) return new AtomicReference<>(avant);
+            ref.set(avant);
+            return ref;
+        });
+    }
+
+    /** Mémorise le premier état connu d'un créneau dans la transaction courante. */
+    private void journaliser(Long id, CreneauSlot avant) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        journal().avant.putIfAbsent(id, Optional.ofNullable(avant));
+    }
+
+    private void journaliserRegle(Long id, RegleCreneau avant) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        journal().reglesAvant.putIfAbsent(id, Optional.ofNullable(avant));
+    }
+
+    private Journal journal() {
+        Journal journal = (Journal) TransactionSynchronizationManager.getResource(this);
+        if (journal == null) {
+            journal = new Journal();
+            TransactionSynchronizationManager.bindResource(this, journal);
+            TransactionSynchronizationManager.registerSynchronization(journal);
+        }
+        return journal;
+    }
+
+    private final class Journal implements TransactionSynchronization {
+        private final Map<Long, Optional<CreneauSlot>> avant = new LinkedHashMap<>();
+        private final Map<Long, Optional<RegleCreneau>> reglesAvant = new LinkedHashMap<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DisponibiliteIndex.this);
+            if (status == STATUS_COMMITTED) return;
+            reglesAvant.forEach((id, regle) -> {
+                if (regle.isPresent()) regles.put(id, regle.get());
+                else regles.remove(id);
+            });
+            avant.forEach((id, slot) -> restaurer(id, slot.orElse(null)));
+            log.debug("Index de disponibilité : {} créneau(x) restauré(s) après rollback", avant.size());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.fieldz.service.disponibilite;
+
+import com.fieldz.model.Creneau;
+import com.fieldz.model.RegleCreneau;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.RegleCreneauRepository;
+import com.fieldz.service.cluster.EvenementDistant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hydrate {@link DisponibiliteIndex} au démarrage, purge régulièrement les créneaux passés
+ * et fait glisser l'horizon de son index inversé (ville, sport, jour, heure).
+ *
+ * Applique aussi les écritures des autres noeuds, signalées par BusCluster : créneau par créneau
+ * (listener JPA), règle par règle, ou terrain entier avec ses règles (import, changement de lieu
+ * du terrain ou de son club, suppression).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DisponibiliteIndexLoader {
+
+    /** Un créneau a changé (cle : id du créneau). */
+    public static final String CRENEAU = "CRENEAU";
+    /** Les créneaux d'un terrain ont changé en masse (cle : id du terrain). */
+    public static final String TERRAIN = "TERRAIN";
+    /** Une règle de récurrence a été créée ou supprimée (cle : id de la règle). */
+    public static final String REGLE = "REGLE";
+
+    private final CreneauRepository creneauRepository;
+    private final RegleCreneauRepository regleCreneauRepository;
+    private final DisponibiliteIndex index;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void hydrater() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        index.charger(creneauRepository.findAVenirFetchTerrainAndClub(maintenant),
+                regleCreneauRepository.findNonTermineesFetchTerrainAndClub(maintenant.toLocalDate().minusDays(1)));
+    }
+
+    // Toutes les heures, sur chaque noeud : l'index est en mémoire
+    @Scheduled(fixedRate = 3600000)
+    public void purger() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        int purges = index.purgerAvant(maintenant);
+        if (purges > 0) {
+            log.info("Index de disponibilité : {} créneau(x) passé(s) purgé(s)", purges);
+        }
+        if (index.estPret()) {
+            index.avancerHorizon(maintenant);
+        }
+    }
+
+    @EventListener
+    public void surEvenementDistant(EvenementDistant evenement) {
+        if (evenement.est(CRENEAU) && evenement.cles() != null) {
+            Set<Long> absents = new HashSet<>(evenement.cles());
+            for (Creneau c : creneauRepository.findByIdsFetchTerrainAndClub(evenement.cles())) {
+                absents.remove(c.getId());
+                index.synchroniser(c);
+            }
+            // Supprimés depuis
+            absents.forEach(index::retirer);
+        } else if (evenement.est(TERRAIN) && evenement.cles() != null) {
+            LocalDateTime maintenant = LocalDateTime.now();
+            for (Long terrainId : evenement.cles()) {
+                List<Creneau> creneaux = creneauRepository.findByTerrainIdFetchTerrainAndClub(terrainId).stream()
+                        .filter(c -> c.getDateFin() != null && c.getDateFin().isAfter(maintenant))
+                        .toList();
+                index.resynchroniserTerrain(terrainId, creneaux);
+                index.resynchroniserRegles(terrainId, regleCreneauRepository.findByTerrainIdFetchTerrainAndClub(terrainId));
+            }
+        } else if (evenement.est(REGLE) && evenement.cles() != null) {
+            Set<Long> absentes = new HashSet<>(evenement.cles());
+            for (RegleCreneau r : regleCreneauRepository.findByIdsFetchTerrainAndClub(evenement.cles())) {
+                absentes.remove(r.getId());
+                index.appliquerRegle(r);
+            }
+            absentes.forEach(index::retirerRegle);
+        }
+    }
+}
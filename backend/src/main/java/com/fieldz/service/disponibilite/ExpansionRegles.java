@@ -0,0 +1,94 @@
+package com.fieldz.service.disponibilite;
+
+import com.fieldz.model.Creneau;
+import com.fieldz.model.RegleCreneau;
+import com.fieldz.model.Statut;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * Expansion paresseuse des règles de récurrence en créneaux virtuels, pour une fenêtre donnée.
+ *
+ * Un créneau virtuel est un Creneau transient (id null, regleId renseigné, LIBRE).
+ * Tout créneau matérialisé qui le recouvre (réservé, modifié, annulé...) l'emporte :
+ * l'occurrence correspondante n'est alors pas renvoyée.
+ */
+public final class ExpansionRegles {
+
+    private ExpansionRegles() {
+    }
+
+    /** Occurrences de la règle dont le début est dans [from, to[, par date de début croissante. */
+    public static List<Creneau> occurrences(RegleCreneau regle, LocalDateTime from, LocalDateTime to) {
+        List<Creneau> occurrences = new ArrayList<>();
+        // La veille : les dernières occurrences d'une journée peuvent commencer après minuit
+        LocalDate premier = max(regle.getDateDebut(), from.toLocalDate().minusDays(1))
+                .with(TemporalAdjusters.nextOrSame(regle.getJourDeSemaine()));
+        LocalDate dernier = min(regle.getDateFin(), to.toLocalDate());
+
+        for (LocalDate jour = premier; !jour.isAfter(dernier); jour = jour.plusWeeks(1)) {
+            LocalDateTime debut = LocalDateTime.of(jour, regle.getHeureDebut());
+            for (int i = 0; i < regle.getNombreDuplications(); i++, debut = debut.plusMinutes(regle.getDureeMinutes())) {
+                if (debut.isBefore(from)) continue;
+                if (!debut.isBefore(to)) break;
+                occurrences.add(virtuel(regle, debut));
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Occurrences libres de plusieurs règles : celles qui chevauchent un créneau matérialisé
+     * du même terrain sont écartées. {@code materialises} doit couvrir la fenêtre [from, to[.
+     */
+    public static List<Creneau> libres(Collection<RegleCreneau> regles, Collection<Creneau> materialises,
+                                       LocalDateTime from, LocalDateTime to) {
+        Map<Long, List<Creneau>> candidatsParTerrain = new HashMap<>();
+        for (RegleCreneau regle : regles) {
+            candidatsParTerrain.computeIfAbsent(regle.getTerrain().getId(), t -> new ArrayList<>())
+                    .addAll(occurrences(regle, from, to));
+        }
+        Map<Long, List<Creneau>> materialisesParTerrain = new HashMap<>();
+        for (Creneau c : materialises) {
+            materialisesParTerrain.computeIfAbsent(c.getTerrain().getId(), t -> new ArrayList<>()).add(c);
+        }
+
+        List<Creneau> libres = new ArrayList<>();
+        candidatsParTerrain.forEach((terrainId, candidats) -> {
+            candidats.sort(Comparator.comparing(Creneau::getDateDebut));
+            BalayageChevauchements balayage = new BalayageChevauchements(
+                    materialisesParTerrain.getOrDefault(terrainId, List.of()));
+            for (Creneau candidat : candidats) {
+                if (balayage.verifier(candidat.getDateDebut(), candidat.getDateFin())
+                        == BalayageChevauchements.Verdict.LIBRE) {
+                    libres.add(candidat);
+                }
+            }
+        });
+        libres.sort(Comparator.comparing(Creneau::getDateDebut));
+        return libres;
+    }
+
+    public static Creneau virtuel(RegleCreneau regle, LocalDateTime debut) {
+        Creneau c = new Creneau();
+        c.setRegleId(regle.getId());
+        c.setTerrain(regle.getTerrain());
+        c.setDateDebut(debut);
+        c.setDateFin(debut.plusMinutes(regle.getDureeMinutes()));
+        c.setPrix(regle.getPrix());
+        c.setStatut(Statut.LIBRE);
+        c.setDisponible(true);
+        return c;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,207 @@
+package com.fieldz.service.disponibilite;
+
+import com.fieldz.dto.CreneauDto;
+import com.fieldz.dto.CreneauLigne;
+import com.fieldz.dto.FiltreCreneaux;
+import com.fieldz.dto.PageCurseur;
+import com.fieldz.mapper.CreneauMapper;
+import com.fieldz.model.Creneau;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.service.RegleCreneauService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Recherche publique des créneaux disponibles : fenêtre de dates bornée, filtres ville / sport /
+ * heure de début / prix, pagination par clé (dateDebut, terrain, id).
+ *
+ * Les créneaux matérialisés sont lus en projection par l'un des deux index de recherche
+ * (idx_creneau_recherche, idx_creneau_recherche_ville) ; les occurrences virtuelles des règles
+ * ne sont calculées que jusqu'à la dernière ligne utile de la page, à partir des seules règles de
+ * la ville et du sport demandés (filtrés en SQL), puis fusionnées (clé id 0).
+ *
+ * {@link #libresDansLaVille} répond aux recherches courtes multi-clubs (une ville, un jour) depuis
+ * l'index inversé de DisponibiliteIndex et les règles qu'il garde, sans requête tant que la plage
+ * est dans son horizon.
+ */
+@Service
+@RequiredArgsConstructor
+public class RechercheCreneauxService {
+
+    private static final int TAILLE_PAGE_MAX = 100;
+    private static final LocalDateTime DEBUT_DES_TEMPS = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Pas LocalTime.MAX : arrondie à minuit par une colonne TIME à la seconde
+    private static final LocalTime FIN_DE_JOURNEE = LocalTime.of(23, 59, 59);
+
+    // Ordre de la pagination ; un créneau virtuel (id null) passe avant un créneau matérialisé de même clé
+    private static final Comparator<CreneauDto> ORDRE = Comparator
+            .comparing(CreneauDto::getDateDebut)
+            .thenComparing(d -> d.getTerrain().getId())
+            .thenComparing(d -> d.getId() != null ? d.getId() : 0L);
+
+    private final CreneauRepository creneauRepository;
+    private final RegleCreneauService regleCreneauService;
+    private final DisponibiliteIndex disponibiliteIndex;
+
+    // Largeur maximale de la fenêtre [depuis, jusqua]
+    @Value("${app.creneaux.recherche.fenetre-max-jours:31}")
+    private int fenetreMaxJours = 31;
+
+    private record Criteres(String ville, String sport, LocalDateTime debut, LocalDateTime fin,
+                            LocalTime heureMin, LocalTime heureMax, double prixMin, double prixMax,
+                            LocalDateTime apresDate, long apresTerrain, long apresId, int taille) {}
+
+    @Transactional(readOnly = true)
+    public PageCurseur<CreneauDto> rechercher(FiltreCreneaux filtre) {
+        Criteres k = criteres(filtre, LocalDateTime.now());
+        if (!k.debut().isBefore(k.fin())) {
+            return new PageCurseur<>(List.of(), null);
+        }
+
+        Limit limite = Limit.of(k.taille() + 1);
+        List<CreneauLigne> lignes = k.ville() == null
+                ? creneauRepository.rechercherDisponibles(k.debut(), k.fin(), k.apresDate(), k.apresTerrain(),
+                        k.apresId(), k.heureMin(), k.heureMax(), k.prixMin(), k.prixMax(), k.sport(), limite)
+                : creneauRepository.rechercherDisponiblesParVille(k.ville(), k.debut(), k.fin(), k.apresDate(),
+                        k.apresTerrain(), k.apresId(), k.heureMin(), k.heureMax(), k.prixMin(), k.prixMax(),
+                        k.sport(), limite);
+
+        List<CreneauDto> candidats = new ArrayList<>(lignes.size());
+        lignes.forEach(l -> candidats.add(l.toDto()));
+
+        // Page pleine : aucune occurrence au-delà de la (taille+1)e ligne ne peut y entrer
+        LocalDateTime finVirtuels = lignes.size() > k.taille()
+                ? lignes.get(k.taille()).dateDebut().plusNanos(1)
+                : k.fin();
+        LocalDateTime debutVirtuels = k.apresDate().isAfter(k.debut()) ? k.apresDate() : k.debut();
+        if (debutVirtuels.isBefore(finVirtuels)) {
+            for (Creneau v : regleCreneauService.creneauxVirtuelsDuLieu(k.ville(), k.sport(), debutVirtuels, finVirtuels)) {
+                if (retenu(v, k)) candidats.add(CreneauMapper.toDto(v));
+            }
+        }
+        candidats.sort(ORDRE);
+        return page(candidats, k.taille());
+    }
+
+    /**
+     * Créneaux libres d'une ville, tous clubs confondus, pour un jour et une plage d'heures de début
+     * ("un padel ce soir à Lyon"), triés comme la recherche paginée. Hors horizon de l'index ou avant
+     * son hydratation, la même sélection est faite par RECHERCHE.
+     */
+    @Transactional(readOnly = true)
+    public List<CreneauDto> libresDansLaVille(String villeStr, String sportStr, LocalDate date,
+                                              LocalTime heureMin, LocalTime heureMax) {
+        String ville = Creneau.villeRecherche(villeStr);
+        if (ville == null) {
+            throw new IllegalArgumentException("La ville est obligatoire.");
+        }
+        String sport = Creneau.sportRecherche(sportStr);
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDate jour = date != null ? date : maintenant.toLocalDate();
+        LocalTime min = heureMin != null ? heureMin : LocalTime.MIN;
+        LocalTime max = heureMax != null ? heureMax : FIN_DE_JOURNEE;
+        if (max.isBefore(min)) {
+            throw new IllegalArgumentException("Plage horaire invalide.");
+        }
+        LocalDateTime debut = jour.atTime(min).isAfter(maintenant) ? jour.atTime(min) : maintenant;
+        LocalDateTime fin = jour.atTime(max);
+        if (fin.isBefore(debut)) {
+            return List.of();
+        }
+
+        List<CreneauDto> creneaux = new ArrayList<>();
+        List<Creneau> virtuels;
+        if (disponibiliteIndex.estPret() && fin.isBefore(disponibiliteIndex.limiteHorizon())) {
+            disponibiliteIndex.disponiblesLieu(ville, sport, debut, fin)
+                    .forEach(s -> creneaux.add(CreneauMapper.toDto(s.toCreneau())));
+            virtuels = disponibiliteIndex.occurrencesLieu(ville, sport, debut, fin.plusNanos(1));
+        } else {
+            creneauRepository.rechercherDisponiblesParVille(ville, debut, jour.plusDays(1).atStartOfDay(),
+                            DEBUT_DES_TEMPS, 0L, 0L, min, max, 0.0, Double.MAX_VALUE, sport, Limit.unlimited())
+                    .forEach(l -> creneaux.add(l.toDto()));
+            virtuels = regleCreneauService.creneauxVirtuelsDuLieu(ville, sport, debut, fin.plusNanos(1));
+        }
+        Criteres k = new Criteres(ville, sport, debut, fin, min, max, 0, Double.MAX_VALUE,
+                DEBUT_DES_TEMPS, 0L, 0L, 0);
+        for (Creneau v : virtuels) {
+            if (retenu(v, k)) creneaux.add(CreneauMapper.toDto(v));
+        }
+        creneaux.sort(ORDRE);
+        return creneaux;
+    }
+
+    /**
+     * Mêmes filtres que RECHERCHE (CreneauRepository), appliqués à une occurrence virtuelle ;
+     * ville et sport sont déjà filtrés par la requête des règles (creneauxVirtuelsDuLieu).
+     */
+    private static boolean retenu(Creneau v, Criteres k) {
+        LocalTime heure = v.getDateDebut().toLocalTime();
+        double prix = v.getPrix() != null ? v.getPrix() : 0;
+        long terrainId = v.getTerrain().getId();
+        int c = v.getDateDebut().compareTo(k.apresDate());
+        return (c > 0 || (c == 0 && terrainId > k.apresTerrain()))
+                && !heure.isBefore(k.heureMin()) && !heure.isAfter(k.heureMax())
+                && prix >= k.prixMin() && prix <= k.prixMax();
+    }
+
+    // Une ligne de plus que demandé : sa présence indique qu'il existe une page suivante
+    private static PageCurseur<CreneauDto> page(List<CreneauDto> candidats, int taille) {
+        if (candidats.size() <= taille) return new PageCurseur<>(candidats, null);
+        List<CreneauDto> contenu = List.copyOf(candidats.subList(0, taille));
+        CreneauDto dernier = contenu.get(taille - 1);
+        String curseur = dernier.getDateDebut() + "|" + dernier.getTerrain().getId() + "|"
+                + Objects.requireNonNullElse(dernier.getId(), 0L);
+        return new PageCurseur<>(contenu,
+                Base64.getUrlEncoder().withoutPadding().encodeToString(curseur.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Criteres criteres(FiltreCreneaux f, LocalDateTime maintenant) {
+        LocalDate depuis = f.depuis() != null ? f.depuis() : maintenant.toLocalDate();
+        LocalDate jusqua = f.jusqua() != null ? f.jusqua() : depuis.plusDays(fenetreMaxJours - 1L);
+        if (jusqua.isBefore(depuis)) {
+            throw new IllegalArgumentException("La date de fin de recherche précède la date de début.");
+        }
+        if (!jusqua.isBefore(depuis.plusDays(fenetreMaxJours))) {
+            throw new IllegalArgumentException("Fenêtre de recherche limitée à " + fenetreMaxJours + " jours.");
+        }
+        // Disponibilités à venir uniquement
+        LocalDateTime debut = depuis.atStartOfDay().isAfter(maintenant) ? depuis.atStartOfDay() : maintenant;
+        LocalDateTime fin = jusqua.plusDays(1).atStartOfDay();
+
+        LocalTime heureMin = f.heureMin() != null ? f.heureMin() : LocalTime.MIN;
+        LocalTime heureMax = f.heureMax() != null ? f.heureMax() : FIN_DE_JOURNEE;
+        double prixMin = f.prixMin() != null ? f.prixMin() : 0;
+        double prixMax = f.prixMax() != null ? f.prixMax() : Double.MAX_VALUE;
+        if (heureMax.isBefore(heureMin) || prixMax < prixMin) {
+            throw new IllegalArgumentException("Plage horaire ou de prix invalide.");
+        }
+        int taille = Math.max(1, Math.min(f.taille(), TAILLE_PAGE_MAX));
+        String ville = Creneau.villeRecherche(f.ville());
+        String sport = Creneau.sportRecherche(f.sport());
+
+        if (f.apres() == null || f.apres().isBlank()) {
+            return new Criteres(ville, sport, debut, fin, heureMin, heureMax, prixMin, prixMax,
+                    DEBUT_DES_TEMPS, 0L, 0L, taille);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(f.apres()), StandardCharsets.UTF_8).split("\\|", 3);
+            return new Criteres(ville, sport, debut, fin, heureMin, heureMax, prixMin, prixMax,
+                    LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]), taille);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide.");
+        }
+    }
+}
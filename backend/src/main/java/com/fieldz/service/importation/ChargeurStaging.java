@@ -0,0 +1,147 @@
+package com.fieldz.service.importation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Chargement des lignes d'un import dans la table de transit creneau_import.
+ *
+ * - PostgreSQL : COPY ... FROM STDIN (flux CSV, un seul aller-retour par tampon).
+ * - Autres bases (H2 en dev/test) : INSERT JDBC par lots.
+ *
+ * Les ids des futurs créneaux sont réservés dans creneau_id_seq avec la même convention
+ * que l'optimiseur pooled d'Hibernate (un nextval v réserve ]v-50, v]) : ni l'import ni
+ * les insertions JPA concurrentes ne peuvent produire le même id.
+ * Doit être appelé dans la transaction de l'import (connexion liée par Spring).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChargeurStaging {
+
+    // Doit rester égal à l'allocationSize de Creneau
+    static final int TAILLE_BLOC_IDS = 50;
+
+    private static final int TAILLE_LOT_JDBC = 1000;
+    private static final int TAILLE_TAMPON_COPY = 64 * 1024;
+
+    private static final String COPY = """
+            COPY creneau_import (creneau_id, lot, ligne, terrain_id, date_debut, date_fin, prix, second_prix)
+            FROM STDIN WITH (FORMAT csv)""";
+
+    private static final String INSERT = """
+            INSERT INTO creneau_import (creneau_id, lot, ligne, terrain_id, date_debut, date_fin, prix, second_prix)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Charge les lignes sous l'étiquette {@code lot}. */
+    public void charger(String lot, List<LigneImport> lignes) {
+        if (lignes.isEmpty()) return;
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            List<Long> ids = reserverIds(lignes.size(), postgres);
+            if (postgres) {
+                copier(connection.unwrap(PGConnection.class), lot, lignes, ids);
+            } else {
+                inserer(lot, lignes, ids);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Import " + lot + " : chargement de la table de transit impossible", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private List<Long> reserverIds(int nombre, boolean postgres) {
+        int blocs = (nombre + TAILLE_BLOC_IDS - 1) / TAILLE_BLOC_IDS;
+        String sql = postgres
+                ? "SELECT nextval('creneau_id_seq') FROM generate_series(1, ?)"
+                : "SELECT NEXT VALUE FOR creneau_id_seq FROM SYSTEM_RANGE(1, ?)";
+        List<Long> hauts = jdbcTemplate.queryForList(sql, Long.class, blocs);
+
+        List<Long> ids = new ArrayList<>(nombre);
+        for (Long haut : hauts) {
+            // Le tout premier nextval (1) ne réserve que l'id 1
+            for (long id = Math.max(1, haut - TAILLE_BLOC_IDS + 1); id <= haut && ids.size() < nombre; id++) {
+                ids.add(id);
+            }
+        }
+        if (ids.size() < nombre) {
+            // Seulement si la séquence démarre à 1 : un bloc de plus suffit
+            ids.addAll(reserverIds(nombre - ids.size(), postgres));
+        }
+        return ids;
+    }
+
+    private void copier(PGConnection connection, String lot, List<LigneImport> lignes, List<Long> ids)
+            throws SQLException {
+        CopyIn copy = connection.getCopyAPI().copyIn(COPY);
+        try {
+            StringBuilder tampon = new StringBuilder(TAILLE_TAMPON_COPY + 256);
+            for (int i = 0; i < lignes.size(); i++) {
+                LigneImport l = lignes.get(i);
+                // Champ vide non quoté = NULL en format csv ; les dates ISO n'ont pas de virgule
+                tampon.append(ids.get(i)).append(',')
+                        .append(lot).append(',')
+                        .append(l.ligne()).append(',')
+                        .append(l.terrainId()).append(',')
+                        .append(l.dateDebut()).append(',')
+                        .append(l.dateFin()).append(',')
+                        .append(l.prix() != null ? l.prix() : "").append(',')
+                        .append(l.secondPrix() != null ? l.secondPrix() : "").append('\n');
+                if (tampon.length() >= TAILLE_TAMPON_COPY) {
+                    ecrire(copy, tampon);
+                }
+            }
+            ecrire(copy, tampon);
+            long copiees = copy.endCopy();
+            log.debug("Import {} : {} ligne(s) copiées en transit", lot, copiees);
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private static void ecrire(CopyIn copy, StringBuilder tampon) throws SQLException {
+        byte[] octets = tampon.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(octets, 0, octets.length);
+        tampon.setLength(0);
+    }
+
+    private void inserer(String lot, List<LigneImport> lignes, List<Long> ids) {
+        // Types explicites : avec des Object[], chaque null coûterait une lecture des métadonnées
+        jdbcTemplate.batchUpdate(INSERT, IntStream.range(0, lignes.size()).boxed().toList(), TAILLE_LOT_JDBC,
+                (ps, i) -> {
+                    LigneImport l = lignes.get(i);
+                    ps.setLong(1, ids.get(i));
+                    ps.setString(2, lot);
+                    ps.setInt(3, l.ligne());
+                    ps.setLong(4, l.terrainId());
+                    ps.setTimestamp(5, Timestamp.valueOf(l.dateDebut()));
+                    ps.setTimestamp(6, Timestamp.valueOf(l.dateFin()));
+                    ps.setObject(7, l.prix(), Types.DOUBLE);
+                    ps.setObject(8, l.secondPrix(), Types.DOUBLE);
+                });
+        log.debug("Import {} : {} ligne(s) insérées en transit", lot, lignes.size());
+    }
+}
@@ -0,0 +1,266 @@
+package com.fieldz.service.importation;
+
+import com.fieldz.dto.CreneauRecurrentDto;
+import com.fieldz.dto.ImportCreneauxResultat;
+import com.fieldz.model.*;
+import com.fieldz.model.CreneauImport.Verdict;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.TerrainRepository;
+import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.service.cluster.BusCluster;
+import com.fieldz.service.disponibilite.CreneauxClubCache;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.disponibilite.DisponibiliteIndexLoader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Import de créneaux en masse (saison complète d'un club : dizaines de milliers de lignes).
+ *
+ * Au lieu de passer créneau par créneau par CreneauService :
+ * 1. les lignes sont chargées dans la table de transit creneau_import (COPY sur PostgreSQL) ;
+ * 2. chaque contrôle est une seule requête UPDATE sur tout le lot : terrain du club, horaires
+ *    d'ouverture, doublons et chevauchements avec l'existant, puis au sein du lot ;
+ * 3. les lignes retenues sont fusionnées dans creneau par un unique INSERT ... SELECT.
+ * Tout se fait dans une transaction : l'import est appliqué entièrement ou pas du tout.
+ * Les terrains du lot sont verrouillés (SELECT ... FOR UPDATE) avant les contrôles : un autre
+ * import ou une création de créneau sur le même terrain attend la fin de celui-ci, sans quoi
+ * deux écritures concurrentes passeraient chacune le contrôle de chevauchement.
+ *
+ * Les créneaux importés sont LIBRES (pas d'auto-réservation). Le SQL brut contourne
+ * CreneauIndexListener : l'index de disponibilité et le cache du club sont mis à jour ici.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CreneauImportService {
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final TerrainRepository terrainRepository;
+    private final CreneauRepository creneauRepository;
+    private final ChargeurStaging chargeurStaging;
+    private final JdbcTemplate jdbcTemplate;
+    private final DisponibiliteIndex disponibiliteIndex;
+    private final CreneauxClubCache creneauxClubCache;
+    private final BusCluster busCluster;
+
+    private static final String FUSION = """
+            INSERT INTO creneau (id, terrain_id, date_debut, date_fin, prix, second_prix, statut, disponible, version,
+                                 ville, sport)
+            SELECT s.creneau_id, s.terrain_id, s.date_debut, s.date_fin, s.prix, s.second_prix, 'LIBRE', TRUE, 0,
+                   LOWER(COALESCE(NULLIF(TRIM(t.ville), ''), NULLIF(TRIM(u.ville), ''))), UPPER(NULLIF(TRIM(t.sport), ''))
+            FROM creneau_import s
+            JOIN terrain t ON t.id = s.terrain_id
+            LEFT JOIN utilisateur u ON u.id = t.club_id
+            WHERE s.lot = ? AND s.verdict IS NULL""";
+
+    /** CSV : terrainId;dateDebut;dateFin;prix[;secondPrix] (voir LecteurCsvCreneaux). */
+    @Transactional
+    public ImportCreneauxResultat importerCsv(Reader csv, Authentication authentication) throws IOException {
+        Club club = clubConnecte(authentication);
+        LecteurCsvCreneaux.Lecture lecture = LecteurCsvCreneaux.lire(csv);
+        return importer(club, lecture.lignes(), lecture.invalides(), new ArrayList<>(lecture.erreurs()));
+    }
+
+    /** Même règle que CreneauService.creerCreneauxRecurrents, développée puis importée en masse. */
+    @Transactional
+    public ImportCreneauxResultat importerRegle(CreneauRecurrentDto dto, Authentication authentication) {
+        if (Boolean.TRUE.equals(dto.getAutoReserver())) {
+            throw new RuntimeException("L'import en masse crée des créneaux libres : auto-réservation non supportée.");
+        }
+        Club club = clubConnecte(authentication);
+
+        DayOfWeek jour = DayOfWeek.valueOf(dto.getJourDeSemaine().toUpperCase());
+        int duplications = (dto.getNombreDuplications() != null && dto.getNombreDuplications() > 1)
+                ? dto.getNombreDuplications()
+                : 1;
+
+        List<LigneImport> lignes = new ArrayList<>();
+        for (LocalDate date = dto.getDateDebut().with(TemporalAdjusters.nextOrSame(jour));
+             !date.isAfter(dto.getDateFin());
+             date = date.plusWeeks(1)) {
+            for (int i = 0; i < duplications; i++) {
+                LocalDateTime debut = LocalDateTime.of(date, dto.getHeureDebut())
+                        .plusMinutes((long) i * dto.getDureeMinutes());
+                lignes.add(new LigneImport(lignes.size() + 1, dto.getTerrainId(), debut,
+                        debut.plusMinutes(dto.getDureeMinutes()), dto.getPrix(), dto.getSecondPrix()));
+            }
+        }
+        return importer(club, lignes, 0, new ArrayList<>());
+    }
+
+    private ImportCreneauxResultat importer(Club club, List<LigneImport> lignes,
+                                            int invalidesLecture, List<String> erreurs) {
+        long debut = System.nanoTime();
+        String lot = UUID.randomUUID().toString();
+
+        chargeurStaging.charger(lot, lignes);
+        verrouillerTerrains(lot, club);
+
+        marquer(lot, Verdict.INVALIDE,
+                "s.date_fin <= s.date_debut OR s.terrain_id NOT IN (SELECT t.id FROM terrain t WHERE t.club_id = ?)",
+                club.getId());
+
+        if (club.getHeureOuverture() != null && club.getHeureFermeture() != null) {
+            marquer(lot, Verdict.HORS_HORAIRES,
+                    "CAST(s.date_debut AS TIME) < ? OR CAST(s.date_fin AS TIME) > ?",
+                    club.getHeureOuverture(), club.getHeureFermeture());
+        }
+
+        // Chevauchements : c.date_debut est borné par la durée du plus long créneau, pour rester
+        // un parcours d'index court (terrain_id, date_debut) au lieu de tout l'historique du terrain
+        marquer(lot, Verdict.DOUBLON, """
+                EXISTS (SELECT 1 FROM creneau c
+                        WHERE c.terrain_id = s.terrain_id
+                          AND c.date_debut = s.date_debut AND c.date_fin = s.date_fin)""");
+        Long dureeMaxExistante = creneauRepository.dureeMaxMinutes(club.getId());
+        if (dureeMaxExistante != null && dureeMaxExistante > 0) {
+            marquer(lot, Verdict.CONFLIT, """
+                    EXISTS (SELECT 1 FROM creneau c
+                            WHERE c.terrain_id = s.terrain_id
+                              AND c.date_debut > s.date_debut - INTERVAL '%d' MINUTE
+                              AND c.date_debut < s.date_fin AND c.date_fin > s.date_debut)"""
+                    .formatted(dureeMaxExistante));
+        }
+
+        // Au sein du lot, la première ligne de la source l'emporte. Contrairement au balayage de
+        // creerCreneauxRecurrents, une ligne rejetée bloque encore les suivantes : une seule requête
+        // par contrôle, et une source qui se chevauche elle-même est de toute façon à corriger
+        marquer(lot, Verdict.DOUBLON, """
+                EXISTS (SELECT 1 FROM creneau_import o
+                        WHERE o.lot = s.lot AND o.terrain_id = s.terrain_id AND o.verdict IS NULL
+                          AND o.ligne < s.ligne
+                          AND o.date_debut = s.date_debut AND o.date_fin = s.date_fin)""");
+        long dureeMaxLot = lignes.stream()
+                .mapToLong(l -> Duration.between(l.dateDebut(), l.dateFin()).toMinutes())
+                .max().orElse(0);
+        if (dureeMaxLot > 0) {
+            marquer(lot, Verdict.CONFLIT, """
+                    EXISTS (SELECT 1 FROM creneau_import o
+                            WHERE o.lot = s.lot AND o.terrain_id = s.terrain_id AND o.verdict IS NULL
+                              AND o.ligne < s.ligne
+                              AND o.date_debut > s.date_debut - INTERVAL '%d' MINUTE
+                              AND o.date_debut < s.date_fin AND o.date_fin > s.date_debut)"""
+                    .formatted(dureeMaxLot));
+        }
+
+        Map<Verdict, Integer> verdicts = compterVerdicts(lot);
+        int invalides = invalidesLecture + verdicts.getOrDefault(Verdict.INVALIDE, 0);
+        if (verdicts.containsKey(Verdict.INVALIDE) && erreurs.size() < LecteurCsvCreneaux.MAX_ERREURS) {
+            decrireInvalides(lot, erreurs);
+        }
+
+        int crees = jdbcTemplate.update(FUSION, lot);
+        if (crees > 0) {
+            indexer(lot, club);
+            creneauxClubCache.invalider(club.getId());
+        }
+        jdbcTemplate.update("DELETE FROM creneau_import WHERE lot = ?", lot);
+
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        int demandes = lignes.size() + invalidesLecture;
+        log.info("Import {} du club {} : {} créneau(x) créé(s) sur {} ligne(s) en {} ms",
+                lot, club.getNom(), crees, demandes, dureeMs);
+
+        return new ImportCreneauxResultat(
+                String.format("%d créneau(x) importé(s) sur %d ligne(s).", crees, demandes),
+                demandes,
+                crees,
+                invalides,
+                verdicts.getOrDefault(Verdict.HORS_HORAIRES, 0),
+                verdicts.getOrDefault(Verdict.CONFLIT, 0),
+                verdicts.getOrDefault(Verdict.DOUBLON, 0),
+                erreurs,
+                dureeMs);
+    }
+
+    // Terrains du club visés par le lot ; les autres lignes seront rejetées (INVALIDE)
+    private void verrouillerTerrains(String lot, Club club) {
+        List<Long> terrainIds = jdbcTemplate.queryForList("""
+                SELECT DISTINCT s.terrain_id FROM creneau_import s
+                JOIN terrain t ON t.id = s.terrain_id
+                WHERE s.lot = ? AND t.club_id = ?""",
+                Long.class, lot, club.getId());
+        if (!terrainIds.isEmpty()) terrainRepository.verrouiller(terrainIds);
+    }
+
+    /** Attribue le verdict à toutes les lignes encore retenues du lot qui vérifient la condition. */
+    private void marquer(String lot, Verdict verdict, String condition, Object... parametres) {
+        String sql = "UPDATE creneau_import s SET verdict = '" + verdict.name() + "'"
+                + " WHERE s.lot = ? AND s.verdict IS NULL AND (" + condition + ")";
+        Object[] tous = new Object[parametres.length + 1];
+        tous[0] = lot;
+        System.arraycopy(parametres, 0, tous, 1, parametres.length);
+        int marquees = jdbcTemplate.update(sql, tous);
+        log.debug("Import {} : {} ligne(s) {}", lot, marquees, verdict);
+    }
+
+    private Map<Verdict, Integer> compterVerdicts(String lot) {
+        Map<Verdict, Integer> compteurs = new EnumMap<>(Verdict.class);
+        jdbcTemplate.query("""
+                SELECT verdict, COUNT(*) FROM creneau_import
+                WHERE lot = ? AND verdict IS NOT NULL
+                GROUP BY verdict""",
+                rs -> {
+                    compteurs.put(Verdict.valueOf(rs.getString(1)), rs.getInt(2));
+                }, lot);
+        return compteurs;
+    }
+
+    private void decrireInvalides(String lot, List<String> erreurs) {
+        List<Integer> numeros = jdbcTemplate.queryForList("""
+                SELECT ligne FROM creneau_import
+                WHERE lot = ? AND verdict = 'INVALIDE'
+                ORDER BY ligne
+                FETCH FIRST ? ROWS ONLY""",
+                Integer.class, lot, LecteurCsvCreneaux.MAX_ERREURS - erreurs.size());
+        numeros.forEach(n -> erreurs.add("Ligne " + n + " : terrain hors club ou fin avant début"));
+    }
+
+    // Reflète les créneaux insérés dans l'index (journalisé : annulé si la transaction échoue)
+    private void indexer(String lot, Club club) {
+        Map<Long, Terrain> terrains = terrainRepository.findByClub(club).stream()
+                .collect(Collectors.toMap(Terrain::getId, Function.identity()));
+        jdbcTemplate.query("""
+                SELECT creneau_id, terrain_id, date_debut, date_fin, prix, second_prix
+                FROM creneau_import
+                WHERE lot = ? AND verdict IS NULL""",
+                rs -> {
+                    Creneau c = new Creneau();
+                    c.setId(rs.getLong(1));
+                    c.setTerrain(terrains.get(rs.getLong(2)));
+                    c.setDateDebut(rs.getTimestamp(3).toLocalDateTime());
+                    c.setDateFin(rs.getTimestamp(4).toLocalDateTime());
+                    c.setPrix(rs.getObject(5, Double.class));
+                    c.setSecondPrix(rs.getObject(6, Double.class));
+                    c.setStatut(Statut.LIBRE);
+                    c.setDisponible(true);
+                    disponibiliteIndex.appliquer(c);
+                }, lot);
+        terrains.keySet().forEach(id -> busCluster.publier(DisponibiliteIndexLoader.TERRAIN, id));
+    }
+
+    private Club clubConnecte(Authentication authentication) {
+        Utilisateur utilisateur = utilisateurRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+        if (!(utilisateur instanceof Club club)) {
+            throw new RuntimeException("L'utilisateur n'est pas un club.");
+        }
+        return club;
+    }
+}
@@ -0,0 +1,80 @@
+package com.fieldz.service.importation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture d'un CSV de créneaux : terrainId;dateDebut;dateFin;prix[;secondPrix]
+ *
+ * - Séparateur ";" (export Excel FR, prix avec virgule décimale accepté) ou ",".
+ * - Dates ISO, avec "T" ou une espace : 2026-11-02T18:00 / 2026-11-02 18:00.
+ * - Une première ligne non numérique est considérée comme un en-tête.
+ * Les lignes illisibles sont comptées et décrites, sans interrompre la lecture.
+ */
+public final class LecteurCsvCreneaux {
+
+    // Au-delà, les erreurs sont seulement comptées
+    static final int MAX_ERREURS = 50;
+
+    public record Lecture(List<LigneImport> lignes, int invalides, List<String> erreurs) {
+    }
+
+    private LecteurCsvCreneaux() {
+    }
+
+    public static Lecture lire(Reader source) throws IOException {
+        List<LigneImport> lignes = new ArrayList<>();
+        List<String> erreurs = new ArrayList<>();
+        int invalides = 0;
+        int numero = 0;
+
+        BufferedReader reader = new BufferedReader(source);
+        String texte;
+        while ((texte = reader.readLine()) != null) {
+            numero++;
+            texte = texte.strip();
+            if (texte.isEmpty()) continue;
+            if (numero == 1 && !Character.isDigit(texte.charAt(0))) continue; // en-tête
+
+            try {
+                lignes.add(parser(numero, texte));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                invalides++;
+                if (erreurs.size() < MAX_ERREURS) {
+                    erreurs.add("Ligne " + numero + " : " + e.getMessage());
+                }
+            }
+        }
+        return new Lecture(lignes, invalides, erreurs);
+    }
+
+    private static LigneImport parser(int numero, String texte) {
+        boolean pointVirgule = texte.indexOf(';') >= 0;
+        String[] champs = texte.split(pointVirgule ? ";" : ",", -1);
+        if (champs.length < 4 || champs.length > 5) {
+            throw new IllegalArgumentException("4 ou 5 colonnes attendues, " + champs.length + " trouvée(s)");
+        }
+        return new LigneImport(
+                numero,
+                Long.valueOf(champs[0].strip()),
+                date(champs[1]),
+                date(champs[2]),
+                prix(champs[3], pointVirgule),
+                champs.length == 5 ? prix(champs[4], pointVirgule) : null);
+    }
+
+    private static LocalDateTime date(String champ) {
+        return LocalDateTime.parse(champ.strip().replace(' ', 'T'));
+    }
+
+    private static Double prix(String champ, boolean virguleDecimale) {
+        String valeur = champ.strip();
+        if (valeur.isEmpty()) return null;
+        return Double.valueOf(virguleDecimale ? valeur.replace(',', '.') : valeur);
+    }
+}
@@ -0,0 +1,12 @@
+package com.fieldz.service.importation;
+
+import java.time.LocalDateTime;
+
+/** Un créneau à importer, tel que lu dans un CSV ou produit par l'expansion d'une règle récurrente. */
+public record LigneImport(int ligne,
+                          Long terrainId,
+                          LocalDateTime dateDebut,
+                          LocalDateTime dateFin,
+                          Double prix,
+                          Double secondPrix) {
+}
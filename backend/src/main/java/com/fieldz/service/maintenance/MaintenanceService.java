@@ -0,0 +1,127 @@
+package com.fieldz.service.maintenance;
+
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.OtpService;
+import com.fieldz.service.PasswordResetService;
+import com.fieldz.service.RefreshTokenService;
+import com.fieldz.service.cluster.BusCluster;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Purges de maintenance : tokens et codes expirés, notifications hors rétention, événements
+ * du bus cluster déjà relevés.
+ *
+ * Chaque purge supprime par petits lots, une transaction courte par lot (ids puis DELETE ... IN),
+ * avec une pause entre deux lots : aucun verrou long sur les tables de connexion. Une purge
+ * s'arrête au bout de son budget de temps ; le reste part au passage suivant.
+ * Métriques par purge : fieldz.maintenance.supprimees, .duree, .interrompues (tag tache).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaintenanceService {
+
+    public record Bilan(String tache, int supprimees, int lots, boolean interrompue) {}
+
+    private final RefreshTokenService refreshTokenService;
+    private final OtpService otpService;
+    private final PasswordResetService passwordResetService;
+    private final NotificationService notificationService;
+    private final BusCluster busCluster;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.maintenance.batch-size:500}")
+    private int tailleLot = 500;
+
+    // Budget de temps par purge
+    @Value("${app.maintenance.budget-ms:30000}")
+    private long budgetMs = 30000;
+
+    @Value("${app.maintenance.pause-ms:50}")
+    private long pauseMs = 50;
+
+    @Value("${app.maintenance.retention.notifications-jours:365}")
+    private int retentionNotificationsJours = 365;
+
+    @Value("${app.maintenance.retention.notifications-lues-jours:90}")
+    private int retentionNotificationsLuesJours = 90;
+
+    @Value("${app.maintenance.retention.notifications-envoyees-jours:30}")
+    private int retentionNotificationsEnvoyeesJours = 30;
+
+    @Value("${app.maintenance.retention.evenements-cluster-heures:1}")
+    private int retentionEvenementsClusterHeures = 1;
+
+    public List<Bilan> executer() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        // Une entrée par purge : un lot de taille donnée -> lignes supprimées
+        Map<String, IntUnaryOperator> purges = new LinkedHashMap<>();
+        purges.put("refresh-tokens", refreshTokenService::cleanupExpired);
+        purges.put("otp-codes", otpService::cleanupExpiredOtps);
+        purges.put("password-reset-tokens", passwordResetService::cleanupExpired);
+        purges.put("notifications", taille -> notificationService.purgerNotifications(
+                maintenant.minusDays(retentionNotificationsJours),
+                maintenant.minusDays(retentionNotificationsLuesJours), taille));
+        purges.put("notifications-envoyees", taille -> notificationService.purgerNotificationsEnvoyees(
+                maintenant.minusDays(retentionNotificationsEnvoyeesJours), taille));
+        purges.put("evenements-cluster", taille -> busCluster.purger(
+                maintenant.minusHours(retentionEvenementsClusterHeures), taille));
+
+        List<Bilan> bilans = new ArrayList<>(purges.size());
+        purges.forEach((tache, lot) -> bilans.add(purger(tache, lot)));
+        return bilans;
+    }
+
+    private Bilan purger(String tache, IntUnaryOperator lot) {
+        long debut = System.nanoTime();
+        long limite = debut + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        int supprimees = 0;
+        int lots = 0;
+        boolean interrompue = false;
+        try {
+            while (true) {
+                int n = lot.applyAsInt(tailleLot);
+                supprimees += n;
+                lots++;
+                if (n < tailleLot) break;
+                if (System.nanoTime() >= limite) {
+                    interrompue = true;
+                    break;
+                }
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            interrompue = true;
+        } catch (RuntimeException e) {
+            // Les lots déjà committés restent acquis ; les purges suivantes passent quand même
+            log.warn("Maintenance {} en échec après {} ligne(s) : {}", tache, supprimees, e.getMessage());
+            interrompue = true;
+        }
+
+        meterRegistry.counter("fieldz.maintenance.supprimees", "tache", tache).increment(supprimees);
+        Timer.builder("fieldz.maintenance.duree").tag("tache", tache).register(meterRegistry)
+                .record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        if (interrompue) {
+            meterRegistry.counter("fieldz.maintenance.interrompues", "tache", tache).increment();
+        }
+        if (supprimees > 0) {
+            log.info("🧹 Maintenance {} : {} ligne(s) supprimée(s) en {} lot(s){}", tache, supprimees, lots,
+                    interrompue ? ", reste au prochain passage" : "");
+        }
+        return new Bilan(tache, supprimees, lots, interrompue);
+    }
+}
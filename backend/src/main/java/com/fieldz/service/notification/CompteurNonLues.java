@@ -0,0 +1,99 @@
+package com.fieldz.service.notification;
+
+import com.fieldz.repository.NotificationRepository;
+import com.fieldz.service.cluster.BusCluster;
+import com.fieldz.service.cluster.EvenementDistant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nombre de notifications non lues par utilisateur, compté en base au premier accès puis gardé
+ * jusqu'à la prochaine création / lecture / purge.
+ *
+ * Le comptage se fait hors de la map (pas de requête sous le verrou d'un seau) ; comme pour
+ * CreneauxClubCache, il n'est gardé que si aucune éviction n'a eu lieu pendant la requête
+ * (génération inchangée) : un compte lu avant une éviction ne peut pas lui survivre. Une écriture
+ * évince tout de suite puis à la fin de sa transaction, et signale l'éviction aux autres noeuds
+ * par BusCluster (type {@link #NON_LUES}). Le TTL (60 s par défaut) couvre un événement perdu.
+ */
+@Component
+@RequiredArgsConstructor
+public class CompteurNonLues {
+
+    /** Le nombre de non lues d'un utilisateur a changé (cle : id de l'utilisateur, null : tous). */
+    public static final String NON_LUES = "NON_LUES";
+
+    private record Compte(long valeur, long expireA) {}
+
+    private final NotificationRepository notificationRepository;
+    private final ObjectProvider<BusCluster> bus;
+
+    @Value("${app.notifications.non-lues.max-entries:20000}")
+    private int maxEntrees = 20000;
+
+    @Value("${app.notifications.non-lues.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    private final Map<Long, Compte> valeurs = new ConcurrentHashMap<>();
+    // Incrémentée à chaque éviction, quelle que soit la clé : grossier, mais sans état par utilisateur
+    private final AtomicLong generation = new AtomicLong();
+
+    public long get(Long utilisateurId) {
+        long maintenant = System.currentTimeMillis();
+        Compte compte = valeurs.get(utilisateurId);
+        if (compte != null && compte.expireA() > maintenant) return compte.valeur();
+        long generationLue = generation.get();
+        long valeur = notificationRepository.countByDestinataireIdAndLueFalse(utilisateurId);
+        // Borne grossière : pas d'LRU, le cache se reconstruit au fil des accès
+        if (valeurs.size() >= maxEntrees) valeurs.clear();
+        Compte nouveau = new Compte(valeur, maintenant + ttlSeconds * 1000);
+        valeurs.merge(utilisateurId, nouveau, (ancien, n) -> ancien.expireA() > maintenant ? ancien : n);
+        // Évincé pendant la requête : le compte est peut-être déjà périmé, on ne le garde pas
+        if (generation.get() != generationLue) valeurs.remove(utilisateurId, nouveau);
+        return valeur;
+    }
+
+    /** utilisateurId null : tous les compteurs (purge). */
+    public void invalider(Long utilisateurId) {
+        evincer(utilisateurId);
+        // BusCluster écrit après le commit (rien pour un rollback) et dédoublonne par transaction
+        bus.ifAvailable(b -> b.publier(NON_LUES, utilisateurId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evincer(utilisateurId);
+                }
+            });
+        }
+    }
+
+    // Invalidations des autres noeuds : appliquées ici seulement, sans nouvelle diffusion
+    @EventListener
+    public void surEvenementDistant(EvenementDistant evenement) {
+        if (!evenement.est(NON_LUES)) return;
+        if (evenement.cles() == null) {
+            evincer(null);
+        } else {
+            evenement.cles().forEach(this::evincer);
+        }
+    }
+
+    void evincer(Long utilisateurId) {
+        generation.incrementAndGet();
+        if (utilisateurId == null) {
+            valeurs.clear();
+        } else {
+            valeurs.remove(utilisateurId);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.fieldz.service.notification;
+
+/** Le nombre de notifications non lues de l'utilisateur a changé (lecture). */
+public record NonLuesModifiees(Long destinataireId) {}
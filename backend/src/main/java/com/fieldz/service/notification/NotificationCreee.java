@@ -0,0 +1,6 @@
+package com.fieldz.service.notification;
+
+import com.fieldz.dto.NotificationDto;
+
+/** Publié par NotificationService à chaque notification in-app enregistrée ; poussé après le commit. */
+public record NotificationCreee(Long destinataireId, NotificationDto notification) {}
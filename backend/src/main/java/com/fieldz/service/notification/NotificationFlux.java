@@ -0,0 +1,210 @@
+package com.fieldz.service.notification;
+
+import com.fieldz.dto.NotificationDto;
+import com.fieldz.mapper.NotificationMapper;
+import com.fieldz.model.Notification;
+import com.fieldz.repository.NotificationRepository;
+import com.fieldz.service.cluster.EvenementDistant;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Flux SSE des notifications in-app, par utilisateur connecté : remplace le polling de /mine.
+ *
+ * Événements : "notification" (id = curseur (dateEnvoi, id), à renvoyer en Last-Event-ID pour
+ * reprendre après une coupure) et "non-lues" (compteur). Un commentaire "ping" part toutes les
+ * app.notifications.flux.heartbeat-ms pour garder la connexion ouverte derrière les proxys.
+ *
+ * Limites : au plus max-par-utilisateur flux par utilisateur (le plus ancien est fermé) et
+ * max-connexions au total (503 au-delà).
+ *
+ * Plusieurs instances : une notification créée ailleurs est signalée par BusCluster (type
+ * {@link #NOTIFICATION}, cle = id de la notification), relue ici et poussée aux flux ouverts sur ce
+ * noeud, à la relève suivante ; de même pour les compteurs ({@link CompteurNonLues#NON_LUES}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationFlux {
+
+    /** Notification in-app créée (cle : id de la notification). */
+    public static final String NOTIFICATION = "NOTIFICATION";
+
+    private final CompteurNonLues compteurNonLues;
+    private final NotificationRepository notificationRepository;
+    private final NotificationMapper notificationMapper;
+
+    @Value("${app.notifications.flux.max-par-utilisateur:3}")
+    private int maxParUtilisateur = 3;
+
+    @Value("${app.notifications.flux.max-connexions:5000}")
+    private int maxConnexions = 5000;
+
+    @Value("${app.notifications.flux.timeout-ms:1800000}")
+    private long timeoutMs = 1800000;
+
+    private final Map<Long, Deque<SseEmitter>> parUtilisateur = new ConcurrentHashMap<>();
+    private final AtomicInteger connexions = new AtomicInteger();
+
+    /** Curseur d'une notification : sert d'id d'événement SSE et de curseur de pagination. */
+    public static String curseur(NotificationDto n) {
+        String brut = n.getDateEnvoi() + "|" + n.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ouvre un flux ; les notifications de {@code rattrapage} (plus anciennes d'abord) partent en
+     * premier. Le flux est enregistré avant de lire le rattrapage : une notification committée entre
+     * les deux n'est pas perdue, au pire reçue deux fois sous le même id.
+     */
+    public SseEmitter ouvrir(Long utilisateurId, Supplier<List<NotificationDto>> rattrapage) {
+        if (connexions.incrementAndGet() > maxConnexions) {
+            connexions.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Trop de connexions ouvertes, réessayez plus tard.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> retirer(utilisateurId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> retirer(utilisateurId, emitter));
+
+        Deque<SseEmitter> flux = parUtilisateur.compute(utilisateurId, (id, d) -> {
+            Deque<SseEmitter> deque = d != null ? d : new ConcurrentLinkedDeque<>();
+            deque.addLast(emitter);
+            return deque;
+        });
+        // Au-delà de la limite : les connexions les plus anciennes de l'utilisateur sont fermées
+        while (flux.size() > maxParUtilisateur) {
+            SseEmitter ancien = flux.pollFirst();
+            if (ancien == null) break;
+            connexions.decrementAndGet();
+            ancien.complete();
+        }
+
+        for (NotificationDto n : rattrapage.get()) {
+            if (!envoyer(utilisateurId, emitter, evenement(n))) return emitter;
+        }
+        envoyer(utilisateurId, emitter, nonLues(compteurNonLues.get(utilisateurId)));
+        return emitter;
+    }
+
+    public int connexions(Long utilisateurId) {
+        Deque<SseEmitter> flux = parUtilisateur.get(utilisateurId);
+        return flux == null ? 0 : flux.size();
+    }
+
+    // Après le commit (ou tout de suite hors transaction) : jamais de notification annulée poussée
+    @TransactionalEventListener(fallbackExecution = true)
+    public void pousser(NotificationCreee evenement) {
+        Deque<SseEmitter> flux = parUtilisateur.get(evenement.destinataireId());
+        if (flux == null) return;
+        compteurNonLues.evincer(evenement.destinataireId());
+        long nonLues = compteurNonLues.get(evenement.destinataireId());
+        for (SseEmitter emitter : flux) {
+            if (envoyer(evenement.destinataireId(), emitter, evenement(evenement.notification()))) {
+                envoyer(evenement.destinataireId(), emitter, nonLues(nonLues));
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void pousser(NonLuesModifiees evenement) {
+        pousserNonLues(evenement.destinataireId());
+    }
+
+    // Notifications créées et compteurs modifiés sur un autre noeud, pour les flux ouverts ici
+    @EventListener
+    public void surEvenementDistant(EvenementDistant evenement) {
+        if (parUtilisateur.isEmpty()) return;
+        if (evenement.est(NOTIFICATION) && evenement.cles() != null) {
+            for (Notification n : notificationRepository.findByIdInOrderByDateEnvoiAscIdAsc(evenement.cles())) {
+                Long destinataireId = n.getDestinataire().getId();
+                Deque<SseEmitter> flux = parUtilisateur.get(destinataireId);
+                if (flux == null) continue;
+                NotificationDto dto = notificationMapper.toDto(n);
+                for (SseEmitter emitter : flux) {
+                    envoyer(destinataireId, emitter, evenement(dto));
+                }
+            }
+        } else if (evenement.est(CompteurNonLues.NON_LUES)) {
+            Collection<Long> utilisateurs = evenement.cles() != null ? evenement.cles() : List.copyOf(parUtilisateur.keySet());
+            utilisateurs.forEach(this::pousserNonLues);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.notifications.flux.heartbeat-ms:25000}")
+    public void battre() {
+        parUtilisateur.forEach((utilisateurId, flux) -> {
+            for (SseEmitter emitter : flux) {
+                envoyer(utilisateurId, emitter, SseEmitter.event().comment("ping"));
+            }
+        });
+    }
+
+    @PreDestroy
+    void fermer() {
+        parUtilisateur.values().forEach(flux -> flux.forEach(SseEmitter::complete));
+        parUtilisateur.clear();
+        connexions.set(0);
+    }
+
+    private void pousserNonLues(Long utilisateurId) {
+        Deque<SseEmitter> flux = parUtilisateur.get(utilisateurId);
+        if (flux == null) return;
+        compteurNonLues.evincer(utilisateurId);
+        long nonLues = compteurNonLues.get(utilisateurId);
+        for (SseEmitter emitter : flux) {
+            envoyer(utilisateurId, emitter, nonLues(nonLues));
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder evenement(NotificationDto n) {
+        return SseEmitter.event().id(curseur(n)).name("notification").data(n);
+    }
+
+    private static SseEmitter.SseEventBuilder nonLues(long nombre) {
+        return SseEmitter.event().name("non-lues").data(Map.of("nonLues", nombre));
+    }
+
+    // false si le client est parti : le flux est retiré
+    private boolean envoyer(Long utilisateurId, SseEmitter emitter, SseEmitter.SseEventBuilder evenement) {
+        try {
+            emitter.send(evenement);
+            return true;
+        } catch (Exception e) {
+            log.debug("Flux SSE de l'utilisateur {} fermé : {}", utilisateurId, e.getMessage());
+            retirer(utilisateurId, emitter);
+            return false;
+        }
+    }
+
+    private void retirer(Long utilisateurId, SseEmitter emitter) {
+        AtomicBoolean retire = new AtomicBoolean();
+        parUtilisateur.computeIfPresent(utilisateurId, (id, flux) -> {
+            retire.set(flux.remove(emitter));
+            return flux.isEmpty() ? null : flux;
+        });
+        if (retire.get()) connexions.decrementAndGet();
+    }
+}
@@ -0,0 +1,187 @@
+package com.fieldz.service.partitionnement;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Entretien des partitions mensuelles de creneau (date_debut) et reservation (date_debut_creneau),
+ * créées par la migration PostgreSQL V14.
+ *
+ * - crée à l'avance les partitions des mois à venir ;
+ * - détache les partitions plus anciennes que la rétention et les range dans le schéma archive
+ *   (toujours interrogeables, hors des requêtes courantes), sans leurs clés étrangères.
+ *
+ * Les deux tables partagent les mêmes bornes : un mois est archivé en paire, reservation d'abord
+ * puisque sa clé étrangère pointe vers creneau. Sans effet hors PostgreSQL (H2 en dev/test).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionsMensuellesService {
+
+    static final String SCHEMA_ARCHIVE = "archive";
+
+    private static final Pattern SUFFIXE = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+    private static final DateTimeFormatter FORMAT_SUFFIXE = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Nombre de mois futurs dont la partition doit exister
+    @Value("${app.partitions.mois-a-l-avance:12}")
+    private int moisALAvance = 12;
+
+    // Mois conservés dans les tables courantes (0 : pas d'archivage)
+    @Value("${app.partitions.retention-mois:24}")
+    private int retentionMois = 24;
+
+    /** Table partitionnée et sa clé de partitionnement. */
+    enum TablePartitionnee {
+        // Ordre d'archivage : reservation référence creneau
+        RESERVATION("reservation", "date_debut_creneau"),
+        CRENEAU("creneau", "date_debut");
+
+        final String nom;
+        final String cle;
+
+        TablePartitionnee(String nom, String cle) {
+            this.nom = nom;
+            this.cle = cle;
+        }
+
+        String partition(YearMonth mois) {
+            return nom + "_p" + mois.format(FORMAT_SUFFIXE);
+        }
+
+        String defaut() {
+            return nom + "_defaut";
+        }
+    }
+
+    public record Bilan(int creees, int archivees, int ignorees) {
+    }
+
+    public Bilan maintenir(YearMonth moisCourant) {
+        if (!estPartitionne()) {
+            return new Bilan(0, 0, 0);
+        }
+
+        int creees = 0;
+        int ignorees = 0;
+        for (YearMonth mois = moisCourant; !mois.isAfter(moisCourant.plusMonths(moisALAvance)); mois = mois.plusMonths(1)) {
+            for (TablePartitionnee table : TablePartitionnee.values()) {
+                switch (creer(table, mois)) {
+                    case CREEE -> creees++;
+                    case IGNOREE -> ignorees++;
+                    case EXISTANTE -> { }
+                }
+            }
+        }
+
+        int archivees = 0;
+        if (retentionMois > 0) {
+            YearMonth limite = moisCourant.minusMonths(retentionMois);
+            for (YearMonth mois : moisAttaches()) {
+                if (!mois.isBefore(limite)) break;
+                YearMonth m = mois;
+                transactionTemplate.executeWithoutResult(status -> archiver(m));
+                archivees++;
+            }
+        }
+        return new Bilan(creees, archivees, ignorees);
+    }
+
+    // ======================== Création ========================
+
+    private enum Creation { CREEE, EXISTANTE, IGNOREE }
+
+    private Creation creer(TablePartitionnee table, YearMonth mois) {
+        String partition = table.partition(mois);
+        if (partitionsAttachees(table).contains(partition)) {
+            return Creation.EXISTANTE;
+        }
+
+        Timestamp debut = Timestamp.valueOf(mois.atDay(1).atStartOfDay());
+        Timestamp fin = Timestamp.valueOf(mois.plusMonths(1).atDay(1).atStartOfDay());
+        // Des lignes du mois déjà tombées dans la partition par défaut empêchent la création :
+        // elles y restent (lisibles, sans élagage) jusqu'à un déplacement manuel
+        Boolean occupee = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + table.defaut() + " WHERE " + table.cle + " >= ? AND " + table.cle + " < ?)",
+                Boolean.class, debut, fin);
+        if (Boolean.TRUE.equals(occupee)) {
+            log.warn("Partition {} non créée : {} contient déjà des lignes de {}", partition, table.defaut(), mois);
+            return Creation.IGNOREE;
+        }
+
+        jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                partition, table.nom, mois.atDay(1), mois.plusMonths(1).atDay(1)));
+        log.info("Partition {} créée", partition);
+        return Creation.CREEE;
+    }
+
+    // ======================== Archivage ========================
+
+    private void archiver(YearMonth mois) {
+        for (TablePartitionnee table : TablePartitionnee.values()) {
+            String partition = table.partition(mois);
+            if (!partitionsAttachees(table).contains(partition)) continue;
+
+            jdbcTemplate.execute("ALTER TABLE " + table.nom + " DETACH PARTITION " + partition);
+            // L'archive est figée : plus de cascade ni de contrôle vers les tables courantes
+            for (String fk : jdbcTemplate.queryForList(
+                    "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'f'",
+                    String.class, partition)) {
+                jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT \"" + fk + "\"");
+            }
+            jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + SCHEMA_ARCHIVE);
+        }
+        log.info("Mois {} archivé dans le schéma {}", mois, SCHEMA_ARCHIVE);
+    }
+
+    /** Mois ayant au moins une partition attachée, par ordre croissant. */
+    private Set<YearMonth> moisAttaches() {
+        Set<YearMonth> mois = new TreeSet<>();
+        for (TablePartitionnee table : TablePartitionnee.values()) {
+            for (String partition : partitionsAttachees(table)) {
+                YearMonth m = moisDe(partition);
+                if (m != null) mois.add(m);
+            }
+        }
+        return mois;
+    }
+
+    private Set<String> partitionsAttachees(TablePartitionnee table) {
+        return new TreeSet<>(jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?)""", String.class, table.nom));
+    }
+
+    /** Mois d'une partition mensuelle d'après son nom, null pour la partition par défaut. */
+    static YearMonth moisDe(String partition) {
+        Matcher m = SUFFIXE.matcher(partition);
+        return m.find() ? YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))) : null;
+    }
+
+    private boolean estPartitionne() {
+        String produit = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(produit)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass('creneau') AND relkind = 'p')",
+                Boolean.class));
+    }
+}
@@ -0,0 +1,7 @@
+package com.fieldz.service.rappel;
+
+import java.time.LocalDateTime;
+
+/** Réservation dont le rappel est à replanifier au démarrage (projection JPQL, sans charger l'entité). */
+public record RappelAPlanifier(Long reservationId, LocalDateTime dateDebut) {
+}
@@ -0,0 +1,117 @@
+package com.fieldz.service.rappel;
+
+import com.fieldz.model.Statut;
+import com.fieldz.repository.ReservationRepository;
+import com.fieldz.scheduler.RoueTemporelle;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.cluster.BailTaches;
+import com.fieldz.service.cluster.Partition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Rappels 2h avant, chacun planifié à l'heure exacte sur la {@link RoueTemporelle} :
+ * à la réservation, retiré à l'annulation, replanifié si le club déplace le créneau.
+ * Appelé dans une transaction, le changement n'est appliqué qu'après le commit.
+ *
+ * La roue ne garde que les rappels dus dans app.rappels.horizon-heures : une réservation plus
+ * lointaine n'y entre qu'au balayage qui la fait passer dans l'horizon.
+ *
+ * La roue n'est pas persistée : {@link #reconstruire} rattrape les rappels déjà dus (envoi groupé,
+ * sur un seul noeud) et planifie ceux de l'horizon des clubs de la partition du noeud. Appelé au
+ * démarrage, quand la partition change, et en balayage périodique (NotificationScheduler) : filet
+ * pour un rappel perdu (noeud mort avant la replanification, planification après commit manquée).
+ * Un rappel planifié sur deux noeuds n'est envoyé qu'une fois (index unique de notification_envoyee).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RappelService {
+
+    static final Duration AVANCE = Duration.ofHours(2);
+
+    private final RoueTemporelle roueTemporelle;
+    private final NotificationService notificationService;
+    private final ReservationRepository reservationRepository;
+    private final BailTaches bailTaches;
+
+    @Value("${app.rappels.horizon-heures:24}")
+    private long horizonHeures = 24;
+
+    public void planifier(Long reservationId, LocalDateTime debutCreneau) {
+        if (reservationId == null || debutCreneau == null) return;
+        apresCommit(() -> {
+            LocalDateTime maintenant = LocalDateTime.now();
+            LocalDateTime echeance = debutCreneau.minus(AVANCE);
+            if (!debutCreneau.isAfter(maintenant)) return;
+            if (echeance.isAfter(maintenant.plusHours(horizonHeures))) {
+                // Hors horizon : planifié par un balayage ultérieur ; retire une échéance devenue caduque
+                roueTemporelle.annuler(cle(reservationId));
+                return;
+            }
+            roueTemporelle.planifier(cle(reservationId), echeance, () -> envoyer(reservationId));
+        });
+    }
+
+    public void annuler(Long reservationId) {
+        if (reservationId == null) return;
+        apresCommit(() -> roueTemporelle.annuler(cle(reservationId)));
+    }
+
+    public boolean estPlanifie(Long reservationId) {
+        return roueTemporelle.estPlanifiee(cle(reservationId));
+    }
+
+    /** @return nombre de rappels planifiés sur la roue */
+    public int reconstruire(Partition partition) {
+        try {
+            bailTaches.executerSeul("rappels-rattrapage", Duration.ofMinutes(10), Duration.ZERO,
+                    notificationService::envoyerRappels2hAvant);
+        } catch (DataIntegrityViolationException e) {
+            // Rappel envoyé entre-temps par la roue d'une autre instance
+            log.info("Rattrapage des rappels 2h en concurrence avec une autre instance");
+        }
+        LocalDateTime apres = LocalDateTime.now().plus(AVANCE);
+        int planifies = 0;
+        for (RappelAPlanifier r : reservationRepository.findRappelsAPlanifier(apres, apres.plusHours(horizonHeures),
+                Statut.RESERVE, NotificationService.RAPPEL_2H, partition.index(), partition.total())) {
+            planifier(r.reservationId(), r.dateDebut());
+            planifies++;
+        }
+        return planifies;
+    }
+
+    private void envoyer(Long reservationId) {
+        try {
+            notificationService.envoyerRappel2h(reservationId, AVANCE);
+        } catch (DataIntegrityViolationException e) {
+            // Déjà envoyé par une autre instance
+            log.debug("Rappel de la réservation {} déjà envoyé", reservationId);
+        }
+    }
+
+    private static String cle(Long reservationId) {
+        return NotificationService.RAPPEL_2H + ":" + reservationId;
+    }
+
+    private static void apresCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.fieldz.service.statistiques;
+
+import com.fieldz.model.Statut;
+
+/** Totaux d'un jour pour un (club, terrain, statut), agrégés en SQL lors de la réconciliation. */
+public record AgregatRollup(Long clubId,
+                            Long terrainId,
+                            Statut statut,
+                            Long nombre,
+                            Double revenu,
+                            Long minutes) {
+}
@@ -0,0 +1,39 @@
+package com.fieldz.service.statistiques;
+
+import com.fieldz.model.Creneau;
+import org.hibernate.Hibernate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** Données d'un créneau nécessaires au rollup (projection JPQL, sans charger l'entité). */
+public record CreneauRollup(Long creneauId,
+                            Long clubId,
+                            Long terrainId,
+                            LocalDateTime dateDebut,
+                            LocalDateTime dateFin,
+                            Double prix) {
+
+    /** Null si le terrain ou le club n'est pas chargé (aucune requête ici). */
+    public static CreneauRollup de(Creneau creneau) {
+        if (!Hibernate.isInitialized(creneau) || creneau.getTerrain() == null
+                || !Hibernate.isInitialized(creneau.getTerrain()) || creneau.getTerrain().getClub() == null) {
+            return null;
+        }
+        return new CreneauRollup(creneau.getId(), creneau.getTerrain().getClub().getId(),
+                creneau.getTerrain().getId(), creneau.getDateDebut(), creneau.getDateFin(), creneau.getPrix());
+    }
+
+    LocalDate jour() {
+        return dateDebut.toLocalDate();
+    }
+
+    long minutes() {
+        return dateFin != null ? Math.max(0, Duration.between(dateDebut, dateFin).toMinutes()) : 0;
+    }
+
+    double prixOuZero() {
+        return prix != null ? prix : 0.0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.fieldz.service.statistiques;
+
+import com.fieldz.model.Creneau;
+import com.fieldz.model.Reservation;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Listener JPA qui signale à {@link StatistiqueRollupService} chaque changement de statut
+ * (ou de créneau) d'une réservation, quel que soit le service à l'origine de l'écriture.
+ * Déclaré dans META-INF/orm.xml : l'entité ne connaît pas le rollup. Le dernier état connu de
+ * chaque réservation (chargée ou écrite) est gardé ici, le temps de la transaction.
+ * Aucun accès base ici : les données d'un créneau non chargé sont lues après le commit.
+ */
+public class ReservationRollupListener {
+
+    private final ObjectProvider<StatistiqueRollupService> rollup;
+
+    public ReservationRollupListener(ObjectProvider<StatistiqueRollupService> rollup) {
+        this.rollup = rollup;
+    }
+
+    @PostLoad
+    public void apresChargement(Reservation reservation) {
+        Map<Reservation, StatistiqueRollupService.Etat> etats = etats();
+        if (etats != null) etats.put(reservation, etat(reservation));
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void apresEcriture(Reservation reservation) {
+        StatistiqueRollupService.Etat apres = etat(reservation);
+        Map<Reservation, StatistiqueRollupService.Etat> etats = etats();
+        StatistiqueRollupService.Etat avant = etats != null ? etats.put(reservation, apres) : null;
+        rollup.ifAvailable(r -> r.variation(avant, apres));
+    }
+
+    @PostRemove
+    public void apresSuppression(Reservation reservation) {
+        Map<Reservation, StatistiqueRollupService.Etat> etats = etats();
+        StatistiqueRollupService.Etat avant = etats != null ? etats.remove(reservation) : null;
+        rollup.ifAvailable(r -> r.variation(avant, null));
+    }
+
+    /** États de la transaction courante, par instance d'entité ; null hors transaction. */
+    @SuppressWarnings("unchecked")
+    private Map<Reservation, StatistiqueRollupService.Etat> etats() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        Map<Reservation, StatistiqueRollupService.Etat> etats =
+                (Map<Reservation, StatistiqueRollupService.Etat>) TransactionSynchronizationManager.getResource(this);
+        if (etats == null) {
+            etats = new IdentityHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, etats);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReservationRollupListener.this);
+                }
+            });
+        }
+        return etats;
+    }
+
+    private static StatistiqueRollupService.Etat etat(Reservation reservation) {
+        Creneau creneau = reservation.getCreneau();
+        if (creneau == null) {
+            return new StatistiqueRollupService.Etat(reservation.getStatut(), null, null);
+        }
+        // getId() sur un proxy n'initialise pas l'entité
+        return new StatistiqueRollupService.Etat(reservation.getStatut(), creneau.getId(), CreneauRollup.de(creneau));
+    }
+}
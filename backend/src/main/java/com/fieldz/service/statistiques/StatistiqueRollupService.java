@@ -0,0 +1,230 @@
+package com.fieldz.service.statistiques;
+
+import com.fieldz.model.Reservation;
+import com.fieldz.model.Statut;
+import com.fieldz.model.StatistiqueJournaliere;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.ReservationRepository;
+import com.fieldz.repository.StatistiqueJournaliereRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Maintient la table statistique_journaliere.
+ *
+ * - Incrémental : ReservationRollupListener signale chaque changement (statut ou créneau)
+ *   d'une réservation, CreneauService chaque modification d'un créneau réservé ; les variations sont cumulées par transaction et appliquées
+ *   après le commit, dans une transaction séparée (un échec ne casse jamais l'action métier).
+ * - Réconciliation : {@link #reconcilier} recalcule une plage de jours depuis les réservations,
+ *   un jour par transaction, agrégé en SQL (GROUP BY). Les lignes du jour sont verrouillées puis
+ *   mises à jour en place : un incrément concurrent attend la fin du jour et s'ajoute au total
+ *   recalculé au lieu d'être écrasé. Une variation committée juste avant l'agrégation mais
+ *   appliquée après reste comptée deux fois jusqu'au passage suivant (fenêtre de quelques ms).
+ */
+@Slf4j
+@Service
+public class StatistiqueRollupService {
+
+    /** Etat d'une réservation vu par le rollup (creneau peut être null si non chargé). */
+    public record Etat(Statut statut, Long creneauId, CreneauRollup creneau) {
+        // Un créneau non chargé sera relu après le commit : seules ses données connues des deux côtés sont comparées
+        boolean memeContribution(Etat autre) {
+            return autre != null && statut == autre.statut && Objects.equals(creneauId, autre.creneauId)
+                    && (creneau == null || autre.creneau == null || creneau.equals(autre.creneau));
+        }
+    }
+
+    private record Cle(Long clubId, Long terrainId, LocalDate jour, Statut statut) {}
+
+    private static final class Variation {
+        long nombre;
+        double revenu;
+        long minutes;
+
+        boolean estNulle() {
+            return nombre == 0 && revenu == 0.0 && minutes == 0;
+        }
+    }
+
+    private final StatistiqueJournaliereRepository rollupRepository;
+    private final ReservationRepository reservationRepository;
+    private final CreneauRepository creneauRepository;
+    private final TransactionTemplate nouvelleTransaction;
+    private final TransactionTemplate transactionJour;
+
+    public StatistiqueRollupService(StatistiqueJournaliereRepository rollupRepository,
+                                    ReservationRepository reservationRepository,
+                                    CreneauRepository creneauRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.reservationRepository = reservationRepository;
+        this.creneauRepository = creneauRepository;
+        this.nouvelleTransaction = new TransactionTemplate(transactionManager);
+        this.nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionJour = new TransactionTemplate(transactionManager);
+    }
+
+    // ======================== Incrémental ========================
+
+    /** Une réservation passe de {@code avant} à {@code apres} (null = inexistante). */
+    public void variation(Etat avant, Etat apres) {
+        if (avant != null && avant.memeContribution(apres)) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appliquer(Collections.singletonList(new Etat[]{avant, apres}));
+            return;
+        }
+        Lot lot = (Lot) TransactionSynchronizationManager.getResource(this);
+        if (lot == null) {
+            lot = new Lot();
+            TransactionSynchronizationManager.bindResource(this, lot);
+            TransactionSynchronizationManager.registerSynchronization(lot);
+        }
+        lot.variations.add(new Etat[]{avant, apres});
+    }
+
+    /**
+     * Le créneau des réservations a changé de jour, d'horaire, de terrain ou de prix : chaque réservation
+     * retire sa contribution d'{@code avant} et l'ajoute à {@code apres}, statut inchangé.
+     */
+    public void creneauModifie(List<Reservation> reservations, CreneauRollup avant, CreneauRollup apres) {
+        if (avant == null || apres == null || avant.equals(apres)) return;
+        for (Reservation r : reservations) {
+            variation(new Etat(r.getStatut(), avant.creneauId(), avant), new Etat(r.getStatut(), apres.creneauId(), apres));
+        }
+    }
+
+    private final class Lot implements TransactionSynchronization {
+        private final List<Etat[]> variations = new ArrayList<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StatistiqueRollupService.this);
+            if (status != STATUS_COMMITTED) return;
+            try {
+                appliquer(variations);
+            } catch (Exception e) {
+                // La réconciliation nocturne rattrapera l'écart
+                log.warn("Rollup statistique non mis à jour ({} variation(s)) : {}", variations.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void appliquer(List<Etat[]> variations) {
+        // Créneaux non chargés au moment du changement : une seule requête de projection
+        Set<Long> aCharger = new HashSet<>();
+        for (Etat[] v : variations) {
+            for (Etat e : v) {
+                if (e != null && e.creneau() == null && e.creneauId() != null) aCharger.add(e.creneauId());
+            }
+        }
+        Map<Long, CreneauRollup> charges = new HashMap<>();
+        if (!aCharger.isEmpty()) {
+            creneauRepository.findRollupByIds(aCharger).forEach(c -> charges.put(c.creneauId(), c));
+        }
+
+        Map<Cle, Variation> deltas = new LinkedHashMap<>();
+        for (Etat[] v : variations) {
+            cumuler(deltas, v[0], -1, charges);
+            cumuler(deltas, v[1], +1, charges);
+        }
+        deltas.forEach((cle, delta) -> {
+            if (!delta.estNulle()) incrementer(cle, delta);
+        });
+    }
+
+    private static void cumuler(Map<Cle, Variation> deltas, Etat etat, int signe, Map<Long, CreneauRollup> charges) {
+        if (etat == null || etat.statut() == null || etat.creneauId() == null) return;
+        CreneauRollup c = etat.creneau() != null ? etat.creneau() : charges.get(etat.creneauId());
+        if (c == null || c.clubId() == null || c.dateDebut() == null) return;
+        Variation v = deltas.computeIfAbsent(new Cle(c.clubId(), c.terrainId(), c.jour(), etat.statut()), k -> new Variation());
+        v.nombre += signe;
+        v.revenu += signe * c.prixOuZero();
+        v.minutes += signe * c.minutes();
+    }
+
+    /** UPDATE puis INSERT si la ligne n'existe pas ; rejoué une fois si un insert concurrent a gagné. */
+    private void incrementer(Cle cle, Variation delta) {
+        for (int tentative = 1; ; tentative++) {
+            try {
+                nouvelleTransaction.executeWithoutResult(status -> {
+                    int maj = rollupRepository.incrementer(cle.clubId(), cle.terrainId(), cle.jour(), cle.statut(),
+                            delta.nombre, delta.revenu, delta.minutes);
+                    if (maj == 0) {
+                        rollupRepository.saveAndFlush(StatistiqueJournaliere.builder()
+                                .clubId(cle.clubId()).terrainId(cle.terrainId())
+                                .jour(cle.jour()).statut(cle.statut())
+                                .nombre(delta.nombre).revenu(delta.revenu).minutesReservees(delta.minutes)
+                                .build());
+                    }
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (tentative >= 2) throw e;
+            }
+        }
+    }
+
+    // ======================== Réconciliation ========================
+
+    /**
+     * Recalcule le rollup des jours [debut, fin[ à partir des réservations.
+     *
+     * @return nombre de lignes de rollup écrites
+     */
+    public int reconcilier(LocalDate debut, LocalDate fin) {
+        int lignes = 0;
+        for (LocalDate jour = debut; jour.isBefore(fin); jour = jour.plusDays(1)) {
+            lignes += reconcilierJour(jour);
+        }
+        return lignes;
+    }
+
+    /** Rejoué une fois si un incrément concurrent a créé une ligne du jour entre-temps. */
+    private int reconcilierJour(LocalDate jour) {
+        for (int tentative = 1; ; tentative++) {
+            try {
+                Integer lignes = transactionJour.execute(status -> ecrireJour(jour));
+                return lignes != null ? lignes : 0;
+            } catch (DataIntegrityViolationException e) {
+                if (tentative >= 2) throw e;
+            }
+        }
+    }
+
+    private int ecrireJour(LocalDate jour) {
+        Map<Cle, StatistiqueJournaliere> existantes = new HashMap<>();
+        for (StatistiqueJournaliere s : rollupRepository.verrouillerJour(jour)) {
+            existantes.put(new Cle(s.getClubId(), s.getTerrainId(), jour, s.getStatut()), s);
+        }
+
+        List<StatistiqueJournaliere> nouvelles = new ArrayList<>();
+        int lignes = 0;
+        for (AgregatRollup a : reservationRepository.findRollupEntre(jour.atStartOfDay(), jour.plusDays(1).atStartOfDay())) {
+            lignes++;
+            StatistiqueJournaliere s = existantes.remove(new Cle(a.clubId(), a.terrainId(), jour, a.statut()));
+            if (s == null) {
+                nouvelles.add(StatistiqueJournaliere.builder()
+                        .clubId(a.clubId()).terrainId(a.terrainId()).jour(jour).statut(a.statut())
+                        .nombre(a.nombre()).revenu(a.revenu()).minutesReservees(a.minutes())
+                        .build());
+            } else {
+                s.setNombre(a.nombre());
+                s.setRevenu(a.revenu());
+                s.setMinutesReservees(a.minutes());
+            }
+        }
+        // Lignes sans plus aucune réservation
+        rollupRepository.deleteAll(existantes.values());
+        rollupRepository.saveAllAndFlush(nouvelles);
+        return lignes;
+    }
+}
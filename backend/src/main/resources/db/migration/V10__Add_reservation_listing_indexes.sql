@@ -0,0 +1,11 @@
+-- ============================================================
+-- Migration V10: Reservation listing indexes
+-- ============================================================
+-- Description: Covering indexes for the keyset-paginated club
+--              and joueur reservation lists (join from creneau,
+--              status filter, id tie-breaker)
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_reservation_creneau_statut ON reservation(creneau_id, statut, id);
+CREATE INDEX IF NOT EXISTS idx_reservation_joueur_creneau ON reservation(joueur_id, creneau_id, statut);
@@ -0,0 +1,23 @@
+-- ============================================================
+-- Migration V12: Creneau import staging table
+-- ============================================================
+-- Description: Staging table for bulk slot imports (COPY on
+--              PostgreSQL, JDBC batches elsewhere). Rows are
+--              validated set-based, merged into creneau, then
+--              deleted in the same transaction.
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS creneau_import (
+    creneau_id BIGINT PRIMARY KEY,
+    lot VARCHAR(36) NOT NULL,
+    ligne INTEGER NOT NULL,
+    terrain_id BIGINT NOT NULL,
+    date_debut TIMESTAMP NOT NULL,
+    date_fin TIMESTAMP NOT NULL,
+    prix DOUBLE PRECISION,
+    second_prix DOUBLE PRECISION,
+    verdict VARCHAR(20)
+);
+
+CREATE INDEX IF NOT EXISTS idx_creneau_import_lot ON creneau_import(lot, terrain_id, date_debut);
@@ -0,0 +1,30 @@
+-- ============================================================
+-- Migration V13: Recurring slot rules
+-- ============================================================
+-- Description: Recurrence rules expanded into virtual slots at
+--              read time; a creneau row is only written when an
+--              occurrence is booked or edited
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS regle_creneau (
+    id BIGSERIAL PRIMARY KEY,
+    terrain_id BIGINT NOT NULL,
+    jour_de_semaine VARCHAR(10) NOT NULL,
+    heure_debut TIME NOT NULL,
+    duree_minutes INTEGER NOT NULL,
+    nombre_duplications INTEGER DEFAULT 1 NOT NULL,
+    prix DOUBLE PRECISION,
+    date_debut DATE NOT NULL,
+    date_fin DATE NOT NULL,
+
+    CONSTRAINT fk_regle_creneau_terrain
+        FOREIGN KEY (terrain_id)
+        REFERENCES terrain(id)
+        ON DELETE CASCADE,
+
+    CONSTRAINT chk_regle_creneau_duree CHECK (duree_minutes > 0 AND nombre_duplications > 0),
+    CONSTRAINT chk_regle_creneau_dates CHECK (date_fin >= date_debut)
+);
+
+CREATE INDEX IF NOT EXISTS idx_regle_creneau_terrain ON regle_creneau(terrain_id, date_fin);
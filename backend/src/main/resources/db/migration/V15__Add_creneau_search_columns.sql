@@ -0,0 +1,25 @@
+-- ============================================================
+-- Migration V15: Public availability search
+-- ============================================================
+-- Description: Terrain city / sport copied on creneau in normalized
+--              form (city lower-case, falling back to the club city;
+--              sport upper-case) and composite indexes ordered like
+--              the keyset pagination (date_debut, terrain_id, id)
+-- Date: 2026-10-18
+-- ============================================================
+
+ALTER TABLE creneau ADD COLUMN IF NOT EXISTS ville VARCHAR(255);
+ALTER TABLE creneau ADD COLUMN IF NOT EXISTS sport VARCHAR(255);
+
+UPDATE creneau SET
+    ville = (SELECT LOWER(COALESCE(NULLIF(TRIM(t.ville), ''), NULLIF(TRIM(u.ville), '')))
+             FROM terrain t LEFT JOIN utilisateur u ON u.id = t.club_id
+             WHERE t.id = creneau.terrain_id),
+    sport = (SELECT UPPER(NULLIF(TRIM(t.sport), ''))
+             FROM terrain t
+             WHERE t.id = creneau.terrain_id);
+
+-- Search without a city
+CREATE INDEX IF NOT EXISTS idx_creneau_recherche ON creneau(statut, disponible, date_debut, terrain_id);
+-- Search within a city (sport is checked on the rows read)
+CREATE INDEX IF NOT EXISTS idx_creneau_recherche_ville ON creneau(ville, statut, disponible, date_debut, terrain_id);
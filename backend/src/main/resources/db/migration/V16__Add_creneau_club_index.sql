@@ -0,0 +1,10 @@
+-- ============================================================
+-- Migration V16: Club availability index
+-- ============================================================
+-- Description: Composite index for the public club page
+--              (available slots of each club terrain, by start
+--              time)
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_creneau_club_disponibles ON creneau(terrain_id, disponible, date_debut);
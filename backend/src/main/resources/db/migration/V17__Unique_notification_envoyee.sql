@@ -0,0 +1,22 @@
+-- ============================================================
+-- Migration V17: One sent notification per reservation and type
+-- ============================================================
+-- Description: Removes duplicate markers, then enforces
+--              (reservation_id, type) uniqueness; the unique index
+--              also serves the reminder anti-join and replaces the
+--              single-column reservation_id index
+-- Date: 2026-10-18
+-- ============================================================
+
+DELETE FROM notification_envoyee n
+WHERE EXISTS (
+    SELECT 1 FROM notification_envoyee d
+    WHERE d.reservation_id = n.reservation_id
+      AND d.type = n.type
+      AND d.id < n.id
+);
+
+ALTER TABLE notification_envoyee
+    ADD CONSTRAINT uq_notification_envoyee_reservation_type UNIQUE (reservation_id, type);
+
+DROP INDEX IF EXISTS idx_notification_envoyee_reservation;
@@ -0,0 +1,24 @@
+-- ============================================================
+-- Migration V18: Job leases and live nodes
+-- ============================================================
+-- Description: bail_tache holds one lease per single-run job
+--              (BailTaches); noeud_actif holds one heartbeat row
+--              per running instance, used to split partitioned
+--              jobs by club id across live nodes (NoeudsActifs)
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS bail_tache (
+    nom VARCHAR(100) PRIMARY KEY,
+    detenteur VARCHAR(150) NOT NULL,
+    acquis_a TIMESTAMP NOT NULL,
+    expire_a TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS noeud_actif (
+    id VARCHAR(150) PRIMARY KEY,
+    demarre_a TIMESTAMP NOT NULL,
+    vu_a TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_noeud_actif_vu_a ON noeud_actif(vu_a);
@@ -0,0 +1,13 @@
+-- ============================================================
+-- Migration V19: Indexes for scheduled maintenance purges
+-- ============================================================
+-- Description: Expiry / send-date indexes so that each batch of
+--              MaintenanceService reads its ids without a full
+--              scan (refresh_tokens.expires_at exists since V1;
+--              otp_codes is created by Hibernate, see OtpCode)
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_password_reset_expiration ON password_reset_token(expiration_date);
+CREATE INDEX IF NOT EXISTS idx_notification_date_envoi ON notification(date_envoi);
+CREATE INDEX IF NOT EXISTS idx_notification_envoyee_date_envoi ON notification_envoyee(date_envoi);
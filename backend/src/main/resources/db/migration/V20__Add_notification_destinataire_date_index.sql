@@ -0,0 +1,10 @@
+-- ============================================================
+-- Migration V20: Index for the in-app notification list
+-- ============================================================
+-- Description: (destinataire_id, date_envoi, id) serves the keyset
+--              page of /api/notifications/mine/page and the SSE
+--              catch-up from Last-Event-ID, both per recipient
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_notification_destinataire_date ON notification(destinataire_id, date_envoi, id);
@@ -0,0 +1,22 @@
+-- ============================================================
+-- Migration V21: Cross-node change events
+-- ============================================================
+-- Description: evenement_cluster carries "type/key changed"
+--              events between instances (BusCluster), so that
+--              each node refreshes its in-memory index and caches.
+--              Rows are read within seconds and purged by
+--              MaintenanceService
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE SEQUENCE IF NOT EXISTS evenement_cluster_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS evenement_cluster (
+    id BIGINT PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    cle BIGINT,
+    emetteur VARCHAR(150) NOT NULL,
+    date_creation TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_evenement_cluster_date ON evenement_cluster(date_creation);
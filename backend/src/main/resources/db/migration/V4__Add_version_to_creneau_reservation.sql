@@ -0,0 +1,9 @@
+-- ============================================================
+-- Migration V4: Optimistic locking on creneau and reservation
+-- ============================================================
+-- Description: Add a version column used by JPA @Version
+-- Date: 2026-10-18
+-- ============================================================
+
+ALTER TABLE creneau ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE reservation ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,24 @@
+-- ============================================================
+-- Migration V5: Email outbox
+-- ============================================================
+-- Description: Emails queued in the business transaction and
+--              sent asynchronously by EmailOutboxWorker
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    destinataire VARCHAR(255) NOT NULL,
+    sujet VARCHAR(255) NOT NULL,
+    contenu TEXT NOT NULL,
+    html BOOLEAN DEFAULT false NOT NULL,
+    reply_to VARCHAR(255),
+    statut VARCHAR(20) NOT NULL,
+    tentatives INTEGER DEFAULT 0 NOT NULL,
+    prochaine_tentative TIMESTAMP NOT NULL,
+    date_creation TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    date_envoi TIMESTAMP,
+    derniere_erreur VARCHAR(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_a_envoyer ON email_outbox(statut, prochaine_tentative);
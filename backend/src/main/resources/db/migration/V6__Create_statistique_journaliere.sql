@@ -0,0 +1,22 @@
+-- ============================================================
+-- Migration V6: Daily statistics rollup
+-- ============================================================
+-- Description: Per club/terrain/day/status counters maintained
+--              incrementally and reconciled nightly
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS statistique_journaliere (
+    id BIGSERIAL PRIMARY KEY,
+    club_id BIGINT NOT NULL,
+    terrain_id BIGINT NOT NULL,
+    jour DATE NOT NULL,
+    statut VARCHAR(50) NOT NULL,
+    nombre BIGINT DEFAULT 0 NOT NULL,
+    revenu DOUBLE PRECISION DEFAULT 0 NOT NULL,
+    minutes_reservees BIGINT DEFAULT 0 NOT NULL,
+
+    CONSTRAINT uk_statistique_journaliere UNIQUE (club_id, terrain_id, jour, statut)
+);
+
+CREATE INDEX IF NOT EXISTS idx_statistique_journaliere_club_jour ON statistique_journaliere(club_id, jour);
@@ -0,0 +1,9 @@
+-- ============================================================
+-- Migration V7: Admin search keyset index
+-- ============================================================
+-- Description: (dtype, id) index backing the keyset-paginated
+--              admin search of clubs and joueurs (id > :apresId)
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_utilisateur_dtype_id ON utilisateur(dtype, id);
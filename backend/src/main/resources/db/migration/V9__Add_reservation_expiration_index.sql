@@ -0,0 +1,9 @@
+-- ============================================================
+-- Migration V9: Reservation expiration index
+-- ============================================================
+-- Description: (statut, date_reservation) index backing the
+--              scheduled RESERVE -> ABSENT expiry batches
+-- Date: 2026-10-18
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_reservation_statut_date ON reservation(statut, date_reservation);
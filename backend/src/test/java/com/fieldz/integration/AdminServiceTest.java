@@ -0,0 +1,118 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.ClubAdminDto;
+import com.fieldz.dto.JoueurAdminDto;
+import com.fieldz.model.*;
+import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.security.service.CustomUserDetailsService;
+import com.fieldz.security.service.PrincipalUtilisateur;
+import com.fieldz.service.AdminService;
+import com.fieldz.service.NotificationService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class AdminServiceTest {
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private Club createClub(String nom, String ville) {
+        return utilisateurRepository.save(Club.builder()
+                .nom(nom)
+                .email(nom.toLowerCase().replace(' ', '.') + "@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville(ville)
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL)))
+                .build());
+    }
+
+    @Nested
+    @DisplayName("Tests de la recherche admin")
+    class RechercheTests {
+
+        @Test
+        @DisplayName("searchClubs - pagination par clé sans doublon ni trou")
+        void searchClubs_shouldPaginateByKey() {
+            for (int i = 0; i < 5; i++) {
+                createClub("Padel Arena " + i, "Oran");
+            }
+            createClub("Tennis Club", "Alger");
+
+            List<ClubAdminDto> page1 = adminService.searchClubs("PADEL", null, 3);
+            List<ClubAdminDto> page2 = adminService.searchClubs("padel", page1.get(2).getId(), 3);
+
+            assertThat(page1).hasSize(3);
+            assertThat(page2).hasSize(2);
+            assertThat(page2.get(0).getId()).isGreaterThan(page1.get(2).getId());
+            assertThat(page1).extracting(ClubAdminDto::getSport).containsOnly("PADEL");
+            assertThat(adminService.searchClubs("alg", null, 50))
+                    .extracting(ClubAdminDto::getNom).containsExactly("Tennis Club");
+        }
+
+        @Test
+        @DisplayName("searchJoueurs - les jokers SQL saisis sont pris littéralement")
+        void searchJoueurs_shouldEscapeWildcards() {
+            utilisateurRepository.save(Joueur.builder()
+                    .nom("Dupont").prenom("Marc").email("marc_dupont@fieldz.com")
+                    .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+            utilisateurRepository.save(Joueur.builder()
+                    .nom("Durand").prenom("Lea").email("lea.durand@fieldz.com")
+                    .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+
+            assertThat(adminService.searchJoueurs("c_d", null, 50))
+                    .extracting(JoueurAdminDto::getEmail).containsExactly("marc_dupont@fieldz.com");
+            assertThat(adminService.searchJoueurs("%", null, 50)).isEmpty();
+            assertThat(adminService.searchJoueurs("du", null, 50)).hasSize(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests du cache des principaux")
+    class PrincipalCacheTests {
+
+        @Test
+        @DisplayName("toggleJoueurStatus - le blocage invalide le principal en cache")
+        void toggleJoueurStatus_shouldEvictCachedPrincipal() {
+            Joueur joueur = utilisateurRepository.save(Joueur.builder()
+                    .nom("Cache").prenom("Test").email("cache.test@fieldz.com")
+                    .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+
+            PrincipalUtilisateur premier = userDetailsService.chargerPrincipal("cache.test@fieldz.com");
+            assertThat(userDetailsService.chargerPrincipal("cache.test@fieldz.com")).isSameAs(premier);
+
+            adminService.toggleJoueurStatus(joueur.getId());
+            utilisateurRepository.flush();
+
+            PrincipalUtilisateur apres = userDetailsService.chargerPrincipal("cache.test@fieldz.com");
+            assertThat(apres).isNotSameAs(premier);
+            assertThat(apres.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_JOUEUR");
+        }
+    }
+}
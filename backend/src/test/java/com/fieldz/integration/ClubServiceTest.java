@@ -1,16 +1,32 @@
 package com.fieldz.integration;
 
+import com.fieldz.controller.UtilisateurController;
 import com.fieldz.dto.ClubDto;
 import com.fieldz.dto.ClubImageDto;
+import com.fieldz.dto.CreneauDto;
+import com.fieldz.dto.CreneauRecurrentDto;
+import com.fieldz.dto.UpdateProfilRequest;
 import com.fieldz.model.Club;
 import com.fieldz.model.ClubImage;
+import com.fieldz.model.Creneau;
 import com.fieldz.model.Role;
 import com.fieldz.model.Sport;
+import com.fieldz.model.Statut;
+import com.fieldz.model.Terrain;
 import com.fieldz.repository.ClubImageRepository;
 import com.fieldz.repository.ClubRepository;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.EvenementClusterRepository;
+import com.fieldz.repository.RegleCreneauRepository;
+import com.fieldz.repository.TerrainRepository;
 import com.fieldz.repository.UtilisateurRepository;
 import com.fieldz.service.CloudService;
 import com.fieldz.service.ClubService;
+import com.fieldz.service.RegleCreneauService;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.disponibilite.DisponibiliteIndexLoader;
+import com.fieldz.service.disponibilite.RechercheCreneauxService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -20,11 +36,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -53,6 +74,33 @@ class ClubServiceTest {
     @Autowired
     private UtilisateurRepository utilisateurRepository;
 
+    @Autowired
+    private UtilisateurController utilisateurController;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private RegleCreneauRepository regleCreneauRepository;
+
+    @Autowired
+    private EvenementClusterRepository evenementClusterRepository;
+
+    @Autowired
+    private RegleCreneauService regleCreneauService;
+
+    @Autowired
+    private RechercheCreneauxService rechercheCreneauxService;
+
+    @Autowired
+    private DisponibiliteIndex disponibiliteIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @MockitoBean
     private CloudService cloudService;
 
@@ -328,4 +376,100 @@ class ClubServiceTest {
             assertThat(result.getVille()).isEqualTo("Marseille"); // Modifié
         }
     }
+
+    /**
+     * L'index de disponibilité suit le club après le commit : pas de transaction de test,
+     * données committées puis supprimées.
+     */
+    @Nested
+    @DisplayName("Changement de ville du club - index de disponibilité")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class ChangementVilleTests {
+
+        private final LocalDate jour = LocalDate.now().plusDays(2);
+        private Terrain terrain;
+        private Creneau creneau;
+        private Authentication auth;
+
+        @BeforeEach
+        void setUpTerrain() {
+            auth = mock(Authentication.class);
+            when(auth.getName()).thenReturn("club.paris@fieldz.com");
+            transactionTemplate.executeWithoutResult(status -> {
+                Terrain t = new Terrain();
+                t.setNomTerrain("Padel Ville du Club");
+                t.setClub(testClub);
+                t.setSport("PADEL");   // ville héritée du club
+                terrain = terrainRepository.save(t);
+                Creneau c = new Creneau();
+                c.setTerrain(terrain);
+                c.setDateDebut(jour.atTime(10, 0));
+                c.setDateFin(jour.atTime(11, 0));
+                c.setPrix(20.0);
+                c.setStatut(Statut.LIBRE);
+                c.setDisponible(true);
+                creneau = creneauRepository.save(c);
+            });
+            CreneauRecurrentDto regle = new CreneauRecurrentDto();
+            regle.setTerrainId(terrain.getId());
+            regle.setJourDeSemaine(jour.getDayOfWeek().name());
+            regle.setHeureDebut(LocalTime.of(18, 0));
+            regle.setDureeMinutes(60);
+            regle.setNombreDuplications(1);
+            regle.setPrix(25.0);
+            regle.setDateDebut(jour);
+            regle.setDateFin(jour);
+            regleCreneauService.creer(regle, auth);
+        }
+
+        @AfterEach
+        void tearDown() {
+            transactionTemplate.executeWithoutResult(status -> {
+                regleCreneauRepository.deleteByTerrainId(terrain.getId());
+                creneauRepository.deleteByTerrainId(terrain.getId());
+                terrainRepository.deleteById(terrain.getId());
+                utilisateurRepository.deleteAllById(List.of(testClub.getId(), testClub2.getId()));
+            });
+            disponibiliteIndex.retirerTerrain(terrain.getId());
+            evenementClusterRepository.deleteAll();
+        }
+
+        private List<CreneauDto> libres(String ville) {
+            return rechercheCreneauxService.libresDansLaVille(ville, null, jour, null, null);
+        }
+
+        private void verifierDeplaceA(String ville) {
+            assertThat(libres("Paris")).noneMatch(d -> d.getTerrain().getId().equals(terrain.getId()));
+            assertThat(libres(ville))
+                    .filteredOn(d -> d.getTerrain().getId().equals(terrain.getId()))
+                    .extracting(d -> d.getId() != null ? "creneau" : "regle")
+                    .containsExactly("creneau", "regle");
+            // Signalé aux autres noeuds
+            assertThat(evenementClusterRepository.findAll()).anyMatch(e ->
+                    DisponibiliteIndexLoader.TERRAIN.equals(e.getType()) && terrain.getId().equals(e.getCle()));
+        }
+
+        @Test
+        @DisplayName("updateClubConnecte - créneaux et règles des terrains suivent la nouvelle ville")
+        void updateClubConnecte_shouldReindexTerrains() {
+            assertThat(libres("Paris")).extracting(CreneauDto::getId).contains(creneau.getId());
+
+            ClubDto dto = new ClubDto();
+            dto.setVille("Marseille");
+            clubService.updateClubConnecte(auth, dto);
+
+            verifierDeplaceA("Marseille");
+        }
+
+        @Test
+        @WithMockUser(username = "club.paris@fieldz.com", roles = "CLUB")
+        @DisplayName("UtilisateurController.updateProfil - même propagation que ClubService")
+        void updateProfil_shouldReindexTerrains() {
+            UpdateProfilRequest req = new UpdateProfilRequest();
+            req.setVille("Nantes");
+            utilisateurController.updateProfil(req, auth);
+
+            verifierDeplaceA("Nantes");
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.fieldz.integration;
+
+import com.fieldz.repository.BailTacheRepository;
+import com.fieldz.repository.NoeudActifRepository;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.cluster.BailTaches;
+import com.fieldz.service.cluster.NoeudsActifs;
+import com.fieldz.service.cluster.Partition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plusieurs instances simulées sur la même base H2 : le noeud du contexte Spring plus des
+ * NoeudsActifs / BailTaches créés à la main, chacun avec son propre id.
+ * Pas de @Transactional : baux et battements sont committés comme en production.
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class ClusterTest {
+
+    @Autowired
+    private NoeudsActifs noeudsActifs;
+
+    @Autowired
+    private NoeudActifRepository noeudActifRepository;
+
+    @Autowired
+    private BailTacheRepository bailTacheRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private final List<NoeudsActifs> autresNoeuds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        autresNoeuds.forEach(NoeudsActifs::quitter);
+        bailTacheRepository.deleteAll();
+    }
+
+    private NoeudsActifs autreNoeud(List<Object> evenements) {
+        NoeudsActifs noeud = new NoeudsActifs(noeudActifRepository, transactionTemplate, evenements::add);
+        autresNoeuds.add(noeud);
+        return noeud;
+    }
+
+    @Nested
+    @DisplayName("Partitions")
+    class PartitionTests {
+
+        @Test
+        @DisplayName("battre - chaque noeud vivant a son rang, chaque club un seul noeud")
+        void battre_shouldSplitClubsAcrossLiveNodes() {
+            List<Object> evenements = new ArrayList<>();
+            NoeudsActifs b = autreNoeud(evenements);
+            NoeudsActifs c = autreNoeud(evenements);
+            noeudsActifs.battre();
+            b.battre();
+            c.battre();
+            noeudsActifs.battre();
+            b.battre();
+
+            // D'autres contextes de test peuvent battre sur la même base : on raisonne sur le total lu
+            int total = noeudsActifs.partition().total();
+            List<Partition> partitions = List.of(noeudsActifs.partition(), b.partition(), c.partition());
+            assertThat(total).isGreaterThanOrEqualTo(3);
+            assertThat(partitions).extracting(Partition::total).containsOnly(total);
+            assertThat(partitions).extracting(Partition::index).doesNotHaveDuplicates();
+            LongStream.rangeClosed(1, 30).forEach(clubId ->
+                    assertThat(partitions.stream().filter(p -> p.possede(clubId))).hasSizeLessThanOrEqualTo(1));
+            assertThat(evenements).isNotEmpty();
+
+            // Départ d'un noeud : les survivants se répartissent son travail
+            c.quitter();
+            noeudsActifs.battre();
+            b.battre();
+            assertThat(List.of(noeudsActifs.partition(), b.partition()))
+                    .extracting(Partition::total).containsOnly(total - 1);
+            assertThat(noeudsActifs.partition().index()).isNotEqualTo(b.partition().index());
+        }
+    }
+
+    @Nested
+    @DisplayName("Baux")
+    class BailTests {
+
+        @Test
+        @DisplayName("executerSeul - un seul noeud à la fois, auMoins respecté après la fin")
+        void executerSeul_shouldRunOnOneNodeOnly() {
+            BailTaches bailA = new BailTaches(bailTacheRepository, noeudsActifs, transactionTemplate);
+            BailTaches bailB = new BailTaches(bailTacheRepository, autreNoeud(new ArrayList<>()), transactionTemplate);
+            AtomicBoolean lanceParB = new AtomicBoolean();
+
+            // B tente pendant que A détient le bail
+            boolean lanceParA = bailA.executerSeul("job-test", Duration.ofMinutes(5), Duration.ZERO,
+                    () -> lanceParB.set(bailB.executerSeul("job-test", Duration.ofMinutes(5), Duration.ZERO, () -> {})));
+            assertThat(lanceParA).isTrue();
+            assertThat(lanceParB).isFalse();
+
+            // Bail rendu sans minimum : B peut le prendre, puis le garde une heure
+            assertThat(bailB.executerSeul("job-test", Duration.ofMinutes(5), Duration.ofHours(1), () -> {})).isTrue();
+            assertThat(bailA.executerSeul("job-test", Duration.ofMinutes(5), Duration.ZERO, () -> {})).isFalse();
+        }
+    }
+}
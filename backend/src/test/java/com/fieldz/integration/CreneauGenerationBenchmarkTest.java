@@ -0,0 +1,170 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.CreneauRecurrentDto;
+import com.fieldz.dto.ImportCreneauxResultat;
+import com.fieldz.model.*;
+import com.fieldz.repository.TerrainRepository;
+import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.service.CreneauService;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.importation.CreneauImportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Débit de génération de créneaux récurrents (créneaux + réservations automatiques),
+ * avec le batching JDBC de la prod (batch_size 25, order_inserts), et de l'import en masse.
+ *
+ * Hors build par défaut : mvn test -Dtest=CreneauGenerationBenchmarkTest -Dbenchmark=true
+ * Pas de @Transactional : chaque appel doit réellement commiter (et donc flusher) ses insertions.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=25",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CreneauGenerationBenchmarkTest {
+
+    private static final int ECHAUFFEMENT = 5;
+    private static final int MESURES = 20;
+
+    @Autowired
+    private CreneauService creneauService;
+
+    @Autowired
+    private CreneauImportService creneauImportService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @Test
+    @DisplayName("creerCreneauxRecurrents - débit et requêtes préparées par ligne insérée")
+    void creerCreneauxRecurrents_throughput() {
+        Club club = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Club Bench")
+                .email("club.bench@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Paris")
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL)))
+                .build());
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < ECHAUFFEMENT; i++) {
+            generer(club, "Echauffement " + i);
+        }
+
+        stats.clear();
+        long lignes = 0;
+        long debut = System.nanoTime();
+        for (int i = 0; i < MESURES; i++) {
+            Map<String, Object> resultat = generer(club, "Mesure " + i);
+            lignes += 2L * (Integer) resultat.get("totalCrees"); // créneau + réservation
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        double requetesParLigne = (double) stats.getPrepareStatementCount() / lignes;
+        System.out.printf("[benchmark] %d lignes en %.2f s : %.0f lignes/s, %d requêtes préparées (%.3f par ligne)%n",
+                lignes, secondes, lignes / secondes, stats.getPrepareStatementCount(), requetesParLigne);
+
+        // Insertions groupées par lots : bien moins d'une requête préparée par ligne
+        assertThat(requetesParLigne).isLessThan(0.2);
+    }
+
+    @Test
+    @DisplayName("importerCsv - saison complète : 10 terrains x créneaux de 30 min x 12 mois")
+    void importerCsv_saisonComplete() throws Exception {
+        Club club = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Club Import Bench")
+                .email("club.import.bench@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Paris")
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL)))
+                .build());
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn("club.import.bench@fieldz.com");
+
+        StringBuilder csv = new StringBuilder("terrainId;dateDebut;dateFin;prix\n");
+        for (int t = 0; t < 10; t++) {
+            Terrain terrain = new Terrain();
+            terrain.setNomTerrain("Import " + t);
+            terrain.setClub(club);
+            terrain.setVille("Paris");
+            terrain.setSport("PADEL");
+            Long terrainId = terrainRepository.save(terrain).getId();
+            for (int j = 1; j <= 365; j++) {
+                LocalDateTime debut = LocalDate.now().plusDays(j).atTime(8, 0);
+                for (int i = 0; i < 28; i++, debut = debut.plusMinutes(30)) {
+                    csv.append(terrainId).append(';').append(debut).append(';')
+                            .append(debut.plusMinutes(30)).append(";20\n");
+                }
+            }
+        }
+
+        ImportCreneauxResultat resultat = creneauImportService.importerCsv(new StringReader(csv.toString()), auth);
+        System.out.printf("[benchmark] import de %d créneaux en %d ms : %.0f créneaux/s%n",
+                resultat.totalCrees(), resultat.dureeMs(), resultat.totalCrees() * 1000.0 / resultat.dureeMs());
+
+        assertThat(resultat.totalCrees()).isEqualTo(10 * 365 * 28);
+    }
+
+    // Un an de lundis, 12 créneaux d'une heure par jour, réservés automatiquement, sur un terrain neuf
+    private Map<String, Object> generer(Club club, String nomTerrain) {
+        Terrain terrain = new Terrain();
+        terrain.setNomTerrain(nomTerrain);
+        terrain.setClub(club);
+        terrain.setVille("Paris");
+        terrain.setSport("PADEL");
+        terrain = terrainRepository.save(terrain);
+
+        CreneauRecurrentDto dto = new CreneauRecurrentDto();
+        dto.setDateDebut(LocalDate.now().plusDays(1));
+        dto.setDateFin(LocalDate.now().plusDays(365));
+        dto.setJourDeSemaine("MONDAY");
+        dto.setHeureDebut(LocalTime.of(8, 0));
+        dto.setDureeMinutes(60);
+        dto.setNombreDuplications(12);
+        dto.setPrix(30.0);
+        dto.setTerrainId(terrain.getId());
+        dto.setAutoReserver(true);
+        dto.setNomReservant("Bench");
+        return creneauService.creerCreneauxRecurrents(dto);
+    }
+}
@@ -0,0 +1,275 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.CreneauRecurrentDto;
+import com.fieldz.dto.ImportCreneauxResultat;
+import com.fieldz.model.*;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.TerrainRepository;
+import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.importation.CreneauImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class CreneauImportServiceTest {
+
+    @Autowired
+    private CreneauImportService creneauImportService;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private DisponibiliteIndex disponibiliteIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private Club testClub;
+    private Terrain testTerrain;
+    private Terrain autreTerrain;
+    private Authentication auth;
+    private final LocalDate jour = LocalDate.now().plusDays(7);
+
+    @BeforeEach
+    void setUp() {
+        testClub = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Club Import")
+                .email("club.import@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Paris")
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL)))
+                .build());
+        Club autreClub = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Autre Club")
+                .email("autre.import@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Lyon")
+                .typeRole(Role.CLUB)
+                .build());
+
+        testTerrain = terrain(testClub, "Terrain 1");
+        autreTerrain = terrain(autreClub, "Terrain étranger");
+
+        auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn("club.import@fieldz.com");
+    }
+
+    private Terrain terrain(Club club, String nom) {
+        Terrain t = new Terrain();
+        t.setNomTerrain(nom);
+        t.setClub(club);
+        t.setVille(club.getVille());
+        t.setSport("PADEL");
+        return terrainRepository.save(t);
+    }
+
+    private String ligne(Terrain terrain, int heure, int minute, int dureeMinutes, String prix) {
+        LocalDateTime debut = jour.atTime(heure, minute);
+        return terrain.getId() + ";" + debut + ";" + debut.plusMinutes(dureeMinutes) + ";" + prix;
+    }
+
+    private int lignesEnTransit() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM creneau_import", Integer.class);
+    }
+
+    @Nested
+    @DisplayName("Import CSV")
+    class CsvTests {
+
+        @Test
+        @DisplayName("importerCsv - contrôles ensemblistes puis fusion des lignes retenues")
+        void importerCsv_shouldValidateAndMerge() throws Exception {
+            Creneau existant = new Creneau();
+            existant.setTerrain(testTerrain);
+            existant.setDateDebut(jour.atTime(8, 0));
+            existant.setDateFin(jour.atTime(9, 0));
+            existant.setPrix(20.0);
+            creneauRepository.saveAndFlush(existant);
+
+            String csv = String.join("\n",
+                    "terrainId;dateDebut;dateFin;prix",
+                    ligne(testTerrain, 8, 0, 60, "20"),        // doublon de l'existant
+                    ligne(testTerrain, 8, 30, 60, "20"),       // chevauche l'existant
+                    ligne(testTerrain, 10, 0, 60, "25,5"),     // retenue
+                    ligne(testTerrain, 10, 0, 60, "25,5"),     // doublon interne
+                    ligne(testTerrain, 10, 30, 30, "25"),      // chevauche la ligne 4
+                    ligne(testTerrain, 11, 0, 60, ""),         // retenue, sans prix
+                    ligne(autreTerrain, 12, 0, 60, "30"),      // terrain d'un autre club
+                    "pas;une;ligne;valide");
+
+            ImportCreneauxResultat resultat = creneauImportService.importerCsv(new StringReader(csv), auth);
+
+            assertThat(resultat.totalDemandes()).isEqualTo(8);
+            assertThat(resultat.totalCrees()).isEqualTo(2);
+            assertThat(resultat.dejaExistants()).isEqualTo(2);
+            assertThat(resultat.totalConflits()).isEqualTo(2);
+            assertThat(resultat.totalInvalides()).isEqualTo(2);
+            assertThat(resultat.erreurs()).hasSize(2)
+                    .anyMatch(e -> e.startsWith("Ligne 9 :"))
+                    .anyMatch(e -> e.startsWith("Ligne 8 :"));
+
+            List<Creneau> creneaux = creneauRepository.findCreneauxChevauchants(
+                    testTerrain.getId(), jour.atTime(9, 30), jour.atTime(23, 0));
+            assertThat(creneaux).extracting(Creneau::getDateDebut)
+                    .containsExactlyInAnyOrder(jour.atTime(10, 0), jour.atTime(11, 0));
+            assertThat(creneaux).extracting(Creneau::getPrix).containsExactlyInAnyOrder(25.5, null);
+            assertThat(creneaux).allMatch(c -> c.getStatut() == Statut.LIBRE && c.isDisponible());
+
+            // Index de disponibilité alimenté malgré l'insertion SQL, table de transit vidée
+            assertThat(creneaux).allMatch(c -> disponibiliteIndex.get(c.getId()).isPresent());
+            assertThat(lignesEnTransit()).isZero();
+        }
+
+        @Test
+        @DisplayName("importerCsv - horaires d'ouverture du club appliqués")
+        void importerCsv_shouldRefuseOutsideOpeningHours() throws Exception {
+            testClub.setHeureOuverture(LocalTime.of(9, 0));
+            testClub.setHeureFermeture(LocalTime.of(22, 0));
+            utilisateurRepository.saveAndFlush(testClub);
+
+            String csv = String.join("\n",
+                    ligne(testTerrain, 8, 0, 60, "20"),
+                    ligne(testTerrain, 9, 0, 60, "20"),
+                    ligne(testTerrain, 21, 30, 60, "20"));
+
+            ImportCreneauxResultat resultat = creneauImportService.importerCsv(new StringReader(csv), auth);
+
+            assertThat(resultat.totalCrees()).isEqualTo(1);
+            assertThat(resultat.totalRefuses()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Import d'une règle récurrente")
+    class RegleTests {
+
+        @Test
+        @DisplayName("importerRegle - développe la règle, puis ne recrée rien au second import")
+        void importerRegle_shouldBeIdempotent() {
+            CreneauRecurrentDto dto = new CreneauRecurrentDto();
+            dto.setDateDebut(jour);
+            dto.setDateFin(jour.plusWeeks(10).minusDays(1));
+            dto.setJourDeSemaine(jour.getDayOfWeek().name());
+            dto.setHeureDebut(LocalTime.of(8, 0));
+            dto.setDureeMinutes(30);
+            dto.setNombreDuplications(24);
+            dto.setPrix(15.0);
+            dto.setTerrainId(testTerrain.getId());
+
+            ImportCreneauxResultat premier = creneauImportService.importerRegle(dto, auth);
+            ImportCreneauxResultat second = creneauImportService.importerRegle(dto, auth);
+
+            assertThat(premier.totalDemandes()).isEqualTo(240);
+            assertThat(premier.totalCrees()).isEqualTo(240);
+            assertThat(second.totalCrees()).isZero();
+            assertThat(second.dejaExistants()).isEqualTo(240);
+            assertThat(creneauRepository.findCreneauxChevauchants(testTerrain.getId(),
+                    jour.atStartOfDay(), jour.plusWeeks(10).atStartOfDay())).hasSize(240);
+        }
+    }
+
+    // Hors transaction de test : l'import et l'écriture concurrente committent chacun de leur côté
+    @Nested
+    @DisplayName("Verrou par terrain")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class VerrouTests {
+
+        @AfterEach
+        void tearDown() {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Terrain t : List.of(testTerrain, autreTerrain)) {
+                    creneauRepository.deleteByTerrainId(t.getId());
+                    terrainRepository.deleteById(t.getId());
+                    utilisateurRepository.deleteById(t.getClub().getId());
+                }
+            });
+            disponibiliteIndex.retirerTerrain(testTerrain.getId());
+        }
+
+        @Test
+        @DisplayName("importerCsv - attend l'écriture en cours sur le terrain, puis voit le chevauchement")
+        void importerCsv_shouldWaitForTerrainLockThenDetectConflict() throws Exception {
+            String csv = "terrainId;dateDebut;dateFin;prix\n" + ligne(testTerrain, 10, 30, 60, "20");
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<ImportCreneauxResultat> import_ = transactionTemplate.execute(status -> {
+                    terrainRepository.verrouiller(List.of(testTerrain.getId()));
+                    Creneau concurrent = new Creneau();
+                    concurrent.setTerrain(testTerrain);
+                    concurrent.setDateDebut(jour.atTime(10, 0));
+                    concurrent.setDateFin(jour.atTime(11, 0));
+                    concurrent.setStatut(Statut.LIBRE);
+                    concurrent.setDisponible(true);
+                    creneauRepository.saveAndFlush(concurrent);
+
+                    Future<ImportCreneauxResultat> f = executor.submit(
+                            () -> creneauImportService.importerCsv(new StringReader(csv), auth));
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    assertThat(f.isDone()).as("import bloqué par le verrou du terrain").isFalse();
+                    return f;
+                });
+
+                ImportCreneauxResultat resultat = import_.get(10, TimeUnit.SECONDS);
+
+                assertThat(resultat.totalCrees()).isZero();
+                assertThat(resultat.totalConflits()).isEqualTo(1);
+                assertThat(creneauRepository.findCreneauxChevauchants(testTerrain.getId(),
+                        jour.atStartOfDay(), jour.plusDays(1).atStartOfDay())).hasSize(1);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.fieldz.model.*;
 import com.fieldz.repository.*;
 import com.fieldz.service.CreneauService;
 import com.fieldz.service.NotificationService;
+import com.fieldz.service.disponibilite.CreneauxClubCache;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -53,6 +55,12 @@ class CreneauServiceTest {
     @Autowired
     private ReservationRepository reservationRepository;
 
+    @Autowired
+    private DisponibiliteIndex disponibiliteIndex;
+
+    @Autowired
+    private CreneauxClubCache creneauxClubCache;
+
     @MockitoBean
     private NotificationService notificationService;
 
@@ -90,7 +98,8 @@ class CreneauServiceTest {
         c.setStatut(statut);
         c.setDisponible(disponible);
         c.setPrix(prix);
-        return creneauRepository.save(c);
+        // Ids par séquence : l'INSERT (et donc la mise à jour de l'index) a lieu au flush
+        return creneauRepository.saveAndFlush(c);
     }
 
     private Reservation createReservation(Creneau creneau, Joueur joueur, Statut statut) {
@@ -379,5 +388,64 @@ class CreneauServiceTest {
             assertThat(result).hasSize(1);
             assertThat(result.get(0).getDateDebut().toLocalDate()).isEqualTo(targetDate);
         }
+
+        @Test
+        @DisplayName("getCreneauxDisponiblesParClub - filtre de sport appliqué en base, créneaux passés exclus")
+        void getCreneauxDisponiblesParClub_shouldFilterBySport() {
+            Terrain tennis = new Terrain();
+            tennis.setNomTerrain("Tennis 1");
+            tennis.setClub(testClub);
+            tennis.setSport("TENNIS");
+            tennis = terrainRepository.save(tennis);
+
+            LocalDateTime demain = LocalDate.now().plusDays(1).atTime(10, 0);
+            Creneau padel = createCreneau(testTerrain, demain, demain.plusHours(1), Statut.LIBRE, true, 25.0);
+            createCreneau(tennis, demain, demain.plusHours(1), Statut.LIBRE, true, 25.0);
+            createCreneau(testTerrain, LocalDateTime.now().minusHours(2), LocalDateTime.now().minusHours(1),
+                    Statut.LIBRE, true, 25.0);
+
+            assertThat(creneauService.getCreneauxDisponiblesParClub(testClub.getId(), null, " padel "))
+                    .extracting(Creneau::getId).containsExactly(padel.getId());
+            assertThat(creneauService.getCreneauxDisponiblesParClub(testClub.getId(), null, null)).hasSize(2);
+        }
+
+        @Test
+        @DisplayName("cache par club - une écriture sur un créneau du club invalide ses listes")
+        void creneauxClubCache_shouldBeInvalidatedOnWrite() {
+            CreneauxClubCache.Cle cle = new CreneauxClubCache.Cle(testClub.getId(), null, null);
+            long generation = creneauxClubCache.generation(testClub.getId());
+            creneauxClubCache.put(cle, List.of(), generation);
+            assertThat(creneauxClubCache.get(cle)).isEmpty();
+
+            LocalDateTime demain = LocalDate.now().plusDays(1).atTime(10, 0);
+            createCreneau(testTerrain, demain, demain.plusHours(1), Statut.LIBRE, true, 25.0);
+
+            assertThat(creneauxClubCache.get(cle)).isNull();
+            // Liste lue avant l'écriture : refusée
+            creneauxClubCache.put(cle, List.of(), generation);
+            assertThat(creneauxClubCache.get(cle)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de l'index de disponibilité")
+    class DisponibiliteIndexTests {
+
+        @Test
+        @DisplayName("reserver - un seul joueur peut prendre un créneau libre")
+        void reserver_shouldOnlySucceedOnce() {
+            Creneau creneau = createCreneau(testTerrain,
+                    LocalDateTime.now().plusDays(4),
+                    LocalDateTime.now().plusDays(4).plusHours(1),
+                    Statut.LIBRE, true, 25.0);
+
+            assertThat(disponibiliteIndex.reserver(creneau)).isTrue();
+            assertThat(disponibiliteIndex.reserver(creneau)).isFalse();
+            assertThat(creneauService.getCreneauxDisponibles())
+                    .noneMatch(c -> c.getId().equals(creneau.getId()));
+
+            assertThat(disponibiliteIndex.liberer(creneau.getId())).isTrue();
+            assertThat(disponibiliteIndex.reserver(creneau)).isTrue();
+        }
     }
 }
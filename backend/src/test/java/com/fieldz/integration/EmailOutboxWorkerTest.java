@@ -0,0 +1,243 @@
+package com.fieldz.integration;
+
+import com.fieldz.model.EmailOutbox;
+import com.fieldz.model.EmailOutbox.StatutEmail;
+import com.fieldz.repository.EmailOutboxRepository;
+import com.fieldz.scheduler.EmailOutboxWorker;
+import com.fieldz.service.EmailService;
+import com.fieldz.service.cluster.NoeudsActifs;
+import com.fieldz.service.cluster.Partition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Worker activé, mais son passage planifié repoussé d'une heure : les tests appellent drainer().
+ * EmailService est simulé (aucun SMTP) ; pas de @Transactional, le worker committe lui-même
+ * et envoie depuis son pool.
+ */
+@SpringBootTest(properties = {
+        "app.email.outbox.enabled=true",
+        "app.email.outbox.poll-ms=3600000",
+        "app.email.outbox.threads=1",
+        "app.email.outbox.batch-size=2",
+        "app.email.outbox.max-tentatives=2"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class EmailOutboxWorkerTest {
+
+    @Autowired
+    private EmailOutboxWorker worker;
+
+    // Espionné pour synchroniser deux passages concurrents entre la lecture et la prise
+    @MockitoSpyBean
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    // Seul noeud, quels que soient les autres contextes de test qui battent sur la même base
+    @MockitoSpyBean
+    private NoeudsActifs noeudsActifs;
+
+    @BeforeEach
+    void setUp() {
+        doReturn(Partition.SEULE).when(noeudsActifs).partition();
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    private EmailOutbox email(String destinataire, LocalDateTime prochaineTentative) {
+        return emailOutboxRepository.save(EmailOutbox.builder()
+                .destinataire(destinataire).sujet("Sujet").contenu("Contenu").html(false)
+                .statut(StatutEmail.EN_ATTENTE).tentatives(0)
+                .prochaineTentative(prochaineTentative).dateCreation(LocalDateTime.now()).build());
+    }
+
+    private EmailOutbox relire(EmailOutbox e) {
+        return emailOutboxRepository.findById(e.getId()).orElseThrow();
+    }
+
+    // Les lots partent sur le pool du worker
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > limite) throw new AssertionError("Condition non atteinte en 10 s");
+            Thread.sleep(20);
+        }
+    }
+
+    @Nested
+    @DisplayName("Envoi par lots")
+    class DrainerTests {
+
+        @Test
+        @DisplayName("drainer - emails dus envoyés par lots de batch-size, les autres attendent")
+        void drainer_shouldSendDueEmailsInBatches() throws Exception {
+            when(emailService.envoyerLot(anyList())).thenReturn(Map.of());
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<EmailOutbox> dus = List.of(
+                    email("a@fieldz.com", maintenant.minusMinutes(2)),
+                    email("b@fieldz.com", maintenant.minusMinutes(1)),
+                    email("c@fieldz.com", maintenant.minusSeconds(1)));
+            EmailOutbox plusTard = email("d@fieldz.com", maintenant.plusHours(1));
+
+            worker.drainer();
+
+            attendre(() -> dus.stream().allMatch(e -> relire(e).getStatut() == StatutEmail.ENVOYE));
+            verify(emailService, times(2)).envoyerLot(anyList());
+            assertThat(dus).allSatisfy(e -> assertThat(relire(e).getDateEnvoi()).isNotNull());
+            assertThat(relire(plusTard).getStatut()).isEqualTo(StatutEmail.EN_ATTENTE);
+        }
+
+        @Test
+        @DisplayName("drainer - lot en cours d'envoi repoussé (bail) : pas repris par un second passage")
+        void drainer_shouldNotTakeLeasedBatchTwice() throws Exception {
+            CountDownLatch enEnvoi = new CountDownLatch(1);
+            CountDownLatch liberer = new CountDownLatch(1);
+            when(emailService.envoyerLot(anyList())).thenAnswer(inv -> {
+                enEnvoi.countDown();
+                liberer.await(10, TimeUnit.SECONDS);
+                return Map.of();
+            });
+            EmailOutbox e = email("a@fieldz.com", LocalDateTime.now().minusMinutes(1));
+
+            worker.drainer();
+            assertThat(enEnvoi.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(relire(e).getProchaineTentative()).isAfter(LocalDateTime.now().plusMinutes(4));
+            worker.drainer();
+            liberer.countDown();
+
+            attendre(() -> relire(e).getStatut() == StatutEmail.ENVOYE);
+            verify(emailService, times(1)).envoyerLot(anyList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Plusieurs noeuds")
+    class ClusterTests {
+
+        @Test
+        @DisplayName("drainer - deux noeuds aux partitions chevauchantes lisent les mêmes emails : chacun envoyé une fois")
+        void drainer_shouldSendEachEmailOnceWithOverlappingPartitions() throws Exception {
+            // Pendant un changement de membres, A se croit seul et B l'un de deux noeuds
+            doAnswer(inv -> Thread.currentThread().getName().equals("noeud-b") ? new Partition(0, 2) : Partition.SEULE)
+                    .when(noeudsActifs).partition();
+            // Les deux noeuds lisent leur premier lot avant que l'un ou l'autre ne le prenne
+            // Proxy Spring Data : l'espion délègue au vrai repository par sa réponse par défaut
+            Answer<?> reel = mockingDetails(emailOutboxRepository).getMockCreationSettings().getDefaultAnswer();
+            CountDownLatch lus = new CountDownLatch(2);
+            doAnswer(inv -> {
+                Object lot = reel.answer(inv);
+                lus.countDown();
+                lus.await(5, TimeUnit.SECONDS);
+                return lot;
+            }).when(emailOutboxRepository).findAEnvoyer(any(), anyInt(), anyInt(), any());
+            List<Long> envoyes = new CopyOnWriteArrayList<>();
+            when(emailService.envoyerLot(anyList())).thenAnswer(inv -> {
+                List<EmailOutbox> lot = inv.getArgument(0);
+                lot.forEach(e -> envoyes.add(e.getId()));
+                return Map.of();
+            });
+            LocalDateTime du = LocalDateTime.now().minusMinutes(1);
+            List<EmailOutbox> emails = List.of(email("a@fieldz.com", du), email("b@fieldz.com", du),
+                    email("c@fieldz.com", du), email("d@fieldz.com", du));
+
+            Thread a = new Thread(worker::drainer, "noeud-a");
+            Thread b = new Thread(worker::drainer, "noeud-b");
+            a.start();
+            b.start();
+            a.join(10_000);
+            b.join(10_000);
+
+            // Les passages suivants finissent ce que la limite de lots en vol a laissé
+            attendre(() -> {
+                worker.drainer();
+                return emails.stream().allMatch(e -> relire(e).getStatut() == StatutEmail.ENVOYE);
+            });
+            assertThat(envoyes).containsExactlyInAnyOrderElementsOf(emails.stream().map(EmailOutbox::getId).toList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Échecs")
+    class EchecTests {
+
+        @Test
+        @DisplayName("drainer - échec retenté avec backoff, ECHEC après max-tentatives")
+        void drainer_shouldBackOffThenFail() throws Exception {
+            EmailOutbox e = email("a@fieldz.com", LocalDateTime.now().minusMinutes(1));
+            when(emailService.envoyerLot(anyList())).thenReturn(Map.of(e.getId(), "SMTP indisponible"));
+
+            LocalDateTime avant = LocalDateTime.now();
+            worker.drainer();
+            attendre(() -> relire(e).getTentatives() == 1);
+
+            EmailOutbox apresPremier = relire(e);
+            assertThat(apresPremier.getStatut()).isEqualTo(StatutEmail.EN_ATTENTE);
+            assertThat(apresPremier.getDerniereErreur()).isEqualTo("SMTP indisponible");
+            // Premier backoff : 30 s
+            assertThat(apresPremier.getProchaineTentative())
+                    .isAfterOrEqualTo(avant.plusSeconds(30))
+                    .isBefore(LocalDateTime.now().plusSeconds(31));
+
+            // Pas encore dû : le passage suivant l'ignore
+            worker.drainer();
+            verify(emailService, times(1)).envoyerLot(anyList());
+
+            apresPremier.setProchaineTentative(LocalDateTime.now().minusSeconds(1));
+            emailOutboxRepository.save(apresPremier);
+            worker.drainer();
+            attendre(() -> relire(e).getStatut() == StatutEmail.ECHEC);
+            assertThat(relire(e).getTentatives()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("drainer - exception SMTP sur tout le lot : chaque email compte une tentative")
+        void drainer_shouldCountFailureForWholeBatchOnException() throws Exception {
+            when(emailService.envoyerLot(anyList())).thenThrow(new IllegalStateException("connexion refusée"));
+            EmailOutbox a = email("a@fieldz.com", LocalDateTime.now().minusMinutes(1));
+            EmailOutbox b = email("b@fieldz.com", LocalDateTime.now().minusMinutes(1));
+
+            worker.drainer();
+
+            attendre(() -> relire(a).getTentatives() == 1 && relire(b).getTentatives() == 1);
+            assertThat(List.of(relire(a), relire(b))).allSatisfy(e -> {
+                assertThat(e.getStatut()).isEqualTo(StatutEmail.EN_ATTENTE);
+                assertThat(e.getDerniereErreur()).isEqualTo("connexion refusée");
+            });
+        }
+    }
+}
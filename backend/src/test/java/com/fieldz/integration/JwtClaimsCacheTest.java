@@ -0,0 +1,108 @@
+package com.fieldz.integration;
+
+import com.fieldz.security.jwt.JwtClaimsCache;
+import com.fieldz.security.jwt.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Le profil test ne définit pas jwt.hs256.secret : clé HS256 de 256 bits fixée ici. */
+@SpringBootTest(properties = "jwt.hs256.secret=test-secret-key-for-unit-tests-minimum-32-chars-long")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class JwtClaimsCacheTest {
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JwtClaimsCache claimsCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double compteur(String nom) {
+        return meterRegistry.counter(nom).count();
+    }
+
+    private static Claims expirantDans(long millis) {
+        Claims claims = Jwts.claims().setSubject("joueur@fieldz.com");
+        claims.setExpiration(new Date(System.currentTimeMillis() + millis));
+        return claims;
+    }
+
+    @Nested
+    @DisplayName("Validation via JwtService")
+    class ValidationTests {
+
+        @Test
+        @DisplayName("validerToken - second appel servi par le cache, mêmes claims")
+        void validerToken_shouldServeSecondCallFromCache() {
+            String token = jwtService.generateToken("cache.hit@fieldz.com", Map.of("role", "JOUEUR"));
+            double hits = compteur("fieldz.jwt.cache.hits");
+            double misses = compteur("fieldz.jwt.cache.misses");
+
+            Claims premier = jwtService.validerToken(token);
+            Claims second = jwtService.validerToken(token);
+
+            assertThat(premier.getSubject()).isEqualTo("cache.hit@fieldz.com");
+            assertThat(second).isSameAs(premier);
+            assertThat(compteur("fieldz.jwt.cache.misses")).isEqualTo(misses + 1);
+            assertThat(compteur("fieldz.jwt.cache.hits")).isEqualTo(hits + 1);
+        }
+
+        @Test
+        @DisplayName("validerToken - jeton falsifié rejeté et jamais mis en cache")
+        void validerToken_shouldNotCacheInvalidToken() {
+            String token = jwtService.generateToken("cache.falsifie@fieldz.com", Map.of());
+            String falsifie = token.substring(0, token.length() - 2)
+                    + (token.endsWith("AA") ? "BB" : "AA");
+
+            assertThat(jwtService.validerToken(falsifie)).isNull();
+            assertThat(claimsCache.get(falsifie)).isNull();
+            assertThat(jwtService.validerToken(falsifie)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Expiration et capacité")
+    class CapaciteTests {
+
+        @Test
+        @DisplayName("get - entrée expirée ignorée et retirée, le jeton sera revérifié")
+        void get_shouldDropExpiredEntry() {
+            claimsCache.put("jeton-expire", expirantDans(-1000));
+
+            assertThat(claimsCache.get("jeton-expire")).isNull();
+        }
+
+        @Test
+        @DisplayName("put - cache plein : le jeton le moins récemment utilisé est évincé")
+        void put_shouldEvictLeastRecentlyUsedWhenFull() {
+            // Instance dédiée plafonnée à 2 : le cache du contexte sert aux autres tests
+            JwtClaimsCache petit = new JwtClaimsCache(2, new SimpleMeterRegistry());
+            petit.put("jeton-a", expirantDans(60_000));
+            petit.put("jeton-b", expirantDans(60_000));
+            assertThat(petit.get("jeton-a")).isNotNull();
+
+            petit.put("jeton-c", expirantDans(60_000));
+
+            assertThat(petit.get("jeton-b")).isNull();
+            assertThat(petit.get("jeton-a")).isNotNull();
+            assertThat(petit.get("jeton-c")).isNotNull();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.fieldz.integration;
+
+import com.fieldz.model.*;
+import com.fieldz.repository.*;
+import com.fieldz.service.maintenance.MaintenanceService;
+import com.fieldz.service.maintenance.MaintenanceService.Bilan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lots de 2 lignes et budget nul : chaque purge s'arrête après un lot plein,
+ * le passage suivant reprend là où elle s'est arrêtée.
+ */
+@SpringBootTest(properties = {
+        "app.maintenance.batch-size=2",
+        "app.maintenance.budget-ms=0",
+        "app.maintenance.pause-ms=0"
+})
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class MaintenanceServiceTest {
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private OtpCodeRepository otpCodeRepository;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationEnvoyeeRepository notificationEnvoyeeRepository;
+
+    private Joueur joueur;
+
+    @BeforeEach
+    void setUp() {
+        joueur = (Joueur) utilisateurRepository.save(Joueur.builder()
+                .nom("Maintenance").prenom("Max").email("joueur.maintenance@fieldz.com")
+                .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+    }
+
+    private void refreshToken(Instant expiresAt) {
+        RefreshToken rt = new RefreshToken();
+        rt.setUserId(joueur.getId());
+        rt.setTokenHash(UUID.randomUUID().toString());
+        rt.setExpiresAt(expiresAt);
+        refreshTokenRepository.save(rt);
+    }
+
+    private void notification(LocalDateTime dateEnvoi, boolean lue) {
+        notificationRepository.save(Notification.builder()
+                .destinataire(joueur).type(TypeNotification.ABSENCE).message("test")
+                .dateEnvoi(dateEnvoi).lue(lue).build());
+    }
+
+    @Nested
+    @DisplayName("Purges par lots")
+    class PurgeTests {
+
+        @Test
+        @DisplayName("executer - supprime expirés et hors rétention, bornée par lot, reprise au passage suivant")
+        void executer_shouldPurgeInTimeBoxedBatches() {
+            Instant now = Instant.now();
+            refreshToken(now.minus(2, ChronoUnit.DAYS));
+            refreshToken(now.minus(1, ChronoUnit.DAYS));
+            refreshToken(now.minus(1, ChronoUnit.HOURS));
+            refreshToken(now.plus(10, ChronoUnit.DAYS));
+            otpCodeRepository.save(OtpCode.builder().email(joueur.getEmail()).code("123456")
+                    .expiresAt(LocalDateTime.now().minusMinutes(10)).build());
+            passwordResetTokenRepository.save(PasswordResetToken.builder().token(UUID.randomUUID().toString())
+                    .expirationDate(LocalDateTime.now().minusMinutes(5)).utilisateur(joueur).build());
+            notification(LocalDateTime.now().minusDays(400), false);
+            notification(LocalDateTime.now().minusDays(100), true);
+            notification(LocalDateTime.now().minusDays(100), false);
+            notificationEnvoyeeRepository.save(
+                    new NotificationEnvoyee(null, 1L, "RAPPEL_2H", LocalDateTime.now().minusDays(60)));
+            notificationEnvoyeeRepository.save(
+                    new NotificationEnvoyee(null, 2L, "RAPPEL_2H", LocalDateTime.now().minusDays(1)));
+
+            List<Bilan> premier = maintenanceService.executer();
+
+            assertThat(premier).filteredOn(b -> b.tache().equals("refresh-tokens")).singleElement()
+                    .satisfies(b -> {
+                        assertThat(b.supprimees()).isEqualTo(2);
+                        assertThat(b.interrompue()).isTrue();
+                    });
+            assertThat(refreshTokenRepository.count()).isEqualTo(2);
+            assertThat(otpCodeRepository.count()).isZero();
+            assertThat(passwordResetTokenRepository.count()).isZero();
+            // Non lue de 100 jours conservée ; lue de 100 jours et toute notification de 400 jours supprimées
+            assertThat(notificationRepository.findAll()).singleElement()
+                    .satisfies(n -> assertThat(n.isLue()).isFalse());
+            assertThat(notificationEnvoyeeRepository.findAll()).extracting(NotificationEnvoyee::getReservationId)
+                    .containsExactly(2L);
+
+            List<Bilan> second = maintenanceService.executer();
+
+            assertThat(second).filteredOn(b -> b.tache().equals("refresh-tokens")).singleElement()
+                    .satisfies(b -> assertThat(b.supprimees()).isEqualTo(1));
+            assertThat(refreshTokenRepository.findAll()).singleElement()
+                    .satisfies(rt -> assertThat(rt.getExpiresAt()).isAfter(now));
+        }
+    }
+}
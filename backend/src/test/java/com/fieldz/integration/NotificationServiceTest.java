@@ -0,0 +1,409 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.NotificationDto;
+import com.fieldz.dto.PageCurseur;
+import com.fieldz.model.*;
+import com.fieldz.repository.*;
+import com.fieldz.scheduler.RoueTemporelle;
+import com.fieldz.mapper.NotificationMapper;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.cluster.EvenementDistant;
+import com.fieldz.service.cluster.Partition;
+import com.fieldz.service.notification.CompteurNonLues;
+import com.fieldz.service.notification.NotificationFlux;
+import com.fieldz.service.rappel.RappelService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class NotificationServiceTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private NotificationEnvoyeeRepository notificationEnvoyeeRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private RoueTemporelle roueTemporelle;
+
+    @Autowired
+    private RappelService rappelService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationFlux notificationFlux;
+
+    @Autowired
+    private NotificationMapper notificationMapper;
+
+    @Autowired
+    private EvenementClusterRepository evenementClusterRepository;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Terrain terrain;
+    private Joueur joueur;
+
+    @BeforeEach
+    void setUp() {
+        Club club = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Club Rappels")
+                .email("club.rappels@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Paris")
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL)))
+                .build());
+
+        terrain = new Terrain();
+        terrain.setNomTerrain("Terrain Rappels");
+        terrain.setClub(club);
+        terrain = terrainRepository.save(terrain);
+
+        joueur = (Joueur) utilisateurRepository.save(Joueur.builder()
+                .nom("Rappel").prenom("Jo").email("joueur.rappels@fieldz.com")
+                .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+    }
+
+    private Authentication authJoueur() {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn(joueur.getEmail());
+        return auth;
+    }
+
+    private Notification notification(LocalDateTime dateEnvoi) {
+        return notificationRepository.save(Notification.builder()
+                .destinataire(joueur).type(TypeNotification.ANNULATION).message("test")
+                .dateEnvoi(dateEnvoi).lue(false).build());
+    }
+
+    // Flux SSE ouvert par le contrôleur : les événements envoyés s'ajoutent au corps de la réponse
+    private MvcResult ouvrirFlux(String dernierEvenement) throws Exception {
+        var requete = get("/api/notifications/flux");
+        if (dernierEvenement != null) requete.header("Last-Event-ID", dernierEvenement);
+        return mockMvc.perform(requete).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private String curseur(Notification n) {
+        return NotificationFlux.curseur(notificationMapper.toDto(n));
+    }
+
+    private Reservation createReservation(LocalDateTime debut) {
+        Creneau c = new Creneau();
+        c.setTerrain(terrain);
+        c.setDateDebut(debut);
+        c.setDateFin(debut.plusHours(1));
+        c.setStatut(Statut.RESERVE);
+        c.setDisponible(false);
+        c = creneauRepository.save(c);
+
+        Reservation r = new Reservation();
+        r.setCreneau(c);
+        r.setJoueur(joueur);
+        r.setStatut(Statut.RESERVE);
+        r.setDateReservation(LocalDateTime.now());
+        return reservationRepository.save(r);
+    }
+
+    @Nested
+    @DisplayName("Rappels 2h avant")
+    class RappelsTests {
+
+        @Test
+        @DisplayName("envoyerRappels2hAvant - un seul rappel par réservation, déjà notifiées et lointaines exclues")
+        void envoyerRappels2hAvant_shouldNotifyOnce() {
+            Reservation proche = createReservation(LocalDateTime.now().plusHours(1));
+            Reservation dejaNotifiee = createReservation(LocalDateTime.now().plusMinutes(90));
+            createReservation(LocalDateTime.now().plusHours(5));
+            notificationEnvoyeeRepository.save(
+                    new NotificationEnvoyee(null, dejaNotifiee.getId(), "RAPPEL_2H", LocalDateTime.now()));
+            long emailsAvant = emailOutboxRepository.count();
+
+            notificationService.envoyerRappels2hAvant();
+            notificationService.envoyerRappels2hAvant();
+
+            assertThat(emailOutboxRepository.count()).isEqualTo(emailsAvant + 1);
+            assertThat(notificationEnvoyeeRepository.findAll())
+                    .extracting(NotificationEnvoyee::getReservationId)
+                    .containsExactlyInAnyOrder(proche.getId(), dejaNotifiee.getId());
+        }
+
+        @Test
+        @DisplayName("index unique (reservation_id, type) - un second marqueur est refusé")
+        void notificationEnvoyee_shouldBeUniquePerReservationAndType() {
+            Reservation r = createReservation(LocalDateTime.now().plusHours(1));
+            notificationEnvoyeeRepository.saveAndFlush(
+                    new NotificationEnvoyee(null, r.getId(), "RAPPEL_2H", LocalDateTime.now()));
+
+            assertThatThrownBy(() -> notificationEnvoyeeRepository.saveAndFlush(
+                    new NotificationEnvoyee(null, r.getId(), "RAPPEL_2H", LocalDateTime.now())))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+        }
+
+        @Test
+        @DisplayName("envoyerRappel2h - envoyé une fois à l'échéance, ignoré si trop tôt ou déjà notifié")
+        void envoyerRappel2h_shouldNotifyOnceWhenDue() {
+            Reservation proche = createReservation(LocalDateTime.now().plusMinutes(119));
+            Reservation lointaine = createReservation(LocalDateTime.now().plusHours(5));
+            long emailsAvant = emailOutboxRepository.count();
+
+            assertThat(notificationService.envoyerRappel2h(lointaine.getId(), Duration.ofHours(2))).isFalse();
+            assertThat(notificationService.envoyerRappel2h(proche.getId(), Duration.ofHours(2))).isTrue();
+            assertThat(notificationService.envoyerRappel2h(proche.getId(), Duration.ofHours(2))).isFalse();
+
+            assertThat(emailOutboxRepository.count()).isEqualTo(emailsAvant + 1);
+        }
+
+        @Test
+        @DisplayName("reconstruire - rattrape les rappels dus, ne charge que l'horizon de 24h")
+        void reconstruire_shouldCatchUpAndLoadOnlyHorizon() {
+            Reservation due = createReservation(LocalDateTime.now().plusHours(1));
+            Reservation dansHorizon = createReservation(LocalDateTime.now().plusHours(20));
+            Reservation horsHorizon = createReservation(LocalDateTime.now().plusHours(30));
+            reservationRepository.flush();
+
+            assertThat(rappelService.reconstruire(Partition.SEULE)).isEqualTo(1);
+
+            assertThat(notificationEnvoyeeRepository.findAll())
+                    .extracting(NotificationEnvoyee::getReservationId)
+                    .contains(due.getId())
+                    .doesNotContain(dansHorizon.getId(), horsHorizon.getId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Roue temporelle")
+    class RoueTemporelleTests {
+
+        @Test
+        @DisplayName("planifier / annuler - la tâche part à son échéance, la tâche annulée jamais")
+        void roue_shouldFireAtDueTimeUnlessCancelled() throws Exception {
+            CountDownLatch declenchee = new CountDownLatch(1);
+            AtomicBoolean annuleeDeclenchee = new AtomicBoolean();
+            LocalDateTime echeance = LocalDateTime.now().plusNanos(300_000_000);
+
+            roueTemporelle.planifier("TEST:annulee", echeance, () -> annuleeDeclenchee.set(true));
+            roueTemporelle.planifier("TEST:due", echeance, declenchee::countDown);
+            assertThat(roueTemporelle.annuler("TEST:annulee")).isTrue();
+
+            assertThat(declenchee.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(LocalDateTime.now()).isAfterOrEqualTo(echeance);
+            assertThat(roueTemporelle.estPlanifiee("TEST:due")).isFalse();
+            assertThat(annuleeDeclenchee).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Notifications in-app")
+    class InAppTests {
+
+        @Test
+        @DisplayName("pageMesNotifications - plus récentes d'abord, page suivante par curseur")
+        void pageMesNotifications_shouldPageByKeyset() {
+            LocalDateTime t = LocalDateTime.now().withNano(0);
+            Notification ancienne = notification(t.minusHours(2));
+            Notification memeDateA = notification(t);
+            Notification memeDateB = notification(t);
+
+            PageCurseur<NotificationDto> premiere = notificationService.pageMesNotifications(null, 2, authJoueur());
+            assertThat(premiere.contenu()).extracting(NotificationDto::getId)
+                    .containsExactly(memeDateB.getId(), memeDateA.getId());
+            assertThat(premiere.curseurSuivant()).isNotNull();
+
+            PageCurseur<NotificationDto> seconde = notificationService.pageMesNotifications(
+                    premiere.curseurSuivant(), 2, authJoueur());
+            assertThat(seconde.contenu()).extracting(NotificationDto::getId).containsExactly(ancienne.getId());
+            assertThat(seconde.curseurSuivant()).isNull();
+
+            assertThatThrownBy(() -> notificationService.pageMesNotifications("pas-un-curseur", 2, authJoueur()))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        @DisplayName("nombreNonLues - compteur en cache invalidé par marquerCommeLue")
+        void nombreNonLues_shouldFollowReads() {
+            Notification n = notification(LocalDateTime.now());
+            assertThat(notificationService.nombreNonLues(authJoueur())).isEqualTo(1);
+
+            notificationService.marquerCommeLue(n.getId(), authJoueur());
+
+            assertThat(notificationService.nombreNonLues(authJoueur())).isZero();
+        }
+
+        @Test
+        @DisplayName("ouvrirFlux - au plus max-par-utilisateur flux, le plus ancien est fermé")
+        void ouvrirFlux_shouldCapConnectionsPerUser() {
+            for (int i = 0; i < 5; i++) {
+                notificationService.ouvrirFlux(null, authJoueur());
+            }
+            assertThat(notificationFlux.connexions(joueur.getId())).isEqualTo(3);
+        }
+
+        @Test
+        @WithMockUser(username = "joueur.rappels@fieldz.com", roles = "JOUEUR")
+        @DisplayName("flux - Last-Event-ID : les notifications postérieures sont renvoyées, plus anciennes d'abord")
+        void flux_shouldReplaySinceLastEventId() throws Exception {
+            LocalDateTime t = LocalDateTime.now().withNano(0);
+            Notification recue = notification(t.minusHours(2));
+            Notification manquee1 = notification(t.minusHours(1));
+            Notification manquee2 = notification(t);
+
+            String corps = ouvrirFlux(curseur(recue)).getResponse().getContentAsString();
+
+            assertThat(corps).doesNotContain("id:" + curseur(recue));
+            assertThat(corps.indexOf("id:" + curseur(manquee1)))
+                    .isNotNegative()
+                    .isLessThan(corps.indexOf("id:" + curseur(manquee2)));
+            assertThat(corps).contains("event:non-lues", "\"nonLues\":3");
+        }
+
+        @Test
+        @WithMockUser(username = "joueur.rappels@fieldz.com", roles = "JOUEUR")
+        @DisplayName("flux - notification et compteur d'un autre noeud poussés aux flux ouverts ici")
+        void flux_shouldPushRemoteNotifications() throws Exception {
+            MvcResult flux = ouvrirFlux(null);
+            assertThat(notificationService.nombreNonLues(authJoueur())).isZero();
+
+            // Créée sur un autre noeud : rien ici avant l'événement du bus
+            Notification distante = notification(LocalDateTime.now());
+            assertThat(flux.getResponse().getContentAsString()).doesNotContain("id:" + curseur(distante));
+
+            publisher.publishEvent(new EvenementDistant(NotificationFlux.NOTIFICATION, Set.of(distante.getId())));
+            publisher.publishEvent(new EvenementDistant(CompteurNonLues.NON_LUES, Set.of(joueur.getId())));
+
+            assertThat(flux.getResponse().getContentAsString())
+                    .contains("id:" + curseur(distante), "\"nonLues\":1");
+            assertThat(notificationService.nombreNonLues(authJoueur())).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("nombreNonLues - invalidation d'un autre noeud (purge : tous les compteurs) appliquée ici")
+        void nombreNonLues_shouldFollowRemoteInvalidation() {
+            assertThat(notificationService.nombreNonLues(authJoueur())).isZero();
+
+            // Écrite sur un autre noeud : le compteur en cache l'ignore jusqu'à l'événement du bus
+            notification(LocalDateTime.now());
+            assertThat(notificationService.nombreNonLues(authJoueur())).isZero();
+
+            publisher.publishEvent(new EvenementDistant(CompteurNonLues.NON_LUES, null));
+            assertThat(notificationService.nombreNonLues(authJoueur())).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Poussée et diffusion après commit")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class ApresCommitTests {
+
+        @AfterEach
+        void tearDown() {
+            transactionTemplate.executeWithoutResult(status -> {
+                notificationRepository.deleteAll(notificationRepository.findByDestinataireOrderByDateEnvoiDesc(joueur));
+                reservationRepository.deleteAll(reservationRepository.findAll().stream()
+                        .filter(r -> joueur.getId().equals(r.getJoueur().getId())).toList());
+                creneauRepository.deleteByTerrainId(terrain.getId());
+                terrainRepository.deleteById(terrain.getId());
+                utilisateurRepository.deleteAllById(List.of(joueur.getId(), terrain.getClub().getId()));
+            });
+            emailOutboxRepository.deleteAll();
+            evenementClusterRepository.deleteAll();
+        }
+
+        @Test
+        @WithMockUser(username = "joueur.rappels@fieldz.com", roles = "JOUEUR")
+        @DisplayName("notifierAbsenceAutomatique - notification et compteur poussés au flux ouvert après le commit, diffusés par le bus")
+        void notification_shouldBePushedOnCreate() throws Exception {
+            Reservation r = createReservation(LocalDateTime.now().minusHours(30));
+            MvcResult flux = ouvrirFlux(null);
+            assertThat(flux.getResponse().getContentAsString()).contains("\"nonLues\":0");
+
+            notificationService.notifierAbsenceAutomatique(r);
+
+            Notification creee = notificationRepository.findByDestinataireOrderByDateEnvoiDesc(joueur).get(0);
+            assertThat(flux.getResponse().getContentAsString())
+                    .contains("event:notification", "\"id\":" + creee.getId(), "\"nonLues\":1");
+            assertThat(evenementClusterRepository.findAll())
+                    .extracting(EvenementCluster::getType, EvenementCluster::getCle)
+                    .contains(tuple(NotificationFlux.NOTIFICATION, creee.getId()),
+                            tuple(CompteurNonLues.NON_LUES, joueur.getId()));
+        }
+
+        @Test
+        @DisplayName("purgerNotifications - invalidation de tous les compteurs diffusée aux autres noeuds")
+        void purgerNotifications_shouldBroadcastInvalidation() {
+            notificationRepository.save(Notification.builder()
+                    .destinataire(joueur).type(TypeNotification.ANNULATION).message("test")
+                    .dateEnvoi(LocalDateTime.now().minusYears(2)).lue(false).build());
+
+            assertThat(notificationService.purgerNotifications(LocalDateTime.now().minusYears(1),
+                    LocalDateTime.now().minusMonths(3), 10)).isEqualTo(1);
+
+            assertThat(evenementClusterRepository.findAll())
+                    .extracting(EvenementCluster::getType, EvenementCluster::getCle)
+                    .containsExactly(tuple(CompteurNonLues.NON_LUES, null));
+        }
+    }
+}
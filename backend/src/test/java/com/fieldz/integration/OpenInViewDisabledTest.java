@@ -0,0 +1,204 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.ClubDto;
+import com.fieldz.dto.ReservationDto;
+import com.fieldz.dto.TerrainDto;
+import com.fieldz.mapper.CreneauMapper;
+import com.fieldz.mapper.ReservationMapper;
+import com.fieldz.model.*;
+import com.fieldz.repository.*;
+import com.fieldz.service.ClubService;
+import com.fieldz.service.CreneauService;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.ReservationService;
+import com.fieldz.service.TerrainService;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * spring.jpa.open-in-view=false : les contrôleurs reçoivent des entités détachées ou des DTO.
+ * Pas de @Transactional ici, comme dans un contrôleur : chaque chemin qui mappe hors du service
+ * doit le faire sans chargement LAZY.
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class OpenInViewDisabledTest {
+
+    @Autowired
+    private TerrainService terrainService;
+
+    @Autowired
+    private ClubService clubService;
+
+    @Autowired
+    private CreneauService creneauService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ClubImageRepository clubImageRepository;
+
+    @Autowired
+    private DisponibiliteIndex disponibiliteIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private Club club;
+    private Joueur joueur;
+    private Terrain terrain;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            club = (Club) utilisateurRepository.save(Club.builder()
+                    .nom("Club Sans OSIV").email("club.osiv@fieldz.com").motDePasse("$2a$10$test")
+                    .ville("Nantes").typeRole(Role.CLUB).sports(new HashSet<>(Set.of(Sport.PADEL))).build());
+            clubImageRepository.save(ClubImage.builder()
+                    .imageUrl("https://img.fieldz.com/osiv.png").club(club).displayOrder(0).build());
+            Terrain t = new Terrain();
+            t.setNomTerrain("Terrain Sans OSIV");
+            t.setClub(club);
+            t.setVille("Nantes");
+            t.setSport("PADEL");
+            terrain = terrainRepository.save(t);
+            joueur = (Joueur) utilisateurRepository.save(Joueur.builder()
+                    .nom("Osiv").prenom("Jo").email("joueur.osiv@fieldz.com")
+                    .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            reservationRepository.deleteAll(reservationRepository.findByCreneau_TerrainId(terrain.getId()));
+            creneauRepository.deleteByTerrainId(terrain.getId());
+            terrainRepository.deleteById(terrain.getId());
+            utilisateurRepository.deleteById(joueur.getId());
+            utilisateurRepository.deleteById(club.getId());
+        });
+        disponibiliteIndex.retirerTerrain(terrain.getId());
+    }
+
+    private static Authentication auth(Utilisateur u) {
+        Authentication a = mock(Authentication.class);
+        when(a.getName()).thenReturn(u.getEmail());
+        return a;
+    }
+
+    private Creneau creneauLibre() {
+        Creneau c = new Creneau();
+        c.setTerrain(terrain);
+        c.setDateDebut(LocalDateTime.now().plusDays(2).withNano(0));
+        c.setDateFin(c.getDateDebut().plusHours(1));
+        c.setPrix(30.0);
+        c.setStatut(Statut.LIBRE);
+        c.setDisponible(true);
+        return transactionTemplate.execute(status -> creneauRepository.save(c));
+    }
+
+    @Test
+    @DisplayName("Témoin - hors transaction, une association LAZY non chargée lève bien une exception")
+    void temoin_lazyOutsideTransactionShouldFail() {
+        Club detache = (Club) utilisateurRepository.findById(club.getId()).orElseThrow();
+
+        assertThatThrownBy(() -> detache.getImages().size()).isInstanceOf(LazyInitializationException.class);
+    }
+
+    @Nested
+    @DisplayName("Terrains et clubs")
+    class TerrainClubTests {
+
+        @Test
+        @DisplayName("getTerrains - DTO construit dans la transaction, images du club comprises")
+        void getTerrains_shouldMapClubImagesInsideService() {
+            List<TerrainDto> terrains = terrainService.getTerrains(auth(club));
+
+            assertThat(terrains).singleElement().satisfies(t -> {
+                assertThat(t.getNomTerrain()).isEqualTo("Terrain Sans OSIV");
+                assertThat(t.getClub().getImages()).extracting("imageUrl")
+                        .containsExactly("https://img.fieldz.com/osiv.png");
+            });
+        }
+
+        @Test
+        @DisplayName("getClubById - images chargées avant la fin de la transaction")
+        void getClubById_shouldMapImages() {
+            ClubDto dto = clubService.getClubById(club.getId());
+
+            assertThat(dto.getImages()).hasSize(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Créneaux et réservations")
+    class CreneauReservationTests {
+
+        @Test
+        @DisplayName("getCreneauxDuTerrain - entités mappées par le contrôleur : terrain et club déjà chargés")
+        void getCreneauxDuTerrain_shouldBeMappableOutsideTransaction() {
+            creneauLibre();
+
+            List<Creneau> creneaux = creneauService.getCreneauxDuTerrain(terrain.getId(), auth(club));
+
+            assertThat(creneaux).singleElement()
+                    .satisfies(c -> assertThat(CreneauMapper.toDto(c).getTerrain().getClub().getNom())
+                            .isEqualTo("Club Sans OSIV"));
+        }
+
+        @Test
+        @DisplayName("reserver puis annuler - réservation renvoyée mappable, créneau lu après le commit")
+        void reserverPuisAnnuler_shouldWorkWithoutOpenSession() {
+            Creneau creneau = creneauLibre();
+
+            Reservation reservation = reservationService.reserver(creneau.getId(), auth(joueur));
+            ReservationDto dto = ReservationMapper.toDto(reservation);
+            String message = reservationService.annulerReservation(reservation.getId(), auth(joueur), "Empêché");
+
+            assertThat(dto.getCreneau().getTerrain().getNomTerrain()).isEqualTo("Terrain Sans OSIV");
+            assertThat(dto.getCreneau().getTerrain().getClub().getNom()).isEqualTo("Club Sans OSIV");
+            assertThat(message).contains("annulée");
+            assertThat(reservationRepository.findById(reservation.getId()).orElseThrow().getStatut())
+                    .isEqualTo(Statut.ANNULE_PAR_JOUEUR);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.fieldz.integration;
+
+import com.fieldz.service.partitionnement.PartitionsMensuellesService;
+import com.fieldz.service.partitionnement.PartitionsMensuellesService.Bilan;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Les tests tournent sur H2, sans partitionnement : le catalogue PostgreSQL (pg_inherits,
+ * partitions par défaut, clés étrangères) est simulé derrière le JdbcTemplate, qui note le DDL émis.
+ * Rétention et mois à l'avance par défaut : 24 et 12.
+ */
+class PartitionsMensuellesServiceTest {
+
+    private static final YearMonth MOIS_COURANT = YearMonth.of(2026, 10);
+
+    private final CataloguePostgres catalogue = new CataloguePostgres();
+    private final PartitionsMensuellesService service = new PartitionsMensuellesService(
+            catalogue, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Nested
+    @DisplayName("Création")
+    class CreationTests {
+
+        @Test
+        @DisplayName("maintenir - crée les partitions manquantes des mois à venir, pour les deux tables")
+        void maintenir_shouldCreateMissingPartitions() {
+            catalogue.attacher("creneau", "creneau_p2026_10");
+
+            Bilan bilan = service.maintenir(MOIS_COURANT);
+
+            // 13 mois x 2 tables, moins la partition existante
+            assertThat(bilan).isEqualTo(new Bilan(25, 0, 0));
+            assertThat(catalogue.ddl).contains(
+                    "CREATE TABLE IF NOT EXISTS reservation_p2026_10 PARTITION OF reservation FOR VALUES FROM ('2026-10-01') TO ('2026-11-01')",
+                    "CREATE TABLE IF NOT EXISTS creneau_p2027_10 PARTITION OF creneau FOR VALUES FROM ('2027-10-01') TO ('2027-11-01')");
+            assertThat(catalogue.ddl).noneMatch(sql -> sql.contains("creneau_p2026_10 PARTITION OF creneau"));
+
+            // Second passage : tout existe
+            assertThat(service.maintenir(MOIS_COURANT)).isEqualTo(new Bilan(0, 0, 0));
+        }
+
+        @Test
+        @DisplayName("maintenir - mois déjà présent dans la partition par défaut : ignoré, pas de création")
+        void maintenir_shouldSkipMonthWithRowsInDefaultPartition() {
+            catalogue.occuper("reservation", YearMonth.of(2026, 11));
+
+            Bilan bilan = service.maintenir(MOIS_COURANT);
+
+            assertThat(bilan).isEqualTo(new Bilan(25, 0, 1));
+            assertThat(catalogue.attachees("reservation")).doesNotContain("reservation_p2026_11");
+            assertThat(catalogue.attachees("creneau")).contains("creneau_p2026_11");
+        }
+    }
+
+    @Nested
+    @DisplayName("Archivage")
+    class ArchivageTests {
+
+        @Test
+        @DisplayName("maintenir - mois hors rétention détachés, sans clés étrangères, rangés dans archive ; reservation d'abord")
+        void maintenir_shouldArchiveMonthsBeyondRetention() {
+            for (String mois : List.of("2024_08", "2024_09", "2024_10")) {
+                catalogue.attacher("reservation", "reservation_p" + mois);
+                catalogue.attacher("creneau", "creneau_p" + mois);
+            }
+
+            Bilan bilan = service.maintenir(MOIS_COURANT);
+
+            assertThat(bilan.archivees()).isEqualTo(2);
+            assertThat(catalogue.attachees("reservation"))
+                    .doesNotContain("reservation_p2024_08", "reservation_p2024_09")
+                    .contains("reservation_p2024_10");
+            assertThat(catalogue.attachees("creneau"))
+                    .doesNotContain("creneau_p2024_08", "creneau_p2024_09")
+                    .contains("creneau_p2024_10");
+
+            List<String> archivage = catalogue.ddl.stream().filter(sql -> sql.contains("p2024_08")).toList();
+            assertThat(archivage).containsExactly(
+                    "ALTER TABLE reservation DETACH PARTITION reservation_p2024_08",
+                    "ALTER TABLE reservation_p2024_08 DROP CONSTRAINT \"fk_reservation_p2024_08_creneau\"",
+                    "ALTER TABLE reservation_p2024_08 SET SCHEMA archive",
+                    "ALTER TABLE creneau DETACH PARTITION creneau_p2024_08",
+                    "ALTER TABLE creneau_p2024_08 SET SCHEMA archive");
+        }
+    }
+
+    @Nested
+    @DisplayName("Hors PostgreSQL")
+    class SansPartitionnementTests {
+
+        @Test
+        @DisplayName("maintenir - base non PostgreSQL : rien à faire")
+        void maintenir_shouldDoNothingOutsidePostgres() {
+            catalogue.produit = "H2";
+
+            assertThat(service.maintenir(MOIS_COURANT)).isEqualTo(new Bilan(0, 0, 0));
+            assertThat(catalogue.ddl).isEmpty();
+        }
+
+        @Test
+        @DisplayName("maintenir - PostgreSQL sans tables partitionnées (V14 non appliquée) : rien à faire")
+        void maintenir_shouldDoNothingWhenTablesAreNotPartitioned() {
+            catalogue.partitionne = false;
+
+            assertThat(service.maintenir(MOIS_COURANT)).isEqualTo(new Bilan(0, 0, 0));
+            assertThat(catalogue.ddl).isEmpty();
+        }
+    }
+
+    /** Répond aux requêtes de catalogue du service et applique son DDL à un état en mémoire. */
+    private static class CataloguePostgres extends JdbcTemplate {
+
+        private String produit = "PostgreSQL";
+        private boolean partitionne = true;
+        private final Map<String, Set<String>> partitions = new HashMap<>();
+        private final Set<String> occupees = new HashSet<>();
+        private final List<String> ddl = new ArrayList<>();
+
+        void attacher(String table, String partition) {
+            partitions.computeIfAbsent(table, t -> new HashSet<>()).add(partition);
+        }
+
+        void occuper(String table, YearMonth mois) {
+            occupees.add(table + "/" + mois);
+        }
+
+        Set<String> attachees(String table) {
+            return partitions.getOrDefault(table, Set.of());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(ConnectionCallback<T> action) {
+            return (T) produit;
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            return queryForObject(sql, requiredType, new Object[0]);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            if (sql.contains("pg_class")) {
+                return (T) Boolean.valueOf(partitionne);
+            }
+            // SELECT EXISTS (SELECT 1 FROM <table>_defaut WHERE <cle> >= ? AND <cle> < ?)
+            String table = sql.substring(sql.indexOf("FROM ") + 5, sql.indexOf("_defaut"));
+            YearMonth mois = YearMonth.from(((Timestamp) args[0]).toLocalDateTime());
+            return (T) Boolean.valueOf(occupees.contains(table + "/" + mois));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            String relation = (String) args[0];
+            if (sql.contains("pg_inherits")) {
+                return (List<T>) List.copyOf(attachees(relation));
+            }
+            // Clés étrangères d'une partition détachée : seule reservation en a (vers creneau)
+            return (List<T>) (relation.startsWith("reservation_p") ? List.of("fk_" + relation + "_creneau") : List.of());
+        }
+
+        @Override
+        public void execute(String sql) {
+            ddl.add(sql);
+            String[] mots = sql.split(" ");
+            if (sql.startsWith("CREATE TABLE")) {
+                // CREATE TABLE IF NOT EXISTS <partition> PARTITION OF <table> ...
+                attacher(mots[8], mots[5]);
+            } else if (sql.contains("DETACH PARTITION")) {
+                partitions.get(mots[2]).remove(mots[5]);
+            }
+        }
+    }
+}
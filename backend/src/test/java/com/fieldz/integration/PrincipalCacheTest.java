@@ -0,0 +1,90 @@
+package com.fieldz.integration;
+
+import com.fieldz.model.Joueur;
+import com.fieldz.model.Role;
+import com.fieldz.model.Utilisateur;
+import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.security.service.CustomUserDetailsService;
+import com.fieldz.security.service.PrincipalCache;
+import com.fieldz.service.cluster.EvenementDistant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class PrincipalCacheTest {
+
+    private static final String EMAIL = "principal.cache@fieldz.com";
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    private Joueur joueur;
+
+    @BeforeEach
+    void setUp() {
+        principalCache.vider();
+        joueur = utilisateurRepository.save(Joueur.builder()
+                .nom("Cache").prenom("Jo").email(EMAIL)
+                .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+    }
+
+    private Set<String> roles() {
+        return Set.copyOf(userDetailsService.chargerPrincipal(EMAIL).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Nested
+    @DisplayName("Invalidation")
+    class InvalidationTests {
+
+        @Test
+        @DisplayName("chargerPrincipal - rôle modifié : la requête suivante voit le nouveau rôle")
+        void chargerPrincipal_shouldSeeNewRolesAfterUpdate() {
+            assertThat(roles()).containsExactly("ROLE_JOUEUR");
+            assertThat(principalCache.get(EMAIL)).isNotNull();
+
+            Utilisateur u = utilisateurRepository.findById(joueur.getId()).orElseThrow();
+            u.setTypeRole(Role.ADMIN);
+            utilisateurRepository.saveAndFlush(u);
+
+            assertThat(principalCache.get(EMAIL)).isNull();
+            assertThat(roles()).containsExactly("ROLE_ADMIN");
+        }
+
+        @Test
+        @DisplayName("surEvenementDistant - utilisateur modifié sur un autre noeud : évincé ici")
+        void principal_shouldBeEvictedByRemoteEvent() {
+            roles();
+            assertThat(principalCache.get(EMAIL)).isNotNull();
+
+            publisher.publishEvent(new EvenementDistant(PrincipalCache.PRINCIPAL, Set.of(joueur.getId())));
+
+            assertThat(principalCache.get(EMAIL)).isNull();
+        }
+    }
+}
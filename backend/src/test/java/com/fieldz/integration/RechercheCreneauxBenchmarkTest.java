@@ -0,0 +1,158 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.FiltreCreneaux;
+import com.fieldz.dto.ImportCreneauxResultat;
+import com.fieldz.dto.PageCurseur;
+import com.fieldz.model.*;
+import com.fieldz.repository.TerrainRepository;
+import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.disponibilite.RechercheCreneauxService;
+import com.fieldz.service.importation.CreneauImportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latence de la recherche publique de créneaux (RechercheCreneauxService) sur un jeu réaliste :
+ * 4 villes x 8 terrains x 60 jours x 28 créneaux de 30 min, filtres tirés au hasard,
+ * un tiers des requêtes sur une page suivante.
+ *
+ * Hors build par défaut : mvn test -Dtest=RechercheCreneauxBenchmarkTest -Dbenchmark=true
+ * Objectif p99 : -Dbenchmark.recherche.p99-ms (50 ms par défaut, H2 en mémoire).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark-recherche;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RechercheCreneauxBenchmarkTest {
+
+    private static final List<String> VILLES = List.of("Paris", "Lyon", "Marseille", "Lille");
+    private static final List<String> SPORTS = List.of("PADEL", "TENNIS");
+    private static final int TERRAINS_PAR_VILLE = 8;
+    private static final int JOURS = 60;
+    private static final int ECHAUFFEMENT = 300;
+    private static final int MESURES = 2000;
+
+    @Autowired
+    private RechercheCreneauxService rechercheCreneauxService;
+
+    @Autowired
+    private CreneauImportService creneauImportService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @Test
+    @DisplayName("rechercher - p99 sous l'objectif, filtres et pages aléatoires")
+    void rechercher_p99() throws Exception {
+        for (String ville : VILLES) {
+            importer(ville);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < ECHAUFFEMENT; i++) {
+            rechercher(random);
+        }
+        long[] durees = new long[MESURES];
+        for (int i = 0; i < MESURES; i++) {
+            long debut = System.nanoTime();
+            rechercher(random);
+            durees[i] = System.nanoTime() - debut;
+        }
+        Arrays.sort(durees);
+
+        double p50 = durees[MESURES / 2] / 1e6;
+        double p99 = durees[(int) Math.ceil(MESURES * 0.99) - 1] / 1e6;
+        double objectif = Double.parseDouble(System.getProperty("benchmark.recherche.p99-ms", "50"));
+        System.out.printf("[benchmark] recherche : %d requêtes, p50 %.2f ms, p99 %.2f ms (objectif %.0f ms)%n",
+                MESURES, p50, p99, objectif);
+
+        assertThat(p99).isLessThan(objectif);
+    }
+
+    // Filtres tirés au hasard ; une fois sur trois, la page suivante est aussi demandée
+    private void rechercher(Random random) {
+        LocalDate depuis = LocalDate.now().plusDays(random.nextInt(JOURS - 7));
+        FiltreCreneaux filtre = new FiltreCreneaux(
+                random.nextInt(4) == 0 ? null : VILLES.get(random.nextInt(VILLES.size())),
+                random.nextBoolean() ? null : SPORTS.get(random.nextInt(SPORTS.size())),
+                depuis,
+                depuis.plusDays(random.nextInt(7)),
+                random.nextBoolean() ? null : LocalTime.of(17 + random.nextInt(4), 0),
+                null,
+                null,
+                random.nextBoolean() ? null : 25.0,
+                null,
+                20);
+        PageCurseur<?> page = rechercheCreneauxService.rechercher(filtre);
+        if (page.curseurSuivant() != null && random.nextInt(3) == 0) {
+            rechercheCreneauxService.rechercher(new FiltreCreneaux(filtre.ville(), filtre.sport(), filtre.depuis(),
+                    filtre.jusqua(), filtre.heureMin(), filtre.heureMax(), filtre.prixMin(), filtre.prixMax(),
+                    page.curseurSuivant(), filtre.taille()));
+        }
+    }
+
+    // Un club par ville ; terrains de padel et de tennis en alternance, prix 20 le jour, 30 le soir
+    private void importer(String ville) throws Exception {
+        String email = "club.recherche." + ville.toLowerCase() + "@fieldz.com";
+        Club club = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Club " + ville)
+                .email(email)
+                .motDePasse("$2a$10$test")
+                .ville(ville)
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL, Sport.TENNIS)))
+                .build());
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn(email);
+
+        StringBuilder csv = new StringBuilder("terrainId;dateDebut;dateFin;prix\n");
+        for (int t = 0; t < TERRAINS_PAR_VILLE; t++) {
+            Terrain terrain = new Terrain();
+            terrain.setNomTerrain(ville + " " + t);
+            terrain.setClub(club);
+            terrain.setVille(ville);
+            terrain.setSport(SPORTS.get(t % SPORTS.size()));
+            Long terrainId = terrainRepository.save(terrain).getId();
+            for (int j = 1; j <= JOURS; j++) {
+                LocalDateTime debut = LocalDate.now().plusDays(j).atTime(8, 0);
+                for (int i = 0; i < 28; i++, debut = debut.plusMinutes(30)) {
+                    csv.append(terrainId).append(';').append(debut).append(';').append(debut.plusMinutes(30))
+                            .append(';').append(debut.getHour() >= 18 ? 30 : 20).append('\n');
+                }
+            }
+        }
+
+        ImportCreneauxResultat resultat = creneauImportService.importerCsv(new StringReader(csv.toString()), auth);
+        assertThat(resultat.totalCrees()).isEqualTo(TERRAINS_PAR_VILLE * JOURS * 28);
+    }
+}
@@ -0,0 +1,318 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.CreneauDto;
+import com.fieldz.dto.CreneauRecurrentDto;
+import com.fieldz.dto.FiltreCreneaux;
+import com.fieldz.dto.PageCurseur;
+import com.fieldz.dto.RegleCreneauDto;
+import com.fieldz.dto.UpdateTerrainRequest;
+import com.fieldz.model.*;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.RegleCreneauRepository;
+import com.fieldz.repository.TerrainRepository;
+import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.RegleCreneauService;
+import com.fieldz.service.TerrainService;
+import com.fieldz.service.cluster.EvenementDistant;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.disponibilite.DisponibiliteIndexLoader;
+import com.fieldz.service.disponibilite.RechercheCreneauxService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class RechercheCreneauxServiceTest {
+
+    @Autowired
+    private RechercheCreneauxService rechercheCreneauxService;
+
+    @Autowired
+    private RegleCreneauService regleCreneauService;
+
+    @Autowired
+    private TerrainService terrainService;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DisponibiliteIndex disponibiliteIndex;
+
+    @Autowired
+    private RegleCreneauRepository regleCreneauRepository;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private Terrain padelParis;
+    private Terrain tennisLyon;
+    private Authentication authClub;
+    private final LocalDate jour = LocalDate.now().plusDays(3);
+
+    @BeforeEach
+    void setUp() {
+        Club club = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Club Recherche")
+                .email("club.recherche@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Paris")
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL, Sport.TENNIS)))
+                .build());
+
+        padelParis = terrain(club, "Padel 1", null, "padel");   // ville héritée du club
+        tennisLyon = terrain(club, "Tennis 1", "Lyon", "TENNIS");
+
+        authClub = mock(Authentication.class);
+        when(authClub.getName()).thenReturn("club.recherche@fieldz.com");
+    }
+
+    private Terrain terrain(Club club, String nom, String ville, String sport) {
+        Terrain t = new Terrain();
+        t.setNomTerrain(nom);
+        t.setClub(club);
+        t.setVille(ville);
+        t.setSport(sport);
+        return terrainRepository.save(t);
+    }
+
+    private Creneau creneau(Terrain terrain, LocalDateTime debut, double prix, Statut statut) {
+        Creneau c = new Creneau();
+        c.setTerrain(terrain);
+        c.setDateDebut(debut);
+        c.setDateFin(debut.plusHours(1));
+        c.setPrix(prix);
+        c.setStatut(statut);
+        c.setDisponible(statut == Statut.LIBRE);
+        return creneauRepository.save(c);
+    }
+
+    private RegleCreneauDto regle(Terrain terrain, LocalTime heureDebut) {
+        CreneauRecurrentDto regle = new CreneauRecurrentDto();
+        regle.setDateDebut(jour);
+        regle.setDateFin(jour);
+        regle.setJourDeSemaine(jour.getDayOfWeek().name());
+        regle.setHeureDebut(heureDebut);
+        regle.setDureeMinutes(60);
+        regle.setNombreDuplications(1);
+        regle.setPrix(25.0);
+        regle.setTerrainId(terrain.getId());
+        return regleCreneauService.creer(regle, authClub);
+    }
+
+    private static FiltreCreneaux filtre(String ville, String sport, LocalDate depuis, LocalDate jusqua,
+                                         LocalTime heureMin, Double prixMax, String apres, int taille) {
+        return new FiltreCreneaux(ville, sport, depuis, jusqua, heureMin, null, null, prixMax, apres, taille);
+    }
+
+    @Nested
+    @DisplayName("Filtres")
+    class FiltresTests {
+
+        @Test
+        @DisplayName("ville (insensible à la casse, héritée du club), sport, heure et prix")
+        void rechercher_shouldApplyFilters() {
+            creneau(padelParis, jour.atTime(10, 0), 20.0, Statut.LIBRE);
+            Creneau soir = creneau(padelParis, jour.atTime(19, 0), 30.0, Statut.LIBRE);
+            creneau(padelParis, jour.atTime(20, 0), 60.0, Statut.LIBRE);
+            creneau(padelParis, jour.atTime(21, 0), 30.0, Statut.RESERVE);
+            creneau(tennisLyon, jour.atTime(19, 0), 30.0, Statut.LIBRE);
+            creneau(padelParis, LocalDateTime.now().minusHours(3), 30.0, Statut.LIBRE); // passé
+
+            PageCurseur<CreneauDto> page = rechercheCreneauxService.rechercher(
+                    filtre(" PARIS ", "Padel", null, null, LocalTime.of(18, 0), 40.0, null, 20));
+
+            assertThat(page.contenu()).extracting(CreneauDto::getId).containsExactly(soir.getId());
+            assertThat(page.curseurSuivant()).isNull();
+            assertThat(rechercheCreneauxService.rechercher(filtre("lyon", null, jour, jour, null, null, null, 20))
+                    .contenu()).extracting(d -> d.getTerrain().getNomTerrain()).containsExactly("Tennis 1");
+        }
+
+        @Test
+        @DisplayName("occurrences de règles - seules celles de la ville et du sport demandés")
+        void rechercher_shouldFilterRuleOccurrencesByLieu() {
+            regle(padelParis, LocalTime.of(10, 0));
+            regle(tennisLyon, LocalTime.of(10, 0));
+
+            assertThat(rechercheCreneauxService.rechercher(filtre("Paris", "PADEL", jour, jour, null, null, null, 20))
+                    .contenu()).extracting(d -> d.getTerrain().getNomTerrain()).containsExactly("Padel 1");
+            assertThat(rechercheCreneauxService.rechercher(filtre("Paris", "TENNIS", jour, jour, null, null, null, 20))
+                    .contenu()).isEmpty();
+            assertThat(rechercheCreneauxService.rechercher(filtre(null, "tennis", jour, jour, null, null, null, 20))
+                    .contenu()).extracting(d -> d.getTerrain().getNomTerrain()).containsExactly("Tennis 1");
+            assertThat(rechercheCreneauxService.libresDansLaVille("lyon", null, jour, null, null))
+                    .extracting(d -> d.getTerrain().getNomTerrain()).containsExactly("Tennis 1");
+        }
+
+        @Test
+        @DisplayName("modification du terrain - la ville recopiée sur ses créneaux suit")
+        void updateTerrain_shouldPropagateVille() {
+            Creneau c = creneau(tennisLyon, jour.atTime(9, 0), 25.0, Statut.LIBRE);
+            UpdateTerrainRequest req = new UpdateTerrainRequest();
+            req.setVille("Marseille");
+            terrainService.updateTerrain(tennisLyon.getId(), req, authClub);
+            entityManager.clear();
+
+            assertThat(rechercheCreneauxService.rechercher(filtre("Marseille", null, null, null, null, null, null, 20))
+                    .contenu()).extracting(CreneauDto::getId).containsExactly(c.getId());
+            assertThat(rechercheCreneauxService.rechercher(filtre("Lyon", null, null, null, null, null, null, 20))
+                    .contenu()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("fenêtre trop large ou curseur invalide - refusés")
+        void rechercher_shouldRejectInvalidInput() {
+            assertThatThrownBy(() -> rechercheCreneauxService.rechercher(
+                    filtre(null, null, jour, jour.plusDays(31), null, null, null, 20)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("31 jours");
+            assertThatThrownBy(() -> rechercheCreneauxService.rechercher(
+                    filtre(null, null, null, null, null, null, "pas-un-curseur", 20)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Créneaux libres d'une ville (index mémoire)")
+    class LibresDansLaVilleTests {
+
+        @Test
+        @DisplayName("ville, sport et plage horaire - réservation et changement de ville du terrain suivis")
+        void libresDansLaVille_shouldFollowBookingsAndTerrainChanges() {
+            Creneau soir = creneau(padelParis, jour.atTime(19, 0), 30.0, Statut.LIBRE);
+            Creneau soir2 = creneau(padelParis, jour.atTime(20, 30), 30.0, Statut.LIBRE);
+            creneau(padelParis, jour.atTime(10, 0), 20.0, Statut.LIBRE);
+            creneau(tennisLyon, jour.atTime(19, 0), 30.0, Statut.LIBRE);
+            entityManager.flush();
+            assertThat(disponibiliteIndex.estPret()).isTrue();
+
+            assertThat(rechercheCreneauxService.libresDansLaVille("Paris", "padel", jour,
+                    LocalTime.of(18, 0), LocalTime.of(22, 0)))
+                    .extracting(CreneauDto::getId).containsExactly(soir.getId(), soir2.getId());
+
+            soir.setStatut(Statut.RESERVE);
+            soir.setDisponible(false);
+            creneauRepository.saveAndFlush(soir);
+            assertThat(rechercheCreneauxService.libresDansLaVille("paris", null, jour,
+                    LocalTime.of(18, 0), null))
+                    .extracting(CreneauDto::getId).containsExactly(soir2.getId());
+
+            UpdateTerrainRequest req = new UpdateTerrainRequest();
+            req.setVille("Paris");
+            terrainService.updateTerrain(tennisLyon.getId(), req, authClub);
+            assertThat(rechercheCreneauxService.libresDansLaVille("Lyon", null, jour, null, null)).isEmpty();
+            assertThat(rechercheCreneauxService.libresDansLaVille("Paris", "TENNIS", jour, null, null))
+                    .extracting(d -> d.getTerrain().getNomTerrain()).containsExactly("Tennis 1");
+        }
+    }
+
+    @Nested
+    @DisplayName("Règles gardées par l'index")
+    class ReglesIndexTests {
+
+        @Test
+        @DisplayName("libresDansLaVille - occurrences servies par l'index, occurrence réservée masquée, suppression distante suivie")
+        void libresDansLaVille_shouldServeRulesFromIndex() {
+            RegleCreneauDto reservee = regle(padelParis, LocalTime.of(18, 0));
+            RegleCreneauDto supprimee = regle(padelParis, LocalTime.of(20, 0));
+            assertThat(disponibiliteIndex.estPret()).isTrue();
+            assertThat(rechercheCreneauxService.libresDansLaVille("Paris", "PADEL", jour, null, null))
+                    .extracting(CreneauDto::getRegleId).containsExactly(reservee.id(), supprimee.id());
+
+            // Occurrence matérialisée et réservée : le créneau de l'index l'emporte
+            creneau(padelParis, jour.atTime(18, 0), 25.0, Statut.RESERVE);
+            entityManager.flush();
+            assertThat(rechercheCreneauxService.libresDansLaVille("Paris", "PADEL", jour, null, null))
+                    .extracting(CreneauDto::getRegleId).containsExactly(supprimee.id());
+
+            // Supprimée par un autre noeud : la base seule ne change rien à l'index, l'événement du bus si
+            regleCreneauRepository.deleteById(supprimee.id());
+            entityManager.flush();
+            assertThat(rechercheCreneauxService.libresDansLaVille("Paris", "PADEL", jour, null, null))
+                    .extracting(CreneauDto::getRegleId).containsExactly(supprimee.id());
+            publisher.publishEvent(new EvenementDistant(DisponibiliteIndexLoader.REGLE, Set.of(supprimee.id())));
+            assertThat(rechercheCreneauxService.libresDansLaVille("Paris", "PADEL", jour, null, null)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Pagination par clé")
+    class PaginationTests {
+
+        @Test
+        @DisplayName("parcours complet - créneaux matérialisés et occurrences de règles, sans doublon ni trou")
+        void rechercher_shouldWalkMaterializedAndVirtual() {
+            creneau(padelParis, jour.atTime(9, 0), 20.0, Statut.LIBRE);
+            creneau(tennisLyon, jour.atTime(9, 0), 20.0, Statut.LIBRE);
+            creneau(padelParis, jour.atTime(12, 0), 20.0, Statut.LIBRE);
+
+            CreneauRecurrentDto regle = new CreneauRecurrentDto();
+            regle.setDateDebut(jour);
+            regle.setDateFin(jour);
+            regle.setJourDeSemaine(jour.getDayOfWeek().name());
+            regle.setHeureDebut(LocalTime.of(10, 0));
+            regle.setDureeMinutes(60);
+            regle.setNombreDuplications(2);
+            regle.setPrix(25.0);
+            regle.setTerrainId(padelParis.getId());
+            regleCreneauService.creer(regle, authClub);
+
+            List<CreneauDto> vus = new ArrayList<>();
+            String curseur = null;
+            int pages = 0;
+            do {
+                PageCurseur<CreneauDto> page = rechercheCreneauxService.rechercher(
+                        filtre(null, null, jour, jour, null, null, curseur, 2));
+                vus.addAll(page.contenu());
+                curseur = page.curseurSuivant();
+                pages++;
+            } while (curseur != null);
+
+            assertThat(pages).isEqualTo(3);
+            assertThat(vus).extracting(CreneauDto::getDateDebut).containsExactly(
+                    jour.atTime(9, 0), jour.atTime(9, 0), jour.atTime(10, 0), jour.atTime(11, 0), jour.atTime(12, 0));
+            assertThat(vus).filteredOn(d -> d.getRegleId() != null).hasSize(2)
+                    .allMatch(d -> d.getId() == null);
+        }
+    }
+}
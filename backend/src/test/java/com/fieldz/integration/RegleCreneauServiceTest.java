@@ -0,0 +1,243 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.CreneauRecurrentDto;
+import com.fieldz.dto.RegleCreneauDto;
+import com.fieldz.model.*;
+import com.fieldz.repository.CreneauRepository;
+import com.fieldz.repository.TerrainRepository;
+import com.fieldz.repository.UtilisateurRepository;
+import com.fieldz.service.CreneauService;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.RegleCreneauService;
+import com.fieldz.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class RegleCreneauServiceTest {
+
+    @Autowired
+    private RegleCreneauService regleCreneauService;
+
+    @Autowired
+    private CreneauService creneauService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private Club testClub;
+    private Terrain testTerrain;
+    private Authentication authClub;
+    private Authentication authJoueur;
+    // Premier jour de la règle : dans une semaine, pour rester dans l'horizon des disponibilités
+    private final LocalDate jour = LocalDate.now().plusDays(7);
+
+    @BeforeEach
+    void setUp() {
+        testClub = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Club Regles")
+                .email("club.regles@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Paris")
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL)))
+                .build());
+
+        utilisateurRepository.save(Joueur.builder()
+                .nom("Dupont").prenom("Jean").email("joueur.regles@fieldz.com")
+                .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+
+        testTerrain = new Terrain();
+        testTerrain.setNomTerrain("Terrain 1");
+        testTerrain.setClub(testClub);
+        testTerrain.setVille("Paris");
+        testTerrain.setSport("PADEL");
+        testTerrain = terrainRepository.save(testTerrain);
+
+        authClub = mock(Authentication.class);
+        when(authClub.getName()).thenReturn("club.regles@fieldz.com");
+        authJoueur = mock(Authentication.class);
+        when(authJoueur.getName()).thenReturn("joueur.regles@fieldz.com");
+    }
+
+    private CreneauRecurrentDto regle(LocalTime heureDebut, int duplications) {
+        CreneauRecurrentDto dto = new CreneauRecurrentDto();
+        dto.setDateDebut(jour);
+        dto.setDateFin(jour.plusWeeks(52));
+        dto.setJourDeSemaine(jour.getDayOfWeek().name());
+        dto.setHeureDebut(heureDebut);
+        dto.setDureeMinutes(60);
+        dto.setNombreDuplications(duplications);
+        dto.setPrix(30.0);
+        dto.setTerrainId(testTerrain.getId());
+        return dto;
+    }
+
+    private List<Creneau> duJour() {
+        return creneauService.getCreneauxDisponiblesParClub(testClub.getId(), jour.toString(), null);
+    }
+
+    @Nested
+    @DisplayName("Créneaux virtuels")
+    class VirtuelsTests {
+
+        @Test
+        @DisplayName("creer - aucune ligne Creneau, occurrences calculées à la lecture")
+        void creer_shouldExpandLazily() {
+            long avant = creneauRepository.count();
+
+            RegleCreneauDto dto = regleCreneauService.creer(regle(LocalTime.of(18, 0), 3), authClub);
+
+            assertThat(creneauRepository.count()).isEqualTo(avant);
+            assertThat(duJour()).extracting(Creneau::getDateDebut)
+                    .containsExactly(jour.atTime(18, 0), jour.atTime(19, 0), jour.atTime(20, 0));
+            assertThat(duJour()).allMatch(c -> c.getId() == null && dto.id().equals(c.getRegleId()));
+            // Liste joueur : occurrences limitées à l'horizon (28 jours)
+            LocalDateTime horizon = LocalDateTime.now().plusDays(28);
+            assertThat(creneauService.getCreneauxDisponibles())
+                    .filteredOn(c -> dto.id().equals(c.getRegleId()))
+                    .extracting(Creneau::getDateDebut)
+                    .contains(jour.atTime(18, 0), jour.plusWeeks(2).atTime(20, 0))
+                    .allMatch(debut -> debut.isBefore(horizon));
+        }
+
+        @Test
+        @DisplayName("reserverOccurrence - matérialise l'occurrence, qui n'est plus proposée")
+        void reserverOccurrence_shouldMaterialize() {
+            RegleCreneauDto dto = regleCreneauService.creer(regle(LocalTime.of(18, 0), 3), authClub);
+
+            Reservation reservation = reservationService.reserverOccurrence(dto.id(), jour.atTime(19, 0), authJoueur);
+
+            Creneau creneau = reservation.getCreneau();
+            assertThat(creneau.getId()).isNotNull();
+            assertThat(creneau.getStatut()).isEqualTo(Statut.RESERVE);
+            assertThat(creneau.getPrix()).isEqualTo(30.0);
+            assertThat(duJour()).extracting(Creneau::getDateDebut)
+                    .containsExactly(jour.atTime(18, 0), jour.atTime(20, 0));
+
+            // Même occurrence : la ligne existante est retrouvée, pas de doublon
+            assertThat(regleCreneauService.materialiser(dto.id(), jour.atTime(19, 0)).getId())
+                    .isEqualTo(creneau.getId());
+        }
+
+        @Test
+        @DisplayName("materialiser - refuse une date que la règle ne produit pas")
+        void materialiser_shouldRejectForeignDate() {
+            RegleCreneauDto dto = regleCreneauService.creer(regle(LocalTime.of(18, 0), 3), authClub);
+
+            assertThatThrownBy(() -> regleCreneauService.materialiser(dto.id(), jour.atTime(18, 30)))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> regleCreneauService.materialiser(dto.id(), jour.plusDays(1).atTime(18, 0)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("creer - refuse une règle qui chevauche une autre règle du terrain")
+        void creer_shouldRejectOverlappingRule() {
+            regleCreneauService.creer(regle(LocalTime.of(18, 0), 3), authClub);
+
+            assertThatThrownBy(() -> regleCreneauService.creer(regle(LocalTime.of(20, 30), 1), authClub))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("chevauche");
+            assertThat(regleCreneauService.creer(regle(LocalTime.of(21, 0), 1), authClub).id()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("un créneau matérialisé existant masque l'occurrence qu'il recouvre")
+        void materialise_shouldHideOverlappingOccurrence() {
+            RegleCreneauDto dto = regleCreneauService.creer(regle(LocalTime.of(18, 0), 3), authClub);
+            Creneau existant = new Creneau();
+            existant.setTerrain(testTerrain);
+            existant.setDateDebut(jour.atTime(18, 30));
+            existant.setDateFin(jour.atTime(19, 30));
+            existant.setStatut(Statut.ANNULE);
+            existant.setDisponible(false);
+            creneauRepository.saveAndFlush(existant);
+
+            assertThat(duJour()).filteredOn(c -> dto.id().equals(c.getRegleId()))
+                    .extracting(Creneau::getDateDebut)
+                    .containsExactly(jour.atTime(20, 0));
+        }
+
+        @Test
+        @DisplayName("creer - refuse un second prix (réservé aux créneaux /recurrent)")
+        void creer_shouldRejectSecondPrix() {
+            CreneauRecurrentDto dto = regle(LocalTime.of(18, 0), 1);
+            dto.setSecondPrix(45.0);
+
+            assertThatThrownBy(() -> regleCreneauService.creer(dto, authClub))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("creneauxVirtuelsDuLieu - seules les règles des terrains de la ville et du sport sont dépliées")
+        void creneauxVirtuelsDuLieu_shouldFilterRulesInQuery() {
+            Terrain sansVille = terrain("Terrain 2", " ", "padel");
+            Terrain lyon = terrain("Terrain 3", "Lyon", "TENNIS");
+            RegleCreneauDto paris = regleCreneauService.creer(regle(LocalTime.of(18, 0), 1), authClub);
+            CreneauRecurrentDto dto = regle(LocalTime.of(18, 0), 1);
+            dto.setTerrainId(sansVille.getId());
+            RegleCreneauDto club = regleCreneauService.creer(dto, authClub);
+            dto.setTerrainId(lyon.getId());
+            RegleCreneauDto autreVille = regleCreneauService.creer(dto, authClub);
+            LocalDateTime from = jour.atStartOfDay();
+            LocalDateTime to = jour.plusDays(1).atStartOfDay();
+
+            assertThat(regleCreneauService.creneauxVirtuelsDuLieu("paris", "PADEL", from, to))
+                    .extracting(Creneau::getRegleId)
+                    .containsExactlyInAnyOrder(paris.id(), club.id());
+            assertThat(regleCreneauService.creneauxVirtuelsDuLieu("paris", "TENNIS", from, to)).isEmpty();
+            assertThat(regleCreneauService.creneauxVirtuelsDuLieu("lyon", null, from, to))
+                    .extracting(Creneau::getRegleId)
+                    .containsExactly(autreVille.id());
+            assertThat(regleCreneauService.creneauxVirtuelsDuLieu(null, "TENNIS", from, to))
+                    .extracting(Creneau::getRegleId)
+                    .containsExactly(autreVille.id());
+        }
+
+        private Terrain terrain(String nom, String ville, String sport) {
+            Terrain t = new Terrain();
+            t.setNomTerrain(nom);
+            t.setClub(testClub);
+            t.setVille(ville);
+            t.setSport(sport);
+            return terrainRepository.save(t);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.fieldz.integration;
+
+import com.fieldz.exception.CreneauDejaReserveException;
+import com.fieldz.model.*;
+import com.fieldz.repository.*;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.ReservationService;
+import com.fieldz.service.cluster.BusCluster;
+import com.fieldz.service.disponibilite.DisponibiliteIndex;
+import com.fieldz.service.disponibilite.DisponibiliteIndexLoader;
+import com.fieldz.service.disponibilite.CreneauSlot;
+import com.fieldz.service.disponibilite.CreneauxClubCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Réservations concurrentes sur un même créneau, conflits de version rejoués, et écritures
+ * faites par un autre noeud.
+ * Pas de @Transactional : chaque réservation committe dans sa propre transaction, comme en
+ * production ; les données sont supprimées après chaque test.
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class ReservationConcurrenceTest {
+
+    private static final int JOUEURS = 8;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private EvenementClusterRepository evenementClusterRepository;
+
+    // Espion : permet d'insérer une écriture concurrente entre la lecture du créneau et son flush
+    @MockitoSpyBean
+    private DisponibiliteIndex disponibiliteIndex;
+
+    @Autowired
+    private BusCluster busCluster;
+
+    @Autowired
+    private CreneauxClubCache creneauxClubCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private Club club;
+    private Terrain terrain;
+    private final List<Joueur> joueurs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            club = (Club) utilisateurRepository.save(Club.builder()
+                    .nom("Club Concurrence").email("club.concurrence@fieldz.com").motDePasse("$2a$10$test")
+                    .ville("Lyon").typeRole(Role.CLUB).sports(new HashSet<>(Set.of(Sport.PADEL))).build());
+            Terrain t = new Terrain();
+            t.setNomTerrain("Terrain Concurrence");
+            t.setClub(club);
+            t.setSport("PADEL");
+            terrain = terrainRepository.save(t);
+            for (int i = 0; i < JOUEURS; i++) {
+                joueurs.add((Joueur) utilisateurRepository.save(Joueur.builder()
+                        .nom("Concurrent").prenom("J" + i).email("joueur" + i + ".concurrence@fieldz.com")
+                        .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build()));
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            reservationRepository.deleteAll(reservationRepository.findByCreneau_TerrainId(terrain.getId()));
+            creneauRepository.deleteByTerrainId(terrain.getId());
+            terrainRepository.deleteById(terrain.getId());
+            utilisateurRepository.deleteAll(joueurs);
+            utilisateurRepository.deleteById(club.getId());
+        });
+        disponibiliteIndex.retirerTerrain(terrain.getId());
+        evenementClusterRepository.deleteAll();
+        joueurs.clear();
+    }
+
+    private Creneau creneauLibre() {
+        Creneau c = new Creneau();
+        c.setTerrain(terrain);
+        c.setDateDebut(LocalDateTime.now().plusDays(2).withNano(0));
+        c.setDateFin(c.getDateDebut().plusHours(1));
+        c.setPrix(30.0);
+        c.setStatut(Statut.LIBRE);
+        c.setDisponible(true);
+        return transactionTemplate.execute(status -> creneauRepository.save(c));
+    }
+
+    private static Authentication auth(Utilisateur u) {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn(u.getEmail());
+        return auth;
+    }
+
+    // Écriture faite par un autre noeud : directement en base, sans listener JPA local
+    private void ecrireAilleurs(Long creneauId, Statut statut) {
+        jdbcTemplate.update("UPDATE creneau SET statut = ?, disponible = ?, version = version + 1 WHERE id = ?",
+                statut.name(), statut == Statut.LIBRE, creneauId);
+    }
+
+    @Nested
+    @DisplayName("Même créneau, plusieurs joueurs")
+    class ConcurrenceTests {
+
+        @Test
+        @DisplayName("reserver - 8 joueurs en même temps : une seule réservation, 409 pour les autres")
+        void reserver_shouldLetExactlyOnePlayerWin() throws Exception {
+            Creneau creneau = creneauLibre();
+            CountDownLatch depart = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(JOUEURS);
+            List<Future<Boolean>> resultats = new ArrayList<>();
+            try {
+                for (Joueur j : joueurs) {
+                    Authentication auth = auth(j);
+                    resultats.add(pool.submit(() -> {
+                        depart.await();
+                        try {
+                            reservationService.reserver(creneau.getId(), auth);
+                            return true;
+                        } catch (CreneauDejaReserveException e) {
+                            return false;
+                        }
+                    }));
+                }
+                depart.countDown();
+                int gagnants = 0;
+                for (Future<Boolean> r : resultats) {
+                    if (r.get(30, TimeUnit.SECONDS)) gagnants++;
+                }
+                assertThat(gagnants).isEqualTo(1);
+            } finally {
+                pool.shutdownNow();
+            }
+
+            assertThat(reservationRepository.findByCreneau_TerrainId(terrain.getId())).hasSize(1);
+            assertThat(creneauRepository.findById(creneau.getId()).orElseThrow().getStatut()).isEqualTo(Statut.RESERVE);
+            assertThat(disponibiliteIndex.get(creneau.getId())).get()
+                    .extracting(CreneauSlot::statut).isEqualTo(Statut.RESERVE);
+        }
+    }
+
+    // Une écriture concurrente committée pendant la réservation, sur les {@code fois} premières tentatives
+    private AtomicInteger conflitsPendantReservation(Long creneauId, int fois) {
+        TransactionTemplate autre = new TransactionTemplate(transactionManager);
+        autre.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger tentatives = new AtomicInteger();
+        doAnswer(inv -> {
+            if (tentatives.incrementAndGet() <= fois) {
+                autre.executeWithoutResult(status -> jdbcTemplate.update(
+                        "UPDATE creneau SET version = version + 1 WHERE id = ?", creneauId));
+            }
+            return inv.callRealMethod();
+        }).when(disponibiliteIndex).reserver(any());
+        return tentatives;
+    }
+
+    private double compteur(String nom) {
+        return meterRegistry.counter(nom, "operation", "reserver").count();
+    }
+
+    @Nested
+    @DisplayName("Conflits de version")
+    class RetryTests {
+
+        @Test
+        @DisplayName("reserver - conflit à la première tentative : rejouée, réservation créée")
+        void reserver_shouldRetryOnVersionConflict() {
+            Creneau creneau = creneauLibre();
+            AtomicInteger tentatives = conflitsPendantReservation(creneau.getId(), 1);
+            double conflits = compteur("fieldz.reservation.conflits");
+            double retries = compteur("fieldz.reservation.retries");
+
+            Reservation r = reservationService.reserver(creneau.getId(), auth(joueurs.get(0)));
+
+            assertThat(r.getId()).isNotNull();
+            assertThat(tentatives).hasValue(2);
+            assertThat(compteur("fieldz.reservation.conflits")).isEqualTo(conflits + 1);
+            assertThat(compteur("fieldz.reservation.retries")).isEqualTo(retries + 1);
+        }
+
+        @Test
+        @DisplayName("reserver - conflit persistant : 3 tentatives puis 409, index et base inchangés")
+        void reserver_shouldGiveUpAfterMaxAttempts() {
+            Creneau creneau = creneauLibre();
+            AtomicInteger tentatives = conflitsPendantReservation(creneau.getId(), Integer.MAX_VALUE);
+            double conflits = compteur("fieldz.reservation.conflits");
+            double retries = compteur("fieldz.reservation.retries");
+
+            assertThatThrownBy(() -> reservationService.reserver(creneau.getId(), auth(joueurs.get(0))))
+                    .isInstanceOf(CreneauDejaReserveException.class)
+                    .hasMessage("Créneau déjà réservé");
+
+            assertThat(tentatives).hasValue(3);
+            assertThat(compteur("fieldz.reservation.conflits")).isEqualTo(conflits + 3);
+            assertThat(compteur("fieldz.reservation.retries")).isEqualTo(retries + 2);
+            assertThat(reservationRepository.findByCreneau_TerrainId(terrain.getId())).isEmpty();
+            assertThat(creneauRepository.findById(creneau.getId()).orElseThrow().getStatut()).isEqualTo(Statut.LIBRE);
+            // Compare-and-set annulé avec chaque transaction
+            assertThat(disponibiliteIndex.get(creneau.getId())).get()
+                    .extracting(CreneauSlot::estReservable).isEqualTo(true);
+        }
+    }
+
+    @Nested
+    @DisplayName("Écritures d'un autre noeud")
+    class AutreNoeudTests {
+
+        @Test
+        @DisplayName("recevoir - la réservation faite ailleurs arrive dans l'index par le bus")
+        void bus_shouldApplyRemoteBooking() {
+            Creneau creneau = creneauLibre();
+            ecrireAilleurs(creneau.getId(), Statut.RESERVE);
+            evenementClusterRepository.save(new EvenementCluster(null, DisponibiliteIndexLoader.CRENEAU,
+                    creneau.getId(), "autre-noeud", LocalDateTime.now()));
+
+            assertThat(busCluster.recevoir()).isEqualTo(1);
+            assertThat(disponibiliteIndex.get(creneau.getId())).get()
+                    .extracting(CreneauSlot::estReservable).isEqualTo(false);
+            // Déjà relevé : ignoré au passage suivant
+            assertThat(busCluster.recevoir()).isZero();
+        }
+
+        @Test
+        @DisplayName("cache par club - invalidation diffusée après le commit, appliquée à la relève")
+        void cacheClub_shouldBeInvalidatedAcrossNodes() {
+            creneauLibre();
+            assertThat(evenementClusterRepository.findAll())
+                    .anyMatch(e -> CreneauxClubCache.CACHE_CLUB.equals(e.getType()) && club.getId().equals(e.getCle()));
+
+            CreneauxClubCache.Cle cle = new CreneauxClubCache.Cle(club.getId(), null, null);
+            long generation = creneauxClubCache.generation(club.getId());
+            creneauxClubCache.put(cle, List.of(), generation);
+            evenementClusterRepository.save(new EvenementCluster(null, CreneauxClubCache.CACHE_CLUB,
+                    club.getId(), "autre-noeud", LocalDateTime.now()));
+
+            busCluster.recevoir();
+
+            assertThat(creneauxClubCache.get(cle)).isNull();
+            // Liste lue avant l'écriture distante : refusée
+            creneauxClubCache.put(cle, List.of(), generation);
+            assertThat(creneauxClubCache.get(cle)).isNull();
+        }
+
+        @Test
+        @DisplayName("reserver - index en retard (annulation ailleurs non relevée) : rattrapé par la version")
+        void reserver_shouldCatchUpStaleIndex() {
+            Creneau creneau = creneauLibre();
+            ecrireAilleurs(creneau.getId(), Statut.RESERVE);
+            disponibiliteIndex.synchroniser(creneauRepository.findById(creneau.getId()).orElseThrow());
+            // Annulée sur l'autre noeud, événement perdu
+            ecrireAilleurs(creneau.getId(), Statut.LIBRE);
+            assertThat(disponibiliteIndex.get(creneau.getId())).get()
+                    .extracting(CreneauSlot::estReservable).isEqualTo(false);
+
+            Reservation r = reservationService.reserver(creneau.getId(), auth(joueurs.get(0)));
+
+            assertThat(r.getId()).isNotNull();
+            assertThat(disponibiliteIndex.get(creneau.getId())).get()
+                    .extracting(CreneauSlot::statut).isEqualTo(Statut.RESERVE);
+        }
+    }
+
+    @Nested
+    @DisplayName("Emails en outbox")
+    class OutboxTests {
+
+        @Test
+        @DisplayName("reserver - mise en file de l'email en échec : réservation annulée avec elle")
+        void reserver_shouldRollBackWhenEmailCannotBeQueued() {
+            Creneau creneau = creneauLibre();
+            doThrow(new DataAccessResourceFailureException("email_outbox indisponible"))
+                    .when(notificationService).envoyerEmailAuClubReservation(any(), any(), any());
+
+            assertThatThrownBy(() -> reservationService.reserver(creneau.getId(), auth(joueurs.get(0))))
+                    .isInstanceOf(DataAccessResourceFailureException.class);
+
+            verify(notificationService).envoyerEmailConfirmationReservation(any(), any());
+            assertThat(reservationRepository.findByCreneau_TerrainId(terrain.getId())).isEmpty();
+            assertThat(creneauRepository.findById(creneau.getId()).orElseThrow().getStatut()).isEqualTo(Statut.LIBRE);
+            assertThat(disponibiliteIndex.get(creneau.getId())).get()
+                    .extracting(CreneauSlot::statut).isEqualTo(Statut.LIBRE);
+        }
+    }
+}
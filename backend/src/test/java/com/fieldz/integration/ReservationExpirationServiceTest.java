@@ -0,0 +1,150 @@
+package com.fieldz.integration;
+
+import com.fieldz.model.*;
+import com.fieldz.repository.*;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.ReservationExpirationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class ReservationExpirationServiceTest {
+
+    @Autowired
+    private ReservationExpirationService reservationExpirationService;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private NotificationEnvoyeeRepository notificationEnvoyeeRepository;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private Terrain testTerrain;
+
+    @BeforeEach
+    void setUp() {
+        Club club = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Club Expiration")
+                .email("club.expiration@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Paris")
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL)))
+                .build());
+
+        testTerrain = new Terrain();
+        testTerrain.setNomTerrain("Terrain Expiration");
+        testTerrain.setClub(club);
+        testTerrain.setVille("Paris");
+        testTerrain.setSport("PADEL");
+        testTerrain = terrainRepository.save(testTerrain);
+    }
+
+    private Creneau createCreneau(LocalDateTime debut) {
+        Creneau c = new Creneau();
+        c.setTerrain(testTerrain);
+        c.setDateDebut(debut);
+        c.setDateFin(debut.plusHours(1));
+        c.setStatut(Statut.RESERVE);
+        c.setDisponible(false);
+        c.setPrix(20.0);
+        return creneauRepository.saveAndFlush(c);
+    }
+
+    private Reservation createReservation(Creneau creneau, Joueur joueur, Statut statut) {
+        Reservation r = new Reservation();
+        r.setCreneau(creneau);
+        r.setJoueur(joueur);
+        r.setStatut(statut);
+        r.setDateReservation(LocalDateTime.now());
+        return reservationRepository.save(r);
+    }
+
+    @Nested
+    @DisplayName("Tests de l'expiration automatique des réservations")
+    class ExpirationTests {
+
+        @Test
+        @DisplayName("expirer - seules les RESERVE de plus de 24h passent en ABSENT")
+        void expirer_shouldOnlyExpireOverdueReserve() {
+            Joueur joueur = utilisateurRepository.save(Joueur.builder()
+                    .nom("Retard").prenom("Jo").email("retard@fieldz.com")
+                    .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+            LocalDateTime debut = LocalDateTime.now().minusDays(1);
+
+            Reservation ancienne = createReservation(createCreneau(debut), joueur, Statut.RESERVE);
+            ancienne.setDateReservation(LocalDateTime.now().minusHours(25));
+            Reservation recente = createReservation(createCreneau(debut.plusHours(2)), joueur, Statut.RESERVE);
+            Reservation confirmee = createReservation(createCreneau(debut.plusHours(4)), joueur, Statut.CONFIRMEE);
+            confirmee.setDateReservation(LocalDateTime.now().minusHours(30));
+            reservationRepository.saveAllAndFlush(List.of(ancienne, confirmee));
+
+            assertThat(reservationExpirationService.expirer()).isEqualTo(1);
+
+            Reservation expiree = reservationRepository.findById(ancienne.getId()).orElseThrow();
+            assertThat(expiree.getStatut()).isEqualTo(Statut.ABSENT);
+            assertThat(expiree.getDateAnnulation()).isNotNull();
+            assertThat(reservationRepository.findById(recente.getId()).orElseThrow().getStatut()).isEqualTo(Statut.RESERVE);
+            assertThat(reservationRepository.findById(confirmee.getId()).orElseThrow().getStatut()).isEqualTo(Statut.CONFIRMEE);
+            verify(notificationService, times(1)).notifierAbsenceAutomatique(any());
+            assertThat(notificationEnvoyeeRepository.findAll())
+                    .extracting(NotificationEnvoyee::getReservationId, NotificationEnvoyee::getType)
+                    .containsExactly(tuple(ancienne.getId(), NotificationService.ABSENCE_AUTO));
+
+            // Deuxième passage : plus rien à faire
+            assertThat(reservationExpirationService.expirer()).isZero();
+        }
+
+        @Test
+        @DisplayName("expirer - réservation déjà marquée par un autre noeud : ni notifiée ni comptée deux fois")
+        void expirer_shouldSkipRowsAlreadyMarkedByAnotherNode() {
+            Joueur joueur = utilisateurRepository.save(Joueur.builder()
+                    .nom("Retard").prenom("Jo").email("retard@fieldz.com")
+                    .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+            Reservation r = createReservation(createCreneau(LocalDateTime.now().minusDays(1)), joueur, Statut.RESERVE);
+            r.setDateReservation(LocalDateTime.now().minusHours(25));
+            reservationRepository.saveAndFlush(r);
+            // Marqueur de l'autre noeud, committé avec son UPDATE que le nôtre a attendu
+            notificationEnvoyeeRepository.saveAndFlush(
+                    new NotificationEnvoyee(null, r.getId(), NotificationService.ABSENCE_AUTO, LocalDateTime.now()));
+
+            assertThat(reservationExpirationService.expirer()).isZero();
+            verify(notificationService, never()).notifierAbsenceAutomatique(any());
+        }
+    }
+}
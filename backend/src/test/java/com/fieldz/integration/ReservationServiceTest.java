@@ -0,0 +1,225 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.FiltreReservations;
+import com.fieldz.dto.PageCurseur;
+import com.fieldz.dto.ReservationDto;
+import com.fieldz.model.*;
+import com.fieldz.repository.*;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class ReservationServiceTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private Terrain terrain;
+    private Joueur joueur;
+    private Authentication authClub;
+    private Authentication authJoueur;
+
+    @BeforeEach
+    void setUp() {
+        Club club = (Club) utilisateurRepository.save(Club.builder()
+                .nom("Club Pages")
+                .email("club.pages@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Paris")
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL)))
+                .build());
+
+        terrain = new Terrain();
+        terrain.setNomTerrain("Terrain Pages");
+        terrain.setClub(club);
+        terrain.setVille("Paris");
+        terrain.setSport("PADEL");
+        terrain = terrainRepository.save(terrain);
+
+        joueur = (Joueur) utilisateurRepository.save(Joueur.builder()
+                .nom("Page").prenom("Jo").email("joueur.pages@fieldz.com")
+                .motDePasse("$2a$10$test").typeRole(Role.JOUEUR).build());
+
+        authClub = mock(Authentication.class);
+        when(authClub.getName()).thenReturn("club.pages@fieldz.com");
+        authJoueur = mock(Authentication.class);
+        when(authJoueur.getName()).thenReturn("joueur.pages@fieldz.com");
+    }
+
+    private Reservation createReservation(LocalDateTime debut, Statut statut) {
+        Creneau c = new Creneau();
+        c.setTerrain(terrain);
+        c.setDateDebut(debut);
+        c.setDateFin(debut.plusHours(1));
+        c.setPrix(20.0);
+        c.setStatut(Statut.RESERVE);
+        c.setDisponible(false);
+        c = creneauRepository.save(c);
+
+        Reservation r = new Reservation();
+        r.setCreneau(c);
+        r.setJoueur(joueur);
+        r.setStatut(statut);
+        r.setDateReservation(LocalDateTime.now());
+        return reservationRepository.save(r);
+    }
+
+    @Nested
+    @DisplayName("Tests des listes paginées par clé")
+    class PaginationTests {
+
+        @Test
+        @DisplayName("pageReservationsDuClub - parcours complet par curseur, du plus récent au plus ancien")
+        void pageDuClub_shouldWalkAllPages() {
+            LocalDateTime base = LocalDate.now().plusDays(1).atTime(8, 0);
+            for (int i = 0; i < 5; i++) {
+                createReservation(base.plusHours(i), Statut.RESERVE);
+            }
+
+            List<ReservationDto> vues = new ArrayList<>();
+            String curseur = null;
+            int pages = 0;
+            do {
+                PageCurseur<ReservationDto> page = reservationService.pageReservationsDuClub(
+                        new FiltreReservations(null, null, null, curseur, 2), authClub);
+                vues.addAll(page.contenu());
+                curseur = page.curseurSuivant();
+                pages++;
+            } while (curseur != null);
+
+            assertThat(pages).isEqualTo(3);
+            assertThat(vues).extracting(r -> r.getCreneau().getDateDebut())
+                    .containsExactly(base.plusHours(4), base.plusHours(3), base.plusHours(2), base.plusHours(1), base);
+        }
+
+        @Test
+        @DisplayName("pageMesReservations - filtres statut et fenêtre de dates")
+        void pageDuJoueur_shouldApplyFilters() {
+            LocalDate demain = LocalDate.now().plusDays(1);
+            createReservation(demain.atTime(10, 0), Statut.CONFIRMEE);
+            createReservation(demain.atTime(12, 0), Statut.ANNULE_PAR_JOUEUR);
+            createReservation(demain.plusDays(7).atTime(10, 0), Statut.CONFIRMEE);
+
+            PageCurseur<ReservationDto> page = reservationService.pageMesReservations(
+                    new FiltreReservations(demain, demain, List.of(Statut.CONFIRMEE), null, 20), authJoueur);
+
+            assertThat(page.contenu()).hasSize(1);
+            assertThat(page.contenu().get(0).getCreneau().getDateDebut()).isEqualTo(demain.atTime(10, 0));
+            assertThat(page.curseurSuivant()).isNull();
+        }
+
+        @Test
+        @DisplayName("pageMesReservations - curseur illisible refusé")
+        void pageDuJoueur_shouldRejectInvalidCursor() {
+            assertThatThrownBy(() -> reservationService.pageMesReservations(
+                    new FiltreReservations(null, null, null, "pas-un-curseur", 20), authJoueur))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests des listes en projection")
+    class ProjectionTests {
+
+        @Test
+        @DisplayName("getReservationsAnnuleesPourJoueur - DTO complet, y compris sans créneau")
+        void annulees_shouldProjectDtos() {
+            LocalDateTime debut = LocalDate.now().plusDays(2).atTime(9, 0);
+            createReservation(debut, Statut.ANNULE_PAR_JOUEUR);
+            createReservation(debut.plusHours(1), Statut.RESERVE);
+
+            // Créneau déréférencé (terrain supprimé) : la réservation reste listée
+            Reservation orpheline = new Reservation();
+            orpheline.setJoueur(joueur);
+            orpheline.setStatut(Statut.ANNULE_PAR_CLUB);
+            orpheline.setDateReservation(LocalDateTime.now());
+            reservationRepository.save(orpheline);
+
+            List<ReservationDto> annulees = reservationService.getReservationsAnnuleesPourJoueur("joueur.pages@fieldz.com");
+
+            assertThat(annulees).extracting(ReservationDto::getStatut)
+                    .containsExactlyInAnyOrder("ANNULE_PAR_JOUEUR", "ANNULE_PAR_CLUB");
+            ReservationDto avecCreneau = annulees.stream().filter(r -> r.getCreneau() != null).findFirst().orElseThrow();
+            assertThat(avecCreneau.getCreneau().getDateDebut()).isEqualTo(debut);
+            assertThat(avecCreneau.getCreneau().getTerrain().getClub().getNom()).isEqualTo("Club Pages");
+            assertThat(avecCreneau.getJoueur().getEmail()).isEqualTo("joueur.pages@fieldz.com");
+        }
+    }
+
+    @Nested
+    @DisplayName("Clé de partitionnement (date du créneau)")
+    class PartitionTests {
+
+        @Test
+        @DisplayName("dateDebutCreneau - recopiée du créneau, date de réservation sans créneau")
+        void dateDebutCreneau_shouldFollowCreneau() {
+            LocalDateTime debut = LocalDate.now().plusDays(3).atTime(18, 0);
+            Reservation r = createReservation(debut, Statut.RESERVE);
+            reservationRepository.flush();
+            assertThat(r.getDateDebutCreneau()).isEqualTo(debut);
+
+            Reservation orpheline = new Reservation();
+            orpheline.setJoueur(joueur);
+            orpheline.setStatut(Statut.ANNULE_PAR_CLUB);
+            orpheline.setDateReservation(LocalDateTime.now().minusDays(1));
+            reservationRepository.saveAndFlush(orpheline);
+            assertThat(orpheline.getDateDebutCreneau()).isEqualTo(orpheline.getDateReservation());
+        }
+
+        @Test
+        @DisplayName("findUpcomingWithCreneauBetween - bornée aussi sur la clé de partition")
+        void rappels_shouldUsePartitionKey() {
+            LocalDateTime debut = LocalDateTime.now().plusHours(2).withNano(0);
+            Reservation r = createReservation(debut, Statut.RESERVE);
+            createReservation(debut.plusDays(1), Statut.RESERVE);
+            reservationRepository.flush();
+
+            assertThat(reservationRepository.findUpcomingWithCreneauBetween(
+                    debut.minusMinutes(5), debut.plusMinutes(5), Statut.RESERVE))
+                    .extracting(Reservation::getId)
+                    .containsExactly(r.getId());
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.fieldz.integration;
+
+import com.fieldz.dto.StatistiquesDto;
+import com.fieldz.dto.StatistiquesResumeDto;
+import com.fieldz.model.*;
+import com.fieldz.repository.*;
+import com.fieldz.dto.AgregatJourStatut;
+import com.fieldz.dto.UpdateCreneauRequest;
+import com.fieldz.service.CreneauService;
+import com.fieldz.service.NotificationService;
+import com.fieldz.service.StatistiquesService;
+import com.fieldz.service.statistiques.StatistiqueRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles("test")
+class StatistiquesServiceTest {
+
+    @Autowired
+    private StatistiquesService statistiquesService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private TerrainRepository terrainRepository;
+
+    @Autowired
+    private CreneauRepository creneauRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private StatistiqueRollupService rollupService;
+
+    @Autowired
+    private StatistiqueJournaliereRepository rollupRepository;
+
+    @Autowired
+    private CreneauService creneauService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private Club club;
+    private Terrain terrain;
+    private Authentication auth;
+
+    @BeforeEach
+    void setUp() {
+        club = Club.builder()
+                .nom("Club Stats")
+                .email("club.stats@fieldz.com")
+                .motDePasse("$2a$10$test")
+                .ville("Paris")
+                .typeRole(Role.CLUB)
+                .sports(new HashSet<>(Set.of(Sport.PADEL)))
+                .build();
+        club = (Club) utilisateurRepository.save(club);
+
+        terrain = new Terrain();
+        terrain.setNomTerrain("Terrain Stats");
+        terrain.setClub(club);
+        terrain.setVille("Paris");
+        terrain.setSport("PADEL");
+        terrain = terrainRepository.save(terrain);
+
+        auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn("club.stats@fieldz.com");
+    }
+
+    private Creneau createReservation(LocalDateTime debut, Statut statut, double prix) {
+        Creneau c = new Creneau();
+        c.setTerrain(terrain);
+        c.setDateDebut(debut);
+        c.setDateFin(debut.plusHours(1));
+        c.setPrix(prix);
+        c.setStatut(Statut.RESERVE);
+        c.setDisponible(false);
+        c = creneauRepository.save(c);
+
+        Reservation r = new Reservation();
+        r.setCreneau(c);
+        r.setStatut(statut);
+        r.setDateReservation(LocalDateTime.now());
+        r.setNomReservant("Test");
+        reservationRepository.save(r);
+        return c;
+    }
+
+    // Les données de test ne sont jamais commitées : on reconstruit le rollup comme le job nocturne
+    private void reconcilier() {
+        LocalDate today = LocalDate.now();
+        rollupService.reconcilier(today.withDayOfMonth(1).minusDays(7), today.plusMonths(1).plusDays(7));
+    }
+
+    @Nested
+    @DisplayName("Tests des statistiques agrégées")
+    class AgregatsTests {
+
+        @Test
+        @DisplayName("getStatistiquesJournalieres - compte par statut et revenu confirmé du jour")
+        void journalieres_shouldAggregateByStatut() {
+            LocalDate today = LocalDate.now();
+            createReservation(today.atTime(10, 0), Statut.RESERVE, 20.0);
+            createReservation(today.atTime(12, 0), Statut.CONFIRMEE, 30.0);
+            createReservation(today.atTime(14, 0), Statut.CONFIRMEE, 25.0);
+            // Lendemain : hors période journalière
+            createReservation(today.plusDays(1).atTime(10, 0), Statut.CONFIRMEE, 99.0);
+            reconcilier();
+
+            StatistiquesDto stats = statistiquesService.getStatistiquesJournalieres(auth);
+
+            assertThat(stats.getTotalReservations()).isEqualTo(3);
+            assertThat(stats.getReservationsReserve()).isEqualTo(1);
+            assertThat(stats.getRevenuConfirmee()).isEqualTo(55.0);
+        }
+
+        @Test
+        @DisplayName("getResume - les trois périodes sont cohérentes avec les appels unitaires")
+        void resume_shouldMatchIndividualPeriods() {
+            LocalDate today = LocalDate.now();
+            createReservation(today.atTime(9, 0), Statut.CONFIRMEE, 40.0);
+            createReservation(today.withDayOfMonth(1).atTime(9, 0), Statut.RESERVE, 10.0);
+            reconcilier();
+
+            StatistiquesResumeDto resume = statistiquesService.getResume(auth);
+
+            assertThat(resume.getJournalieres()).isEqualTo(statistiquesService.getStatistiquesJournalieres(auth));
+            assertThat(resume.getHebdomadaires()).isEqualTo(statistiquesService.getStatistiquesHebdomadaires(auth));
+            assertThat(resume.getMensuelles()).isEqualTo(statistiquesService.getStatistiquesMensuelles(auth));
+            assertThat(resume.getMensuelles().getTotalReservations()).isGreaterThanOrEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("getStatistiquesJournalieres - taux d'occupation sur les horaires d'ouverture")
+        void journalieres_shouldComputeOccupancy() {
+            club.setHeureOuverture(LocalTime.of(8, 0));
+            club.setHeureFermeture(LocalTime.of(12, 0));
+            utilisateurRepository.save(club);
+
+            LocalDate today = LocalDate.now();
+            createReservation(today.atTime(8, 0), Statut.CONFIRMEE, 30.0);
+            createReservation(today.atTime(10, 0), Statut.ANNULE_PAR_JOUEUR, 30.0);
+            reconcilier();
+
+            StatistiquesDto stats = statistiquesService.getStatistiquesJournalieres(auth);
+
+            // 60 minutes occupées sur 4h d'ouverture x 1 terrain
+            assertThat(stats.getMinutesReservees()).isEqualTo(60);
+            assertThat(stats.getTauxOccupation()).isEqualTo(0.25);
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de la réconciliation")
+    class ReconciliationTests {
+
+        private StatistiqueJournaliere ligne(LocalDate jour, Statut statut, long nombre) {
+            return rollupRepository.saveAndFlush(StatistiqueJournaliere.builder()
+                    .clubId(club.getId()).terrainId(terrain.getId()).jour(jour).statut(statut)
+                    .nombre(nombre).revenu(999.0).minutesReservees(999).build());
+        }
+
+        @Test
+        @DisplayName("reconcilier - ligne existante corrigée en place, ligne sans réservation supprimée")
+        void reconcilier_shouldUpdateInPlaceAndDeleteOrphans() {
+            LocalDate jour = LocalDate.now().plusDays(3);
+            createReservation(jour.atTime(10, 0), Statut.CONFIRMEE, 30.0);
+            createReservation(jour.atTime(14, 0), Statut.CONFIRMEE, 20.0);
+            StatistiqueJournaliere fausse = ligne(jour, Statut.CONFIRMEE, 7);
+            StatistiqueJournaliere orpheline = ligne(jour, Statut.ANNULE_PAR_CLUB, 1);
+
+            int lignes = rollupService.reconcilier(jour, jour.plusDays(1));
+
+            assertThat(lignes).isEqualTo(1);
+            StatistiqueJournaliere corrigee = rollupRepository.findById(fausse.getId()).orElseThrow();
+            assertThat(corrigee.getNombre()).isEqualTo(2);
+            assertThat(corrigee.getRevenu()).isEqualTo(50.0);
+            assertThat(corrigee.getMinutesReservees()).isEqualTo(120);
+            assertThat(rollupRepository.findById(orpheline.getId())).isEmpty();
+        }
+    }
+
+    // Hors transaction de test : le rollup incrémental n'est appliqué qu'après un vrai commit
+    @Nested
+    @DisplayName("Tests du rollup incrémental")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class IncrementalTests {
+
+        @AfterEach
+        void tearDown() {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Creneau c : creneauRepository.findByTerrainIdFetchTerrainAndClub(terrain.getId())) {
+                    reservationRepository.deleteAll(reservationRepository.findByCreneauId(c.getId()));
+                    creneauRepository.delete(c);
+                }
+                terrainRepository.deleteById(terrain.getId());
+                utilisateurRepository.deleteById(club.getId());
+            });
+            rollupRepository.deleteAll(rollupRepository.findAll().stream()
+                    .filter(s -> s.getClubId().equals(club.getId())).toList());
+        }
+
+        private List<AgregatJourStatut> totaux(LocalDate jour) {
+            return rollupRepository.sommesParJourEtStatut(club.getId(), jour, jour.plusDays(1)).stream()
+                    .filter(a -> a.nombre() != 0).toList();
+        }
+
+        @Test
+        @DisplayName("changement de statut - la réservation passe d'un total de statut à l'autre")
+        void statut_shouldMoveContributionBetweenStatuts() {
+            LocalDate jour = LocalDate.now().plusDays(3);
+            Creneau c = createReservation(jour.atTime(10, 0), Statut.CONFIRMEE, 30.0);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                Reservation r = reservationRepository.findByCreneauId(c.getId()).get(0);
+                r.setStatut(Statut.ANNULE_PAR_CLUB);
+            });
+
+            assertThat(totaux(jour)).containsExactly(new AgregatJourStatut(jour, Statut.ANNULE_PAR_CLUB, 1L, 30.0, 60L));
+        }
+
+        @Test
+        @DisplayName("updateCreneau - créneau réservé déplacé et repricé : son total quitte l'ancien jour pour le nouveau")
+        void updateCreneau_shouldMoveRollupContribution() {
+            LocalDate jour = LocalDate.now().plusDays(3);
+            Creneau c = createReservation(jour.atTime(10, 0), Statut.CONFIRMEE, 30.0);
+            assertThat(totaux(jour)).containsExactly(new AgregatJourStatut(jour, Statut.CONFIRMEE, 1L, 30.0, 60L));
+
+            UpdateCreneauRequest req = new UpdateCreneauRequest();
+            req.setDateDebut(jour.plusDays(1).atTime(18, 0));
+            req.setDateFin(jour.plusDays(1).atTime(19, 30));
+            req.setPrix(45.0);
+            creneauService.updateCreneau(c.getId(), req, auth);
+
+            assertThat(totaux(jour)).isEmpty();
+            assertThat(totaux(jour.plusDays(1)))
+                    .containsExactly(new AgregatJourStatut(jour.plusDays(1), Statut.CONFIRMEE, 1L, 45.0, 90L));
+        }
+    }
+}
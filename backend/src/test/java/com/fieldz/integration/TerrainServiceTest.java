@@ -1,5 +1,6 @@
 package com.fieldz.integration;
 
+import com.fieldz.dto.TerrainDto;
 import com.fieldz.dto.UpdateTerrainRequest;
 import com.fieldz.model.*;
 import com.fieldz.repository.*;
@@ -98,7 +99,7 @@ class TerrainServiceTest {
             createTerrain(testClub, "Terrain Paris 2", "Paris", "PADEL");
             createTerrain(testClub2, "Terrain Lyon", "Lyon", "TENNIS");
 
-            List<Terrain> result = terrainService.getTerrainsParVille("Paris");
+            List<TerrainDto> result = terrainService.getTerrainsParVille("Paris");
 
             assertThat(result).hasSize(2);
             assertThat(result).allMatch(t -> t.getVille().equals("Paris"));
@@ -109,7 +110,7 @@ class TerrainServiceTest {
         void getTerrainsParVille_shouldBeCaseInsensitive() {
             createTerrain(testClub, "Terrain Test", "Paris", "PADEL");
 
-            List<Terrain> result = terrainService.getTerrainsParVille("PARIS");
+            List<TerrainDto> result = terrainService.getTerrainsParVille("PARIS");
 
             assertThat(result).hasSize(1);
         }
@@ -131,7 +132,7 @@ class TerrainServiceTest {
             createTerrain(testClub, "Terrain 2", "Paris Centre", "PADEL");
             createTerrain(testClub2, "Terrain 3", "Lyon", "TENNIS");
 
-            List<Terrain> result = terrainService.searchVilleContient("par");
+            List<TerrainDto> result = terrainService.searchVilleContient("par");
 
             assertThat(result).hasSize(2);
             assertThat(result).allMatch(t -> t.getVille().toLowerCase().contains("par"));
@@ -144,7 +145,7 @@ class TerrainServiceTest {
             createTerrain(testClub2, "Terrain Lyon", "Lyon", "TENNIS");
             createTerrain(testClub, "Terrain Marseille", "Marseille", "PADEL");
 
-            List<Terrain> result = terrainService.getTerrainsParVillesCsv("Paris,Lyon");
+            List<TerrainDto> result = terrainService.getTerrainsParVillesCsv("Paris,Lyon");
 
             assertThat(result).hasSize(2);
         }
@@ -154,7 +155,7 @@ class TerrainServiceTest {
         void getTerrainsParVillesCsv_shouldHandleSpacesAndDuplicates() {
             createTerrain(testClub, "Terrain Paris", "Paris", "PADEL");
 
-            List<Terrain> result = terrainService.getTerrainsParVillesCsv(" Paris , paris , PARIS ");
+            List<TerrainDto> result = terrainService.getTerrainsParVillesCsv(" Paris , paris , PARIS ");
 
             assertThat(result).hasSize(1);
         }
@@ -176,7 +177,7 @@ class TerrainServiceTest {
             req.setNomTerrain("Nouveau Nom");
             req.setTypeSurface("Gazon synthétique");
 
-            Terrain updated = terrainService.updateTerrain(terrain.getId(), req, auth);
+            TerrainDto updated = terrainService.updateTerrain(terrain.getId(), req, auth);
 
             assertThat(updated.getNomTerrain()).isEqualTo("Nouveau Nom");
             assertThat(updated.getTypeSurface()).isEqualTo("Gazon synthétique");
@@ -311,7 +312,7 @@ class TerrainServiceTest {
             newTerrain.setSport("PADEL");
             newTerrain.setTypeSurface("Béton");
 
-            Terrain saved = terrainService.ajouterTerrain(newTerrain, auth);
+            TerrainDto saved = terrainService.ajouterTerrain(newTerrain, auth);
 
             assertThat(saved.getId()).isNotNull();
             assertThat(saved.getClub().getId()).isEqualTo(testClub.getId());